@@ -2,8 +2,11 @@
 
 import com.appointment.service.appointmentservice.dto.AppointmentRequestDTO;
 import com.appointment.service.appointmentservice.dto.AppointmentResponseDTO;
+import com.appointment.service.appointmentservice.dto.AvailableSlotDTO;
+import com.appointment.service.appointmentservice.exception.ServiceBusyException;
 import com.appointment.service.appointmentservice.model.Appointment;
 import com.appointment.service.appointmentservice.service.AppointmentService;
+import com.appointment.service.appointmentservice.service.AvailabilityService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -11,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +27,9 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
     /**
      * Health check endpoint (no authentication required)
      */
@@ -79,6 +86,8 @@ public class AppointmentController {
         try {
             AppointmentResponseDTO responseDTO = appointmentService.updateAppointment(id, requestDTO);
             return new ResponseEntity<>(responseDTO, HttpStatus.OK);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -92,6 +101,8 @@ public class AppointmentController {
         try {
             appointmentService.deleteAppointment(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -201,16 +212,55 @@ public class AppointmentController {
      */
     @GetMapping("/conflict/doctor/{doctorId}")
     public ResponseEntity<Boolean> hasSchedulingConflict(@PathVariable Long doctorId, 
-                                                        @RequestParam String dateTime) {
+                                                        @RequestParam String dateTime,
+                                                        @RequestParam(defaultValue = "15") int durationMinutes) {
         try {
             LocalDateTime appointmentDateTime = LocalDateTime.parse(dateTime);
-            boolean hasConflict = appointmentService.hasSchedulingConflict(doctorId, appointmentDateTime);
+            boolean hasConflict = appointmentService.hasSchedulingConflict(doctorId, appointmentDateTime, durationMinutes);
             return new ResponseEntity<>(hasConflict, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
 
+    /**
+     * Find the next free slots of a doctor
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<List<AvailableSlotDTO>> getAvailability(@RequestParam Long doctorId,
+                                                                  @RequestParam(required = false) String from,
+                                                                  @RequestParam(required = false) String to,
+                                                                  @RequestParam int duration,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(doctorId,
+                    from == null ? null : LocalDateTime.parse(from),
+                    to == null ? null : LocalDateTime.parse(to), duration, limit);
+            return new ResponseEntity<>(slots, HttpStatus.OK);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Find the next free slots across several doctors, earliest first
+     */
+    @GetMapping("/availability/doctors")
+    public ResponseEntity<List<AvailableSlotDTO>> getAvailabilityForDoctors(@RequestParam List<Long> doctorIds,
+                                                                            @RequestParam(required = false) String from,
+                                                                            @RequestParam(required = false) String to,
+                                                                            @RequestParam int duration,
+                                                                            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(doctorIds,
+                    from == null ? null : LocalDateTime.parse(from),
+                    to == null ? null : LocalDateTime.parse(to), duration, limit);
+            return new ResponseEntity<>(slots, HttpStatus.OK);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * Reschedule appointment
      */
@@ -221,6 +271,8 @@ public class AppointmentController {
             LocalDateTime newDate = LocalDateTime.parse(newDateTime);
             AppointmentResponseDTO responseDTO = appointmentService.rescheduleAppointment(id, newDate);
             return new ResponseEntity<>(responseDTO, HttpStatus.OK);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
@@ -234,6 +286,8 @@ public class AppointmentController {
         try {
             AppointmentResponseDTO responseDTO = appointmentService.cancelAppointment(id);
             return new ResponseEntity<>(responseDTO, HttpStatus.OK);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -248,6 +302,8 @@ public class AppointmentController {
         try {
             AppointmentResponseDTO responseDTO = appointmentService.completeAppointment(id, notes);
             return new ResponseEntity<>(responseDTO, HttpStatus.OK);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -0,0 +1,50 @@
+package com.appointment.service.appointmentservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public class AvailableSlotDTO {
+
+    private Long doctorId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime start;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime end;
+
+    // Constructors
+    public AvailableSlotDTO() {}
+
+    public AvailableSlotDTO(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        this.doctorId = doctorId;
+        this.start = start;
+        this.end = end;
+    }
+
+    // Getters and Setters
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public void setEnd(LocalDateTime end) {
+        this.end = end;
+    }
+}
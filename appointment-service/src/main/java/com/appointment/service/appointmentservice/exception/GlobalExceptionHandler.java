@@ -1,5 +1,6 @@
 package com.appointment.service.appointmentservice.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -13,6 +14,8 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     @ExceptionHandler(AppointmentNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleAppointmentNotFoundException(AppointmentNotFoundException ex) {
         Map<String, String> error = new HashMap<>();
@@ -29,6 +32,24 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Map<String, String>> handleServiceBusyException(ServiceBusyException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Service Busy");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(error);
+    }
+
+    @ExceptionHandler(ServiceTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleServiceTimeoutException(ServiceTimeoutException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Gateway Timeout");
+        error.put("message", ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, Object> response = new HashMap<>();
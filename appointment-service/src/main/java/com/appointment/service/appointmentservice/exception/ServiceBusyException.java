@@ -0,0 +1,15 @@
+package com.appointment.service.appointmentservice.exception;
+
+/**
+ * The request could not get a shared resource in time; the client should retry after a short wait
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
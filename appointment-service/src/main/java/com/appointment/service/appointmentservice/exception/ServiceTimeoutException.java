@@ -0,0 +1,15 @@
+package com.appointment.service.appointmentservice.exception;
+
+/**
+ * A service this request depends on did not answer within its deadline
+ */
+public class ServiceTimeoutException extends RuntimeException {
+
+    public ServiceTimeoutException(String message) {
+        super(message);
+    }
+
+    public ServiceTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
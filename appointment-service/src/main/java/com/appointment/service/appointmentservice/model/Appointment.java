@@ -8,7 +8,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        // Range loads of the conflict index (one doctor or patient, one day)
+        @Index(name = "idx_appointments_doctor_datetime", columnList = "doctor_id, appointment_datetime"),
+        @Index(name = "idx_appointments_patient_datetime", columnList = "patient_id, appointment_datetime")
+})
 public class Appointment {
 
     @Id
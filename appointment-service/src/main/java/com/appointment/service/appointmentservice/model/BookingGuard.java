@@ -0,0 +1,57 @@
+package com.appointment.service.appointmentservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Database lock row for one booking lock stripe (see BookingLockManager)
+ * Writers lock it FOR UPDATE and bump the stamp, which tells other instances their cached days are stale.
+ */
+@Entity
+@Table(name = "booking_guards")
+public class BookingGuard {
+
+    @Id
+    @Column(name = "stripe")
+    private Integer stripe;
+
+    @Column(name = "stamp", nullable = false)
+    private long stamp;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public BookingGuard() {}
+
+    public BookingGuard(Integer stripe) {
+        this.stripe = stripe;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Integer getStripe() {
+        return stripe;
+    }
+
+    public void setStripe(Integer stripe) {
+        this.stripe = stripe;
+    }
+
+    public long getStamp() {
+        return stamp;
+    }
+
+    public void setStamp(long stamp) {
+        this.stamp = stamp;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
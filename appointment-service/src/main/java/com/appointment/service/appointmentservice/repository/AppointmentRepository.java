@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,6 +70,24 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     Optional<Appointment> findByDoctorIdAndAppointmentDateTime(@Param("doctorId") Long doctorId, 
                                                               @Param("appointmentDateTime") LocalDateTime appointmentDateTime);
 
+    // Slots of a doctor starting in [from, to), for the conflict index (skips the given statuses)
+    @Query("SELECT a.id AS id, a.appointmentDateTime AS appointmentDateTime, a.durationMinutes AS durationMinutes " +
+           "FROM Appointment a WHERE a.doctorId = :doctorId AND a.appointmentDateTime >= :from " +
+           "AND a.appointmentDateTime < :to AND a.status NOT IN :excludedStatuses ORDER BY a.appointmentDateTime ASC")
+    List<BookedSlot> findDoctorSlots(@Param("doctorId") Long doctorId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("excludedStatuses") Collection<AppointmentStatus> excludedStatuses);
+
+    // Slots of a patient starting in [from, to), for the conflict index (skips the given statuses)
+    @Query("SELECT a.id AS id, a.appointmentDateTime AS appointmentDateTime, a.durationMinutes AS durationMinutes " +
+           "FROM Appointment a WHERE a.patientId = :patientId AND a.appointmentDateTime >= :from " +
+           "AND a.appointmentDateTime < :to AND a.status NOT IN :excludedStatuses ORDER BY a.appointmentDateTime ASC")
+    List<BookedSlot> findPatientSlots(@Param("patientId") Long patientId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("excludedStatuses") Collection<AppointmentStatus> excludedStatuses);
+
     // Find appointments by doctor and date (for daily schedule)
     @Query("SELECT a FROM Appointment a WHERE a.doctorId = :doctorId AND DATE(a.appointmentDateTime) = DATE(:appointmentDate) ORDER BY a.appointmentDateTime ASC")
     List<Appointment> findByDoctorIdAndDate(@Param("doctorId") Long doctorId, 
@@ -94,4 +113,13 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     // Find appointments by patient and notes
     @Query("SELECT a FROM Appointment a WHERE a.patientId = :patientId AND a.notes IS NOT NULL AND a.notes != '' ORDER BY a.appointmentDateTime DESC")
     List<Appointment> findByPatientIdAndNotesNotNull(@Param("patientId") Long patientId);
+
+    // Start and length of a booked appointment
+    interface BookedSlot {
+        Long getId();
+
+        LocalDateTime getAppointmentDateTime();
+
+        Integer getDurationMinutes();
+    }
 }
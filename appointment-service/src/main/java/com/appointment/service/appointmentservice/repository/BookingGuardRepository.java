@@ -0,0 +1,16 @@
+package com.appointment.service.appointmentservice.repository;
+
+import com.appointment.service.appointmentservice.model.BookingGuard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookingGuardRepository extends JpaRepository<BookingGuard, Integer> {
+
+    // Stripes that already have a guard row
+    @Query("SELECT g.stripe FROM BookingGuard g")
+    List<Integer> findAllStripes();
+}
@@ -0,0 +1,364 @@
+package com.appointment.service.appointmentservice.schedule;
+
+import com.appointment.service.appointmentservice.model.Appointment.AppointmentStatus;
+import com.appointment.service.appointmentservice.repository.AppointmentRepository;
+import com.appointment.service.appointmentservice.repository.AppointmentRepository.BookedSlot;
+import com.appointment.service.appointmentservice.schedule.ScheduleKey.Owner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory interval index of booked time, per doctor and per patient and day
+ * Each day holds the committed, slot-occupying appointments (everything but CANCELLED and NO_SHOW) that
+ * start on it, as arrays sorted by start. Because no appointment is longer than MAX_DURATION_MINUTES,
+ * an overlap query only has to walk back from the last appointment starting before the requested end
+ * until starts are more than that far before the requested start. Days are loaded lazily with one
+ * range query and kept coherent by applying each committed change to the days it touches. Loads run
+ * outside the map: every applied change bumps a version counter for its key's slot, and a load is only
+ * cached if that version did not move while it ran (otherwise it answers the one caller uncached).
+ * For free-slot search a day also renders, once, a bitmap of the 5-minute ticks its appointments cover.
+ * Days also carry the booking guard stamp they were loaded at, so a writer holding the guard can
+ * tell whether another instance changed the day since (see BookingLockManager). Reads outside a guard
+ * (free-slot search, pre-checks) cannot, so a day not confirmed against the database for refresh-after
+ * (by a load or a guarded write) is reloaded on its next read; that bounds how long other instances'
+ * bookings stay invisible there.
+ */
+@Component
+public class AppointmentIntervalIndex {
+
+    // Longest appointment the entity accepts (Appointment.durationMinutes @Max)
+    public static final int MAX_DURATION_MINUTES = 240;
+    private static final long MAX_DURATION_SECONDS = MAX_DURATION_MINUTES * 60L;
+
+    // Resolution of the busy-tick bitmaps
+    public static final int TICK_MINUTES = 5;
+    public static final int TICKS_PER_DAY = 24 * 60 / TICK_MINUTES;
+    private static final long TICK_SECONDS = TICK_MINUTES * 60L;
+    // Ticks past midnight an appointment starting on a day can still cover
+    private static final int SPILL_TICKS = MAX_DURATION_MINUTES / TICK_MINUTES;
+
+    // Stamp of days loaded outside a booking guard (never equal to a guard stamp)
+    private static final long UNSTAMPED = -1;
+
+    // Slots of the per-key change versions (power of two)
+    private static final int VERSION_SLOTS = 1024;
+
+    private static final List<AppointmentStatus> FREE_STATUSES =
+            List.of(AppointmentStatus.CANCELLED, AppointmentStatus.NO_SHOW);
+
+    private final AppointmentRepository appointmentRepository;
+    private final int maxCachedDays;
+    private final long refreshAfterNanos;
+    private final ConcurrentHashMap<ScheduleKey, DaySchedule> days = new ConcurrentHashMap<>();
+    // Bumped before a committed change is applied to a key hashing to the slot
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_SLOTS);
+
+    public AppointmentIntervalIndex(AppointmentRepository appointmentRepository,
+                                    @Value("${appointment.conflict-index.max-cached-days:20000}") int maxCachedDays,
+                                    @Value("${appointment.conflict-index.refresh-after:PT30S}") Duration refreshAfter) {
+        this.appointmentRepository = appointmentRepository;
+        this.maxCachedDays = maxCachedDays;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+    }
+
+    /**
+     * Id of a doctor's appointment overlapping [start, start + duration), or null if the time is free
+     * @param excludeId appointment being moved (never conflicts with itself), or null
+     */
+    public Long findDoctorConflict(Long doctorId, LocalDateTime start, int durationMinutes, Long excludeId) {
+        return findConflict(Owner.DOCTOR, doctorId, start, durationMinutes, excludeId);
+    }
+
+    /**
+     * Id of a patient's appointment overlapping [start, start + duration), or null if the time is free
+     */
+    public Long findPatientConflict(Long patientId, LocalDateTime start, int durationMinutes, Long excludeId) {
+        return findConflict(Owner.PATIENT, patientId, start, durationMinutes, excludeId);
+    }
+
+    /**
+     * Bitmap of a doctor's day in TICK_MINUTES ticks (bit i = [i, i + 1) ticks after midnight); a tick is
+     * set when any booked appointment overlaps it, including ones from the day before running past midnight
+     * @return a fresh BitSet the caller may modify
+     */
+    public BitSet doctorBusyTicks(Long doctorId, LocalDate day) {
+        BitSet busy = schedule(new ScheduleKey(Owner.DOCTOR, doctorId, day)).busyTicks().get(0, TICKS_PER_DAY);
+        busy.or(schedule(new ScheduleKey(Owner.DOCTOR, doctorId, day.minusDays(1))).busyTicks()
+                .get(TICKS_PER_DAY, TICKS_PER_DAY + SPILL_TICKS));
+        return busy;
+    }
+
+    /**
+     * Record an appointment change once the current transaction commits (immediately without one)
+     * @param before booking before the change, or null for a new appointment
+     * @param after booking after the change, or null for a deleted appointment
+     */
+    public void bookingChanged(Booking before, Booking after) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(before, after);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(before, after);
+            }
+        });
+    }
+
+    /**
+     * Called under the day's guard lock: keep the loaded day if it was loaded at a stamp in
+     * [validSince, stamp] (no other instance has written since), reload it otherwise
+     */
+    public void syncStamp(ScheduleKey key, long validSince, long stamp) {
+        DaySchedule current = days.get(key);
+        if (current != null && current.stamp >= validSince && current.stamp <= stamp) {
+            return;
+        }
+        // Changes to this day are applied under the same guard, so none can land during the load;
+        // an unguarded load published meanwhile is unstamped and loses to this one
+        DaySchedule loaded = load(key).withStamp(stamp, System.nanoTime());
+        days.merge(key, loaded, (existing, fresh) -> existing.stamp >= validSince && existing.stamp <= stamp
+                ? existing : fresh);
+    }
+
+    /**
+     * Advance loaded days to the stamps just committed with their guards (still under the guard lock)
+     */
+    public void stampsCommitted(Map<ScheduleKey, Long> stamps) {
+        // Checked against the guard when the write began and held since, so the day matches the database
+        long now = System.nanoTime();
+        stamps.forEach((key, stamp) -> days.computeIfPresent(key, (k, schedule) -> schedule.withStamp(stamp, now)));
+    }
+
+    /**
+     * Drop every loaded day; they are reloaded on demand
+     */
+    public void clear() {
+        days.clear();
+    }
+
+    private Long findConflict(Owner owner, Long ownerId, LocalDateTime start, int durationMinutes, Long excludeId) {
+        if (ownerId == null || start == null || durationMinutes <= 0) {
+            return null;
+        }
+        long from = seconds(start);
+        long to = from + durationMinutes * 60L;
+        // Earlier days only matter for appointments running past midnight
+        LocalDate lastDay = ScheduleKey.lastDayChecked(start, durationMinutes);
+        for (LocalDate day = ScheduleKey.firstDayChecked(start); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            Long conflict = schedule(new ScheduleKey(owner, ownerId, day)).findOverlap(from, to, excludeId);
+            if (conflict != null) {
+                return conflict;
+            }
+        }
+        return null;
+    }
+
+    private DaySchedule schedule(ScheduleKey key) {
+        DaySchedule schedule = days.get(key);
+        if (schedule != null && isFresh(schedule)) {
+            return schedule;
+        }
+        if (schedule == null && days.size() >= maxCachedDays) {
+            trim();
+        }
+        int slot = versionSlot(key);
+        long version = versions.get(slot);
+        DaySchedule loaded = load(key);
+        // A change that committed after the load's query bumped the version before it was applied: if the
+        // version still matches inside compute, that change's computeIfPresent runs after this insert.
+        // Otherwise the load is not cached, and an expired copy is dropped rather than kept.
+        DaySchedule published = days.compute(key, (k, current) -> current != null && isFresh(current)
+                ? current : versions.get(slot) == version ? loaded : null);
+        return published != null ? published : loaded;
+    }
+
+    private boolean isFresh(DaySchedule schedule) {
+        return System.nanoTime() - schedule.checkedAt < refreshAfterNanos;
+    }
+
+    private static int versionSlot(ScheduleKey key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (VERSION_SLOTS - 1);
+    }
+
+    private DaySchedule load(ScheduleKey key) {
+        LocalDateTime from = key.day().atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        List<BookedSlot> slots = key.owner() == Owner.DOCTOR
+                ? appointmentRepository.findDoctorSlots(key.ownerId(), from, to, FREE_STATUSES)
+                : appointmentRepository.findPatientSlots(key.ownerId(), from, to, FREE_STATUSES);
+
+        long[] ids = new long[slots.size()];
+        long[] starts = new long[slots.size()];
+        long[] ends = new long[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            BookedSlot slot = slots.get(i);
+            ids[i] = slot.getId();
+            starts[i] = seconds(slot.getAppointmentDateTime());
+            ends[i] = starts[i] + slot.getDurationMinutes() * 60L;
+        }
+        return new DaySchedule(ids, starts, ends, UNSTAMPED, seconds(from), System.nanoTime());
+    }
+
+    // Past days go first; if that is not enough everything is dropped and reloaded on demand
+    private void trim() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(key -> key.day().isBefore(today));
+        if (days.size() >= maxCachedDays) {
+            days.clear();
+        }
+    }
+
+    private void apply(Booking before, Booking after) {
+        if (before != null && before.occupiesTime()) {
+            LocalDate day = before.start().toLocalDate();
+            update(new ScheduleKey(Owner.DOCTOR, before.doctorId(), day), s -> s.without(before.id()));
+            update(new ScheduleKey(Owner.PATIENT, before.patientId(), day), s -> s.without(before.id()));
+        }
+        if (after != null && after.occupiesTime()) {
+            LocalDate day = after.start().toLocalDate();
+            long start = seconds(after.start());
+            long end = start + after.durationMinutes() * 60L;
+            update(new ScheduleKey(Owner.DOCTOR, after.doctorId(), day), s -> s.with(after.id(), start, end));
+            update(new ScheduleKey(Owner.PATIENT, after.patientId(), day), s -> s.with(after.id(), start, end));
+        }
+    }
+
+    // Days not loaded yet pick the change up from the database when they are; the version bump keeps a load
+    // running right now from caching a copy without it (applying a change is idempotent, seen by the load or not)
+    private void update(ScheduleKey key, UnaryOperator<DaySchedule> change) {
+        versions.incrementAndGet(versionSlot(key));
+        days.computeIfPresent(key, (k, schedule) -> change.apply(schedule));
+    }
+
+    private static long seconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Immutable appointments of one day sorted by start; changes produce a new copy
+     */
+    private static final class DaySchedule {
+
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final long stamp;
+        private final long dayStart;
+        // System.nanoTime() when the day was last known to match the database
+        private final long checkedAt;
+        // Rendered on first use; racing renders produce equal bitmaps
+        private volatile BitSet busyTicks;
+
+        DaySchedule(long[] ids, long[] starts, long[] ends, long stamp, long dayStart, long checkedAt) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.stamp = stamp;
+            this.dayStart = dayStart;
+            this.checkedAt = checkedAt;
+        }
+
+        DaySchedule withStamp(long newStamp, long newCheckedAt) {
+            DaySchedule copy = new DaySchedule(ids, starts, ends, newStamp, dayStart, newCheckedAt);
+            copy.busyTicks = busyTicks;
+            return copy;
+        }
+
+        /**
+         * Ticks from this day's midnight covered by its appointments; bits past TICKS_PER_DAY spill into the next day
+         */
+        BitSet busyTicks() {
+            BitSet ticks = busyTicks;
+            if (ticks == null) {
+                ticks = new BitSet(TICKS_PER_DAY + SPILL_TICKS);
+                for (int i = 0; i < starts.length; i++) {
+                    int first = (int) ((starts[i] - dayStart) / TICK_SECONDS);
+                    int last = (int) ((ends[i] - dayStart + TICK_SECONDS - 1) / TICK_SECONDS);
+                    ticks.set(first, last);
+                }
+                busyTicks = ticks;
+            }
+            return ticks;
+        }
+
+        Long findOverlap(long from, long to, Long excludeId) {
+            // Walk back from the last start before `to`; older starts end by from at the latest
+            for (int i = firstStartAtOrAfter(to) - 1; i >= 0 && starts[i] > from - MAX_DURATION_SECONDS; i--) {
+                if (ends[i] > from && (excludeId == null || ids[i] != excludeId)) {
+                    return ids[i];
+                }
+            }
+            return null;
+        }
+
+        DaySchedule with(long id, long start, long end) {
+            DaySchedule base = without(id);
+            int at = base.firstStartAtOrAfter(start);
+            int size = base.ids.length;
+            long[] newIds = new long[size + 1];
+            long[] newStarts = new long[size + 1];
+            long[] newEnds = new long[size + 1];
+            insert(base.ids, newIds, at, id);
+            insert(base.starts, newStarts, at, start);
+            insert(base.ends, newEnds, at, end);
+            return new DaySchedule(newIds, newStarts, newEnds, base.stamp, dayStart, checkedAt);
+        }
+
+        DaySchedule without(long id) {
+            int at = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    at = i;
+                    break;
+                }
+            }
+            if (at < 0) {
+                return this;
+            }
+            return new DaySchedule(remove(ids, at), remove(starts, at), remove(ends, at), stamp, dayStart, checkedAt);
+        }
+
+        private int firstStartAtOrAfter(long time) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static void insert(long[] source, long[] target, int at, long value) {
+            System.arraycopy(source, 0, target, 0, at);
+            target[at] = value;
+            System.arraycopy(source, at, target, at + 1, source.length - at);
+        }
+
+        private static long[] remove(long[] source, int at) {
+            long[] target = Arrays.copyOf(source, source.length - 1);
+            System.arraycopy(source, at + 1, target, at, source.length - at - 1);
+            return target;
+        }
+    }
+}
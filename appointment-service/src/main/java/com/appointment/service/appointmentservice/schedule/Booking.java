@@ -0,0 +1,38 @@
+package com.appointment.service.appointmentservice.schedule;
+
+import com.appointment.service.appointmentservice.model.Appointment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time an appointment occupies for its doctor and patient
+ * Immutable snapshot, so the state before an edit can be kept next to the state after it.
+ */
+public record Booking(Long id, Long doctorId, Long patientId, LocalDateTime start, int durationMinutes,
+                      boolean blocking) {
+
+    public static Booking of(Appointment appointment) {
+        return new Booking(appointment.getId(), appointment.getDoctorId(), appointment.getPatientId(),
+                appointment.getAppointmentDateTime(),
+                appointment.getDurationMinutes() == null ? 0 : appointment.getDurationMinutes(),
+                blocks(appointment.getStatus()));
+    }
+
+    /**
+     * Cancelled and no-show appointments free their slot; every other status keeps it
+     */
+    public static boolean blocks(Appointment.AppointmentStatus status) {
+        return status != Appointment.AppointmentStatus.CANCELLED && status != Appointment.AppointmentStatus.NO_SHOW;
+    }
+
+    public LocalDateTime end() {
+        return start.plusMinutes(durationMinutes);
+    }
+
+    /**
+     * Whether the booking takes up time in a schedule at all
+     */
+    public boolean occupiesTime() {
+        return blocking && start != null && durationMinutes > 0;
+    }
+}
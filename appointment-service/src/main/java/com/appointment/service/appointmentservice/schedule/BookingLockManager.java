@@ -0,0 +1,201 @@
+package com.appointment.service.appointmentservice.schedule;
+
+import com.appointment.service.appointmentservice.exception.ServiceBusyException;
+import com.appointment.service.appointmentservice.model.BookingGuard;
+import com.appointment.service.appointmentservice.repository.BookingGuardRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serialises booking writes per doctor day and patient day, so check-then-insert cannot race
+ * Each schedule day a conflict check reads hashes to one of a fixed number of lock stripes, so
+ * bookings for other doctors and days almost always proceed in parallel. A writer takes the
+ * in-process lock of each of its stripes and then the stripe's booking guard row FOR UPDATE,
+ * which keeps instances sharing the database apart; both are held until the transaction completes.
+ * Under the guard, loaded index days are checked against the guard stamp and reloaded if another
+ * instance wrote to the stripe since they were loaded; the stamp is then bumped. As long as every
+ * write to a stripe comes from this instance, its days stay valid (their changes were applied here). Stripes are always taken in
+ * ascending order, so two writers cannot deadlock. Every instance must use the same stripe count.
+ * Waiting for a stripe lock or a guard row is bounded by the lock timeout; past it the write is refused as busy.
+ */
+@Component
+public class BookingLockManager implements InitializingBean {
+
+    private final BookingGuardRepository bookingGuardRepository;
+    private final AppointmentIntervalIndex appointmentIntervalIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+    // Per stripe, guarded by its lock: the stamp this instance committed last, and the stamp since
+    // which every write to the stripe came from this instance
+    private final long[] lastLocalStamp;
+    private final long[] localSinceStamp;
+    private final long lockTimeoutMillis;
+
+    public BookingLockManager(BookingGuardRepository bookingGuardRepository,
+                              AppointmentIntervalIndex appointmentIntervalIndex,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${appointment.booking-locks.stripes:256}") int stripeCount,
+                              @Value("${appointment.booking-locks.timeout-ms:5000}") long lockTimeoutMillis) {
+        this.bookingGuardRepository = bookingGuardRepository;
+        this.appointmentIntervalIndex = appointmentIntervalIndex;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Power of two, so a stripe is picked with a mask
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(stripeCount - 1, 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.lastLocalStamp = new long[stripes.length];
+        this.localSinceStamp = new long[stripes.length];
+        Arrays.fill(lastLocalStamp, -1);
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+    /**
+     * Create the guard rows once, so writers only ever lock existing rows
+     */
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            createMissingGuards();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created some of them at the same time
+            createMissingGuards();
+        }
+    }
+
+    private void createMissingGuards() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Integer> existing = new HashSet<>(bookingGuardRepository.findAllStripes());
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                if (!existing.contains(stripe)) {
+                    entityManager.persist(new BookingGuard(stripe));
+                }
+            }
+        });
+    }
+
+    /**
+     * Lock the schedule days a change from before to after touches, until the current transaction ends
+     * @param before booking before the change, or null when creating
+     * @param after booking after the change, or null when deleting
+     */
+    public void lockForChange(Booking before, Booking after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking locks need an active transaction");
+        }
+        SortedMap<Integer, List<ScheduleKey>> keysByStripe = new TreeMap<>();
+        for (Booking booking : new Booking[] {before, after}) {
+            if (booking != null && booking.occupiesTime()) {
+                for (ScheduleKey key : ScheduleKey.checkedBy(booking)) {
+                    keysByStripe.computeIfAbsent(stripe(key), stripe -> new ArrayList<>()).add(key);
+                }
+            }
+        }
+        if (keysByStripe.isEmpty()) {
+            return;
+        }
+
+        lockStripes(keysByStripe.keySet());
+
+        Map<Integer, Long> stripeStamps = new HashMap<>();
+        Map<ScheduleKey, Long> committedStamps = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        keysByStripe.forEach((stripe, keys) -> {
+            BookingGuard guard = lockGuard(stripe);
+            long stamp = guard.getStamp();
+            if (stamp != lastLocalStamp[stripe]) {
+                // Another instance wrote to the stripe (or this is the first write here)
+                localSinceStamp[stripe] = stamp;
+            }
+            keys.forEach(key -> appointmentIntervalIndex.syncStamp(key, localSinceStamp[stripe], stamp));
+            guard.setStamp(stamp + 1);
+            guard.setUpdatedAt(now);
+            stripeStamps.put(stripe, stamp + 1);
+            keys.forEach(key -> committedStamps.put(key, stamp + 1));
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stripeStamps.forEach((stripe, stamp) -> lastLocalStamp[stripe] = stamp);
+                appointmentIntervalIndex.stampsCommitted(committedStamps);
+            }
+        });
+    }
+
+    private void lockStripes(Set<Integer> ascendingStripes) {
+        List<ReentrantLock> held = new ArrayList<>(ascendingStripes.size());
+        // Registered first so stripes taken before a failure are released with the rollback
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = held.size() - 1; i >= 0; i--) {
+                    held.get(i).unlock();
+                }
+            }
+        });
+        try {
+            for (int stripe : ascendingStripes) {
+                ReentrantLock lock = stripes[stripe];
+                if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new ServiceBusyException("Schedule is busy, please try again");
+                }
+                held.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a booking lock", e);
+        }
+    }
+
+    // SELECT ... FOR UPDATE on the stripe's guard row
+    private BookingGuard lockGuard(int stripe) {
+        BookingGuard guard;
+        try {
+            guard = entityManager.find(BookingGuard.class, stripe, LockModeType.PESSIMISTIC_WRITE,
+                    Map.of("jakarta.persistence.lock.timeout", lockTimeoutMillis));
+        } catch (LockTimeoutException | PessimisticLockException e) {
+            throw new ServiceBusyException("Schedule is busy, please try again", e);
+        }
+        if (guard == null) {
+            throw new IllegalStateException("Booking guard missing for stripe " + stripe);
+        }
+        return guard;
+    }
+
+    // Same on every instance (record/enum hashCodes are not)
+    private int stripe(ScheduleKey key) {
+        int hash = 31 * (31 * key.owner().ordinal() + Long.hashCode(key.ownerId())) + key.day().hashCode();
+        hash *= 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.appointment.service.appointmentservice.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One day of one doctor's or one patient's schedule - the unit of indexing and of booking locks
+ */
+public record ScheduleKey(Owner owner, Long ownerId, LocalDate day) {
+
+    public enum Owner {
+        DOCTOR, PATIENT
+    }
+
+    /**
+     * First and last day whose appointments can overlap [start, start + duration)
+     * (appointments are indexed under their start day and last at most MAX_DURATION_MINUTES)
+     */
+    static LocalDate firstDayChecked(LocalDateTime start) {
+        return start.minusMinutes(AppointmentIntervalIndex.MAX_DURATION_MINUTES).toLocalDate();
+    }
+
+    static LocalDate lastDayChecked(LocalDateTime start, int durationMinutes) {
+        return start.plusMinutes(durationMinutes).minusNanos(1).toLocalDate();
+    }
+
+    /**
+     * Doctor and patient days a conflict check for the booking reads; they include the day the
+     * booking is stored under, so two overlapping bookings always share at least one key
+     */
+    public static List<ScheduleKey> checkedBy(Booking booking) {
+        List<ScheduleKey> keys = new ArrayList<>(4);
+        LocalDate lastDay = lastDayChecked(booking.start(), booking.durationMinutes());
+        for (LocalDate day = firstDayChecked(booking.start()); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            keys.add(new ScheduleKey(Owner.DOCTOR, booking.doctorId(), day));
+            keys.add(new ScheduleKey(Owner.PATIENT, booking.patientId(), day));
+        }
+        return keys;
+    }
+}
@@ -6,50 +6,71 @@ import com.appointment.service.appointmentservice.exception.AppointmentNotFoundE
 import com.appointment.service.appointmentservice.mapper.AppointmentMapper;
 import com.appointment.service.appointmentservice.model.Appointment;
 import com.appointment.service.appointmentservice.repository.AppointmentRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.appointment.service.appointmentservice.schedule.AppointmentIntervalIndex;
+import com.appointment.service.appointmentservice.schedule.Booking;
+import com.appointment.service.appointmentservice.schedule.BookingLockManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
+/**
+ * Appointment bookings and queries
+ * Write paths run in their own short transactions; createAppointment validates patient and doctor
+ * against the remote services first, so no database connection is held during those HTTP calls.
+ */
 @Service
-@Transactional
 public class AppointmentService {
 
-    @Autowired
-    private AppointmentRepository appointmentRepository;
-
-    @Autowired
-    private AppointmentMapper appointmentMapper;
-
-    @Autowired
-    private ExternalServiceClient externalServiceClient;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentMapper appointmentMapper;
+    private final ParticipantValidator participantValidator;
+    private final AppointmentIntervalIndex appointmentIntervalIndex;
+    private final BookingLockManager bookingLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer bookingTransactionTimer;
+
+    public AppointmentService(AppointmentRepository appointmentRepository,
+                              AppointmentMapper appointmentMapper,
+                              ParticipantValidator participantValidator,
+                              AppointmentIntervalIndex appointmentIntervalIndex,
+                              BookingLockManager bookingLockManager,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentMapper = appointmentMapper;
+        this.participantValidator = participantValidator;
+        this.appointmentIntervalIndex = appointmentIntervalIndex;
+        this.bookingLockManager = bookingLockManager;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingTransactionTimer = Timer.builder("appointments.booking.transaction")
+                .description("Time the booking transaction of createAppointment holds its database connection")
+                .register(meterRegistry);
+    }
 
     /**
      * Create a new appointment
      */
     public AppointmentResponseDTO createAppointment(AppointmentRequestDTO requestDTO) {
-        // Validate patient exists
-        Boolean patientExists = externalServiceClient.checkPatientExists(requestDTO.getPatientId());
-        if (patientExists == null || !patientExists) {
-            throw new IllegalArgumentException("Patient with ID " + requestDTO.getPatientId() + " does not exist");
-        }
+        // Validate patient and doctor exist (both checks in parallel) before any connection is taken
+        participantValidator.validate(requestDTO.getPatientId(), requestDTO.getDoctorId());
 
-        // Validate doctor exists
-        Boolean doctorExists = externalServiceClient.checkDoctorExists(requestDTO.getDoctorId());
-        if (doctorExists == null || !doctorExists) {
-            throw new IllegalArgumentException("Doctor with ID " + requestDTO.getDoctorId() + " does not exist");
-        }
+        Appointment appointment = appointmentMapper.toModel(requestDTO);
 
-        // Check for scheduling conflicts
-        if (hasSchedulingConflict(requestDTO.getDoctorId(), requestDTO.getAppointmentDateTime())) {
-            throw new IllegalArgumentException("Doctor has a conflicting appointment at this time");
-        }
+        // Short transaction: lock, check for scheduling conflicts (doctor and patient), insert
+        Appointment savedAppointment = bookingTransactionTimer.record(() -> transactionTemplate.execute(status -> {
+            Booking booking = Booking.of(appointment);
+            bookingLockManager.lockForChange(null, booking);
+            checkSchedulingConflicts(booking);
 
-        Appointment appointment = appointmentMapper.toModel(requestDTO);
-        Appointment savedAppointment = appointmentRepository.save(appointment);
+            Appointment saved = appointmentRepository.save(appointment);
+            appointmentIntervalIndex.bookingChanged(null, Booking.of(saved));
+            return saved;
+        }));
         return appointmentMapper.toDTO(savedAppointment);
     }
 
@@ -75,31 +96,41 @@ public class AppointmentService {
     /**
      * Update appointment
      */
+    @Transactional
     public AppointmentResponseDTO updateAppointment(Long id, AppointmentRequestDTO requestDTO) {
         Appointment existingAppointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found with id: " + id));
 
-        // Check for scheduling conflicts if time is being changed
-        if (requestDTO.getAppointmentDateTime() != null && 
-            !requestDTO.getAppointmentDateTime().equals(existingAppointment.getAppointmentDateTime())) {
-            if (hasSchedulingConflict(requestDTO.getDoctorId(), requestDTO.getAppointmentDateTime())) {
-                throw new IllegalArgumentException("Doctor has a conflicting appointment at this time");
-            }
+        // Check for scheduling conflicts if time, duration, participants or status change.
+        // Checked on a detached copy so the managed entity stays clean until the check passes.
+        Booking before = Booking.of(existingAppointment);
+        Appointment candidate = appointmentMapper.copyModel(existingAppointment);
+        candidate.setId(existingAppointment.getId());
+        candidate.setStatus(existingAppointment.getStatus());
+        appointmentMapper.updateModel(candidate, requestDTO);
+        Booking after = Booking.of(candidate);
+        if (!after.equals(before)) {
+            bookingLockManager.lockForChange(before, after);
+            checkSchedulingConflicts(after);
         }
 
         appointmentMapper.updateModel(existingAppointment, requestDTO);
         Appointment updatedAppointment = appointmentRepository.save(existingAppointment);
+        appointmentIntervalIndex.bookingChanged(before, Booking.of(updatedAppointment));
         return appointmentMapper.toDTO(updatedAppointment);
     }
 
     /**
      * Delete appointment
      */
+    @Transactional
     public void deleteAppointment(Long id) {
-        if (!appointmentRepository.existsById(id)) {
-            throw new AppointmentNotFoundException("Appointment not found with id: " + id);
-        }
-        appointmentRepository.deleteById(id);
+        Appointment appointment = appointmentRepository.findById(id)
+                .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found with id: " + id));
+        Booking before = Booking.of(appointment);
+        bookingLockManager.lockForChange(before, null);
+        appointmentRepository.delete(appointment);
+        appointmentIntervalIndex.bookingChanged(before, null);
     }
 
     /**
@@ -194,54 +225,83 @@ public class AppointmentService {
      * Check for scheduling conflicts
      */
     @Transactional(readOnly = true)
-    public boolean hasSchedulingConflict(Long doctorId, LocalDateTime appointmentDateTime) {
-        Optional<Appointment> conflictingAppointment = appointmentRepository
-                .findByDoctorIdAndAppointmentDateTime(doctorId, appointmentDateTime);
-        return conflictingAppointment.isPresent();
+    public boolean hasSchedulingConflict(Long doctorId, LocalDateTime appointmentDateTime, int durationMinutes) {
+        return appointmentIntervalIndex.findDoctorConflict(doctorId, appointmentDateTime, durationMinutes, null) != null;
+    }
+
+    /**
+     * Reject a booking whose time overlaps another active appointment of the doctor or the patient
+     */
+    private void checkSchedulingConflicts(Booking booking) {
+        if (!booking.occupiesTime()) {
+            return;
+        }
+        if (appointmentIntervalIndex.findDoctorConflict(booking.doctorId(), booking.start(),
+                booking.durationMinutes(), booking.id()) != null) {
+            throw new IllegalArgumentException("Doctor has a conflicting appointment at this time");
+        }
+        if (appointmentIntervalIndex.findPatientConflict(booking.patientId(), booking.start(),
+                booking.durationMinutes(), booking.id()) != null) {
+            throw new IllegalArgumentException("Patient already has an appointment at this time");
+        }
     }
 
     /**
      * Reschedule appointment
      */
+    @Transactional
     public AppointmentResponseDTO rescheduleAppointment(Long id, LocalDateTime newDateTime) {
         Appointment existingAppointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found with id: " + id));
 
         // Check for conflicts at new time
-        if (hasSchedulingConflict(existingAppointment.getDoctorId(), newDateTime)) {
-            throw new IllegalArgumentException("Doctor has a conflicting appointment at the new time");
-        }
+        Booking before = Booking.of(existingAppointment);
+        Booking after = new Booking(before.id(), before.doctorId(), before.patientId(), newDateTime,
+                before.durationMinutes(), true);
+        bookingLockManager.lockForChange(before, after);
+        checkSchedulingConflicts(after);
 
         existingAppointment.setAppointmentDateTime(newDateTime);
         existingAppointment.setStatus(Appointment.AppointmentStatus.RESCHEDULED);
         Appointment updatedAppointment = appointmentRepository.save(existingAppointment);
+        appointmentIntervalIndex.bookingChanged(before, Booking.of(updatedAppointment));
         return appointmentMapper.toDTO(updatedAppointment);
     }
 
     /**
      * Cancel appointment
      */
+    @Transactional
     public AppointmentResponseDTO cancelAppointment(Long id) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found with id: " + id));
 
+        Booking before = Booking.of(appointment);
+        bookingLockManager.lockForChange(before, new Booking(before.id(), before.doctorId(), before.patientId(),
+                before.start(), before.durationMinutes(), false));
         appointment.setStatus(Appointment.AppointmentStatus.CANCELLED);
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        appointmentIntervalIndex.bookingChanged(before, Booking.of(updatedAppointment));
         return appointmentMapper.toDTO(updatedAppointment);
     }
 
     /**
      * Complete appointment
      */
+    @Transactional
     public AppointmentResponseDTO completeAppointment(Long id, String notes) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new AppointmentNotFoundException("Appointment not found with id: " + id));
 
+        Booking before = Booking.of(appointment);
+        bookingLockManager.lockForChange(before, new Booking(before.id(), before.doctorId(), before.patientId(),
+                before.start(), before.durationMinutes(), true));
         appointment.setStatus(Appointment.AppointmentStatus.COMPLETED);
         if (notes != null && !notes.trim().isEmpty()) {
             appointment.setNotes(notes);
         }
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        appointmentIntervalIndex.bookingChanged(before, Booking.of(updatedAppointment));
         return appointmentMapper.toDTO(updatedAppointment);
     }
 
@@ -0,0 +1,208 @@
+package com.appointment.service.appointmentservice.service;
+
+import com.appointment.service.appointmentservice.dto.AvailableSlotDTO;
+import com.appointment.service.appointmentservice.schedule.AppointmentIntervalIndex;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.appointment.service.appointmentservice.schedule.AppointmentIntervalIndex.TICKS_PER_DAY;
+import static com.appointment.service.appointmentservice.schedule.AppointmentIntervalIndex.TICK_MINUTES;
+
+/**
+ * Free-slot search
+ * Lays the doctor's busy-tick bitmaps for each day of the window (see AppointmentIntervalIndex) end to end,
+ * marks the time outside opening hours busy and takes free runs of the requested length, earliest first.
+ * Slots start on 5-minute ticks and do not overlap each other. The multi-doctor search runs one search per
+ * doctor on a small worker pool and merges the results by start time. Bookings made through another
+ * instance show up once the index refreshes the day (appointment.conflict-index.refresh-after); booking
+ * itself re-checks under the booking lock.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Comparator<AvailableSlotDTO> EARLIEST_FIRST =
+            Comparator.comparing(AvailableSlotDTO::getStart).thenComparing(AvailableSlotDTO::getDoctorId);
+
+    private final AppointmentIntervalIndex appointmentIntervalIndex;
+    private final int openingTick;
+    private final int closingTick;
+    private final int defaultDays;
+    private final int maxDays;
+    private final int maxSlots;
+    private final int maxDoctors;
+    private final ThreadPoolExecutor workers;
+
+    public AvailabilityService(AppointmentIntervalIndex appointmentIntervalIndex,
+                               @Value("${appointment.availability.opening-time:08:00}") LocalTime openingTime,
+                               @Value("${appointment.availability.closing-time:18:00}") LocalTime closingTime,
+                               @Value("${appointment.availability.default-days:7}") int defaultDays,
+                               @Value("${appointment.availability.max-days:31}") int maxDays,
+                               @Value("${appointment.availability.max-slots:100}") int maxSlots,
+                               @Value("${appointment.availability.max-doctors:50}") int maxDoctors,
+                               @Value("${appointment.availability.threads:4}") int threads) {
+        this.appointmentIntervalIndex = appointmentIntervalIndex;
+        // Partial ticks at either end are not bookable; a closing time of 00:00 means midnight
+        this.openingTick = ceilDiv(openingTime.toSecondOfDay(), TICK_MINUTES * 60);
+        this.closingTick = closingTime.equals(LocalTime.MIDNIGHT)
+                ? TICKS_PER_DAY : closingTime.toSecondOfDay() / (TICK_MINUTES * 60);
+        this.defaultDays = defaultDays;
+        this.maxDays = maxDays;
+        this.maxSlots = maxSlots;
+        this.maxDoctors = maxDoctors;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxDoctors), workerThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy()); // saturated -> request thread searches itself
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Next free slots of one doctor
+     * @param from window start, or null for now (past time is never offered)
+     * @param to window end, or null for default-days after the start
+     */
+    public List<AvailableSlotDTO> findFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to,
+                                                int durationMinutes, int limit) {
+        if (doctorId == null) {
+            throw new IllegalArgumentException("Doctor ID is required");
+        }
+        SearchWindow window = window(from, to, durationMinutes, limit);
+        return search(doctorId, window, durationMinutes, limit);
+    }
+
+    /**
+     * Next free slots across several doctors, earliest first (ties by doctor ID)
+     */
+    public List<AvailableSlotDTO> findFreeSlots(List<Long> doctorIds, LocalDateTime from, LocalDateTime to,
+                                                int durationMinutes, int limit) {
+        List<Long> distinctIds = doctorIds == null ? List.of() : doctorIds.stream().distinct().toList();
+        if (distinctIds.isEmpty() || distinctIds.contains(null)) {
+            throw new IllegalArgumentException("At least one doctor ID is required");
+        }
+        if (distinctIds.size() > maxDoctors) {
+            throw new IllegalArgumentException("At most " + maxDoctors + " doctors can be searched at once");
+        }
+        SearchWindow window = window(from, to, durationMinutes, limit);
+
+        List<CompletableFuture<List<AvailableSlotDTO>>> searches = distinctIds.stream()
+                .map(doctorId -> CompletableFuture.supplyAsync(
+                        () -> search(doctorId, window, durationMinutes, limit), workers))
+                .toList();
+        // Every doctor contributes at most `limit` slots, so the merged head is complete
+        List<AvailableSlotDTO> merged = new ArrayList<>();
+        try {
+            searches.forEach(search -> merged.addAll(search.join()));
+        } catch (CompletionException e) {
+            searches.forEach(search -> search.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        merged.sort(EARLIEST_FIRST);
+        return merged.size() > limit ? List.copyOf(merged.subList(0, limit)) : merged;
+    }
+
+    private SearchWindow window(LocalDateTime from, LocalDateTime to, int durationMinutes, int limit) {
+        if (durationMinutes <= 0 || durationMinutes > AppointmentIntervalIndex.MAX_DURATION_MINUTES) {
+            throw new IllegalArgumentException("Duration must be between 1 and "
+                    + AppointmentIntervalIndex.MAX_DURATION_MINUTES + " minutes");
+        }
+        if (limit <= 0 || limit > maxSlots) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxSlots);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plusDays(defaultDays) : to;
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("Search window must end after it starts");
+        }
+        if (end.isAfter(start.plusDays(maxDays))) {
+            throw new IllegalArgumentException("Search window cannot exceed " + maxDays + " days");
+        }
+
+        LocalDate firstDay = start.toLocalDate();
+        long base = firstDay.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        int tickSeconds = TICK_MINUTES * 60;
+        // Rounded up to the next whole second, then tick, so no slot starts before `start`
+        long startSeconds = start.toEpochSecond(ZoneOffset.UTC) + (start.getNano() > 0 ? 1 : 0);
+        int firstTick = ceilDiv(startSeconds - base, tickSeconds);
+        int endTick = (int) ((end.toEpochSecond(ZoneOffset.UTC) - base) / tickSeconds);
+        return new SearchWindow(firstDay, firstTick, endTick);
+    }
+
+    private List<AvailableSlotDTO> search(Long doctorId, SearchWindow window, int durationMinutes, int limit) {
+        int dayCount = ceilDiv(window.endTick(), TICKS_PER_DAY);
+        BitSet busy = new BitSet(dayCount * TICKS_PER_DAY);
+        for (int d = 0; d < dayCount; d++) {
+            int offset = d * TICKS_PER_DAY;
+            BitSet day = appointmentIntervalIndex.doctorBusyTicks(doctorId, window.firstDay().plusDays(d));
+            int t = day.nextSetBit(0);
+            while (t >= 0) {
+                int runEnd = day.nextClearBit(t);
+                busy.set(offset + t, offset + runEnd);
+                t = day.nextSetBit(runEnd);
+            }
+            busy.set(offset, offset + openingTick);
+            busy.set(offset + closingTick, offset + TICKS_PER_DAY);
+        }
+
+        int ticksNeeded = ceilDiv(durationMinutes, TICK_MINUTES);
+        LocalDateTime base = window.firstDay().atStartOfDay();
+        List<AvailableSlotDTO> slots = new ArrayList<>(Math.min(limit, 16));
+        int tick = window.firstTick();
+        while (slots.size() < limit) {
+            int free = busy.nextClearBit(tick);
+            if (free + ticksNeeded > window.endTick()) {
+                break;
+            }
+            int nextBusy = busy.nextSetBit(free);
+            if (nextBusy >= 0 && nextBusy - free < ticksNeeded) {
+                // Gap too short - continue after the appointment that closes it
+                tick = nextBusy;
+                continue;
+            }
+            LocalDateTime start = base.plusMinutes((long) free * TICK_MINUTES);
+            slots.add(new AvailableSlotDTO(doctorId, start, start.plusMinutes(durationMinutes)));
+            tick = free + ticksNeeded;
+        }
+        return slots;
+    }
+
+    private static int ceilDiv(long value, int divisor) {
+        return (int) ((value + divisor - 1) / divisor);
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "availability-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Ticks are counted from midnight of firstDay; endTick is exclusive
+    private record SearchWindow(LocalDate firstDay, int firstTick, int endTick) {
+    }
+}
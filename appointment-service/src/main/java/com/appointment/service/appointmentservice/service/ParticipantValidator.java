@@ -0,0 +1,114 @@
+package com.appointment.service.appointmentservice.service;
+
+import com.appointment.service.appointmentservice.exception.ServiceBusyException;
+import com.appointment.service.appointmentservice.exception.ServiceTimeoutException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Patient and doctor existence checks for a booking, issued concurrently
+ * Both blocking lookups run on a dedicated pool under one shared deadline, so validation takes about as
+ * long as the slower service instead of the sum of both. The deadline starts before the checks are
+ * submitted, so time spent queued for a worker counts against it. Results are taken in completion order;
+ * the first failed check (or the deadline) cancels the one still running, interrupting its HTTP call.
+ * When every worker is busy and the queue is full, the booking is refused as busy: running the check on
+ * the request thread instead would put its HTTP call out of the deadline's reach.
+ */
+@Service
+public class ParticipantValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticipantValidator.class);
+
+    private final ExternalServiceClient externalServiceClient;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor workers;
+
+    public ParticipantValidator(ExternalServiceClient externalServiceClient,
+                                @Value("${appointment.validation.timeout-ms:3000}") long timeoutMillis,
+                                @Value("${appointment.validation.threads:16}") int threads) {
+        this.externalServiceClient = externalServiceClient;
+        this.timeoutMillis = timeoutMillis;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), workerThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()); // saturated -> refused, see validate
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Make sure patient and doctor exist
+     * @throws IllegalArgumentException naming the first participant found missing
+     * @throws ServiceTimeoutException when the checks do not finish within the deadline
+     * @throws ServiceBusyException when the check pool is saturated
+     */
+    public void validate(Long patientId, Long doctorId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        ExecutorCompletionService<Boolean> checks = new ExecutorCompletionService<>(workers);
+        Map<Future<Boolean>, String> failureMessages = new HashMap<>(4);
+        try {
+            failureMessages.put(checks.submit(() -> externalServiceClient.checkPatientExists(patientId)),
+                    "Patient with ID " + patientId + " does not exist");
+            failureMessages.put(checks.submit(() -> externalServiceClient.checkDoctorExists(doctorId)),
+                    "Doctor with ID " + doctorId + " does not exist");
+
+            for (int pending = failureMessages.size(); pending > 0; pending--) {
+                Future<Boolean> done = checks.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new ServiceTimeoutException("Patient and doctor validation timed out after "
+                            + timeoutMillis + " ms");
+                }
+                if (!Boolean.TRUE.equals(result(done, patientId, doctorId))) {
+                    throw new IllegalArgumentException(failureMessages.get(done));
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Participant validation is busy, please try again", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while validating patient and doctor", e);
+        } finally {
+            // No-op for finished checks; interrupts the sibling still in flight
+            failureMessages.keySet().forEach(check -> check.cancel(true));
+        }
+    }
+
+    private static Boolean result(Future<Boolean> check, Long patientId, Long doctorId) {
+        try {
+            return check.get();
+        } catch (ExecutionException e) {
+            // The client already maps downstream errors to false; anything else counts as not validated
+            log.warn("Participant check failed for patient {} and doctor {}", patientId, doctorId, e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "participant-validation-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
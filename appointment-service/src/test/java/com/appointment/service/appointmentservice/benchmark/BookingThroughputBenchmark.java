@@ -0,0 +1,157 @@
+package com.appointment.service.appointmentservice.benchmark;
+
+import com.appointment.service.appointmentservice.AppointmentServiceApplication;
+import com.appointment.service.appointmentservice.dto.AppointmentRequestDTO;
+import com.appointment.service.appointmentservice.dto.AppointmentResponseDTO;
+import com.appointment.service.appointmentservice.mapper.AppointmentMapper;
+import com.appointment.service.appointmentservice.model.Appointment;
+import com.appointment.service.appointmentservice.repository.AppointmentRepository;
+import com.appointment.service.appointmentservice.service.AppointmentService;
+import com.appointment.service.appointmentservice.service.ExternalServiceClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking throughput: createAppointment with striped booking locks against the previous unguarded
+ * check-then-insert (kept here verbatim as the baseline), from 8 threads spread over 1 or 64 doctors.
+ * Every request gets a free slot, so both paths always insert; the baseline is not race-free.
+ * Run with: mvn -Pbenchmark test -Dbenchmark.include=BookingThroughputBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BookingThroughputBenchmark {
+
+    @Param({"1", "64"})
+    private int doctors;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private LegacyBooking legacyBooking;
+    private final AtomicLong sequence = new AtomicLong();
+    private LocalDateTime firstSlot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command-line arguments, so they win over application.properties
+        context = new SpringApplicationBuilder(AppointmentServiceApplication.class)
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("alwaysValidClient",
+                        ExternalServiceClient.class, AlwaysValidClient::new, bean -> bean.setPrimary(true)))
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.appointment.service.appointmentservice=WARN",
+                        "--logging.level.org.springframework.web=WARN");
+        appointmentService = context.getBean(AppointmentService.class);
+        legacyBooking = new LegacyBooking(context.getBean(AppointmentRepository.class),
+                context.getBean(AppointmentMapper.class), context.getBean(ExternalServiceClient.class),
+                new TransactionTemplate(context.getBean(PlatformTransactionManager.class)));
+        firstSlot = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 30-minute slots handed out round-robin over the doctors, one new patient per booking
+    private AppointmentRequestDTO nextRequest() {
+        long n = sequence.getAndIncrement();
+        AppointmentRequestDTO request = new AppointmentRequestDTO();
+        request.setPatientId(n + 1);
+        request.setDoctorId(n % doctors + 1);
+        request.setAppointmentDateTime(firstSlot.plusMinutes(n / doctors * 30));
+        request.setDurationMinutes(30);
+        request.setType(Appointment.AppointmentType.CONSULTATION);
+        return request;
+    }
+
+    @Benchmark
+    public AppointmentResponseDTO stripedLocks() {
+        return appointmentService.createAppointment(nextRequest());
+    }
+
+    @Benchmark
+    public AppointmentResponseDTO legacyUnguarded() {
+        return legacyBooking.createAppointment(nextRequest());
+    }
+
+    public static class AlwaysValidClient extends ExternalServiceClient {
+
+        @Override
+        public Boolean checkPatientExists(Long patientId) {
+            return true;
+        }
+
+        @Override
+        public Boolean checkDoctorExists(Long doctorId) {
+            return true;
+        }
+    }
+
+    /**
+     * createAppointment as it was before booking locks: exact-start conflict query, then save
+     */
+    private static final class LegacyBooking {
+
+        private final AppointmentRepository appointmentRepository;
+        private final AppointmentMapper appointmentMapper;
+        private final ExternalServiceClient externalServiceClient;
+        private final TransactionTemplate transactionTemplate;
+
+        LegacyBooking(AppointmentRepository appointmentRepository, AppointmentMapper appointmentMapper,
+                      ExternalServiceClient externalServiceClient, TransactionTemplate transactionTemplate) {
+            this.appointmentRepository = appointmentRepository;
+            this.appointmentMapper = appointmentMapper;
+            this.externalServiceClient = externalServiceClient;
+            this.transactionTemplate = transactionTemplate;
+        }
+
+        AppointmentResponseDTO createAppointment(AppointmentRequestDTO requestDTO) {
+            return transactionTemplate.execute(status -> {
+                Boolean patientExists = externalServiceClient.checkPatientExists(requestDTO.getPatientId());
+                if (patientExists == null || !patientExists) {
+                    throw new IllegalArgumentException("Patient with ID " + requestDTO.getPatientId() + " does not exist");
+                }
+                Boolean doctorExists = externalServiceClient.checkDoctorExists(requestDTO.getDoctorId());
+                if (doctorExists == null || !doctorExists) {
+                    throw new IllegalArgumentException("Doctor with ID " + requestDTO.getDoctorId() + " does not exist");
+                }
+                Optional<Appointment> conflictingAppointment = appointmentRepository
+                        .findByDoctorIdAndAppointmentDateTime(requestDTO.getDoctorId(), requestDTO.getAppointmentDateTime());
+                if (conflictingAppointment.isPresent()) {
+                    throw new IllegalArgumentException("Doctor has a conflicting appointment at this time");
+                }
+                Appointment appointment = appointmentMapper.toModel(requestDTO);
+                Appointment savedAppointment = appointmentRepository.save(appointment);
+                return appointmentMapper.toDTO(savedAppointment);
+            });
+        }
+    }
+}
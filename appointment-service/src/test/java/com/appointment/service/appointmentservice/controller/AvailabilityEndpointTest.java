@@ -0,0 +1,93 @@
+package com.appointment.service.appointmentservice.controller;
+
+import com.appointment.service.appointmentservice.repository.AppointmentRepository;
+import com.appointment.service.appointmentservice.schedule.AppointmentIntervalIndex;
+import com.appointment.service.appointmentservice.service.AvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request mapping of the availability endpoints: bad input is a 400, not a 500
+ */
+class AvailabilityEndpointTest {
+
+    private static final String WINDOW = "&from=2030-03-04T08:00&to=2030-03-04T18:00";
+
+    private AvailabilityService availabilityService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        when(appointmentRepository.findDoctorSlots(anyLong(), any(), any(), anyList())).thenReturn(List.of());
+        availabilityService = new AvailabilityService(
+                new AppointmentIntervalIndex(appointmentRepository, 1000, Duration.ofMinutes(5)),
+                LocalTime.of(8, 0), LocalTime.of(18, 0), 7, 31, 100, 3, 2);
+        AppointmentController controller = new AppointmentController();
+        ReflectionTestUtils.setField(controller, "availabilityService", availabilityService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        availabilityService.shutdown();
+    }
+
+    @Test
+    void validRequestsReturnSlots() throws Exception {
+        mockMvc.perform(get("/api/appointments/availability?doctorId=1&duration=30&limit=2" + WINDOW))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].start").value("2030-03-04T08:00:00"))
+                .andExpect(jsonPath("$[1].end").value("2030-03-04T09:00:00"));
+        mockMvc.perform(get("/api/appointments/availability/doctors?doctorIds=1,2&duration=30&limit=3" + WINDOW))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].doctorId").value(2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "doctorId=1&duration=30&from=tomorrow",
+            "doctorId=1&duration=30&from=2030-03-04T08:00&to=2030-03-04",
+            "doctorId=1&duration=0" + WINDOW,
+            "doctorId=1&duration=241" + WINDOW,
+            "doctorId=1&duration=30&limit=0" + WINDOW,
+            "doctorId=1&duration=30&limit=101" + WINDOW,
+            "doctorId=1&duration=30&from=2030-03-04T18:00&to=2030-03-04T08:00",
+            "doctorId=1&duration=30&from=2030-03-04T08:00&to=2030-05-04T08:00"
+    })
+    void invalidSingleDoctorRequestsAreBadRequests(String query) throws Exception {
+        mockMvc.perform(get("/api/appointments/availability?" + query))
+                .andExpect(status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "doctorIds=1,2,3,4&duration=30" + WINDOW,
+            "doctorIds=1&duration=30&from=08:00",
+            "doctorIds=1&duration=500" + WINDOW
+    })
+    void invalidMultiDoctorRequestsAreBadRequests(String query) throws Exception {
+        mockMvc.perform(get("/api/appointments/availability/doctors?" + query))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,79 @@
+package com.appointment.service.appointmentservice.controller;
+
+import com.appointment.service.appointmentservice.exception.GlobalExceptionHandler;
+import com.appointment.service.appointmentservice.exception.ServiceBusyException;
+import com.appointment.service.appointmentservice.exception.ServiceTimeoutException;
+import com.appointment.service.appointmentservice.service.AppointmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A booking refused because the schedule or participant validation is busy is a retryable 503, and one
+ * whose participant checks run out of time a 504, not a client error
+ */
+class BusyResponseTest {
+
+    private static final String BOOKING = "{\"patientId\":1,\"doctorId\":2,\"appointmentDateTime\":\"2099-03-04T09:00:00\","
+            + "\"durationMinutes\":30,\"type\":\"CONSULTATION\"}";
+
+    private AppointmentService appointmentService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        appointmentService = mock(AppointmentService.class);
+        AppointmentController controller = new AppointmentController();
+        ReflectionTestUtils.setField(controller, "appointmentService", appointmentService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void busyScheduleIsServiceUnavailableWithRetryAfter() throws Exception {
+        when(appointmentService.createAppointment(any()))
+                .thenThrow(new ServiceBusyException("Schedule is busy, please try again"));
+
+        mockMvc.perform(post("/api/appointments").contentType(MediaType.APPLICATION_JSON).content(BOOKING))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Schedule is busy, please try again"));
+    }
+
+    @Test
+    void busyScheduleIsNotReportedAsMissingOnUpdate() throws Exception {
+        when(appointmentService.updateAppointment(anyLong(), any()))
+                .thenThrow(new ServiceBusyException("Schedule is busy, please try again"));
+        when(appointmentService.cancelAppointment(anyLong()))
+                .thenThrow(new ServiceBusyException("Schedule is busy, please try again"));
+
+        mockMvc.perform(put("/api/appointments/7").contentType(MediaType.APPLICATION_JSON).content(BOOKING))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(put("/api/appointments/7/cancel"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void participantCheckDeadlineIsGatewayTimeout() throws Exception {
+        when(appointmentService.createAppointment(any()))
+                .thenThrow(new ServiceTimeoutException("Patient and doctor validation timed out after 3000 ms"));
+
+        mockMvc.perform(post("/api/appointments").contentType(MediaType.APPLICATION_JSON).content(BOOKING))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.error").value("Gateway Timeout"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.appointment.service.appointmentservice.schedule;
+
+import com.appointment.service.appointmentservice.repository.AppointmentRepository;
+import com.appointment.service.appointmentservice.repository.AppointmentRepository.BookedSlot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Day loads running concurrently with committed changes: a load must never cache a copy missing a change
+ */
+class AppointmentIntervalIndexTest {
+
+    private static final Long DOCTOR = 1L;
+    private static final Long PATIENT = 2L;
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final AppointmentIntervalIndex index =
+            new AppointmentIntervalIndex(appointmentRepository, 1000, Duration.ofMinutes(5));
+    private final ExecutorService reader = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void stopReader() {
+        reader.shutdownNow();
+    }
+
+    @Test
+    void changeAppliedDuringLoadIsNotLost() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        BookedSlot booked = slot(7L, NINE, 30);
+        // First load reads the day before the booking commits; any later load sees it
+        when(appointmentRepository.findDoctorSlots(eq(DOCTOR), any(), any(), anyList()))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    assertTrue(committed.await(5, TimeUnit.SECONDS));
+                    return List.of();
+                })
+                .thenReturn(List.of(booked));
+
+        CompletableFuture<Long> racingCheck = CompletableFuture.supplyAsync(
+                () -> index.findDoctorConflict(DOCTOR, NINE, 30, null), reader);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        index.bookingChanged(null, new Booking(7L, DOCTOR, PATIENT, NINE, 30, true));
+        committed.countDown();
+
+        assertNull(racingCheck.get(5, TimeUnit.SECONDS)); // answered from its own snapshot
+        assertEquals(7L, index.findDoctorConflict(DOCTOR, NINE.plusMinutes(15), 30, null));
+    }
+
+    @Test
+    void loadedDayIsCachedAndUpdatedInPlace() {
+        BookedSlot booked = slot(7L, NINE, 30);
+        when(appointmentRepository.findDoctorSlots(eq(DOCTOR), any(), any(), anyList())).thenReturn(List.of(booked));
+
+        assertEquals(7L, index.findDoctorConflict(DOCTOR, NINE, 30, null));
+        index.bookingChanged(new Booking(7L, DOCTOR, PATIENT, NINE, 30, true),
+                new Booking(7L, DOCTOR, PATIENT, NINE.plusHours(2), 30, true));
+
+        assertNull(index.findDoctorConflict(DOCTOR, NINE, 30, null));
+        assertEquals(7L, index.findDoctorConflict(DOCTOR, NINE.plusHours(2), 15, null));
+        verify(appointmentRepository, times(1)).findDoctorSlots(eq(DOCTOR), any(), any(), anyList());
+    }
+
+    @Test
+    void syncStampReplacesAnUnstampedDay() {
+        ScheduleKey key = new ScheduleKey(ScheduleKey.Owner.DOCTOR, DOCTOR, NINE.toLocalDate());
+        BookedSlot otherInstance = slot(8L, NINE, 60);
+        when(appointmentRepository.findDoctorSlots(eq(DOCTOR), any(), any(), anyList()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(otherInstance));
+        assertNull(index.findDoctorConflict(DOCTOR, NINE, 30, null));
+
+        index.syncStamp(key, 5, 5); // unguarded copy may miss another instance's writes
+        assertEquals(8L, index.findDoctorConflict(DOCTOR, NINE, 30, null));
+
+        index.syncStamp(key, 5, 6); // still valid - kept
+        verify(appointmentRepository, times(2)).findDoctorSlots(eq(DOCTOR), any(), any(), anyList());
+    }
+
+    @Test
+    void unguardedDayIsReloadedOnceExpired() {
+        AppointmentIntervalIndex expiring = new AppointmentIntervalIndex(appointmentRepository, 1000, Duration.ZERO);
+        BookedSlot otherInstance = slot(9L, NINE, 30);
+        when(appointmentRepository.findDoctorSlots(eq(DOCTOR), any(), any(), anyList()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(otherInstance));
+
+        assertTrue(expiring.doctorBusyTicks(DOCTOR, NINE.toLocalDate()).isEmpty());
+        // Booked through another instance - never applied here, picked up by the reload
+        assertEquals(9L, expiring.findDoctorConflict(DOCTOR, NINE, 30, null));
+    }
+
+    @Test
+    void guardedWriteKeepsTheDayFresh() {
+        AppointmentIntervalIndex expiring = new AppointmentIntervalIndex(appointmentRepository, 1000, Duration.ZERO);
+        ScheduleKey key = new ScheduleKey(ScheduleKey.Owner.DOCTOR, DOCTOR, NINE.toLocalDate());
+        when(appointmentRepository.findDoctorSlots(eq(DOCTOR), any(), any(), anyList())).thenReturn(List.of());
+
+        expiring.syncStamp(key, 3, 3);
+        expiring.syncStamp(key, 3, 3); // valid stamp - not reloaded, whatever its age
+        verify(appointmentRepository, times(1)).findDoctorSlots(eq(DOCTOR), any(), any(), anyList());
+    }
+
+    static BookedSlot slot(Long id, LocalDateTime start, int durationMinutes) {
+        BookedSlot slot = mock(BookedSlot.class);
+        when(slot.getId()).thenReturn(id);
+        when(slot.getAppointmentDateTime()).thenReturn(start);
+        when(slot.getDurationMinutes()).thenReturn(durationMinutes);
+        return slot;
+    }
+}
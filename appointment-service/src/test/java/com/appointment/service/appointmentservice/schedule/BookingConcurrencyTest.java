@@ -0,0 +1,158 @@
+package com.appointment.service.appointmentservice.schedule;
+
+import com.appointment.service.appointmentservice.dto.AppointmentRequestDTO;
+import com.appointment.service.appointmentservice.model.Appointment;
+import com.appointment.service.appointmentservice.repository.AppointmentRepository;
+import com.appointment.service.appointmentservice.service.AppointmentService;
+import com.appointment.service.appointmentservice.service.ExternalServiceClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test for createAppointment: many threads book overlapping slots at the same time and
+ * the committed appointments must never overlap for a doctor or a patient.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.appointment.service.appointmentservice=INFO",
+        "logging.level.org.springframework.web=INFO"
+})
+class BookingConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @MockitoBean
+    private ExternalServiceClient externalServiceClient;
+
+    @BeforeEach
+    void allowAllParticipants() {
+        when(externalServiceClient.checkPatientExists(any())).thenReturn(true);
+        when(externalServiceClient.checkDoctorExists(any())).thenReturn(true);
+    }
+
+    @Test
+    void sameSlotIsBookedExactlyOnce() throws Exception {
+        LocalDateTime slot = LocalDateTime.now().plusDays(10).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        List<AppointmentRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            requests.add(request(1000L + i, 500L, slot.plusMinutes(i % 3 * 10), 30));
+        }
+
+        Result result = bookConcurrently(requests);
+
+        assertEquals(0, result.unexpected().get(), "unexpected failures: " + result.errors());
+        assertEquals(1, result.booked().get());
+        assertNoOverlaps(appointmentRepository.findAll());
+    }
+
+    @Test
+    void randomOverlappingBookingsNeverDoubleBook() throws Exception {
+        LocalDateTime day = LocalDateTime.now().plusDays(11).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        Random random = new Random(7);
+        List<AppointmentRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long doctorId = 600L + random.nextInt(4);
+            long patientId = 2000L + random.nextInt(40);
+            // Late slots run past midnight into the next day
+            LocalDateTime start = random.nextInt(10) == 0
+                    ? day.withHour(22).plusMinutes(5L * random.nextInt(36))
+                    : day.plusMinutes(5L * random.nextInt(96));
+            requests.add(request(patientId, doctorId, start, 15 + 5 * random.nextInt(10)));
+        }
+
+        Result result = bookConcurrently(requests);
+
+        assertEquals(0, result.unexpected().get(), "unexpected failures: " + result.errors());
+        assertTrue(result.booked().get() > 0);
+        assertNoOverlaps(appointmentRepository.findAll());
+    }
+
+    private Result bookConcurrently(List<AppointmentRequestDTO> requests) throws InterruptedException {
+        Result result = new Result(new AtomicInteger(), new AtomicInteger(), new ConcurrentLinkedQueue<>());
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (AppointmentRequestDTO request : requests) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    appointmentService.createAppointment(request);
+                    result.booked().incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    // Conflict - expected for most of them
+                } catch (Exception e) {
+                    result.unexpected().incrementAndGet();
+                    result.errors().add(e.toString());
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        return result;
+    }
+
+    private static void assertNoOverlaps(List<Appointment> appointments) {
+        List<Appointment> blocking = appointments.stream()
+                .filter(a -> Booking.blocks(a.getStatus()))
+                .toList();
+        assertNoOverlaps(blocking, Appointment::getDoctorId, "doctor");
+        assertNoOverlaps(blocking, Appointment::getPatientId, "patient");
+    }
+
+    private static void assertNoOverlaps(List<Appointment> appointments, Function<Appointment, Long> owner, String kind) {
+        Map<Long, List<Appointment>> byOwner = appointments.stream().collect(Collectors.groupingBy(owner));
+        byOwner.forEach((ownerId, list) -> {
+            List<Appointment> sorted = list.stream()
+                    .sorted(Comparator.comparing(Appointment::getAppointmentDateTime))
+                    .toList();
+            for (int i = 1; i < sorted.size(); i++) {
+                Appointment previous = sorted.get(i - 1);
+                LocalDateTime previousEnd = previous.getAppointmentDateTime().plusMinutes(previous.getDurationMinutes());
+                assertTrue(!sorted.get(i).getAppointmentDateTime().isBefore(previousEnd),
+                        kind + " " + ownerId + " double-booked: " + previous.getId() + " and " + sorted.get(i).getId());
+            }
+        });
+    }
+
+    private static AppointmentRequestDTO request(long patientId, long doctorId, LocalDateTime start, int duration) {
+        AppointmentRequestDTO request = new AppointmentRequestDTO();
+        request.setPatientId(patientId);
+        request.setDoctorId(doctorId);
+        request.setAppointmentDateTime(start);
+        request.setDurationMinutes(duration);
+        request.setType(Appointment.AppointmentType.CONSULTATION);
+        return request;
+    }
+
+    private record Result(AtomicInteger booked, AtomicInteger unexpected, ConcurrentLinkedQueue<String> errors) {
+    }
+}
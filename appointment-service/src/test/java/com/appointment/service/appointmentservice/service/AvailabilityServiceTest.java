@@ -0,0 +1,218 @@
+package com.appointment.service.appointmentservice.service;
+
+import com.appointment.service.appointmentservice.dto.AvailableSlotDTO;
+import com.appointment.service.appointmentservice.repository.AppointmentRepository;
+import com.appointment.service.appointmentservice.repository.AppointmentRepository.BookedSlot;
+import com.appointment.service.appointmentservice.schedule.AppointmentIntervalIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Free-slot search over the busy-tick bitmaps: day boundaries, tick alignment, uneven durations and rejected requests
+ */
+class AvailabilityServiceTest {
+
+    private static final Long DOCTOR = 1L;
+    private static final Long OTHER_DOCTOR = 2L;
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final List<Booked> booked = new ArrayList<>();
+    private final List<AvailabilityService> services = new ArrayList<>();
+
+    private record Booked(Long doctorId, BookedSlot slot) {}
+
+    @BeforeEach
+    void stubDoctorDays() {
+        when(appointmentRepository.findDoctorSlots(anyLong(), any(), any(), anyList())).thenAnswer(invocation -> {
+            Long doctorId = invocation.getArgument(0);
+            LocalDateTime from = invocation.getArgument(1);
+            LocalDateTime to = invocation.getArgument(2);
+            return booked.stream()
+                    .filter(b -> b.doctorId().equals(doctorId))
+                    .map(Booked::slot)
+                    .filter(slot -> !slot.getAppointmentDateTime().isBefore(from)
+                            && slot.getAppointmentDateTime().isBefore(to))
+                    .toList();
+        });
+    }
+
+    @AfterEach
+    void shutdownServices() {
+        services.forEach(AvailabilityService::shutdown);
+    }
+
+    @Test
+    void previousDayAppointmentRunningPastMidnightBlocksEarlyTicks() {
+        AvailabilityService roundTheClock = service(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT);
+        book(DOCTOR, DAY.minusDays(1).atTime(23, 0), 120);
+
+        assertEquals(List.of("01:00", "01:30"),
+                starts(roundTheClock.findFreeSlots(DOCTOR, DAY.atStartOfDay(), DAY.atTime(2, 0), 30, 10)));
+    }
+
+    @Test
+    void windowSpanningMidnightSkipsTheOvernightAppointment() {
+        AvailabilityService roundTheClock = service(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT);
+        book(DOCTOR, DAY.minusDays(1).atTime(23, 0), 120);
+
+        List<AvailableSlotDTO> slots = roundTheClock.findFreeSlots(DOCTOR, DAY.minusDays(1).atTime(22, 0),
+                DAY.atTime(2, 0), 30, 10);
+
+        assertEquals(List.of("22:00", "22:30", "01:00", "01:30"), starts(slots));
+        assertEquals(DAY.atTime(1, 0), slots.get(2).getStart());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "09:00, 09:00",
+            "09:02:30, 09:05",
+            "09:05, 09:05",
+            "09:05:00.000001, 09:10",
+            "09:04:59.999, 09:05",
+            "06:30, 08:00"
+    })
+    void slotsStartOnTheFirstTickAtOrAfterTheWindowStart(String from, String firstStart) {
+        AvailabilityService availability = service(LocalTime.of(8, 0), LocalTime.of(18, 0));
+
+        List<AvailableSlotDTO> slots = availability.findFreeSlots(DOCTOR, DAY.atTime(LocalTime.parse(from)),
+                DAY.atTime(18, 0), 15, 2);
+
+        assertEquals(DAY.atTime(LocalTime.parse(firstStart)), slots.get(0).getStart());
+        assertEquals(Duration.ofMinutes(15), Duration.between(slots.get(0).getStart(), slots.get(1).getStart()));
+    }
+
+    @Test
+    void openingAndClosingTimesOffTheTickGridShrinkTheDay() {
+        AvailabilityService availability = service(LocalTime.of(8, 3), LocalTime.of(8, 57));
+
+        assertEquals(List.of("08:05", "08:25"),
+                starts(availability.findFreeSlots(DOCTOR, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), 20, 10)));
+    }
+
+    @Test
+    void unevenDurationTakesWholeTicks() {
+        AvailabilityService availability = service(LocalTime.of(8, 0), LocalTime.of(18, 0));
+
+        List<AvailableSlotDTO> slots = availability.findFreeSlots(DOCTOR, DAY.atTime(8, 0), DAY.atTime(18, 0), 7, 3);
+
+        assertEquals(List.of("08:00", "08:10", "08:20"), starts(slots));
+        assertEquals(DAY.atTime(8, 7), slots.get(0).getEnd());
+    }
+
+    @Test
+    void unevenDurationDoesNotFitAGapOneTickShort() {
+        AvailabilityService availability = service(LocalTime.of(8, 0), LocalTime.of(18, 0));
+        book(DOCTOR, DAY.atTime(8, 10), 20);
+        book(DOCTOR, DAY.atTime(8, 40), 7); // ends off the grid: 08:45 is busy too
+
+        // 12 minutes need 3 ticks; 08:00-08:10 has 2, 08:30-08:40 has 2
+        assertEquals(List.of("08:50", "09:05"),
+                starts(availability.findFreeSlots(DOCTOR, DAY.atTime(8, 0), DAY.atTime(18, 0), 12, 2)));
+        assertEquals(List.of("08:00", "08:30", "08:50"),
+                starts(availability.findFreeSlots(DOCTOR, DAY.atTime(8, 0), DAY.atTime(18, 0), 10, 3)));
+    }
+
+    @Test
+    void lastSlotEndsByTheWindowEndAndClosingTime() {
+        AvailabilityService availability = service(LocalTime.of(8, 0), LocalTime.of(18, 0));
+
+        assertEquals(List.of("17:00", "17:30"),
+                starts(availability.findFreeSlots(DOCTOR, DAY.atTime(17, 0), DAY.atTime(23, 0), 30, 10)));
+        assertEquals(List.of("17:00"),
+                starts(availability.findFreeSlots(DOCTOR, DAY.atTime(17, 0), DAY.atTime(17, 59), 30, 10)));
+    }
+
+    @Test
+    void doctorsAreMergedEarliestFirstWithTiesByDoctorId() {
+        AvailabilityService availability = service(LocalTime.of(8, 0), LocalTime.of(18, 0));
+        book(DOCTOR, DAY.atTime(8, 0), 30);
+
+        List<AvailableSlotDTO> slots = availability.findFreeSlots(List.of(OTHER_DOCTOR, DOCTOR, OTHER_DOCTOR),
+                DAY.atTime(8, 0), DAY.atTime(18, 0), 30, 3);
+
+        assertEquals(List.of("08:00", "08:30", "08:30"), starts(slots));
+        assertEquals(List.of(OTHER_DOCTOR, DOCTOR, OTHER_DOCTOR), slots.stream().map(AvailableSlotDTO::getDoctorId).toList());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 10",
+            "241, 10",
+            "30, 0",
+            "30, 101"
+    })
+    void durationAndLimitOutOfRangeAreRejected(int duration, int limit) {
+        AvailabilityService availability = service(LocalTime.of(8, 0), LocalTime.of(18, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> availability.findFreeSlots(DOCTOR, DAY.atTime(8, 0),
+                DAY.atTime(18, 0), duration, limit));
+    }
+
+    @Test
+    void invalidWindowsAreRejected() {
+        AvailabilityService availability = service(LocalTime.of(8, 0), LocalTime.of(18, 0));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> availability.findFreeSlots(DOCTOR, DAY.atTime(9, 0), DAY.atTime(9, 0), 30, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> availability.findFreeSlots(DOCTOR, DAY.atTime(9, 0), DAY.atTime(8, 0), 30, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> availability.findFreeSlots(DOCTOR, DAY.atTime(9, 0), DAY.plusDays(31).atTime(9, 1), 30, 10));
+        // A window entirely in the past ends before "now", where the search starts
+        assertThrows(IllegalArgumentException.class,
+                () -> availability.findFreeSlots(DOCTOR, null, LocalDateTime.now().minusDays(1), 30, 10));
+    }
+
+    @Test
+    void missingOrTooManyDoctorsAreRejected() {
+        AvailabilityService availability = service(LocalTime.of(8, 0), LocalTime.of(18, 0));
+        LocalDateTime from = DAY.atTime(8, 0);
+        LocalDateTime to = DAY.atTime(18, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> availability.findFreeSlots((Long) null, from, to, 30, 10));
+        assertThrows(IllegalArgumentException.class, () -> availability.findFreeSlots(List.of(), from, to, 30, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> availability.findFreeSlots(Arrays.asList(DOCTOR, null), from, to, 30, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> availability.findFreeSlots(List.of(1L, 2L, 3L, 4L), from, to, 30, 10));
+    }
+
+    private AvailabilityService service(LocalTime openingTime, LocalTime closingTime) {
+        AppointmentIntervalIndex index = new AppointmentIntervalIndex(appointmentRepository, 1000, Duration.ofMinutes(5));
+        AvailabilityService service = new AvailabilityService(index, openingTime, closingTime, 7, 31, 100, 3, 2);
+        services.add(service);
+        return service;
+    }
+
+    private void book(Long doctorId, LocalDateTime start, int durationMinutes) {
+        BookedSlot slot = mock(BookedSlot.class);
+        when(slot.getId()).thenReturn((long) booked.size() + 1);
+        when(slot.getAppointmentDateTime()).thenReturn(start);
+        when(slot.getDurationMinutes()).thenReturn(durationMinutes);
+        booked.add(new Booked(doctorId, slot));
+    }
+
+    private static List<String> starts(List<AvailableSlotDTO> slots) {
+        return slots.stream().map(slot -> slot.getStart().toLocalTime().toString()).toList();
+    }
+}
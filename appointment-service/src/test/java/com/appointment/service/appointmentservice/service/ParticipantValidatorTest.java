@@ -0,0 +1,143 @@
+package com.appointment.service.appointmentservice.service;
+
+import com.appointment.service.appointmentservice.exception.ServiceBusyException;
+import com.appointment.service.appointmentservice.exception.ServiceTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Participant checks under one deadline: slow services, missing participants and a saturated pool
+ */
+class ParticipantValidatorTest {
+
+    private final ExternalServiceClient externalServiceClient = mock(ExternalServiceClient.class);
+    private ParticipantValidator validator;
+
+    @AfterEach
+    void shutdown() {
+        validator.shutdown();
+    }
+
+    @Test
+    void slowParticipantServiceHitsTheDeadline() throws Exception {
+        validator = new ParticipantValidator(externalServiceClient, 200, 4);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(externalServiceClient.checkPatientExists(any())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return true;
+        });
+        when(externalServiceClient.checkDoctorExists(any())).thenReturn(true);
+
+        long start = System.nanoTime();
+        ServiceTimeoutException e = assertThrows(ServiceTimeoutException.class, () -> validator.validate(1L, 2L));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("Patient and doctor validation timed out after 200 ms", e.getMessage());
+        assertTrue(elapsedMillis >= 150 && elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "slow call not cancelled");
+    }
+
+    @Test
+    void timeQueuedForAWorkerCountsAgainstTheDeadline() throws Exception {
+        validator = new ParticipantValidator(externalServiceClient, 300, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        // Ignores the cancellation, like an HTTP call stuck in a connect - the worker stays taken
+        when(externalServiceClient.checkPatientExists(eq(1L))).thenAnswer(invocation -> {
+            busy.countDown();
+            while (true) {
+                try {
+                    release.await();
+                    return true;
+                } catch (InterruptedException ignored) {
+                    // keep waiting
+                }
+            }
+        });
+        when(externalServiceClient.checkPatientExists(eq(3L))).thenReturn(true);
+        when(externalServiceClient.checkDoctorExists(any())).thenReturn(true);
+
+        CompletableFuture<Void> blocking = CompletableFuture.runAsync(() -> validator.validate(1L, 2L));
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        try {
+            // Fast checks, but stuck behind the blocked one on the only worker
+            assertThrows(ServiceTimeoutException.class, () -> validator.validate(3L, 4L));
+        } finally {
+            release.countDown();
+        }
+        assertThrows(Exception.class, () -> blocking.get(5, TimeUnit.SECONDS)); // timed out as well
+    }
+
+    @Test
+    void missingParticipantIsNamed() {
+        validator = new ParticipantValidator(externalServiceClient, 1_000, 4);
+        when(externalServiceClient.checkPatientExists(any())).thenReturn(true);
+        when(externalServiceClient.checkDoctorExists(any())).thenReturn(false);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> validator.validate(1L, 2L));
+        assertEquals("Doctor with ID 2 does not exist", e.getMessage());
+    }
+
+    @Test
+    void failingCheckCountsAsNotValidated() {
+        validator = new ParticipantValidator(externalServiceClient, 1_000, 4);
+        when(externalServiceClient.checkPatientExists(any())).thenThrow(new IllegalStateException("boom"));
+        when(externalServiceClient.checkDoctorExists(any())).thenReturn(true);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> validator.validate(1L, 2L));
+        assertEquals("Patient with ID 1 does not exist", e.getMessage());
+    }
+
+    @Test
+    void saturatedPoolRefusesInsteadOfCheckingOnTheRequestThread() throws Exception {
+        validator = new ParticipantValidator(externalServiceClient, 5_000, 1);
+        ThreadPoolExecutor workers = (ThreadPoolExecutor) ReflectionTestUtils.getField(validator, "workers");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        when(externalServiceClient.checkPatientExists(any())).thenAnswer(invocation -> {
+            busy.countDown();
+            release.await();
+            return true;
+        });
+        when(externalServiceClient.checkDoctorExists(any())).thenReturn(true);
+
+        // One worker and a queue of four: the first booking holds the worker and queues one check, the second two
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> validator.validate(1L, 2L));
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> validator.validate(3L, 4L));
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (workers.getQueue().size() < 3 && System.nanoTime() < waitUntil) {
+            Thread.onSpinWait();
+        }
+        assertEquals(3, workers.getQueue().size());
+
+        try {
+            long start = System.nanoTime();
+            ServiceBusyException e = assertThrows(ServiceBusyException.class, () -> validator.validate(5L, 6L));
+            assertEquals("Participant validation is busy, please try again", e.getMessage());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        } finally {
+            release.countDown();
+        }
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+    }
+}
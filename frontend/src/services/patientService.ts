@@ -1,6 +1,7 @@
 import axios from 'axios';
 import { API_BASE_URLS } from '../config/apiConfig';
 import authService from './authService';
+import { PatientChart } from '../types/patient.types';
 
 const getAuthHeaders = () => ({
   headers: {
@@ -25,6 +26,18 @@ const patientService = {
     return response.data;
   },
 
+  // Patient, allergies and records with diagnoses/prescriptions in one request
+  getPatientChart: async (
+    id: string,
+    options: { from?: string; to?: string; limit?: number } = {}
+  ): Promise<PatientChart> => {
+    const response = await axios.get(
+      `${API_BASE_URLS.PATIENT}/patients/${id}/chart`,
+      { ...getAuthHeaders(), params: options }
+    );
+    return response.data;
+  },
+
   getPatientByEmail: async (email: string) => {
     const response = await axios.get(
       `${API_BASE_URLS.PATIENT}/patients/email?email=${encodeURIComponent(email)}`,
@@ -1,3 +1,5 @@
+import { MedicalRecord } from './medicalRecord.types';
+
 export interface Patient {
   id: string; 
   name: string;
@@ -7,6 +9,19 @@ export interface Patient {
   registeredDate: string; 
 }
 
+export interface PatientChartRecord {
+  record: MedicalRecord;
+  diagnoses: any[];
+  prescriptions: any[];
+}
 
-
-
+export interface PatientChart {
+  patient: Patient;
+  allergies: any[];
+  records: PatientChartRecord[];
+  from?: string;
+  to?: string;
+  recordLimit: number;
+  truncated: boolean;
+  generatedAt: string;
+}
@@ -0,0 +1,55 @@
+package com.patient.service.patientservice.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Stored form of a cached value in both tiers
+ * writtenAt is wall-clock millis so instances sharing L2 agree on an entry's age.
+ * tags travel with the entry so an L1 promoted from L2 can index it without re-deriving them.
+ */
+public class CacheEntry {
+
+    private Object value;
+    private long writtenAt;
+    private Set<String> tags = new HashSet<>();
+
+    // Constructors
+    public CacheEntry() {}
+
+    public CacheEntry(Object value, long writtenAt) {
+        this.value = value;
+        this.writtenAt = writtenAt;
+    }
+
+    public CacheEntry(Object value, long writtenAt, Set<String> tags) {
+        this.value = value;
+        this.writtenAt = writtenAt;
+        this.tags = new HashSet<>(tags); // concrete type keeps the stored form decodable
+    }
+
+    // Getters and Setters
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getWrittenAt() {
+        return writtenAt;
+    }
+
+    public void setWrittenAt(long writtenAt) {
+        this.writtenAt = writtenAt;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(Set<String> tags) {
+        this.tags = tags != null ? tags : new HashSet<>();
+    }
+}
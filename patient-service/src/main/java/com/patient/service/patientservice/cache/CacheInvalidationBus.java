@@ -0,0 +1,87 @@
+package com.patient.service.patientservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 invalidations to the other patient-service instances over Redis pub/sub
+ * Message layout: originInstanceId|op|cacheName|key (op E = evict key, C = clear cache)
+ * Tag invalidations (op T) carry the comma-separated, already expanded tags in the key slot.
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+    public static final String CHANNEL = "healthflow:cache:invalidation";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+    private static final String TAGS = "T";
+
+    /**
+     * Applies an invalidation received from another instance to the local tier only
+     */
+    public interface Listener {
+        void onRemoteEvict(String cacheName, String key);
+
+        void onRemoteClear(String cacheName);
+
+        void onRemoteInvalidateTags(Collection<String> tags);
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile Listener listener;
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(EVICT, cacheName, String.valueOf(key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(CLEAR, cacheName, "");
+    }
+
+    public void publishInvalidateTags(Collection<String> tags) {
+        publish(TAGS, "", String.join(",", tags));
+    }
+
+    private void publish(String op, String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + "|" + op + "|" + cacheName + "|" + key);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish cache invalidation for {} {}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        Listener current = listener;
+        if (parts.length < 4 || current == null || instanceId.equals(parts[0])) {
+            return; // malformed, not wired yet, or our own broadcast
+        }
+        if (CLEAR.equals(parts[1])) {
+            current.onRemoteClear(parts[2]);
+        } else if (EVICT.equals(parts[1])) {
+            current.onRemoteEvict(parts[2], parts[3]);
+        } else if (TAGS.equals(parts[1])) {
+            current.onRemoteInvalidateTags(Arrays.asList(parts[3].split(",")));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.patient.service.patientservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tag-based invalidation across all caches
+ * Expands the tags through the dependency graph, drops the matching L1 keys on this instance,
+ * deletes the matching L2 keys in one Redis round trip and tells the other instances to do the same.
+ * Inside a transaction the tags are collected and invalidated once, after commit; a rollback drops them.
+ */
+public class CacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidator.class);
+
+    private final TwoLevelCacheManager cacheManager;
+    private final CacheTagGraph tagGraph;
+    private final RedisCacheTier remote;
+    private final CacheInvalidationBus invalidationBus;
+
+    public CacheInvalidator(TwoLevelCacheManager cacheManager, CacheTagGraph tagGraph,
+                            RedisCacheTier remote, CacheInvalidationBus invalidationBus) {
+        this.cacheManager = cacheManager;
+        this.tagGraph = tagGraph;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+    }
+
+    public int invalidate(String... tags) {
+        return invalidate(List.of(tags));
+    }
+
+    /**
+     * @return number of keys removed from this instance's L1 (0 when deferred to commit)
+     */
+    public int invalidate(Collection<String> tags) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingTags().addAll(tags);
+            return 0;
+        }
+        return invalidateNow(tags);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> pendingTags() {
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> tags = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, tags);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(tags);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidator.this);
+                }
+            });
+            pending = tags;
+        }
+        return pending;
+    }
+
+    private int invalidateNow(Collection<String> tags) {
+        Set<String> expanded = tagGraph.expand(tags);
+        int removed = cacheManager.invalidateLocalTags(expanded);
+        if (remote != null) {
+            remote.invalidateTags(expanded);
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publishInvalidateTags(expanded);
+        }
+        log.debug("Invalidated tags {} ({} local keys)", expanded, removed);
+        return removed;
+    }
+}
@@ -0,0 +1,141 @@
+package com.patient.service.patientservice.cache;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one two-level cache
+ * Kept independent of Micrometer so /cache/stats works even without a meter registry.
+ */
+public class CacheMetrics {
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder rejectedPuts = new LongAdder();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private volatile Timer loadTimer;
+
+    void recordLocalHit() {
+        localHits.increment();
+    }
+
+    void recordRemoteHit() {
+        remoteHits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordPut() {
+        puts.increment();
+    }
+
+    void recordInvalidation() {
+        invalidations.increment();
+    }
+
+    void recordCoalescedLoad() {
+        coalescedLoads.increment();
+    }
+
+    void recordRefresh() {
+        refreshes.increment();
+    }
+
+    void recordRefreshFailure() {
+        refreshFailures.increment();
+    }
+
+    void recordStaleHit() {
+        staleHits.increment();
+    }
+
+    void recordRejectedPut() {
+        rejectedPuts.increment();
+    }
+
+    void recordLoad(long nanos) {
+        loadLatency.record(nanos);
+        Timer timer = loadTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Mirror load latencies into a Micrometer timer once the registry is bound
+     */
+    void bindLoadTimer(Timer timer) {
+        this.loadTimer = timer;
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getHits() {
+        return localHits.sum() + remoteHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Misses that waited on another caller's in-flight load instead of loading themselves
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads.sum();
+    }
+
+    /**
+     * Background reloads started by refresh-ahead
+     */
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    /**
+     * Expired values served inside the stale grace window because the reload failed
+     */
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    /**
+     * Loaded values not stored because their entity was invalidated while the load ran
+     */
+    public long getRejectedPuts() {
+        return rejectedPuts.sum();
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+}
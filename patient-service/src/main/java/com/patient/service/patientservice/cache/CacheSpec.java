@@ -0,0 +1,112 @@
+package com.patient.service.patientservice.cache;
+
+import java.time.Duration;
+
+/**
+ * Per-cache settings for the two-level cache
+ * Declared once in CacheConfig and shared by the local (L1) and Redis (L2) tiers
+ */
+public class CacheSpec {
+
+    private static final long DEFAULT_LOCAL_MAX_BYTES = 8L * 1024 * 1024;
+
+    private final String name;
+    private final Duration ttl;
+    private long localMaxBytes = DEFAULT_LOCAL_MAX_BYTES;
+    private double refreshAheadFraction;
+    private Duration staleGrace = Duration.ZERO;
+    private CacheValueSerializer valueSerializer = CacheValueSerializer.legacyJson();
+    private CacheTagger tagger = CacheTagger.NONE;
+
+    private CacheSpec(String name, Duration ttl) {
+        this.name = name;
+        this.ttl = ttl;
+    }
+
+    public static CacheSpec of(String name, Duration ttl) {
+        return new CacheSpec(name, ttl);
+    }
+
+    /**
+     * Upper bound for the estimated heap footprint of the local tier
+     */
+    public CacheSpec localMaxBytes(long localMaxBytes) {
+        this.localMaxBytes = localMaxBytes;
+        return this;
+    }
+
+    /**
+     * Reload asynchronously once an entry is older than this fraction of its TTL
+     * The read that notices it still gets the cached value. 0 disables refresh-ahead.
+     */
+    public CacheSpec refreshAhead(double fractionOfTtl) {
+        if (fractionOfTtl < 0 || fractionOfTtl >= 1) {
+            throw new IllegalArgumentException("refresh-ahead fraction must be in [0, 1)");
+        }
+        this.refreshAheadFraction = fractionOfTtl;
+        return this;
+    }
+
+    /**
+     * Keep expired entries this much longer and serve them if the reload fails
+     */
+    public CacheSpec staleGrace(Duration staleGrace) {
+        this.staleGrace = staleGrace;
+        return this;
+    }
+
+    /**
+     * Encoding of values in the Redis tier (legacy JSON unless set)
+     */
+    public CacheSpec valueSerializer(CacheValueSerializer valueSerializer) {
+        this.valueSerializer = valueSerializer;
+        return this;
+    }
+
+    /**
+     * Tags attached to each entry, used by CacheInvalidator
+     */
+    public CacheSpec tagger(CacheTagger tagger) {
+        this.tagger = tagger;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public long getLocalMaxBytes() {
+        return localMaxBytes;
+    }
+
+    public double getRefreshAheadFraction() {
+        return refreshAheadFraction;
+    }
+
+    public boolean isRefreshAhead() {
+        return refreshAheadFraction > 0;
+    }
+
+    public CacheTagger getTagger() {
+        return tagger;
+    }
+
+    public CacheValueSerializer getValueSerializer() {
+        return valueSerializer;
+    }
+
+    public Duration getStaleGrace() {
+        return staleGrace;
+    }
+
+    /**
+     * How long an entry is physically kept in either tier (TTL plus stale grace)
+     */
+    public Duration getRetention() {
+        return ttl.plus(staleGrace);
+    }
+}
@@ -0,0 +1,62 @@
+package com.patient.service.patientservice.cache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependencies between tag types: invalidating a parent tag also invalidates its children
+ * e.g. patient:X -> patient-allergies:X, because allergy DTOs embed the patient's name.
+ */
+public class CacheTagGraph {
+
+    // parent type -> child types sharing the parent's id
+    private final Map<String, List<String>> sameIdChildren = new HashMap<>();
+    // parent type -> fixed child tags
+    private final Map<String, List<String>> fixedChildren = new HashMap<>();
+
+    /**
+     * parentType:id also invalidates childType:id
+     */
+    public CacheTagGraph cascade(String parentType, String childType) {
+        sameIdChildren.computeIfAbsent(parentType, type -> new ArrayList<>()).add(childType);
+        return this;
+    }
+
+    /**
+     * Any parentType tag also invalidates the given fixed tag
+     */
+    public CacheTagGraph cascadeTo(String parentType, String childTag) {
+        fixedChildren.computeIfAbsent(parentType, type -> new ArrayList<>()).add(childTag);
+        return this;
+    }
+
+    /**
+     * The given tags plus everything reachable from them
+     */
+    public Set<String> expand(Collection<String> tags) {
+        Set<String> expanded = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(tags);
+        while (!pending.isEmpty()) {
+            String tag = pending.poll();
+            if (!expanded.add(tag)) {
+                continue;
+            }
+            String type = CacheTags.typeOf(tag);
+            String id = CacheTags.idOf(tag);
+            if (id != null) {
+                for (String childType : sameIdChildren.getOrDefault(type, List.of())) {
+                    pending.add(CacheTags.of(childType, id));
+                }
+            }
+            pending.addAll(fixedChildren.getOrDefault(type, List.of()));
+        }
+        return expanded;
+    }
+}
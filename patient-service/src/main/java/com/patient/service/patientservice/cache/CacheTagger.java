@@ -0,0 +1,14 @@
+package com.patient.service.patientservice.cache;
+
+import java.util.Set;
+
+/**
+ * Derives the tags of a cache entry from its key and loaded value
+ */
+@FunctionalInterface
+public interface CacheTagger {
+
+    CacheTagger NONE = (key, value) -> Set.of();
+
+    Set<String> tagsFor(Object key, Object value);
+}
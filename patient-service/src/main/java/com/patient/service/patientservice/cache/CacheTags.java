@@ -0,0 +1,73 @@
+package com.patient.service.patientservice.cache;
+
+/**
+ * Tags linking cache entries to the entities they were built from
+ * A tag is "type:id" (or a bare type for collection-wide tags such as the patient list).
+ * Writers invalidate tags instead of naming cache keys; CacheTagGraph adds the dependent tags.
+ */
+public final class CacheTags {
+
+    public static final String PATIENT = "patient";
+    public static final String PATIENT_LIST = "patient-list";
+    public static final String PATIENT_ALLERGIES = "patient-allergies";
+    public static final String PATIENT_RECORDS = "patient-records";
+    public static final String RECORD = "record";
+    public static final String PATIENT_CHART = "patient-chart";
+    public static final String RECORD_PRESCRIPTIONS = "record-prescriptions";
+
+    private static final char SEPARATOR = ':';
+    private static final int UUID_LENGTH = 36;
+
+    private CacheTags() {
+    }
+
+    public static String patient(Object patientId) {
+        return PATIENT + SEPARATOR + patientId;
+    }
+
+    public static String patientList() {
+        return PATIENT_LIST;
+    }
+
+    public static String patientAllergies(Object patientId) {
+        return PATIENT_ALLERGIES + SEPARATOR + patientId;
+    }
+
+    public static String patientRecords(Object patientId) {
+        return PATIENT_RECORDS + SEPARATOR + patientId;
+    }
+
+    public static String patientChart(Object patientId) {
+        return PATIENT_CHART + SEPARATOR + patientId;
+    }
+
+    public static String record(Object recordId) {
+        return RECORD + SEPARATOR + recordId;
+    }
+
+    public static String recordPrescriptions(Object recordId) {
+        return RECORD_PRESCRIPTIONS + SEPARATOR + recordId;
+    }
+
+    static String of(String type, String id) {
+        return type + SEPARATOR + id;
+    }
+
+    static String typeOf(String tag) {
+        int separator = tag.indexOf(SEPARATOR);
+        return separator < 0 ? tag : tag.substring(0, separator);
+    }
+
+    static String idOf(String tag) {
+        int separator = tag.indexOf(SEPARATOR);
+        return separator < 0 ? null : tag.substring(separator + 1);
+    }
+
+    /**
+     * Entity id at the start of a derived key such as "<patientId>-active-allergies"
+     */
+    public static String leadingId(Object key) {
+        String keyString = key.toString();
+        return keyString.length() >= UUID_LENGTH ? keyString.substring(0, UUID_LENGTH) : keyString;
+    }
+}
@@ -0,0 +1,18 @@
+package com.patient.service.patientservice.cache;
+
+import java.io.IOException;
+
+/**
+ * Encoding of cache values for the Redis tier
+ * The id is written into every framed entry so any instance can decode it, whatever its own setting.
+ */
+public interface CacheValueCodec {
+
+    byte getId();
+
+    String getName();
+
+    byte[] encode(Object value) throws IOException;
+
+    Object decode(byte[] bytes) throws IOException;
+}
@@ -0,0 +1,143 @@
+package com.patient.service.patientservice.cache;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Per-cache value serializer for the Redis tier
+ * Framed layout: [magic][codec id][flags][original length if LZ4][payload].
+ * Payloads at or above the compression threshold are LZ4-compressed when that makes them smaller.
+ * Bytes without the magic prefix are entries from before framing (plain JSON) and stay readable.
+ */
+public class CacheValueSerializer {
+
+    // Never the first byte of a JSON document, so framed and legacy entries cannot be confused
+    static final byte MAGIC = (byte) 0xC7;
+    private static final byte FLAG_LZ4 = 0x01;
+    private static final int HEADER_BYTES = 3;
+    private static final int MAX_DECOMPRESSED_BYTES = 64 * 1024 * 1024;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+    private static final RedisSerializer<Object> LEGACY_JSON = new GenericJackson2JsonRedisSerializer();
+    private static final Map<Byte, CacheValueCodec> CODECS = Map.of(
+            JacksonCacheValueCodec.JSON_ID, JacksonCacheValueCodec.json(),
+            JacksonCacheValueCodec.SMILE_ID, JacksonCacheValueCodec.smile(),
+            JacksonCacheValueCodec.CBOR_ID, JacksonCacheValueCodec.cbor());
+
+    private final CacheValueCodec codec; // null writes the legacy unframed JSON
+    private final int compressionThreshold;
+
+    private CacheValueSerializer(CacheValueCodec codec, int compressionThreshold) {
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Writes the original GenericJackson2JsonRedisSerializer format
+     */
+    public static CacheValueSerializer legacyJson() {
+        return new CacheValueSerializer(null, Integer.MAX_VALUE);
+    }
+
+    public static CacheValueSerializer of(CacheValueCodec codec) {
+        return new CacheValueSerializer(codec, Integer.MAX_VALUE);
+    }
+
+    /**
+     * LZ4-compress encoded values of at least this many bytes
+     */
+    public CacheValueSerializer lz4Above(int thresholdBytes) {
+        if (codec == null) {
+            throw new IllegalStateException("Legacy JSON entries are written unframed and cannot be compressed");
+        }
+        return new CacheValueSerializer(codec, thresholdBytes);
+    }
+
+    public String getName() {
+        if (codec == null) {
+            return "legacy-json";
+        }
+        return compressionThreshold == Integer.MAX_VALUE ? codec.getName() : codec.getName() + "+lz4";
+    }
+
+    public byte[] serialize(Object value) {
+        if (codec == null) {
+            return LEGACY_JSON.serialize(value);
+        }
+        byte[] payload;
+        try {
+            payload = codec.encode(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode cache value with " + codec.getName(), e);
+        }
+        if (payload.length >= compressionThreshold) {
+            byte[] framed = compressed(payload);
+            if (framed != null) {
+                return framed;
+            }
+        }
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        frame.put(MAGIC).put(codec.getId()).put((byte) 0).put(payload);
+        return frame.array();
+    }
+
+    private byte[] compressed(byte[] payload) {
+        LZ4Compressor compressor = LZ4.fastCompressor();
+        byte[] frame = new byte[HEADER_BYTES + Integer.BYTES + compressor.maxCompressedLength(payload.length)];
+        int offset = HEADER_BYTES + Integer.BYTES;
+        int compressedLength = compressor.compress(payload, 0, payload.length, frame, offset);
+        if (compressedLength >= payload.length) {
+            return null; // incompressible - store as is
+        }
+        ByteBuffer.wrap(frame).put(MAGIC).put(codec.getId()).put(FLAG_LZ4).putInt(payload.length);
+        return Arrays.copyOf(frame, offset + compressedLength);
+    }
+
+    public Object deserialize(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != MAGIC) {
+            return LEGACY_JSON.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_BYTES) {
+            throw new SerializationException("Truncated cache entry");
+        }
+        CacheValueCodec entryCodec = CODECS.get(bytes[1]);
+        if (entryCodec == null) {
+            throw new SerializationException("Unknown cache codec id " + bytes[1]);
+        }
+        byte[] payload = (bytes[2] & FLAG_LZ4) != 0
+                ? decompress(bytes)
+                : Arrays.copyOfRange(bytes, HEADER_BYTES, bytes.length);
+        try {
+            return entryCodec.decode(payload);
+        } catch (IOException e) {
+            throw new SerializationException("Could not decode cache value with " + entryCodec.getName(), e);
+        }
+    }
+
+    private static byte[] decompress(byte[] bytes) {
+        int offset = HEADER_BYTES + Integer.BYTES;
+        if (bytes.length < offset) {
+            throw new SerializationException("Truncated compressed cache entry");
+        }
+        int originalLength = ByteBuffer.wrap(bytes, HEADER_BYTES, Integer.BYTES).getInt();
+        if (originalLength < 0 || originalLength > MAX_DECOMPRESSED_BYTES) {
+            throw new SerializationException("Invalid decompressed length " + originalLength);
+        }
+        LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+        byte[] payload = new byte[originalLength];
+        int written = decompressor.decompress(bytes, offset, bytes.length - offset, payload, 0);
+        if (written != originalLength) {
+            throw new SerializationException("Corrupt compressed cache entry");
+        }
+        return payload;
+    }
+}
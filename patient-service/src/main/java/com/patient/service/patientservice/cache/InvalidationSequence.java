@@ -0,0 +1,49 @@
+package com.patient.service.patientservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-instance version stamps for cache invalidation
+ * Every invalidation takes the next sequence number and records it against each tag.
+ * A load remembers the sequence at its start; if one of its tags was invalidated after that,
+ * the load may have read pre-commit data and its put is rejected.
+ */
+public class InvalidationSequence {
+
+    // Stamps only need to outlive the longest load in flight
+    public static final Duration STAMP_RETENTION = Duration.ofMinutes(5);
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<String, Long> lastInvalidated = Caffeine.newBuilder()
+            .expireAfterWrite(STAMP_RETENTION)
+            .build();
+
+    public long current() {
+        return sequence.get();
+    }
+
+    /**
+     * Stamp the tags before their entries are removed, so a racing put sees the new stamp
+     */
+    public void invalidated(Collection<String> tags) {
+        long stamp = sequence.incrementAndGet();
+        for (String tag : tags) {
+            lastInvalidated.put(tag, stamp);
+        }
+    }
+
+    public boolean isStale(Collection<String> tags, long loadStartSequence) {
+        for (String tag : tags) {
+            Long stamp = lastInvalidated.getIfPresent(tag);
+            if (stamp != null && stamp > loadStartSequence) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package com.patient.service.patientservice.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.IOException;
+
+/**
+ * Jackson-based cache codecs: JSON, Smile and CBOR
+ * Type ids are kept (values are stored as Object), but Smile back-references repeated
+ * property names and class names, so a list of DTOs pays for each name once.
+ */
+public class JacksonCacheValueCodec implements CacheValueCodec {
+
+    public static final byte JSON_ID = 1;
+    public static final byte SMILE_ID = 2;
+    public static final byte CBOR_ID = 3;
+
+    private final byte id;
+    private final String name;
+    private final ObjectMapper mapper;
+
+    private JacksonCacheValueCodec(byte id, String name, JsonFactory factory) {
+        this.id = id;
+        this.name = name;
+        this.mapper = typedMapper(factory);
+    }
+
+    public static JacksonCacheValueCodec json() {
+        return new JacksonCacheValueCodec(JSON_ID, "json", new JsonFactory());
+    }
+
+    public static JacksonCacheValueCodec smile() {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new JacksonCacheValueCodec(SMILE_ID, "smile", factory);
+    }
+
+    public static JacksonCacheValueCodec cbor() {
+        return new JacksonCacheValueCodec(CBOR_ID, "cbor", new CBORFactory());
+    }
+
+    private static ObjectMapper typedMapper(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        // Instances on an older DTO version must still read entries written by newer ones
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        BasicPolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.patient.service.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.lang.")
+                .build();
+        mapper.activateDefaultTyping(typeValidator, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+
+    @Override
+    public byte getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        return mapper.readValue(bytes, Object.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.patient.service.patientservice.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free fixed-bucket latency histogram
+ * Buckets are log-spaced from 100us to 2.5s; percentiles report the bucket upper bound.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BUCKET_UPPER_BOUNDS_MICROS = {
+        100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+        100_000, 250_000, 500_000, 1_000_000, 2_500_000, Long.MAX_VALUE
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_UPPER_BOUNDS_MICROS.length];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int i = 0;
+        while (micros > BUCKET_UPPER_BOUNDS_MICROS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (double) n / 1_000_000;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Upper bound (ms) of the bucket holding the given quantile, e.g. 0.99
+     */
+    public double percentileMillis(double quantile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(quantile * n);
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i].sum();
+            if (cumulative >= threshold) {
+                return i == buckets.length - 1 ? getMaxMillis() : BUCKET_UPPER_BOUNDS_MICROS[i] / 1_000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Bucket label ("le" upper bound in ms) to count, in ascending order
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            String label = i == buckets.length - 1 ? "+Inf" : String.valueOf(BUCKET_UPPER_BOUNDS_MICROS[i] / 1_000.0);
+            snapshot.put(label, buckets[i].sum());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,114 @@
+package com.patient.service.patientservice.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cheap heap footprint estimate for cached values
+ * Walks strings, collections and our own DTO fields; good enough for weighing cache entries,
+ * not meant to be exact like a heap dump
+ */
+public final class ObjectSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+    private static final int MAX_DEPTH = 8;
+    private static final int OPAQUE_OBJECT = 64;
+
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    private ObjectSizeEstimator() {
+    }
+
+    public static long estimate(Object value) {
+        return estimate(value, 0);
+    }
+
+    private static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String s) {
+            return OBJECT_HEADER + 24L + s.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return OBJECT_HEADER + 8L;
+        }
+        if (value instanceof Enum<?>) {
+            return 0; // shared constant
+        }
+        if (value instanceof UUID) {
+            return OBJECT_HEADER + 16L;
+        }
+        if (value instanceof Temporal) {
+            return OBJECT_HEADER + 32L;
+        }
+        if (depth >= MAX_DEPTH) {
+            return OPAQUE_OBJECT;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = OBJECT_HEADER + 16L + (long) REFERENCE * collection.size();
+            for (Object element : collection) {
+                size += estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = OBJECT_HEADER + 32L + 32L * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            if (type.getComponentType().isPrimitive()) {
+                return OBJECT_HEADER + (long) length * 8;
+            }
+            long size = OBJECT_HEADER + (long) REFERENCE * length;
+            for (int i = 0; i < length; i++) {
+                size += estimate(Array.get(value, i), depth + 1);
+            }
+            return size;
+        }
+        if (type.getName().startsWith("java.")) {
+            return OPAQUE_OBJECT; // JDK internals are not reflectively accessible
+        }
+        long size = OBJECT_HEADER;
+        for (Field field : FIELDS.get(type)) {
+            if (field.getType().isPrimitive()) {
+                size += 8;
+                continue;
+            }
+            size += REFERENCE;
+            try {
+                size += estimate(field.get(value), depth + 1);
+            } catch (IllegalAccessException e) {
+                size += OPAQUE_OBJECT;
+            }
+        }
+        return size;
+    }
+}
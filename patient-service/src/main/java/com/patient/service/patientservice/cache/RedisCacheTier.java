@@ -0,0 +1,232 @@
+package com.patient.service.patientservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Shared Redis tier (L2) of the two-level cache
+ * Keys keep the "cacheName::key" layout of Spring's RedisCache so existing entries stay readable.
+ * Redis failures are logged and treated as misses so the service keeps running on L1 + database.
+ * Tagged entries are also added to one Redis set per tag (the reverse index used by CacheInvalidator).
+ * Invalidations bump a shared sequence and stamp each tag with it; a put carries the sequence read
+ * when its load started and is dropped atomically if any of its tags was stamped later.
+ * The scripts touch several keys at once, so this tier needs a standalone (or replicated) Redis, not a Cluster.
+ */
+public class RedisCacheTier {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheTier.class);
+
+    private static final int CLEAR_BATCH_SIZE = 500;
+    private static final String TAG_PREFIX = "healthflow:cache-tag:";
+    private static final String TAG_SEQUENCE_PREFIX = "healthflow:cache-tag-seq:";
+    private static final String SEQUENCE_KEY = "healthflow:cache-invalidation-seq";
+
+    // KEYS: sequence key, n tag sets, n tag stamps, then plain keys to delete. ARGV: n, stamp retention ms.
+    // Stamps every tag with a fresh sequence, deletes the tag sets and plain keys and returns the set members.
+    // The members are not declared in KEYS, so the caller deletes them - a script may only touch its KEYS.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> INVALIDATE_TAGS = new DefaultRedisScript<>("""
+            local n = tonumber(ARGV[1])
+            local seq = redis.call('INCR', KEYS[1])
+            local members = {}
+            for t = 2, n + 1 do
+              redis.call('SET', KEYS[t + n], seq, 'PX', ARGV[2])
+              for _, member in ipairs(redis.call('SMEMBERS', KEYS[t])) do
+                members[#members + 1] = member
+              end
+              redis.call('DEL', KEYS[t])
+            end
+            for k = 2 * n + 2, #KEYS do
+              redis.call('DEL', KEYS[k])
+            end
+            return members
+            """, List.class);
+
+    // KEYS: entry key, n tag sets, m stamp keys. ARGV: value, ttl ms, load start sequence, n, tag set ttl ms.
+    // Writes nothing (returns 0) when a stamp is newer than the load start
+    private static final RedisScript<Long> PUT_IF_NOT_INVALIDATED = new DefaultRedisScript<>("""
+            local n = tonumber(ARGV[4])
+            local startSeq = tonumber(ARGV[3])
+            for k = n + 2, #KEYS do
+              local stamp = redis.call('GET', KEYS[k])
+              if stamp and tonumber(stamp) > startSeq then
+                return 0
+              end
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            for t = 2, n + 1 do
+              redis.call('SADD', KEYS[t], KEYS[1])
+              redis.call('PEXPIRE', KEYS[t], ARGV[5])
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    // Tag sets outlive every entry they point to (longest retention of any cache)
+    private final Duration tagIndexTtl;
+
+    public RedisCacheTier(RedisConnectionFactory connectionFactory, Duration tagIndexTtl) {
+        this.tagIndexTtl = tagIndexTtl;
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
+    }
+
+    public static String redisKey(String cacheName, Object key) {
+        return cacheName + "::" + key;
+    }
+
+    static String tagKey(String tag) {
+        return TAG_PREFIX + tag;
+    }
+
+    static String tagSequenceKey(String tag) {
+        return TAG_SEQUENCE_PREFIX + tag;
+    }
+
+    /**
+     * Shared invalidation sequence; taken before a load and handed back to putIfNotInvalidated
+     * @return the sequence, or -1 when Redis is unavailable (the caller then skips L2)
+     */
+    public long currentSequence() {
+        try {
+            byte[] bytes = redisTemplate.opsForValue().get(SEQUENCE_KEY);
+            return bytes == null ? 0 : Long.parseLong(new String(bytes, StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            log.warn("Redis sequence read failed - skipping L2 write: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    public CacheEntry get(CacheSpec spec, Object key) {
+        String cacheName = spec.getName();
+        try {
+            byte[] bytes = redisTemplate.opsForValue().get(redisKey(cacheName, key));
+            if (bytes == null) {
+                return null;
+            }
+            Object stored = spec.getValueSerializer().deserialize(bytes);
+            // Entries written before values were wrapped carry no write time - treat them as fresh
+            return stored instanceof CacheEntry entry ? entry : new CacheEntry(stored, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("Redis read failed for {}::{} - treating as miss: {}", cacheName, key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Store the entry unless one of the version tags was invalidated after startSequence
+     * @return false if the write was rejected as stale
+     */
+    public boolean putIfNotInvalidated(CacheSpec spec, Object key, CacheEntry entry,
+                                       Collection<String> versionTags, long startSequence) {
+        String cacheName = spec.getName();
+        try {
+            // Stream.toList() results carry no public type Jackson can re-create
+            Object value = entry.getValue();
+            Object storable = value instanceof List<?> list && !(value instanceof ArrayList) ? new ArrayList<>(list) : value;
+            CacheEntry stored = new CacheEntry(storable, entry.getWrittenAt(), entry.getTags());
+            byte[] valueBytes = spec.getValueSerializer().serialize(stored);
+
+            List<String> keys = new ArrayList<>(1 + stored.getTags().size() + versionTags.size());
+            keys.add(redisKey(cacheName, key));
+            stored.getTags().forEach(tag -> keys.add(tagKey(tag)));
+            versionTags.forEach(tag -> keys.add(tagSequenceKey(tag)));
+            Long written = redisTemplate.execute(PUT_IF_NOT_INVALIDATED, keys, valueBytes,
+                    arg(spec.getRetention().toMillis()), arg(startSequence),
+                    arg(stored.getTags().size()), arg(tagIndexTtl.toMillis()));
+            return written == null || written != 0;
+        } catch (RuntimeException e) {
+            log.warn("Redis write failed for {}::{}: {}", cacheName, key, e.getMessage());
+            return true;
+        }
+    }
+
+    public void evict(String cacheName, Object key, String versionTag) {
+        try {
+            invalidate(List.of(versionTag), List.of(redisKey(cacheName, key)));
+        } catch (RuntimeException e) {
+            log.warn("Redis evict failed for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete every L2 entry carrying one of the tags and stamp the tags so in-flight puts are dropped
+     */
+    public void invalidateTags(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        try {
+            invalidate(tags, List.of());
+        } catch (RuntimeException e) {
+            log.warn("Redis tag invalidation failed for {}: {}", tags, e.getMessage());
+        }
+    }
+
+    private void invalidate(Collection<String> tags, List<String> plainKeys) {
+        List<String> keys = new ArrayList<>(1 + tags.size() * 2 + plainKeys.size());
+        keys.add(SEQUENCE_KEY);
+        tags.forEach(tag -> keys.add(tagKey(tag)));
+        tags.forEach(tag -> keys.add(tagSequenceKey(tag)));
+        keys.addAll(plainKeys);
+        List<?> members = redisTemplate.execute(INVALIDATE_TAGS, keys, arg(tags.size()),
+                arg(InvalidationSequence.STAMP_RETENTION.toMillis()));
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+        // The tags are stamped already, so a put racing these deletes is either rejected or carries fresh data
+        List<String> tagged = members.stream()
+                .map(member -> new String((byte[]) member, StandardCharsets.UTF_8))
+                .toList();
+        for (int from = 0; from < tagged.size(); from += CLEAR_BATCH_SIZE) {
+            redisTemplate.delete(tagged.subList(from, Math.min(from + CLEAR_BATCH_SIZE, tagged.size())));
+        }
+    }
+
+    private static byte[] arg(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void clear(String cacheName, String versionTag) {
+        try {
+            invalidate(List.of(versionTag), List.of());
+        } catch (RuntimeException e) {
+            log.warn("Redis clear failed for cache {}: {}", cacheName, e.getMessage());
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions().match(cacheName + "::*").count(CLEAR_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == CLEAR_BATCH_SIZE) {
+                    redisTemplate.delete(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                redisTemplate.delete(batch);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Redis clear failed for cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+}
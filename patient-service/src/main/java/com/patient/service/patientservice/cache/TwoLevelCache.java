@@ -0,0 +1,448 @@
+package com.patient.service.patientservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Spring Cache backed by a bounded in-process Caffeine tier (L1) in front of Redis (L2)
+ * L1 is size-weighted (W-TinyLFU admission) and expires with the same TTL as L2.
+ * Without Redis the cache runs on L1 alone, which keeps local and test runs cached.
+ * Loads through get(key, Callable) (@Cacheable(sync = true)) are single-flight per key:
+ * concurrent misses wait on the first caller's load instead of hitting the database again.
+ * Caches with refresh-ahead reload popular entries in the background before they expire,
+ * and entries past their TTL are kept for the stale grace window as a fallback if a reload fails.
+ * Background reloads see the triggering caller's SecurityContext but no request attributes.
+ * Each L1 entry is indexed by its tags; index updates happen inside the entry's atomic map operation.
+ * Loads are stamped with the invalidation sequence at their start; a put whose tags (or key) were
+ * invalidated meanwhile is rejected, so a reader racing a commit cannot cache pre-commit data.
+ * Only loads through get(key, Callable) know when they started, so cached methods use
+ * @Cacheable(sync = true); a plain put (@CachePut, non-sync flow) is stamped when it arrives.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final CacheSpec spec;
+    private final Cache<Object, CacheEntry> local;
+    private final RedisCacheTier remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final Executor refreshExecutor;
+    private final InvalidationSequence invalidationSequence;
+    // Entry timestamps (shared with other instances through L2) and L1 retention
+    private final Clock clock;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+    private final CacheMetrics metrics = new CacheMetrics();
+    // One load per key per instance; followers join the leader's future
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // tag -> L1 keys carrying it
+    private final ConcurrentMap<String, Set<Object>> tagIndex = new ConcurrentHashMap<>();
+
+    public TwoLevelCache(CacheSpec spec, RedisCacheTier remote, CacheInvalidationBus invalidationBus,
+                         Executor refreshExecutor, InvalidationSequence invalidationSequence) {
+        this(spec, remote, invalidationBus, refreshExecutor, invalidationSequence, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    TwoLevelCache(CacheSpec spec, RedisCacheTier remote, CacheInvalidationBus invalidationBus,
+                  Executor refreshExecutor, InvalidationSequence invalidationSequence, Clock clock, Ticker ticker) {
+        super(false);
+        this.spec = spec;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.refreshExecutor = refreshExecutor;
+        this.invalidationSequence = invalidationSequence;
+        this.clock = clock;
+        this.ttlMillis = spec.getTtl().toMillis();
+        this.refreshAfterMillis = spec.isRefreshAhead() ? (long) (ttlMillis * spec.getRefreshAheadFraction()) : Long.MAX_VALUE;
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(spec.getLocalMaxBytes())
+                .weigher((Object key, CacheEntry entry) ->
+                        (int) Math.min(Integer.MAX_VALUE, ObjectSizeEstimator.estimate(key) + ObjectSizeEstimator.estimate(entry)))
+                .expireAfterWrite(spec.getRetention())
+                .ticker(ticker)
+                .evictionListener((Object key, CacheEntry entry, RemovalCause cause) -> {
+                    if (key != null && entry != null) {
+                        unindex(key, entry);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return spec.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        TierRead read = readEntry(key);
+        if (read != null && !isExpired(read.entry(), clock.millis())) {
+            recordHit(read);
+            return read.entry().getValue();
+        }
+        metrics.recordMiss();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        TierRead read = readEntry(key);
+        if (read != null) {
+            CacheEntry entry = read.entry();
+            long age = clock.millis() - entry.getWrittenAt();
+            if (age < ttlMillis) {
+                recordHit(read);
+                if (age >= refreshAfterMillis) {
+                    refreshAsync(key, valueLoader);
+                }
+                return (T) fromStoreValue(entry.getValue());
+            }
+            // Past TTL but inside the stale grace window - reload, keep the old value as fallback
+            metrics.recordMiss();
+            try {
+                return (T) fromStoreValue(load(key, valueLoader));
+            } catch (ValueRetrievalException e) {
+                metrics.recordStaleHit();
+                log.warn("Reload of {}::{} failed - serving stale value: {}", getName(), key, e.getMessage());
+                return (T) fromStoreValue(entry.getValue());
+            }
+        }
+        metrics.recordMiss();
+        return (T) fromStoreValue(load(key, valueLoader));
+    }
+
+    /**
+     * Load on the caller's thread, or wait for the load another caller already started
+     */
+    private Object load(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            metrics.recordCoalescedLoad();
+            return awaitLoad(key, valueLoader, leader);
+        }
+        // Another leader may have finished between our miss and taking the slot
+        CacheEntry current = local.getIfPresent(key);
+        if (current != null && !isExpired(current, clock.millis())) {
+            inFlight.remove(key, flight);
+            flight.complete(current.getValue());
+            return current.getValue();
+        }
+        try {
+            return runLoad(key, valueLoader, flight);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * Start one background reload for a key nearing expiry; readers keep getting the cached value
+     */
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (refreshExecutor == null || inFlight.putIfAbsent(key, flight) != null) {
+            return; // already being loaded
+        }
+        metrics.recordRefresh();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    runLoad(key, valueLoader, flight);
+                } catch (Exception e) {
+                    metrics.recordRefreshFailure();
+                    log.warn("Refresh-ahead of {}::{} failed: {}", getName(), key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Refresh pool saturated - the next read past the threshold tries again
+            inFlight.remove(key, flight);
+            flight.cancel(false);
+        }
+    }
+
+    private Object runLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> flight) throws Exception {
+        try {
+            LoadStamp stamp = beginLoad();
+            long startNanos = System.nanoTime();
+            Object storeValue = toStoreValue(valueLoader.call());
+            metrics.recordLoad(System.nanoTime() - startNanos);
+            store(key, storeValue, stamp);
+            flight.complete(storeValue);
+            return storeValue;
+        } catch (Exception e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Object awaitLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> leader) {
+        try {
+            return leader.get();
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // No load start to compare against - only invalidations from here on reject the value
+        store(key, toStoreValue(value), beginLoad());
+    }
+
+    /**
+     * Sequence numbers to compare against when the loaded value is stored
+     */
+    private LoadStamp beginLoad() {
+        long remoteSequence = remote != null ? remote.currentSequence() : -1;
+        return new LoadStamp(invalidationSequence.current(), remoteSequence);
+    }
+
+    private void store(Object key, Object storeValue, LoadStamp stamp) {
+        Set<String> tags = spec.getTagger().tagsFor(key, storeValue);
+        CacheEntry entry = new CacheEntry(storeValue, clock.millis(), tags);
+        List<String> versionTags = versionTags(key, tags);
+        if (invalidationSequence.isStale(versionTags, stamp.localSequence())) {
+            metrics.recordRejectedPut();
+            return;
+        }
+        metrics.recordPut();
+        putLocal(key, entry);
+        // L2 checks the shared sequence atomically; -1 means it could not be read, so skip L2
+        if (remote != null && stamp.remoteSequence() >= 0
+                && !remote.putIfNotInvalidated(spec, key, entry, versionTags, stamp.remoteSequence())) {
+            metrics.recordRejectedPut();
+        }
+    }
+
+    /**
+     * Tags checked against invalidation stamps: the entry's own tags plus its key and its cache
+     */
+    private List<String> versionTags(Object key, Set<String> tags) {
+        List<String> versionTags = new ArrayList<>(tags.size() + 2);
+        versionTags.addAll(tags);
+        versionTags.add(keyVersionTag(key));
+        versionTags.add(cacheVersionTag());
+        return versionTags;
+    }
+
+    private String keyVersionTag(Object key) {
+        return "key:" + getName() + "::" + key;
+    }
+
+    private String cacheVersionTag() {
+        return "cache:" + getName();
+    }
+
+    /**
+     * Entry from L1, else from L2 (promoted to L1); null when neither tier holds the key
+     */
+    private TierRead readEntry(Object key) {
+        CacheEntry entry = local.getIfPresent(key);
+        if (entry != null) {
+            return new TierRead(entry, false);
+        }
+        if (remote != null) {
+            long localSequence = invalidationSequence.current();
+            entry = remote.get(spec, key);
+            if (entry != null) {
+                // An invalidation may have passed L1 while this L2 read was on the wire
+                if (!invalidationSequence.isStale(versionTags(key, entry.getTags()), localSequence)) {
+                    putLocal(key, entry); // promote to L1
+                }
+                return new TierRead(entry, true);
+            }
+        }
+        return null;
+    }
+
+    private void recordHit(TierRead read) {
+        if (read.fromRemote()) {
+            metrics.recordRemoteHit();
+        } else {
+            metrics.recordLocalHit();
+        }
+    }
+
+    private boolean isExpired(CacheEntry entry, long nowMillis) {
+        return nowMillis - entry.getWrittenAt() >= ttlMillis;
+    }
+
+    private void putLocal(Object key, CacheEntry entry) {
+        local.asMap().compute(key, (k, previous) -> {
+            if (previous != null) {
+                unindex(k, previous);
+            }
+            for (String tag : entry.getTags()) {
+                tagIndex.compute(tag, (t, keys) -> {
+                    Set<Object> indexed = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                    indexed.add(k);
+                    return indexed;
+                });
+            }
+            return entry;
+        });
+    }
+
+    private boolean removeLocal(Object key) {
+        boolean[] removed = new boolean[1];
+        local.asMap().computeIfPresent(key, (k, entry) -> {
+            unindex(k, entry);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private void unindex(Object key, CacheEntry entry) {
+        for (String tag : entry.getTags()) {
+            tagIndex.computeIfPresent(tag, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * Drop this instance's L1 entries carrying any of the tags (L2 is handled by CacheInvalidator)
+     */
+    int invalidateLocalTags(Collection<String> tags) {
+        // Stamping is done once for all caches by TwoLevelCacheManager
+        Set<Object> keys = new HashSet<>();
+        for (String tag : tags) {
+            Set<Object> tagged = tagIndex.get(tag);
+            if (tagged != null) {
+                keys.addAll(tagged);
+            }
+        }
+        int removed = 0;
+        for (Object key : keys) {
+            inFlight.remove(key);
+            if (removeLocal(key)) {
+                metrics.recordInvalidation();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void evict(Object key) {
+        metrics.recordInvalidation();
+        invalidationSequence.invalidated(List.of(keyVersionTag(key)));
+        inFlight.remove(key); // later callers must not join a load that started before the evict
+        removeLocal(key);
+        if (remote != null) {
+            remote.evict(getName(), key, keyVersionTag(key));
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publishEvict(getName(), key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        clearLocal();
+        if (remote != null) {
+            remote.clear(getName(), cacheVersionTag());
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publishClear(getName());
+        }
+    }
+
+    /**
+     * Drop a key from this instance's L1 only (remote invalidation already handled L2)
+     */
+    void evictLocal(Object key) {
+        invalidationSequence.invalidated(List.of(keyVersionTag(key)));
+        inFlight.remove(key);
+        removeLocal(key);
+    }
+
+    void clearLocal() {
+        invalidationSequence.invalidated(List.of(cacheVersionTag()));
+        inFlight.clear();
+        tagIndex.clear(); // before the entries, so a racing put leaves a harmless extra index entry
+        local.invalidateAll();
+    }
+
+    public CacheSpec getSpec() {
+        return spec;
+    }
+
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Entries currently held in L1
+     */
+    public long getLocalEntryCount() {
+        return local.estimatedSize();
+    }
+
+    /**
+     * Estimated heap bytes held in L1
+     */
+    public long getLocalWeightedBytes() {
+        return local.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    /**
+     * Distinct tags currently indexed in L1
+     */
+    public int getIndexedTagCount() {
+        return tagIndex.size();
+    }
+
+    /**
+     * Keys currently being loaded on this instance
+     */
+    public int getInFlightLoadCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * L1 entries dropped for capacity or TTL (explicit evicts are counted as invalidations)
+     */
+    public long getLocalEvictionCount() {
+        return local.stats().evictionCount();
+    }
+
+    private record LoadStamp(long localSequence, long remoteSequence) {
+    }
+
+    private record TierRead(CacheEntry entry, boolean fromRemote) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.patient.service.patientservice.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CacheManager composing the local Caffeine tier with the optional Redis tier
+ * Only the caches declared in CacheConfig exist; remote invalidations are applied to L1 here.
+ * Refresh-ahead reloads of all caches share one small, bounded background pool. A reload runs with the
+ * SecurityContext of the read that triggered it; request attributes are not carried over (the request
+ * may be over by then), so cached methods must not depend on them.
+ */
+public class TwoLevelCacheManager extends AbstractCacheManager implements CacheInvalidationBus.Listener, DisposableBean {
+
+    private static final int REFRESH_THREADS = 2;
+    private static final int REFRESH_QUEUE_CAPACITY = 256;
+
+    private final List<CacheSpec> specs;
+    private final RedisCacheTier remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final ThreadPoolExecutor refreshExecutor;
+    // Captures the caller's SecurityContext at submit time for each refresh
+    private final Executor securedRefreshExecutor;
+    private final InvalidationSequence invalidationSequence = new InvalidationSequence();
+
+    public TwoLevelCacheManager(List<CacheSpec> specs, RedisCacheTier remote, CacheInvalidationBus invalidationBus) {
+        this.specs = List.copyOf(specs);
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.refreshExecutor = newRefreshExecutor();
+        this.securedRefreshExecutor = new DelegatingSecurityContextExecutor(refreshExecutor);
+        if (invalidationBus != null) {
+            invalidationBus.setListener(this);
+        }
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return specs.stream()
+                .map(spec -> new TwoLevelCache(spec, remote, invalidationBus, securedRefreshExecutor, invalidationSequence))
+                .toList();
+    }
+
+    private static ThreadPoolExecutor newRefreshExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        // Full queue rejects the task; the cache simply retries the refresh on a later read
+        return new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public boolean isRemoteTierEnabled() {
+        return remote != null;
+    }
+
+    @Override
+    public void onRemoteEvict(String cacheName, String key) {
+        if (getCache(cacheName) instanceof TwoLevelCache cache) {
+            cache.evictLocal(key);
+        }
+    }
+
+    @Override
+    public void onRemoteClear(String cacheName) {
+        if (getCache(cacheName) instanceof TwoLevelCache cache) {
+            cache.clearLocal();
+        }
+    }
+
+    @Override
+    public void onRemoteInvalidateTags(Collection<String> tags) {
+        invalidateLocalTags(tags);
+    }
+
+    /**
+     * Drop every L1 entry carrying one of the tags, in all caches
+     */
+    public int invalidateLocalTags(Collection<String> tags) {
+        invalidationSequence.invalidated(tags); // before removal, so racing loads cannot re-insert
+        int removed = 0;
+        for (String cacheName : getCacheNames()) {
+            if (getCache(cacheName) instanceof TwoLevelCache cache) {
+                removed += cache.invalidateLocalTags(tags);
+            }
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,101 @@
+package com.patient.service.patientservice.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes TwoLevelCache telemetry as Micrometer meters
+ * Standard cache.* meters come from CacheMeterBinder; tier-specific ones are added here.
+ */
+public class TwoLevelCacheMeterBinder extends CacheMeterBinder<TwoLevelCache> {
+
+    private final TwoLevelCache cache;
+
+    public TwoLevelCacheMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.cache = cache;
+    }
+
+    @Override
+    protected Long size() {
+        return cache.getLocalEntryCount();
+    }
+
+    @Override
+    protected long hitCount() {
+        return cache.getMetrics().getHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return cache.getMetrics().getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return cache.getLocalEvictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        return cache.getMetrics().getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.tier.hits", cache, c -> c.getMetrics().getLocalHits())
+                .tags(getTagsWithCacheName()).tag("tier", "l1")
+                .description("Hits served from the in-process tier")
+                .register(registry);
+        FunctionCounter.builder("cache.tier.hits", cache, c -> c.getMetrics().getRemoteHits())
+                .tags(getTagsWithCacheName()).tag("tier", "l2")
+                .description("Hits served from Redis and promoted to the in-process tier")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidations", cache, c -> c.getMetrics().getInvalidations())
+                .tags(getTagsWithCacheName())
+                .description("Explicit key evictions")
+                .register(registry);
+        FunctionCounter.builder("cache.loads.coalesced", cache, c -> c.getMetrics().getCoalescedLoads())
+                .tags(getTagsWithCacheName())
+                .description("Misses served by joining another caller's in-flight load")
+                .register(registry);
+        FunctionCounter.builder("cache.refreshes", cache, c -> c.getMetrics().getRefreshes())
+                .tags(getTagsWithCacheName()).tag("result", "started")
+                .description("Refresh-ahead reloads")
+                .register(registry);
+        FunctionCounter.builder("cache.refreshes", cache, c -> c.getMetrics().getRefreshFailures())
+                .tags(getTagsWithCacheName()).tag("result", "failed")
+                .description("Refresh-ahead reloads")
+                .register(registry);
+        FunctionCounter.builder("cache.puts.rejected", cache, c -> c.getMetrics().getRejectedPuts())
+                .tags(getTagsWithCacheName())
+                .description("Loads discarded because their entity was invalidated mid-load")
+                .register(registry);
+        FunctionCounter.builder("cache.stale.hits", cache, c -> c.getMetrics().getStaleHits())
+                .tags(getTagsWithCacheName())
+                .description("Expired values served because the reload failed")
+                .register(registry);
+        Gauge.builder("cache.loads.in.flight", cache, TwoLevelCache::getInFlightLoadCount)
+                .tags(getTagsWithCacheName())
+                .register(registry);
+        Gauge.builder("cache.local.bytes", cache, TwoLevelCache::getLocalWeightedBytes)
+                .tags(getTagsWithCacheName())
+                .description("Estimated heap bytes held by the in-process tier")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("cache.local.max.bytes", cache, c -> c.getSpec().getLocalMaxBytes())
+                .tags(getTagsWithCacheName())
+                .baseUnit("bytes")
+                .register(registry);
+
+        cache.getMetrics().bindLoadTimer(Timer.builder("cache.load")
+                .tags(getTagsWithCacheName())
+                .description("Time spent loading values on a cache miss")
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
@@ -0,0 +1,181 @@
+package com.patient.service.patientservice.catalog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aho-Corasick automaton over a fixed set of patterns, matched case-insensitively
+ * Compiled to a dense transition table over the characters the patterns use, so a scan is one
+ * table lookup per input character and reports every pattern occurrence in a single pass.
+ * Immutable and safe to share between threads.
+ */
+public final class AhoCorasickAutomaton {
+
+    /**
+     * Receives each match: the pattern's index in the build list and the end offset (exclusive)
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        void onMatch(int patternId, int end);
+    }
+
+    static final int START = 0;
+
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final int[] symbolOf;      // char -> alphabet symbol, -1 if no pattern uses it
+    private final int alphabetSize;
+    private final int[] transitions;   // state * alphabetSize + symbol -> next state
+    private final int[][] matches;     // pattern ids ending in each state (own and via suffix links)
+    private final int[] patternLengths;
+
+    private AhoCorasickAutomaton(int[] symbolOf, int alphabetSize, int[] transitions, int[][] matches,
+                                 int[] patternLengths) {
+        this.symbolOf = symbolOf;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.matches = matches;
+        this.patternLengths = patternLengths;
+    }
+
+    public static AhoCorasickAutomaton compile(List<String> patterns) {
+        List<String> lowered = patterns.stream().map(p -> p.toLowerCase(Locale.ROOT)).toList();
+
+        char maxChar = 0;
+        for (String pattern : lowered) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+            for (int i = 0; i < pattern.length(); i++) {
+                maxChar = (char) Math.max(maxChar, pattern.charAt(i));
+            }
+        }
+        int[] symbolOf = new int[maxChar + 1];
+        Arrays.fill(symbolOf, -1);
+        int alphabetSize = 0;
+        for (String pattern : lowered) {
+            for (int i = 0; i < pattern.length(); i++) {
+                if (symbolOf[pattern.charAt(i)] < 0) {
+                    symbolOf[pattern.charAt(i)] = alphabetSize++;
+                }
+            }
+        }
+
+        // Trie - -1 marks a missing edge until the failure pass fills it in
+        List<int[]> edges = new ArrayList<>();
+        List<List<Integer>> own = new ArrayList<>();
+        edges.add(newRow(alphabetSize));
+        own.add(new ArrayList<>());
+        int[] patternLengths = new int[lowered.size()];
+        for (int id = 0; id < lowered.size(); id++) {
+            String pattern = lowered.get(id);
+            patternLengths[id] = pattern.length();
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int symbol = symbolOf[pattern.charAt(i)];
+                if (edges.get(state)[symbol] < 0) {
+                    edges.get(state)[symbol] = edges.size();
+                    edges.add(newRow(alphabetSize));
+                    own.add(new ArrayList<>());
+                }
+                state = edges.get(state)[symbol];
+            }
+            own.get(state).add(id);
+        }
+
+        // Breadth-first: failure links, completed transitions and inherited matches
+        int stateCount = edges.size();
+        int[] transitions = new int[stateCount * alphabetSize];
+        int[] fail = new int[stateCount];
+        int[][] matches = new int[stateCount][];
+        matches[0] = toArray(own.get(0), NO_MATCHES);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int next = edges.get(0)[symbol];
+            if (next < 0) {
+                transitions[symbol] = 0;
+            } else {
+                transitions[symbol] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            matches[state] = toArray(own.get(state), matches[fail[state]]);
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int next = edges.get(state)[symbol];
+                int fallback = transitions[fail[state] * alphabetSize + symbol];
+                if (next < 0) {
+                    transitions[state * alphabetSize + symbol] = fallback;
+                } else {
+                    transitions[state * alphabetSize + symbol] = next;
+                    fail[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+        return new AhoCorasickAutomaton(symbolOf, alphabetSize, transitions, matches, patternLengths);
+    }
+
+    private static int[] newRow(int size) {
+        int[] row = new int[size];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) {
+            return inherited;
+        }
+        int[] all = Arrays.copyOf(inherited, inherited.length + own.size());
+        for (int i = 0; i < own.size(); i++) {
+            all[inherited.length + i] = own.get(i);
+        }
+        return all;
+    }
+
+    /**
+     * Report every occurrence of every pattern in text (overlapping occurrences included)
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        int state = START;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            for (int patternId : matches[state]) {
+                listener.onMatch(patternId, i + 1);
+            }
+        }
+    }
+
+    /**
+     * One step of a scan, for callers that walk the automaton themselves to avoid a listener
+     */
+    int next(int state, char c) {
+        char lower = Character.toLowerCase(c);
+        int symbol = lower < symbolOf.length ? symbolOf[lower] : -1;
+        return symbol < 0 ? START : transitions[state * alphabetSize + symbol];
+    }
+
+    /**
+     * Pattern ids ending in a state (shared - must not be modified)
+     */
+    int[] matchesAt(int state) {
+        return matches[state];
+    }
+
+    public int getPatternLength(int patternId) {
+        return patternLengths[patternId];
+    }
+
+    public int getPatternCount() {
+        return patternLengths.length;
+    }
+
+    public int getStateCount() {
+        return matches.length;
+    }
+}
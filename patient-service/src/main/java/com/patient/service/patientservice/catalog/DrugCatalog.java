@@ -0,0 +1,399 @@
+package com.patient.service.patientservice.catalog;
+
+import com.patient.service.patientservice.model.Allergy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, compiled snapshot of the drug catalog
+ * Drugs and classes are numbered; lookups go through primitive tables indexed by those numbers:
+ * drug -> class bitset, drug -> flags (controlled, antibiotic), class -> cross-reactive class bitset.
+ * Every drug name, class key and combination ingredient is also a pattern of one Aho-Corasick
+ * automaton, so free-text medication or allergen names are scanned in a single pass.
+ * Matching is by substring, case-insensitive. DrugCatalogService swaps whole snapshots on reload.
+ */
+public final class DrugCatalog {
+
+    public static final String BUNDLED = "knowledge/drug-catalog.json";
+    public static final int MAX_CLASSES = Long.SIZE;
+
+    // Flags returned by flagsOf
+    public static final int CONTROLLED_SUBSTANCE = 1;
+    public static final int ANTIBIOTIC = 2;
+
+    private static final int[] NONE = new int[0];
+    // Low bit of every ingredient pair (combination c uses bits 2c and 2c + 1)
+    private static final long PAIR_FIRST_BITS = 0x5555555555555555L;
+
+    private final String version;
+    private final AhoCorasickAutomaton automaton;
+    private final Map<String, Integer> drugIds;
+    private final long[] drugClasses;
+    private final byte[] drugFlags;
+    private final String[] classNames;
+    private final long[] crossReactive;
+    private final String[][] combinations;
+    // Per automaton pattern: drug id (-1 = none), class it names as a key (-1 = none),
+    // and combination ingredients it is (combination index * 2 + side)
+    private final int[] patternDrug;
+    private final int[] patternClassKey;
+    private final int[][] patternIngredients;
+    // Same as a bit mask when there are at most 32 combinations (null otherwise)
+    private final long[] patternIngredientMask;
+
+    private DrugCatalog(String version, AhoCorasickAutomaton automaton, Map<String, Integer> drugIds,
+                        long[] drugClasses, byte[] drugFlags, String[] classNames, long[] crossReactive,
+                        String[][] combinations, int[] patternDrug, int[] patternClassKey,
+                        int[][] patternIngredients) {
+        this.version = version;
+        this.automaton = automaton;
+        this.drugIds = drugIds;
+        this.drugClasses = drugClasses;
+        this.drugFlags = drugFlags;
+        this.classNames = classNames;
+        this.crossReactive = crossReactive;
+        this.combinations = combinations;
+        this.patternDrug = patternDrug;
+        this.patternClassKey = patternClassKey;
+        this.patternIngredients = patternIngredients;
+        this.patternIngredientMask = combinations.length <= Long.SIZE / 2 ? toMasks(patternIngredients) : null;
+    }
+
+    private static long[] toMasks(int[][] patternIngredients) {
+        long[] masks = new long[patternIngredients.length];
+        for (int patternId = 0; patternId < masks.length; patternId++) {
+            for (int ingredient : patternIngredients[patternId]) {
+                masks[patternId] |= 1L << ingredient;
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Catalog bundled with the service (fallback for code running outside the Spring context)
+     */
+    public static DrugCatalog bundled() {
+        return BundledHolder.INSTANCE;
+    }
+
+    private static final class BundledHolder {
+        private static final DrugCatalog INSTANCE = loadBundled();
+
+        private static DrugCatalog loadBundled() {
+            try (InputStream in = DrugCatalog.class.getClassLoader().getResourceAsStream(BUNDLED)) {
+                if (in == null) {
+                    throw new IOException("Missing " + BUNDLED);
+                }
+                return compile(DrugCatalogFile.load(in));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static DrugCatalog compile(DrugCatalogFile file) {
+        List<String> classNames = new ArrayList<>(file.getDrugClasses().keySet());
+        if (classNames.size() > MAX_CLASSES) {
+            throw new IllegalArgumentException("Drug catalog supports at most " + MAX_CLASSES + " classes");
+        }
+        Map<String, Integer> classIds = new HashMap<>();
+        for (int classId = 0; classId < classNames.size(); classId++) {
+            classIds.put(classNames.get(classId), classId);
+        }
+
+        // Drug tables
+        Map<String, Integer> drugIds = new LinkedHashMap<>();
+        List<Long> classMasks = new ArrayList<>();
+        List<Byte> flags = new ArrayList<>();
+        for (int classId = 0; classId < classNames.size(); classId++) {
+            for (String drug : file.getDrugClasses().get(classNames.get(classId))) {
+                int drugId = drugId(drug, drugIds, classMasks, flags);
+                classMasks.set(drugId, classMasks.get(drugId) | 1L << classId);
+            }
+        }
+        for (String drug : file.getControlledSubstances()) {
+            int drugId = drugId(drug, drugIds, classMasks, flags);
+            flags.set(drugId, (byte) (flags.get(drugId) | CONTROLLED_SUBSTANCE));
+        }
+        for (String drug : file.getAntibiotics()) {
+            int drugId = drugId(drug, drugIds, classMasks, flags);
+            flags.set(drugId, (byte) (flags.get(drugId) | ANTIBIOTIC));
+        }
+
+        long[] crossReactive = new long[classNames.size()];
+        file.getCrossReactivity().forEach((className, related) -> {
+            for (String relatedClass : related) {
+                crossReactive[classIds.get(className)] |= 1L << classIds.get(relatedClass);
+            }
+        });
+
+        // Automaton patterns: drugs, class keys, combination ingredients
+        Map<String, Integer> patternIds = new LinkedHashMap<>();
+        List<Integer> patternDrug = new ArrayList<>();
+        List<Integer> patternClassKey = new ArrayList<>();
+        List<List<Integer>> patternIngredients = new ArrayList<>();
+        drugIds.forEach((drug, drugId) ->
+                patternDrug.set(patternId(drug, patternIds, patternDrug, patternClassKey, patternIngredients), drugId));
+        for (int classId = 0; classId < classNames.size(); classId++) {
+            patternClassKey.set(patternId(classNames.get(classId), patternIds, patternDrug, patternClassKey,
+                    patternIngredients), classId);
+        }
+        List<List<String>> combinationList = file.getDangerousCombinations();
+        String[][] combinations = new String[combinationList.size()][];
+        for (int c = 0; c < combinations.length; c++) {
+            combinations[c] = combinationList.get(c).toArray(new String[0]);
+            for (int side = 0; side < 2; side++) {
+                patternIngredients.get(patternId(combinations[c][side], patternIds, patternDrug, patternClassKey,
+                        patternIngredients)).add(c * 2 + side);
+            }
+        }
+
+        byte[] drugFlags = new byte[flags.size()];
+        for (int i = 0; i < drugFlags.length; i++) {
+            drugFlags[i] = flags.get(i);
+        }
+        return new DrugCatalog(file.getVersion(),
+                AhoCorasickAutomaton.compile(new ArrayList<>(patternIds.keySet())),
+                Map.copyOf(drugIds),
+                classMasks.stream().mapToLong(Long::longValue).toArray(),
+                drugFlags,
+                classNames.toArray(new String[0]),
+                crossReactive,
+                combinations,
+                patternDrug.stream().mapToInt(Integer::intValue).toArray(),
+                patternClassKey.stream().mapToInt(Integer::intValue).toArray(),
+                patternIngredients.stream()
+                        .map(ids -> ids.isEmpty() ? NONE : ids.stream().mapToInt(Integer::intValue).toArray())
+                        .toArray(int[][]::new));
+    }
+
+    private static int drugId(String drug, Map<String, Integer> drugIds, List<Long> classMasks, List<Byte> flags) {
+        return drugIds.computeIfAbsent(drug.toLowerCase(Locale.ROOT), key -> {
+            classMasks.add(0L);
+            flags.add((byte) 0);
+            return drugIds.size();
+        });
+    }
+
+    private static int patternId(String term, Map<String, Integer> patternIds, List<Integer> patternDrug,
+                                 List<Integer> patternClassKey, List<List<Integer>> patternIngredients) {
+        return patternIds.computeIfAbsent(term.toLowerCase(Locale.ROOT), key -> {
+            patternDrug.add(-1);
+            patternClassKey.add(-1);
+            patternIngredients.add(new ArrayList<>());
+            return patternIds.size();
+        });
+    }
+
+    /**
+     * Single pass over a medication or allergen name
+     */
+    public Scan scan(String text) {
+        Scan scan = new Scan();
+        if (text != null) {
+            automaton.scan(text, (patternId, end) -> {
+                int drugId = patternDrug[patternId];
+                if (drugId >= 0) {
+                    scan.drugClasses |= drugClasses[drugId];
+                    scan.flags |= drugFlags[drugId];
+                }
+                if (patternClassKey[patternId] >= 0) {
+                    scan.namedClasses |= 1L << patternClassKey[patternId];
+                }
+                for (int ingredient : patternIngredients[patternId]) {
+                    scan.ingredients.set(ingredient);
+                }
+            });
+        }
+        return scan;
+    }
+
+    /**
+     * CONTROLLED_SUBSTANCE / ANTIBIOTIC flags of the drugs named in the text
+     * Walks the automaton directly - no allocation, for validators on the request path.
+     */
+    public int flagsOf(CharSequence text) {
+        int flags = 0;
+        int state = AhoCorasickAutomaton.START;
+        for (int i = 0; i < text.length(); i++) {
+            state = automaton.next(state, text.charAt(i));
+            for (int patternId : automaton.matchesAt(state)) {
+                int drugId = patternDrug[patternId];
+                if (drugId >= 0) {
+                    flags |= drugFlags[drugId];
+                }
+            }
+        }
+        return flags;
+    }
+
+    /**
+     * Whether both ingredients of a dangerous combination occur in the text
+     * Allocation-free while the catalog has at most 32 combinations.
+     */
+    public boolean hasDangerousCombination(CharSequence text) {
+        if (patternIngredientMask == null) {
+            return scan(text.toString()).hasDangerousCombination();
+        }
+        long seen = 0;
+        int state = AhoCorasickAutomaton.START;
+        for (int i = 0; i < text.length(); i++) {
+            state = automaton.next(state, text.charAt(i));
+            for (int patternId : automaton.matchesAt(state)) {
+                seen |= patternIngredientMask[patternId];
+            }
+        }
+        return (seen & (seen >>> 1) & PAIR_FIRST_BITS) != 0;
+    }
+
+    /**
+     * Exact drug name lookup - null for drugs the catalog does not list
+     */
+    public Set<String> getClassesOfDrug(String drugName) {
+        Integer drugId = drugName == null ? null : drugIds.get(drugName.toLowerCase(Locale.ROOT));
+        return drugId == null ? null : classNames(drugClasses[drugId]);
+    }
+
+    public boolean isMedicationInClass(String medicationName, String drugClass) {
+        if (medicationName == null || drugClass == null) {
+            return false;
+        }
+        return scan(medicationName).getDrugClasses().contains(drugClass.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Potential interactions between a medication and the patient's active allergies:
+     * direct allergen matches, same-class and cross-reactive class interactions
+     */
+    public List<String> getPotentialAllergyInteractions(String medicationName, List<Allergy> patientAllergies) {
+        List<String> interactions = new ArrayList<>();
+        if (medicationName == null || patientAllergies == null) {
+            return interactions;
+        }
+
+        String medication = medicationName.toLowerCase(Locale.ROOT);
+        long medicationClasses = scan(medication).drugClasses;
+        for (Allergy allergy : patientAllergies) {
+            if (!allergy.getIsActive()) {
+                continue; // Skip inactive allergies
+            }
+
+            if (medication.contains(allergy.getAllergen().toLowerCase(Locale.ROOT))) {
+                interactions.add("Direct match: " + allergy.getAllergen());
+            }
+
+            if (medicationClasses == 0) {
+                continue;
+            }
+            // Allergen names a class or one of its drugs, and the medication is a drug of that class
+            Scan allergen = scan(allergy.getAllergen());
+            long allergenClasses = allergen.drugClasses | allergen.namedClasses;
+            long sameClass = allergenClasses & medicationClasses;
+            for (String className : classNames(sameClass)) {
+                interactions.add("Drug class interaction: " + allergy.getAllergen() + " (class: " + className + ")");
+            }
+            long crossClass = crossReactiveWith(allergenClasses) & medicationClasses & ~sameClass;
+            for (String className : classNames(crossClass)) {
+                interactions.add("Cross-reactivity: " + allergy.getAllergen() + " (class: " + className + ")");
+            }
+        }
+        return interactions;
+    }
+
+    private long crossReactiveWith(long classes) {
+        long related = 0;
+        for (long remaining = classes; remaining != 0; remaining &= remaining - 1) {
+            related |= crossReactive[Long.numberOfTrailingZeros(remaining)];
+        }
+        return related;
+    }
+
+    private Set<String> classNames(long classes) {
+        Set<String> names = new LinkedHashSet<>();
+        for (long remaining = classes; remaining != 0; remaining &= remaining - 1) {
+            names.add(classNames[Long.numberOfTrailingZeros(remaining)]);
+        }
+        return names;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getDrugCount() {
+        return drugClasses.length;
+    }
+
+    public int getPatternCount() {
+        return automaton.getPatternCount();
+    }
+
+    /**
+     * Hits of one scan
+     */
+    public final class Scan {
+
+        private long drugClasses;
+        private long namedClasses;
+        private int flags;
+        private final BitSet ingredients = new BitSet();
+
+        private Scan() {
+        }
+
+        /**
+         * Classes the text contains a member drug of
+         */
+        public Set<String> getDrugClasses() {
+            return classNames(drugClasses);
+        }
+
+        /**
+         * Classes the text names by key (e.g. "penicillin allergy", "sulfa")
+         */
+        public Set<String> getNamedClasses() {
+            return classNames(namedClasses);
+        }
+
+        public boolean isControlledSubstance() {
+            return (flags & CONTROLLED_SUBSTANCE) != 0;
+        }
+
+        public boolean isAntibiotic() {
+            return (flags & ANTIBIOTIC) != 0;
+        }
+
+        public boolean hasDangerousCombination() {
+            for (int c = 0; c < combinations.length; c++) {
+                if (ingredients.get(c * 2) && ingredients.get(c * 2 + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Dangerous combinations with both ingredients present, as "a + b"
+         */
+        public List<String> getDangerousCombinations() {
+            List<String> found = new ArrayList<>();
+            for (int c = 0; c < combinations.length; c++) {
+                if (ingredients.get(c * 2) && ingredients.get(c * 2 + 1)) {
+                    found.add(combinations[c][0] + " + " + combinations[c][1]);
+                }
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.patient.service.patientservice.catalog;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drug catalog export as read from JSON (see knowledge/drug-catalog.json)
+ * drugClasses: class key -> member drugs; crossReactivity: class key -> classes it cross-reacts with;
+ * controlledSubstances / antibiotics: drug flags; dangerousCombinations: ingredient pairs
+ */
+public class DrugCatalogFile {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private String version;
+    private Map<String, List<String>> drugClasses = new LinkedHashMap<>();
+    private Map<String, List<String>> crossReactivity = new LinkedHashMap<>();
+    private List<String> controlledSubstances = List.of();
+    private List<String> antibiotics = List.of();
+    private List<List<String>> dangerousCombinations = List.of();
+
+    // Constructors
+    public DrugCatalogFile() {}
+
+    public static DrugCatalogFile load(InputStream in) throws IOException {
+        DrugCatalogFile file = MAPPER.readValue(in, DrugCatalogFile.class);
+        if (file.getVersion() == null || file.getVersion().isBlank()) {
+            throw new IOException("Drug catalog has no version");
+        }
+        for (List<String> combination : file.getDangerousCombinations()) {
+            if (combination.size() != 2) {
+                throw new IOException("Dangerous combination must name two ingredients: " + combination);
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : file.getCrossReactivity().entrySet()) {
+            if (!file.getDrugClasses().containsKey(entry.getKey())
+                    || !file.getDrugClasses().keySet().containsAll(entry.getValue())) {
+                throw new IOException("Cross-reactivity names an unknown drug class: " + entry);
+            }
+        }
+        return file;
+    }
+
+    // Getters and Setters
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public Map<String, List<String>> getDrugClasses() {
+        return drugClasses;
+    }
+
+    public void setDrugClasses(Map<String, List<String>> drugClasses) {
+        this.drugClasses = drugClasses;
+    }
+
+    public Map<String, List<String>> getCrossReactivity() {
+        return crossReactivity;
+    }
+
+    public void setCrossReactivity(Map<String, List<String>> crossReactivity) {
+        this.crossReactivity = crossReactivity;
+    }
+
+    public List<String> getControlledSubstances() {
+        return controlledSubstances;
+    }
+
+    public void setControlledSubstances(List<String> controlledSubstances) {
+        this.controlledSubstances = controlledSubstances;
+    }
+
+    public List<String> getAntibiotics() {
+        return antibiotics;
+    }
+
+    public void setAntibiotics(List<String> antibiotics) {
+        this.antibiotics = antibiotics;
+    }
+
+    public List<List<String>> getDangerousCombinations() {
+        return dangerousCombinations;
+    }
+
+    public void setDangerousCombinations(List<List<String>> dangerousCombinations) {
+        this.dangerousCombinations = dangerousCombinations;
+    }
+}
@@ -0,0 +1,121 @@
+package com.patient.service.patientservice.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current DrugCatalog and hot-swaps it when the catalog file changes
+ * Readers take the snapshot through a volatile read and never wait on a reload; the new catalog
+ * is parsed and compiled off to the side, then published in one reference write.
+ * A file that fails to load is logged and ignored - the previous catalog stays in service.
+ * Writers should replace the file atomically (write a temp file, then rename it over the old one).
+ */
+@Service
+public class DrugCatalogService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugCatalogService.class);
+
+    private final Resource location;
+    private final ScheduledExecutorService watcher;
+
+    private volatile DrugCatalog current;
+    // Modification time and size of the file behind the current catalog (or the last bad one)
+    private volatile FileStamp loadedStamp;
+
+    public DrugCatalogService(
+            @Value("${healthflow.drug-catalog.location:classpath:" + DrugCatalog.BUNDLED + "}") Resource location,
+            @Value("${healthflow.drug-catalog.poll-interval-seconds:10}") long pollIntervalSeconds) throws IOException {
+        this.location = location;
+        this.loadedStamp = stamp();
+        this.current = load(); // a broken catalog at startup fails fast
+        log.info("Drug catalog {} loaded from {} ({} drugs)",
+                current.getVersion(), location.getDescription(), current.getDrugCount());
+
+        if (location.isFile() && pollIntervalSeconds > 0) {
+            watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "drug-catalog-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::checkForUpdate, pollIntervalSeconds, pollIntervalSeconds,
+                    TimeUnit.SECONDS);
+        } else {
+            watcher = null;
+        }
+    }
+
+    public DrugCatalog current() {
+        return current;
+    }
+
+    /**
+     * Load the file now and swap it in
+     * @return the catalog in service afterwards (unchanged if the file is invalid)
+     */
+    public synchronized DrugCatalog reload() {
+        FileStamp stamp = stamp();
+        try {
+            DrugCatalog loaded = load();
+            DrugCatalog previous = current;
+            current = loaded;
+            log.info("Drug catalog swapped: {} -> {} ({} drugs)",
+                    previous.getVersion(), loaded.getVersion(), loaded.getDrugCount());
+            if (loaded.getVersion().equals(previous.getVersion())) {
+                log.warn("Drug catalog file changed without a version bump ({})", loaded.getVersion());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Drug catalog reload from {} failed - keeping version {}: {}",
+                    location.getDescription(), current.getVersion(), e.getMessage());
+        } finally {
+            loadedStamp = stamp; // a bad file is retried only once it changes again
+        }
+        return current;
+    }
+
+    private void checkForUpdate() {
+        FileStamp stamp = stamp();
+        if (stamp != null && !stamp.equals(loadedStamp)) {
+            reload();
+        }
+    }
+
+    private DrugCatalog load() throws IOException {
+        try (InputStream in = location.getInputStream()) {
+            return DrugCatalog.compile(DrugCatalogFile.load(in));
+        }
+    }
+
+    private FileStamp stamp() {
+        if (!location.isFile()) {
+            return null;
+        }
+        try {
+            Path path = location.getFile().toPath();
+            return new FileStamp(Files.getLastModifiedTime(path).toMillis(), Files.size(path));
+        } catch (IOException e) {
+            return null; // missing mid-rename - check again next round
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    private record FileStamp(long modifiedMillis, long size) {
+    }
+}
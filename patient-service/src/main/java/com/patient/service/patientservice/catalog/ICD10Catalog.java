@@ -0,0 +1,269 @@
+package com.patient.service.patientservice.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable ICD-10-CM code catalog
+ * Codes are kept normalized (upper case, no dot) in one sorted array with parallel description and
+ * billable tables, so exact lookup is a binary search and prefix autocomplete is two binary searches
+ * plus a slice - O(log n) for the 70k+ codes of a full release.
+ * Reads the CMS "order" file (fixed width, headers included) or the plain "codes" file (code, description).
+ */
+public final class ICD10Catalog {
+
+    // ICD-10-CM chapters as category ranges, sorted by first category (chapter 22, U00-U85, sorts before V)
+    private static final String[] CHAPTER_FIRST = {
+        "A00", "C00", "D50", "E00", "F01", "G00", "H00", "H60", "I00", "J00", "K00",
+        "L00", "M00", "N00", "O00", "P00", "Q00", "R00", "S00", "U00", "V00", "Z00"
+    };
+    private static final String[] CHAPTER_LAST = {
+        "B99", "D49", "D89", "E89", "F99", "G99", "H59", "H95", "I99", "J99", "K95",
+        "L99", "M99", "N99", "O9A", "P96", "Q99", "R99", "T88", "U85", "Y99", "Z99"
+    };
+    private static final int[] CHAPTER_NUMBER = {
+        1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 22, 20, 21
+    };
+    private static final String[] CHAPTER_TITLE = {
+        "Certain infectious and parasitic diseases",
+        "Neoplasms",
+        "Diseases of the blood and blood-forming organs and certain disorders involving the immune mechanism",
+        "Endocrine, nutritional and metabolic diseases",
+        "Mental, behavioral and neurodevelopmental disorders",
+        "Diseases of the nervous system",
+        "Diseases of the eye and adnexa",
+        "Diseases of the ear and mastoid process",
+        "Diseases of the circulatory system",
+        "Diseases of the respiratory system",
+        "Diseases of the digestive system",
+        "Diseases of the skin and subcutaneous tissue",
+        "Diseases of the musculoskeletal system and connective tissue",
+        "Diseases of the genitourinary system",
+        "Pregnancy, childbirth and the puerperium",
+        "Certain conditions originating in the perinatal period",
+        "Congenital malformations, deformations and chromosomal abnormalities",
+        "Symptoms, signs and abnormal clinical and laboratory findings, not elsewhere classified",
+        "Injury, poisoning and certain other consequences of external causes",
+        "Codes for special purposes",
+        "External causes of morbidity",
+        "Factors influencing health status and contact with health services"
+    };
+
+    private static final int[] CHAPTER_FIRST_KEYS = categoryKeys(CHAPTER_FIRST);
+    private static final int[] CHAPTER_LAST_KEYS = categoryKeys(CHAPTER_LAST);
+
+    private final String[] codes;
+    private final String[] descriptions;
+    private final BitSet billable;
+
+    private ICD10Catalog(String[] codes, String[] descriptions, BitSet billable) {
+        this.codes = codes;
+        this.descriptions = descriptions;
+        this.billable = billable;
+    }
+
+    public static ICD10Catalog load(InputStream in) throws IOException {
+        List<Entry> entries = new ArrayList<>(80_000);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                entries.add(isOrderFileLine(line) ? parseOrderLine(line) : parseCodesLine(line));
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::code));
+
+        String[] codes = new String[entries.size()];
+        String[] descriptions = new String[entries.size()];
+        BitSet billable = new BitSet(entries.size());
+        int size = 0;
+        for (Entry entry : entries) {
+            if (size > 0 && codes[size - 1].equals(entry.code())) {
+                size--; // duplicate code - the later line wins
+            }
+            codes[size] = entry.code();
+            descriptions[size] = entry.description();
+            billable.set(size, entry.billable());
+            size++;
+        }
+        return new ICD10Catalog(Arrays.copyOf(codes, size), Arrays.copyOf(descriptions, size), billable);
+    }
+
+    // "00001 A00     0 Cholera<short description padded to 60>  Cholera" - order number, code (7), 0/1 valid flag
+    private static boolean isOrderFileLine(String line) {
+        return line.length() > 16 && Character.isDigit(line.charAt(0)) && line.charAt(5) == ' '
+                && (line.charAt(14) == '0' || line.charAt(14) == '1') && line.charAt(15) == ' ';
+    }
+
+    private static Entry parseOrderLine(String line) {
+        String code = normalize(line.substring(6, 13));
+        String description = (line.length() > 77 ? line.substring(77) : line.substring(16)).trim();
+        return new Entry(code, description, line.charAt(14) == '1');
+    }
+
+    // "A000    Cholera due to Vibrio cholerae 01, biovar cholerae" - codes file lists billable codes only
+    private static Entry parseCodesLine(String line) {
+        String trimmed = line.trim();
+        int split = 0;
+        while (split < trimmed.length() && !Character.isWhitespace(trimmed.charAt(split))) {
+            split++;
+        }
+        return new Entry(normalize(trimmed.substring(0, split)), trimmed.substring(split).trim(), true);
+    }
+
+    /**
+     * Catalog form of a code: upper case, dot removed ("t78.02xa" -> "T7802XA")
+     */
+    public static String normalize(String code) {
+        if (code == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(code.length());
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c != '.' && !Character.isWhitespace(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Display form of a normalized code: dot after the category ("T7802XA" -> "T78.02XA")
+     */
+    public static String format(String normalizedCode) {
+        return normalizedCode.length() > 3
+                ? normalizedCode.substring(0, 3) + "." + normalizedCode.substring(3)
+                : normalizedCode;
+    }
+
+    /**
+     * Chapter table index of a code's category, or -1 when no chapter covers it
+     */
+    public static int chapterIndex(String normalizedCode) {
+        if (normalizedCode == null || normalizedCode.length() < 3) {
+            return -1;
+        }
+        return chapterIndex(normalizedCode.charAt(0), normalizedCode.charAt(1), normalizedCode.charAt(2));
+    }
+
+    /**
+     * Chapter table index of a category given as its three (upper-case) characters
+     */
+    public static int chapterIndex(char letter, char digit, char third) {
+        int category = categoryKey(letter, digit, third);
+        int index = Arrays.binarySearch(CHAPTER_FIRST_KEYS, category);
+        if (index < 0) {
+            index = -index - 2; // last chapter starting before the category
+        }
+        return index >= 0 && category <= CHAPTER_LAST_KEYS[index] ? index : -1;
+    }
+
+    // Category packed into an int that sorts like the string
+    private static int categoryKey(char letter, char digit, char third) {
+        return letter << 16 | digit << 8 | third;
+    }
+
+    private static int[] categoryKeys(String[] categories) {
+        int[] keys = new int[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            keys[i] = categoryKey(categories[i].charAt(0), categories[i].charAt(1), categories[i].charAt(2));
+        }
+        return keys;
+    }
+
+    public static int chapterNumber(int chapterIndex) {
+        return CHAPTER_NUMBER[chapterIndex];
+    }
+
+    public static String chapterTitle(int chapterIndex) {
+        return CHAPTER_TITLE[chapterIndex];
+    }
+
+    public static String chapterRange(int chapterIndex) {
+        return CHAPTER_FIRST[chapterIndex] + "-" + CHAPTER_LAST[chapterIndex];
+    }
+
+    /**
+     * Index of a code in the catalog, or -1
+     * The code is compared in normalized form without building it (dot and whitespace skipped, case folded).
+     */
+    public int indexOf(CharSequence code) {
+        if (code == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = codes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compareNormalized(codes[mid], code);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int compareNormalized(String catalogCode, CharSequence code) {
+        int position = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '.' || Character.isWhitespace(c)) {
+                continue;
+            }
+            if (position == catalogCode.length()) {
+                return -1; // catalog code is a proper prefix
+            }
+            int difference = catalogCode.charAt(position++) - Character.toUpperCase(c);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return position == catalogCode.length() ? 0 : 1;
+    }
+
+    /**
+     * Indexes [from, to) of the codes starting with the prefix, in code order
+     */
+    public int[] prefixRange(String prefix) {
+        String normalized = normalize(prefix);
+        int from = Arrays.binarySearch(codes, normalized);
+        from = from >= 0 ? from : -from - 1;
+        int to = Arrays.binarySearch(codes, from, codes.length, normalized + Character.MAX_VALUE);
+        to = to >= 0 ? to : -to - 1;
+        return new int[] {from, to};
+    }
+
+    public String codeAt(int index) {
+        return codes[index];
+    }
+
+    public String descriptionAt(int index) {
+        return descriptions[index];
+    }
+
+    public boolean isBillable(int index) {
+        return billable.get(index);
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    private record Entry(String code, String description, boolean billable) {
+    }
+}
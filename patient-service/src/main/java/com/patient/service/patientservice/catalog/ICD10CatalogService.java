@@ -0,0 +1,100 @@
+package com.patient.service.patientservice.catalog;
+
+import com.patient.service.patientservice.dto.ICD10CodeDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ICD-10-CM code lookup and autocomplete over the in-memory ICD10Catalog
+ * The code file is loaded once at startup; point healthflow.icd10.codes-location at a CMS release
+ * (icd10cm_order_YYYY.txt) to replace the bundled sample.
+ */
+@Service
+public class ICD10CatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(ICD10CatalogService.class);
+
+    public static final int MAX_SUGGESTIONS = 100;
+
+    private final ICD10Catalog catalog;
+    private final boolean validateAgainstCatalog;
+
+    public ICD10CatalogService(
+            @Value("${healthflow.icd10.codes-location:classpath:icd10/icd10cm-order-sample.txt}") Resource location,
+            @Value("${healthflow.icd10.validate-against-catalog:false}") boolean validateAgainstCatalog) throws IOException {
+        try (InputStream in = location.getInputStream()) {
+            this.catalog = ICD10Catalog.load(in);
+        }
+        this.validateAgainstCatalog = validateAgainstCatalog;
+        log.info("ICD-10-CM catalog loaded from {} ({} codes)", location.getDescription(), catalog.size());
+    }
+
+    /**
+     * Codes starting with the prefix, in code order ("e11" -> E11, E11.6, E11.65, E11.9)
+     */
+    public List<ICD10CodeDTO> autocomplete(String prefix, int limit) {
+        int[] range = catalog.prefixRange(prefix);
+        int to = Math.min(range[1], range[0] + Math.min(limit, MAX_SUGGESTIONS));
+        List<ICD10CodeDTO> suggestions = new ArrayList<>(Math.max(to - range[0], 0));
+        for (int index = range[0]; index < to; index++) {
+            suggestions.add(toDTO(index));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Exact lookup with category and chapter - null for codes not in the catalog
+     */
+    public ICD10CodeDTO lookup(String code) {
+        int index = catalog.indexOf(code);
+        return index < 0 ? null : toDTO(index);
+    }
+
+    public boolean isKnownCode(String code) {
+        return catalog.indexOf(code) >= 0;
+    }
+
+    public boolean isBillableCode(String code) {
+        int index = catalog.indexOf(code);
+        return index >= 0 && catalog.isBillable(index);
+    }
+
+    /**
+     * Whether @ValidICD10Code should reject codes missing from the catalog
+     * (only meaningful once a full release is configured)
+     */
+    public boolean isValidateAgainstCatalog() {
+        return validateAgainstCatalog;
+    }
+
+    private ICD10CodeDTO toDTO(int index) {
+        String code = catalog.codeAt(index);
+        ICD10CodeDTO dto = new ICD10CodeDTO();
+        dto.setCode(ICD10Catalog.format(code));
+        dto.setDescription(catalog.descriptionAt(index));
+        dto.setBillable(catalog.isBillable(index));
+
+        String category = code.substring(0, Math.min(3, code.length()));
+        dto.setCategory(category);
+        int categoryIndex = catalog.indexOf(category);
+        if (categoryIndex >= 0) {
+            dto.setCategoryDescription(catalog.descriptionAt(categoryIndex));
+        }
+
+        int chapterIndex = ICD10Catalog.chapterIndex(code);
+        if (chapterIndex >= 0) {
+            dto.setChapter(ICD10Catalog.chapterNumber(chapterIndex));
+            dto.setChapterRange(ICD10Catalog.chapterRange(chapterIndex));
+            dto.setChapterTitle(ICD10Catalog.chapterTitle(chapterIndex));
+        }
+        return dto;
+    }
+}
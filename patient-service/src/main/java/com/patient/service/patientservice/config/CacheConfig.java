@@ -1,26 +1,169 @@
 package com.patient.service.patientservice.config;
 
-import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import com.patient.service.patientservice.cache.CacheInvalidationBus;
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheSpec;
+import com.patient.service.patientservice.cache.CacheTagGraph;
+import com.patient.service.patientservice.cache.CacheTagger;
+import com.patient.service.patientservice.cache.CacheTags;
+import com.patient.service.patientservice.cache.CacheValueSerializer;
+import com.patient.service.patientservice.cache.JacksonCacheValueCodec;
+import com.patient.service.patientservice.cache.RedisCacheTier;
+import com.patient.service.patientservice.cache.TwoLevelCache;
+import com.patient.service.patientservice.cache.TwoLevelCacheManager;
+import com.patient.service.patientservice.cache.TwoLevelCacheMeterBinder;
+import com.patient.service.patientservice.dto.MedicalRecordResponseDTO;
+import com.patient.service.patientservice.dto.PatientResponseDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.core.Ordered;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
 
 /**
- * Redis Cache Configuration for HealthFlow
- * Optimizes performance for frequently accessed medical data
+ * Two-level cache configuration for HealthFlow
+ * L1: bounded in-process Caffeine cache per instance (always on)
+ * L2: shared Redis cache, enabled with healthflow.cache.redis.enabled=true
+ * L1 copies are invalidated across instances over Redis pub/sub
  */
 @Configuration
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1) // check the cache before a read transaction is opened
 public class CacheConfig {
 
+    private static final int KB = 1024;
+    private static final long MB = 1024L * 1024L;
+
+    /**
+     * Cache declarations - TTL applies to both tiers, size bound to the local tier
+     * Caches invalidated by entity tags after commit keep long TTLs; there the TTL is only a safety net
+     * refreshAhead: reload in the background once an entry is past that fraction of its TTL
+     * staleGrace: keep expired entries that much longer as a fallback when the reload fails
+     * valueSerializer: Redis encoding; any instance reads every format, including legacy JSON
+     * tagger: entity tags of each entry, so writers invalidate by tag (see cacheTagGraph)
+     */
+    public static List<CacheSpec> cacheSpecs() {
+        return List.of(
+            // Patient data - invalidated on write, 1 hour safety net
+            CacheSpec.of("patients", Duration.ofHours(1)).localMaxBytes(16 * MB)
+                    .refreshAhead(0.8).staleGrace(Duration.ofMinutes(2))
+                    .valueSerializer(compactBinary())
+                    .tagger(patientTagger()),
+
+            // Medical records - invalidated on write, 30 minute safety net
+            CacheSpec.of("medical-records", Duration.ofMinutes(30)).localMaxBytes(32 * MB)
+                    .valueSerializer(compactBinary())
+                    .tagger(medicalRecordTagger()),
+
+            // Allergies - invalidated on write, 1 hour safety net (critical safety data)
+            CacheSpec.of("allergies", Duration.ofHours(1)).localMaxBytes(8 * MB)
+                    .refreshAhead(0.8).staleGrace(Duration.ofMinutes(5))
+                    .valueSerializer(compactBinary())
+                    // keys are <patientId>-allergies / -active-allergies / -severe-allergies
+                    .tagger((key, value) -> Set.of(CacheTags.patientAllergies(CacheTags.leadingId(key)))),
+
+            // Patient charts - invalidated on write (see cacheTagGraph), 30 minute safety net
+            CacheSpec.of("patient-charts", Duration.ofMinutes(30)).localMaxBytes(32 * MB)
+                    .valueSerializer(compactBinary())
+                    // keys are <patientId>-chart-<from>-<to>-<limit>
+                    .tagger((key, value) -> Set.of(CacheTags.patientChart(CacheTags.leadingId(key)))),
+
+            // Diagnoses - cached for 8 minutes
+            CacheSpec.of("diagnoses", Duration.ofMinutes(8)).localMaxBytes(8 * MB)
+                    .valueSerializer(compactBinary()),
+
+            // Prescriptions - invalidated on write and by the expiry sweep, 5 minute safety net
+            CacheSpec.of("prescriptions", Duration.ofMinutes(5)).localMaxBytes(8 * MB)
+                    .valueSerializer(compactBinary())
+                    // keys are <recordId>-prescriptions / -active-prescriptions
+                    .tagger((key, value) -> Set.of(CacheTags.recordPrescriptions(CacheTags.leadingId(key)))),
+
+            // Users - cached for 20 minutes (authentication data)
+            CacheSpec.of("users", Duration.ofMinutes(20)).localMaxBytes(4 * MB)
+                    .valueSerializer(compactBinary())
+        );
+    }
+
+    /**
+     * Tag dependencies - invalidating a parent tag also drops entries tagged with its children
+     */
+    public static CacheTagGraph cacheTagGraph() {
+        return new CacheTagGraph()
+            // Allergy and record DTOs embed the patient's name; the list holds every patient
+            .cascade(CacheTags.PATIENT, CacheTags.PATIENT_ALLERGIES)
+            .cascade(CacheTags.PATIENT, CacheTags.PATIENT_RECORDS)
+            .cascadeTo(CacheTags.PATIENT, CacheTags.PATIENT_LIST)
+            // The chart embeds allergies and records (diagnosis/prescription writers tag it directly)
+            .cascade(CacheTags.PATIENT_ALLERGIES, CacheTags.PATIENT_CHART)
+            .cascade(CacheTags.PATIENT_RECORDS, CacheTags.PATIENT_CHART)
+            // A deleted record takes its prescription lists with it
+            .cascade(CacheTags.RECORD, CacheTags.RECORD_PRESCRIPTIONS);
+    }
+
+    /**
+     * Single patient entries (by id or email) -> patient:<id>; the all-patients list -> patient-list
+     */
+    private static CacheTagger patientTagger() {
+        return (key, value) -> value instanceof PatientResponseDTO patient
+                ? Set.of(CacheTags.patient(patient.getId()))
+                : Set.of(CacheTags.patientList());
+    }
+
+    /**
+     * Single record -> record:<id> + patient:<patientId>; <patientId>-records list -> patient-records:<patientId>
+     */
+    private static CacheTagger medicalRecordTagger() {
+        return (key, value) -> value instanceof MedicalRecordResponseDTO record
+                ? Set.of(CacheTags.record(record.getId()), CacheTags.patient(record.getPatientId()))
+                : Set.of(CacheTags.patientRecords(CacheTags.leadingId(key)));
+    }
+
+    /**
+     * Smile with LZ4 for larger values (lists) - see CacheSerializerBenchmark for the numbers
+     */
+    private static CacheValueSerializer compactBinary() {
+        return CacheValueSerializer.of(JacksonCacheValueCodec.smile()).lz4Above(2 * KB);
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(ObjectProvider<RedisCacheTier> redisCacheTier,
+                                             ObjectProvider<CacheInvalidationBus> cacheInvalidationBus) {
+        return new TwoLevelCacheManager(cacheSpecs(),
+                redisCacheTier.getIfAvailable(),
+                cacheInvalidationBus.getIfAvailable());
+    }
+
+    @Bean
+    public CacheInvalidator cacheInvalidator(TwoLevelCacheManager cacheManager,
+                                             ObjectProvider<RedisCacheTier> redisCacheTier,
+                                             ObjectProvider<CacheInvalidationBus> cacheInvalidationBus) {
+        return new CacheInvalidator(cacheManager, cacheTagGraph(),
+                redisCacheTier.getIfAvailable(),
+                cacheInvalidationBus.getIfAvailable());
+    }
+
+    /**
+     * Lets Spring Boot bind every TwoLevelCache to the meter registry (cache.* meters)
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return TwoLevelCacheMeterBinder::new;
+    }
+
     /**
      * Configure Redis template for custom operations
      */
@@ -28,78 +171,53 @@ public class CacheConfig {
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
-        
+
         // Use String serializer for keys
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
-        
+
         // Use JSON serializer for values
         template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
-        
+
         template.afterPropertiesSet();
         return template;
     }
 
     /**
-     * Customize cache configurations for different data types
+     * Redis (L2) tier - only when a Redis server is configured
+     * Standalone or replicated Redis only: the tier's scripts stamp and delete keys of several slots at once
      */
     @Bean
-    public RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer() {
-        return (builder) -> builder
-            // Patient data - cached for 10 minutes (frequently accessed)
-            .withCacheConfiguration("patients",
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(10))
-                    .serializeKeysWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new StringRedisSerializer()))
-                    .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer())))
-            
-            // Medical records - cached for 5 minutes (medical data changes frequently)
-            .withCacheConfiguration("medical-records",
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(5))
-                    .serializeKeysWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new StringRedisSerializer()))
-                    .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer())))
-            
-            // Allergies - cached for 15 minutes (critical safety data, changes less frequently)
-            .withCacheConfiguration("allergies",
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(15))
-                    .serializeKeysWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new StringRedisSerializer()))
-                    .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer())))
-            
-            // Diagnoses - cached for 8 minutes
-            .withCacheConfiguration("diagnoses",
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(8))
-                    .serializeKeysWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new StringRedisSerializer()))
-                    .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer())))
-            
-            // Prescriptions - cached for 5 minutes (medication data changes frequently)
-            .withCacheConfiguration("prescriptions",
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(5))
-                    .serializeKeysWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new StringRedisSerializer()))
-                    .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer())))
-            
-            // Users - cached for 20 minutes (authentication data)
-            .withCacheConfiguration("users",
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(20))
-                    .serializeKeysWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new StringRedisSerializer()))
-                    .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer())));
+    @ConditionalOnProperty(name = "healthflow.cache.redis.enabled", havingValue = "true")
+    public RedisCacheTier redisCacheTier(RedisConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof LettuceConnectionFactory lettuce && lettuce.isClusterAware()) {
+            throw new IllegalStateException("The Redis cache tier does not support Redis Cluster - "
+                    + "point spring.data.redis at a standalone or sentinel-managed server");
+        }
+        Duration longestRetention = cacheSpecs().stream()
+                .map(CacheSpec::getRetention)
+                .max(Comparator.naturalOrder())
+                .orElse(Duration.ofHours(1));
+        return new RedisCacheTier(connectionFactory, longestRetention);
     }
-}
 
+    @Bean
+    @ConditionalOnProperty(name = "healthflow.cache.redis.enabled", havingValue = "true")
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationBus(stringRedisTemplate);
+    }
+
+    /**
+     * Subscribes this instance to L1 invalidations published by the others
+     */
+    @Bean
+    @ConditionalOnProperty(name = "healthflow.cache.redis.enabled", havingValue = "true")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+}
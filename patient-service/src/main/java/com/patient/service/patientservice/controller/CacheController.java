@@ -1,11 +1,15 @@
 package com.patient.service.patientservice.controller;
 
+import com.patient.service.patientservice.dto.CacheStatisticsDTO;
+import com.patient.service.patientservice.dto.CacheWarmUpStatusDTO;
 import com.patient.service.patientservice.service.CacheService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -28,8 +32,8 @@ public class CacheController {
      * Get cache statistics
      */
     @GetMapping("/stats")
-    public ResponseEntity<String> getCacheStatistics() {
-        String stats = cacheService.getCacheStatistics();
+    public ResponseEntity<List<CacheStatisticsDTO>> getCacheStatistics() {
+        List<CacheStatisticsDTO> stats = cacheService.getCacheStatistics();
         return ResponseEntity.ok(stats);
     }
 
@@ -60,6 +64,15 @@ public class CacheController {
         return ResponseEntity.ok("Patient caches cleared for ID: " + patientId);
     }
 
+    /**
+     * Invalidate entries by tag, e.g. patient:<id>, record:<id> or patient-list
+     */
+    @DeleteMapping("/tag/{tag}")
+    public ResponseEntity<String> invalidateTag(@PathVariable String tag) {
+        int removed = cacheService.invalidateTag(tag);
+        return ResponseEntity.ok("Invalidated tag '" + tag + "' (" + removed + " local entries)");
+    }
+
     /**
      * Clear medical record caches
      */
@@ -71,12 +84,20 @@ public class CacheController {
     }
 
     /**
-     * Warm up caches
+     * Warm up caches - starts a background run and returns its progress
      */
     @PostMapping("/warmup")
-    public ResponseEntity<String> warmUpCaches() {
-        cacheService.warmUpCaches();
-        return ResponseEntity.ok("Cache warm-up initiated");
+    public ResponseEntity<CacheWarmUpStatusDTO> warmUpCaches() {
+        CacheWarmUpStatusDTO status = cacheService.warmUpCaches();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    /**
+     * Get warm-up progress (processed count, throughput, ETA)
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<CacheWarmUpStatusDTO> getWarmUpStatus() {
+        return ResponseEntity.ok(cacheService.getWarmUpStatus());
     }
 
     /**
@@ -0,0 +1,46 @@
+package com.patient.service.patientservice.controller;
+
+import com.patient.service.patientservice.catalog.ICD10CatalogService;
+import com.patient.service.patientservice.dto.ICD10CodeDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * ICD-10-CM code catalog endpoints
+ * Autocomplete and exact lookup for diagnosis entry, served from memory
+ */
+@RestController
+@RequestMapping("/diagnoses/codes")
+public class DiagnosisCodeController {
+
+    private final ICD10CatalogService icd10CatalogService;
+
+    @Autowired
+    public DiagnosisCodeController(ICD10CatalogService icd10CatalogService) {
+        this.icd10CatalogService = icd10CatalogService;
+    }
+
+    /**
+     * Codes starting with a prefix (dot optional, case-insensitive)
+     */
+    @GetMapping
+    public ResponseEntity<List<ICD10CodeDTO>> autocomplete(@RequestParam String prefix,
+                                                           @RequestParam(defaultValue = "20") int limit) {
+        if (prefix.isBlank() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(icd10CatalogService.autocomplete(prefix, limit));
+    }
+
+    /**
+     * Exact code with its category and chapter
+     */
+    @GetMapping("/{code}")
+    public ResponseEntity<ICD10CodeDTO> lookup(@PathVariable String code) {
+        ICD10CodeDTO dto = icd10CatalogService.lookup(code);
+        return dto != null ? ResponseEntity.ok(dto) : ResponseEntity.notFound().build();
+    }
+}
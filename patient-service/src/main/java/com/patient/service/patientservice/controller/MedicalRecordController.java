@@ -4,14 +4,21 @@ import com.patient.service.patientservice.dto.DiagnosisRequestDTO;
 import com.patient.service.patientservice.dto.DiagnosisResponseDTO;
 import com.patient.service.patientservice.dto.MedicalRecordRequestDTO;
 import com.patient.service.patientservice.dto.MedicalRecordResponseDTO;
+import com.patient.service.patientservice.dto.MedicalRecordSearchResultDTO;
 import com.patient.service.patientservice.dto.PrescriptionRequestDTO;
 import com.patient.service.patientservice.dto.PrescriptionResponseDTO;
+import com.patient.service.patientservice.dto.SearchIndexStatusDTO;
+import com.patient.service.patientservice.export.MedicalRecordExportWriter;
 import com.patient.service.patientservice.service.DiagnosisService;
+import com.patient.service.patientservice.service.MedicalRecordSearchService;
 import com.patient.service.patientservice.service.MedicalRecordService;
 import com.patient.service.patientservice.service.PrescriptionService;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,13 +30,16 @@ public class MedicalRecordController {
     private final MedicalRecordService medicalRecordService;
     private final DiagnosisService diagnosisService;
     private final PrescriptionService prescriptionService;
+    private final MedicalRecordSearchService medicalRecordSearchService;
 
     public MedicalRecordController(MedicalRecordService medicalRecordService, 
                                   DiagnosisService diagnosisService,
-                                  PrescriptionService prescriptionService) {
+                                  PrescriptionService prescriptionService,
+                                  MedicalRecordSearchService medicalRecordSearchService) {
         this.medicalRecordService = medicalRecordService;
         this.diagnosisService = diagnosisService;
         this.prescriptionService = prescriptionService;
+        this.medicalRecordSearchService = medicalRecordSearchService;
     }
 
     @GetMapping
@@ -38,6 +48,58 @@ public class MedicalRecordController {
         return ResponseEntity.ok().body(medicalRecords);
     }
 
+    /**
+     * Export every medical record as NDJSON (default) or CSV
+     * Rows are streamed from a database cursor straight to the response - use this instead of the list endpoint for large datasets
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMedicalRecords(@RequestParam(defaultValue = "ndjson") String format) {
+        MedicalRecordExportWriter.Format exportFormat;
+        try {
+            exportFormat = MedicalRecordExportWriter.Format.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> medicalRecordService.exportMedicalRecords(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("medical-records." + exportFormat.getExtension()).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Ranked full-text search over complaint, symptoms, examination notes, treatment plan and doctor notes
+     * Optionally scoped to one patient and/or attending doctor; page is 0-based
+     */
+    @GetMapping("/search")
+    public ResponseEntity<MedicalRecordSearchResultDTO> searchMedicalRecords(
+            @RequestParam String q,
+            @RequestParam(required = false) UUID patientId,
+            @RequestParam(required = false) String attendingDoctor,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank() || page < 0 || size < 1 || size > MedicalRecordSearchService.MAX_PAGE_SIZE
+                || (long) page * size + size > MedicalRecordSearchService.MAX_RESULT_WINDOW) {
+            return ResponseEntity.badRequest().build();
+        }
+        MedicalRecordSearchResultDTO result = medicalRecordSearchService.search(q, patientId, attendingDoctor, page, size);
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * Re-index every record from the database in the background (admin only)
+     */
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<SearchIndexStatusDTO> rebuildSearchIndex() {
+        return ResponseEntity.accepted().body(medicalRecordSearchService.startRebuild());
+    }
+
+    @GetMapping("/search/rebuild")
+    public ResponseEntity<SearchIndexStatusDTO> getSearchIndexStatus() {
+        return ResponseEntity.ok().body(medicalRecordSearchService.getStatus());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MedicalRecordResponseDTO> getMedicalRecordById(@PathVariable UUID id) {
         MedicalRecordResponseDTO medicalRecord = medicalRecordService.getMedicalRecordById(id);
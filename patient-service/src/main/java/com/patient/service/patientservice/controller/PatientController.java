@@ -2,15 +2,28 @@ package com.patient.service.patientservice.controller;
 
 import com.patient.service.patientservice.dto.AllergyRequestDTO;
 import com.patient.service.patientservice.dto.AllergyResponseDTO;
+import com.patient.service.patientservice.dto.PatientChartDTO;
+import com.patient.service.patientservice.dto.PatientCountsDTO;
+import com.patient.service.patientservice.dto.PatientImportResultDTO;
 import com.patient.service.patientservice.dto.PatientRequestDTO;
 import com.patient.service.patientservice.dto.PatientResponseDTO;
+import com.patient.service.patientservice.dto.SearchPageDTO;
 import com.patient.service.patientservice.service.AllergyService;
+import com.patient.service.patientservice.service.NameSearchService;
+import com.patient.service.patientservice.service.PatientChartService;
+import com.patient.service.patientservice.service.PatientCountersService;
+import com.patient.service.patientservice.service.PatientImportService;
 import com.patient.service.patientservice.service.PatientService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -23,10 +36,20 @@ public class PatientController {
 
     private final PatientService patientService;
     private final AllergyService allergyService;
-
-    public PatientController(PatientService patientService, AllergyService allergyService) {
+    private final PatientChartService patientChartService;
+    private final PatientImportService patientImportService;
+    private final NameSearchService nameSearchService;
+    private final PatientCountersService patientCountersService;
+
+    public PatientController(PatientService patientService, AllergyService allergyService,
+                             PatientChartService patientChartService, PatientImportService patientImportService,
+                             NameSearchService nameSearchService, PatientCountersService patientCountersService) {
         this.patientService = patientService;
         this.allergyService = allergyService;
+        this.patientChartService = patientChartService;
+        this.patientImportService = patientImportService;
+        this.nameSearchService = nameSearchService;
+        this.patientCountersService = patientCountersService;
     }
 
     /**
@@ -59,12 +82,39 @@ public class PatientController {
         return ResponseEntity.ok().body(patientResponseDTO);
     }
 
+    /**
+     * Full chart in one call - optional record window (from/to, ISO dates) and record limit
+     */
+    @GetMapping("/{id}/chart")
+    public ResponseEntity<PatientChartDTO> getPatientChart(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "" + PatientChartService.DEFAULT_RECORD_LIMIT) int limit) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        PatientChartDTO chart = patientChartService.getPatientChart(id, from, to, limit);
+        return ResponseEntity.ok().body(chart);
+    }
+
     @PostMapping
     public ResponseEntity<PatientResponseDTO> savePatient(@Valid @RequestBody PatientRequestDTO patientRequestDTO){
         PatientResponseDTO patientResponseDTO =patientService.createPatient(patientRequestDTO);
         return ResponseEntity.ok().body(patientResponseDTO);
     }
 
+    /**
+     * Bulk import (admin only) - NDJSON (one patient object per line) or CSV with a header row
+     * The body is streamed; rows that fail validation are listed in the result, the rest are imported
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<PatientImportResultDTO> importPatients(HttpServletRequest request) throws IOException {
+        PatientImportResultDTO result = patientImportService.importPatients(
+                MediaType.parseMediaType(request.getContentType()), request.getInputStream());
+        return ResponseEntity.ok().body(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<PatientResponseDTO> updatePatient(@PathVariable UUID id,@Valid @RequestBody PatientRequestDTO patientRequestDTO){
         PatientResponseDTO patientResponseDTO =patientService.updatePatient(id,patientRequestDTO);
@@ -96,12 +146,37 @@ public class PatientController {
         return ResponseEntity.ok().body(allergies);
     }
 
+    /**
+     * Search the patient's allergies by allergen - substring match, or typo-tolerant with fuzzy=true
+     */
+    @GetMapping("/{id}/allergies/search")
+    public ResponseEntity<SearchPageDTO<AllergyResponseDTO>> searchAllergies(
+            @PathVariable UUID id,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank() || page < 0 || size < 1 || size > NameSearchService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        SearchPageDTO<AllergyResponseDTO> result = nameSearchService.searchAllergies(id, q, fuzzy, page, size);
+        return ResponseEntity.ok().body(result);
+    }
+
     @GetMapping("/{patientId}/allergies/{allergyId}")
     public ResponseEntity<AllergyResponseDTO> getAllergyById(@PathVariable UUID patientId, @PathVariable UUID allergyId) {
         AllergyResponseDTO allergy = allergyService.getAllergyById(patientId, allergyId);
         return ResponseEntity.ok().body(allergy);
     }
 
+    /**
+     * Record, allergy, active-allergy and active-prescription counts in one read
+     */
+    @GetMapping("/{id}/counts")
+    public ResponseEntity<PatientCountsDTO> getPatientCounts(@PathVariable UUID id) {
+        return ResponseEntity.ok().body(patientCountersService.getCounts(id));
+    }
+
     @GetMapping("/{id}/allergies/count")
     public ResponseEntity<Long> getAllergyCountByPatient(@PathVariable UUID id) {
         long count = allergyService.getAllergyCountByPatient(id);
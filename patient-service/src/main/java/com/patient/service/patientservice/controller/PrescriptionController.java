@@ -0,0 +1,45 @@
+package com.patient.service.patientservice.controller;
+
+import com.patient.service.patientservice.dto.PrescriptionResponseDTO;
+import com.patient.service.patientservice.dto.SearchPageDTO;
+import com.patient.service.patientservice.service.NameSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * Prescription queries across medical records (per-record CRUD lives under /medical-records/{id}/prescriptions)
+ */
+@RestController
+@RequestMapping("/prescriptions")
+public class PrescriptionController {
+
+    private final NameSearchService nameSearchService;
+
+    public PrescriptionController(NameSearchService nameSearchService) {
+        this.nameSearchService = nameSearchService;
+    }
+
+    /**
+     * Search by medication name - substring match, or typo-tolerant with fuzzy=true; optionally one patient only
+     * Without patientId the query needs at least 3 characters
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchPageDTO<PrescriptionResponseDTO>> searchPrescriptions(
+            @RequestParam String q,
+            @RequestParam(required = false) UUID patientId,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank() || page < 0 || size < 1 || size > NameSearchService.MAX_PAGE_SIZE
+                || (patientId == null && q.trim().length() < NameSearchService.MIN_UNSCOPED_QUERY_LENGTH)) {
+            return ResponseEntity.badRequest().build();
+        }
+        SearchPageDTO<PrescriptionResponseDTO> result = nameSearchService.searchPrescriptions(q, patientId, fuzzy, page, size);
+        return ResponseEntity.ok().body(result);
+    }
+}
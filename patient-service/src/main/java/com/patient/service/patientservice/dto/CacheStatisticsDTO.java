@@ -0,0 +1,245 @@
+package com.patient.service.patientservice.dto;
+
+import java.util.Map;
+
+public class CacheStatisticsDTO {
+
+    private String name;
+    private long ttlSeconds;
+    private boolean remoteTierEnabled;
+    private long localHits;
+    private long remoteHits;
+    private long misses;
+    private double hitRatio;
+    private long puts;
+    private long evictions;
+    private long invalidations;
+    private long entries;
+    private long estimatedBytes;
+    private long maxBytes;
+    private long loads;
+    private long coalescedLoads;
+    private int inFlightLoads;
+    private long refreshes;
+    private long refreshFailures;
+    private long staleHits;
+    private long rejectedPuts;
+    private double loadMeanMillis;
+    private double loadP50Millis;
+    private double loadP95Millis;
+    private double loadP99Millis;
+    private double loadMaxMillis;
+    private Map<String, Long> loadLatencyHistogram;
+
+    // Constructors
+    public CacheStatisticsDTO() {}
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public boolean isRemoteTierEnabled() {
+        return remoteTierEnabled;
+    }
+
+    public void setRemoteTierEnabled(boolean remoteTierEnabled) {
+        this.remoteTierEnabled = remoteTierEnabled;
+    }
+
+    public long getLocalHits() {
+        return localHits;
+    }
+
+    public void setLocalHits(long localHits) {
+        this.localHits = localHits;
+    }
+
+    public long getRemoteHits() {
+        return remoteHits;
+    }
+
+    public void setRemoteHits(long remoteHits) {
+        this.remoteHits = remoteHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public void setPuts(long puts) {
+        this.puts = puts;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public void setEntries(long entries) {
+        this.entries = entries;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public void setEstimatedBytes(long estimatedBytes) {
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public void setLoads(long loads) {
+        this.loads = loads;
+    }
+
+    public long getCoalescedLoads() {
+        return coalescedLoads;
+    }
+
+    public void setCoalescedLoads(long coalescedLoads) {
+        this.coalescedLoads = coalescedLoads;
+    }
+
+    public int getInFlightLoads() {
+        return inFlightLoads;
+    }
+
+    public void setInFlightLoads(int inFlightLoads) {
+        this.inFlightLoads = inFlightLoads;
+    }
+
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    public void setRefreshes(long refreshes) {
+        this.refreshes = refreshes;
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures;
+    }
+
+    public void setRefreshFailures(long refreshFailures) {
+        this.refreshFailures = refreshFailures;
+    }
+
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    public void setStaleHits(long staleHits) {
+        this.staleHits = staleHits;
+    }
+
+    public long getRejectedPuts() {
+        return rejectedPuts;
+    }
+
+    public void setRejectedPuts(long rejectedPuts) {
+        this.rejectedPuts = rejectedPuts;
+    }
+
+    public double getLoadMeanMillis() {
+        return loadMeanMillis;
+    }
+
+    public void setLoadMeanMillis(double loadMeanMillis) {
+        this.loadMeanMillis = loadMeanMillis;
+    }
+
+    public double getLoadP50Millis() {
+        return loadP50Millis;
+    }
+
+    public void setLoadP50Millis(double loadP50Millis) {
+        this.loadP50Millis = loadP50Millis;
+    }
+
+    public double getLoadP95Millis() {
+        return loadP95Millis;
+    }
+
+    public void setLoadP95Millis(double loadP95Millis) {
+        this.loadP95Millis = loadP95Millis;
+    }
+
+    public double getLoadP99Millis() {
+        return loadP99Millis;
+    }
+
+    public void setLoadP99Millis(double loadP99Millis) {
+        this.loadP99Millis = loadP99Millis;
+    }
+
+    public double getLoadMaxMillis() {
+        return loadMaxMillis;
+    }
+
+    public void setLoadMaxMillis(double loadMaxMillis) {
+        this.loadMaxMillis = loadMaxMillis;
+    }
+
+    public Map<String, Long> getLoadLatencyHistogram() {
+        return loadLatencyHistogram;
+    }
+
+    public void setLoadLatencyHistogram(Map<String, Long> loadLatencyHistogram) {
+        this.loadLatencyHistogram = loadLatencyHistogram;
+    }
+}
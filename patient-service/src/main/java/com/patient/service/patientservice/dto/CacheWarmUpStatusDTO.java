@@ -0,0 +1,99 @@
+package com.patient.service.patientservice.dto;
+
+public class CacheWarmUpStatusDTO {
+
+    private String state;
+    private String startedAt;
+    private String finishedAt;
+    private long totalPatients;
+    private long processedPatients;
+    private long failedPatients;
+    private long entriesLoaded;
+    private double patientsPerSecond;
+    private Long etaSeconds;
+    private String lastError;
+
+    // Constructors
+    public CacheWarmUpStatusDTO() {}
+
+    // Getters and Setters
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getTotalPatients() {
+        return totalPatients;
+    }
+
+    public void setTotalPatients(long totalPatients) {
+        this.totalPatients = totalPatients;
+    }
+
+    public long getProcessedPatients() {
+        return processedPatients;
+    }
+
+    public void setProcessedPatients(long processedPatients) {
+        this.processedPatients = processedPatients;
+    }
+
+    public long getFailedPatients() {
+        return failedPatients;
+    }
+
+    public void setFailedPatients(long failedPatients) {
+        this.failedPatients = failedPatients;
+    }
+
+    public long getEntriesLoaded() {
+        return entriesLoaded;
+    }
+
+    public void setEntriesLoaded(long entriesLoaded) {
+        this.entriesLoaded = entriesLoaded;
+    }
+
+    public double getPatientsPerSecond() {
+        return patientsPerSecond;
+    }
+
+    public void setPatientsPerSecond(double patientsPerSecond) {
+        this.patientsPerSecond = patientsPerSecond;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
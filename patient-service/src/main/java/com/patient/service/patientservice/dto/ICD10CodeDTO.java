@@ -0,0 +1,81 @@
+package com.patient.service.patientservice.dto;
+
+public class ICD10CodeDTO {
+
+    private String code;
+    private String description;
+    private boolean billable;
+    private String category;
+    private String categoryDescription;
+    private Integer chapter;
+    private String chapterRange;
+    private String chapterTitle;
+
+    // Constructors
+    public ICD10CodeDTO() {}
+
+    // Getters and Setters
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public boolean isBillable() {
+        return billable;
+    }
+
+    public void setBillable(boolean billable) {
+        this.billable = billable;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getCategoryDescription() {
+        return categoryDescription;
+    }
+
+    public void setCategoryDescription(String categoryDescription) {
+        this.categoryDescription = categoryDescription;
+    }
+
+    public Integer getChapter() {
+        return chapter;
+    }
+
+    public void setChapter(Integer chapter) {
+        this.chapter = chapter;
+    }
+
+    public String getChapterRange() {
+        return chapterRange;
+    }
+
+    public void setChapterRange(String chapterRange) {
+        this.chapterRange = chapterRange;
+    }
+
+    public String getChapterTitle() {
+        return chapterTitle;
+    }
+
+    public void setChapterTitle(String chapterTitle) {
+        this.chapterTitle = chapterTitle;
+    }
+}
@@ -0,0 +1,63 @@
+package com.patient.service.patientservice.dto;
+
+public class MedicalRecordSearchHitDTO {
+
+    private String recordId;
+    private String patientId;
+    private String attendingDoctor;
+    private String recordDate;
+    private String chiefComplaint;
+    private float score;
+
+    // Constructors
+    public MedicalRecordSearchHitDTO() {}
+
+    // Getters and Setters
+    public String getRecordId() {
+        return recordId;
+    }
+
+    public void setRecordId(String recordId) {
+        this.recordId = recordId;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getAttendingDoctor() {
+        return attendingDoctor;
+    }
+
+    public void setAttendingDoctor(String attendingDoctor) {
+        this.attendingDoctor = attendingDoctor;
+    }
+
+    public String getRecordDate() {
+        return recordDate;
+    }
+
+    public void setRecordDate(String recordDate) {
+        this.recordDate = recordDate;
+    }
+
+    public String getChiefComplaint() {
+        return chiefComplaint;
+    }
+
+    public void setChiefComplaint(String chiefComplaint) {
+        this.chiefComplaint = chiefComplaint;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
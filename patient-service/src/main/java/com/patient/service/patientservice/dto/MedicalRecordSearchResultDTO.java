@@ -0,0 +1,57 @@
+package com.patient.service.patientservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MedicalRecordSearchResultDTO {
+
+    private String query;
+    private int page;
+    private int size;
+    private long totalHits;
+    private List<MedicalRecordSearchHitDTO> hits = new ArrayList<>();
+
+    // Constructors
+    public MedicalRecordSearchResultDTO() {}
+
+    // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public List<MedicalRecordSearchHitDTO> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<MedicalRecordSearchHitDTO> hits) {
+        this.hits = hits;
+    }
+}
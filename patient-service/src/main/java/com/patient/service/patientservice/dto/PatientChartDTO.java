@@ -0,0 +1,83 @@
+package com.patient.service.patientservice.dto;
+
+import java.util.List;
+
+public class PatientChartDTO {
+
+    private PatientResponseDTO patient;
+    private List<AllergyResponseDTO> allergies;
+    private List<PatientChartRecordDTO> records;
+    private String from;
+    private String to;
+    private int recordLimit;
+    private boolean truncated;
+    private String generatedAt;
+
+    // Constructors
+    public PatientChartDTO() {}
+
+    // Getters and Setters
+    public PatientResponseDTO getPatient() {
+        return patient;
+    }
+
+    public void setPatient(PatientResponseDTO patient) {
+        this.patient = patient;
+    }
+
+    public List<AllergyResponseDTO> getAllergies() {
+        return allergies;
+    }
+
+    public void setAllergies(List<AllergyResponseDTO> allergies) {
+        this.allergies = allergies;
+    }
+
+    public List<PatientChartRecordDTO> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<PatientChartRecordDTO> records) {
+        this.records = records;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public int getRecordLimit() {
+        return recordLimit;
+    }
+
+    public void setRecordLimit(int recordLimit) {
+        this.recordLimit = recordLimit;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public String getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(String generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
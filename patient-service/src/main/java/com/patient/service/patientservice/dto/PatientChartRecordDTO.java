@@ -0,0 +1,45 @@
+package com.patient.service.patientservice.dto;
+
+import java.util.List;
+
+public class PatientChartRecordDTO {
+
+    private MedicalRecordResponseDTO record;
+    private List<DiagnosisResponseDTO> diagnoses;
+    private List<PrescriptionResponseDTO> prescriptions;
+
+    // Constructors
+    public PatientChartRecordDTO() {}
+
+    public PatientChartRecordDTO(MedicalRecordResponseDTO record, List<DiagnosisResponseDTO> diagnoses,
+                                 List<PrescriptionResponseDTO> prescriptions) {
+        this.record = record;
+        this.diagnoses = diagnoses;
+        this.prescriptions = prescriptions;
+    }
+
+    // Getters and Setters
+    public MedicalRecordResponseDTO getRecord() {
+        return record;
+    }
+
+    public void setRecord(MedicalRecordResponseDTO record) {
+        this.record = record;
+    }
+
+    public List<DiagnosisResponseDTO> getDiagnoses() {
+        return diagnoses;
+    }
+
+    public void setDiagnoses(List<DiagnosisResponseDTO> diagnoses) {
+        this.diagnoses = diagnoses;
+    }
+
+    public List<PrescriptionResponseDTO> getPrescriptions() {
+        return prescriptions;
+    }
+
+    public void setPrescriptions(List<PrescriptionResponseDTO> prescriptions) {
+        this.prescriptions = prescriptions;
+    }
+}
@@ -0,0 +1,54 @@
+package com.patient.service.patientservice.dto;
+
+public class PatientCountsDTO {
+
+    private String patientId;
+    private long medicalRecords;
+    private long allergies;
+    private long activeAllergies;
+    private long activePrescriptions;
+
+    // Constructors
+    public PatientCountsDTO() {}
+
+    // Getters and Setters
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+
+    public long getMedicalRecords() {
+        return medicalRecords;
+    }
+
+    public void setMedicalRecords(long medicalRecords) {
+        this.medicalRecords = medicalRecords;
+    }
+
+    public long getAllergies() {
+        return allergies;
+    }
+
+    public void setAllergies(long allergies) {
+        this.allergies = allergies;
+    }
+
+    public long getActiveAllergies() {
+        return activeAllergies;
+    }
+
+    public void setActiveAllergies(long activeAllergies) {
+        this.activeAllergies = activeAllergies;
+    }
+
+    public long getActivePrescriptions() {
+        return activePrescriptions;
+    }
+
+    public void setActivePrescriptions(long activePrescriptions) {
+        this.activePrescriptions = activePrescriptions;
+    }
+}
@@ -0,0 +1,44 @@
+package com.patient.service.patientservice.dto;
+
+import java.util.List;
+
+public class PatientImportErrorDTO {
+
+    private int row;
+    private String email;
+    private List<String> messages;
+
+    // Constructors
+    public PatientImportErrorDTO() {}
+
+    public PatientImportErrorDTO(int row, String email, List<String> messages) {
+        this.row = row;
+        this.email = email;
+        this.messages = messages;
+    }
+
+    // Getters and Setters
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<String> messages) {
+        this.messages = messages;
+    }
+}
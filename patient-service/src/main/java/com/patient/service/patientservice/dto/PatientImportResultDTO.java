@@ -0,0 +1,66 @@
+package com.patient.service.patientservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PatientImportResultDTO {
+
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private long durationMillis;
+    private boolean errorsTruncated;
+    private List<PatientImportErrorDTO> errors = new ArrayList<>();
+
+    // Constructors
+    public PatientImportResultDTO() {}
+
+    // Getters and Setters
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public void setFailedRows(long failedRows) {
+        this.failedRows = failedRows;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<PatientImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<PatientImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,72 @@
+package com.patient.service.patientservice.dto;
+
+public class SearchIndexStatusDTO {
+
+    private String state;
+    private String startedAt;
+    private String finishedAt;
+    private long indexedRecords;
+    private long failedRecords;
+    private long documentCount;
+    private String lastError;
+
+    // Constructors
+    public SearchIndexStatusDTO() {}
+
+    // Getters and Setters
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getIndexedRecords() {
+        return indexedRecords;
+    }
+
+    public void setIndexedRecords(long indexedRecords) {
+        this.indexedRecords = indexedRecords;
+    }
+
+    public long getFailedRecords() {
+        return failedRecords;
+    }
+
+    public void setFailedRecords(long failedRecords) {
+        this.failedRecords = failedRecords;
+    }
+
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    public void setDocumentCount(long documentCount) {
+        this.documentCount = documentCount;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,66 @@
+package com.patient.service.patientservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchPageDTO<T> {
+
+    private String query;
+    private boolean fuzzy;
+    private int page;
+    private int size;
+    private long totalHits;
+    private List<T> items = new ArrayList<>();
+
+    // Constructors
+    public SearchPageDTO() {}
+
+    // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public boolean isFuzzy() {
+        return fuzzy;
+    }
+
+    public void setFuzzy(boolean fuzzy) {
+        this.fuzzy = fuzzy;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,167 @@
+package com.patient.service.patientservice.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.patient.service.patientservice.dto.MedicalRecordResponseDTO;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes medical records one at a time to an export stream
+ * NDJSON: one MedicalRecordResponseDTO object per line. CSV: RFC 4180 with a header row; values a
+ * spreadsheet would run as a formula (leading '=', '+', '-', '@', tab or CR) are prefixed with a quote.
+ * Output is buffered; the caller decides when to flush. The target stream is never closed.
+ */
+public abstract class MedicalRecordExportWriter implements Flushable {
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format fromParameter(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+            }
+        }
+    }
+
+    public static MedicalRecordExportWriter open(Format format, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter(out, objectMapper);
+            case CSV -> new CsvWriter(out);
+        };
+    }
+
+    public abstract void write(MedicalRecordResponseDTO record) throws IOException;
+
+    private static final class NdjsonWriter extends MedicalRecordExportWriter {
+
+        private final JsonGenerator generator;
+        private final ObjectWriter recordWriter;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null); // records are separated by our own '\n'
+            // Flushing after every record would turn each row into its own network write
+            this.recordWriter = objectMapper.writerFor(MedicalRecordResponseDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(MedicalRecordResponseDTO record) throws IOException {
+            recordWriter.writeValue(generator, record);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvWriter extends MedicalRecordExportWriter {
+
+        private static final String HEADER = "id,patientId,patientName,recordDate,chiefComplaint,symptoms,"
+                + "examinationNotes,treatmentPlan,doctorNotes,attendingDoctor,createdAt,updatedAt\r\n";
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write(HEADER);
+        }
+
+        @Override
+        public void write(MedicalRecordResponseDTO record) throws IOException {
+            field(record.getId(), ',');
+            field(record.getPatientId(), ',');
+            field(record.getPatientName(), ',');
+            field(record.getRecordDate(), ',');
+            field(record.getChiefComplaint(), ',');
+            field(record.getSymptoms(), ',');
+            field(record.getExaminationNotes(), ',');
+            field(record.getTreatmentPlan(), ',');
+            field(record.getDoctorNotes(), ',');
+            field(record.getAttendingDoctor(), ',');
+            field(record.getCreatedAt(), ',');
+            field(record.getUpdatedAt(), '\r');
+            writer.write('\n');
+        }
+
+        // Quotes only fields that need it; embedded quotes are doubled
+        private void field(String value, char terminator) throws IOException {
+            if (value != null) {
+                if (startsLikeFormula(value)) {
+                    value = "'" + value;
+                }
+                if (needsQuoting(value)) {
+                    writer.write('"');
+                    for (int i = 0; i < value.length(); i++) {
+                        char c = value.charAt(i);
+                        if (c == '"') {
+                            writer.write('"');
+                        }
+                        writer.write(c);
+                    }
+                    writer.write('"');
+                } else {
+                    writer.write(value);
+                }
+            }
+            writer.write(terminator);
+        }
+
+        private static boolean startsLikeFormula(String value) {
+            if (value.isEmpty()) {
+                return false;
+            }
+            char first = value.charAt(0);
+            return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        }
+
+        private static boolean needsQuoting(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+}
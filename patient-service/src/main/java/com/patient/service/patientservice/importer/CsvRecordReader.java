@@ -0,0 +1,121 @@
+package com.patient.service.patientservice.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 record reader
+ * Comma separated; double-quoted fields may contain commas, doubled quotes and line breaks.
+ * Reads one record at a time and caps the field length, so memory use does not depend on the size
+ * of the file. A field over the cap (typically an unterminated quote swallowing the following lines)
+ * fails its record and reading resumes after the next line break.
+ */
+public class CsvRecordReader implements Closeable {
+
+    public static final int DEFAULT_MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final int maxFieldLength;
+    private final StringBuilder field = new StringBuilder();
+    private boolean endOfInput;
+
+    public CsvRecordReader(Reader reader) {
+        this(reader, DEFAULT_MAX_FIELD_LENGTH);
+    }
+
+    public CsvRecordReader(Reader reader, int maxFieldLength) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    /**
+     * Fields of the next record, or null at the end of the input (a blank line is one empty field)
+     * @throws MalformedRecordException for a record that cannot be read; the next call continues after it
+     */
+    public List<String> next() throws IOException {
+        if (endOfInput) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean started = false;
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                endOfInput = true;
+                if (!started) {
+                    return null;
+                }
+                if (quoted) {
+                    throw new MalformedRecordException("Unterminated quoted field");
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            started = true;
+            if (quoted) {
+                if (c != '"') {
+                    append(c, true);
+                } else {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        append('"', true); // escaped quote
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                append(c, false);
+            }
+        }
+    }
+
+    private void append(int c, boolean quoted) throws IOException {
+        if (field.length() == maxFieldLength) {
+            field.setLength(0);
+            skipLine();
+            throw new MalformedRecordException(quoted
+                    ? "Quoted field longer than " + maxFieldLength + " characters (unterminated quote?)"
+                    : "Field longer than " + maxFieldLength + " characters");
+        }
+        field.append((char) c);
+    }
+
+    // Drops the rest of the physical line, quotes or not
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = reader.read();
+        } while (c != -1 && c != '\n');
+        endOfInput = c == -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * A record that is not valid CSV; the reader has moved past it
+     */
+    public static class MalformedRecordException extends IOException {
+
+        public MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.patient.service.patientservice.importer;
+
+import com.patient.service.patientservice.dto.PatientRequestDTO;
+
+/**
+ * One data row of an import file: the parsed patient, or why the row could not be parsed
+ * @param row 1-based position among the data rows (header and blank lines not counted)
+ */
+public record PatientImportRow(int row, PatientRequestDTO patient, String parseError) {
+
+    static PatientImportRow parsed(int row, PatientRequestDTO patient) {
+        return new PatientImportRow(row, patient, null);
+    }
+
+    static PatientImportRow unparseable(int row, String parseError) {
+        return new PatientImportRow(row, null, parseError);
+    }
+}
@@ -0,0 +1,160 @@
+package com.patient.service.patientservice.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.patient.service.patientservice.dto.PatientRequestDTO;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+/**
+ * Streams PatientRequestDTO rows out of an import body
+ * NDJSON: one JSON object per line. CSV: header row naming PatientRequestDTO fields
+ * (any case, '_' and '-' ignored - "date_of_birth" works), unknown columns are ignored.
+ * A malformed row becomes an unparseable PatientImportRow; reading continues with the next one.
+ * A CSV field is capped at MAX_FIELD_LENGTH characters, so an unterminated quote fails its row
+ * instead of swallowing the rest of the file.
+ */
+public abstract class PatientRowReader implements Closeable {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    public static final int MAX_FIELD_LENGTH = 4096;
+
+    protected final BufferedReader reader;
+    protected int row;
+
+    protected PatientRowReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    public static PatientRowReader open(MediaType contentType, InputStream in, ObjectMapper objectMapper) {
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return new NdjsonReader(in, objectMapper);
+        }
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return new CsvReader(in);
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + contentType);
+    }
+
+    /**
+     * Next data row, or null at the end of the input
+     */
+    public abstract PatientImportRow next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class NdjsonReader extends PatientRowReader {
+
+        private final ObjectReader patientReader;
+
+        NdjsonReader(InputStream in, ObjectMapper objectMapper) {
+            super(in);
+            this.patientReader = objectMapper.readerFor(PatientRequestDTO.class);
+        }
+
+        @Override
+        public PatientImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            row++;
+            try {
+                return PatientImportRow.parsed(row, patientReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                return PatientImportRow.unparseable(row, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class CsvReader extends PatientRowReader {
+
+        private final CsvRecordReader records;
+        private List<BiConsumer<PatientRequestDTO, String>> columns;
+
+        CsvReader(InputStream in) {
+            super(in);
+            this.records = new CsvRecordReader(reader, MAX_FIELD_LENGTH);
+        }
+
+        @Override
+        public PatientImportRow next() throws IOException {
+            if (columns == null) {
+                List<String> header;
+                try {
+                    header = nextRecord();
+                } catch (CsvRecordReader.MalformedRecordException e) {
+                    throw new IllegalArgumentException("Invalid CSV header: " + e.getMessage());
+                }
+                if (header == null) {
+                    return null;
+                }
+                columns = new ArrayList<>(header.size());
+                header.forEach(name -> columns.add(setterFor(name)));
+            }
+
+            List<String> fields;
+            try {
+                fields = nextRecord();
+            } catch (CsvRecordReader.MalformedRecordException e) {
+                row++;
+                return PatientImportRow.unparseable(row, e.getMessage());
+            }
+            if (fields == null) {
+                return null;
+            }
+            row++;
+            if (fields.size() > columns.size()) {
+                return PatientImportRow.unparseable(row,
+                        "Expected at most " + columns.size() + " fields, found " + fields.size());
+            }
+            PatientRequestDTO patient = new PatientRequestDTO();
+            for (int i = 0; i < fields.size(); i++) {
+                BiConsumer<PatientRequestDTO, String> setter = columns.get(i);
+                String value = fields.get(i).trim();
+                if (setter != null && !value.isEmpty()) {
+                    setter.accept(patient, value);
+                }
+            }
+            return PatientImportRow.parsed(row, patient);
+        }
+
+        // Skips blank lines
+        private List<String> nextRecord() throws IOException {
+            List<String> fields;
+            do {
+                fields = records.next();
+            } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            return fields;
+        }
+
+        private static BiConsumer<PatientRequestDTO, String> setterFor(String column) {
+            return switch (column.replace("_", "").replace("-", "").trim().toLowerCase(Locale.ROOT)) {
+                case "name" -> PatientRequestDTO::setName;
+                case "email" -> PatientRequestDTO::setEmail;
+                case "address" -> PatientRequestDTO::setAddress;
+                case "dateofbirth" -> PatientRequestDTO::setDateOfBirth;
+                case "registereddate" -> PatientRequestDTO::setRegisteredDate;
+                default -> null;
+            };
+        }
+    }
+}
@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "diagnoses")
+@Table(name = "diagnoses", indexes = @Index(name = "idx_diagnoses_code", columnList = "diagnosis_code"))
 public class Diagnosis {
 
     @Id
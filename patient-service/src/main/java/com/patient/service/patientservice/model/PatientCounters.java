@@ -0,0 +1,92 @@
+package com.patient.service.patientservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-patient aggregate counts, maintained by the services that write the counted rows
+ * Kept in step with atomic increments in the writing transaction; PatientCountersService
+ * reconciles them against the base tables on a schedule.
+ */
+@Entity
+@Table(name = "patient_counters")
+public class PatientCounters {
+
+    @Id
+    @Column(name = "patient_id")
+    private UUID patientId;
+
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+
+    @Column(name = "allergy_count", nullable = false)
+    private long allergyCount;
+
+    @Column(name = "active_allergy_count", nullable = false)
+    private long activeAllergyCount;
+
+    @Column(name = "active_prescription_count", nullable = false)
+    private long activePrescriptionCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public PatientCounters() {}
+
+    public PatientCounters(UUID patientId) {
+        this.patientId = patientId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(UUID patientId) {
+        this.patientId = patientId;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public void setRecordCount(long recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    public long getAllergyCount() {
+        return allergyCount;
+    }
+
+    public void setAllergyCount(long allergyCount) {
+        this.allergyCount = allergyCount;
+    }
+
+    public long getActiveAllergyCount() {
+        return activeAllergyCount;
+    }
+
+    public void setActiveAllergyCount(long activeAllergyCount) {
+        this.activeAllergyCount = activeAllergyCount;
+    }
+
+    public long getActivePrescriptionCount() {
+        return activePrescriptionCount;
+    }
+
+    public void setActivePrescriptionCount(long activePrescriptionCount) {
+        this.activePrescriptionCount = activePrescriptionCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
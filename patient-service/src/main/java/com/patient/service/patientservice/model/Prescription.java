@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "prescriptions")
+@Table(name = "prescriptions",
+       indexes = @Index(name = "idx_prescriptions_status_end_date", columnList = "status, end_date"))
 public class Prescription {
 
     @Id
@@ -1,27 +1,36 @@
 package com.patient.service.patientservice.repository;
 
 import com.patient.service.patientservice.model.Allergy;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface AllergyRepository extends JpaRepository<Allergy, UUID> {
 
+    // The mapper reads the patient's name - list methods fetch the patient in the same query
+
     // Find all allergies for a specific patient
+    @EntityGraph(attributePaths = "patient")
     List<Allergy> findByPatientIdOrderByDiagnosedDateDesc(UUID patientId);
 
     // Find only active allergies for a patient
+    @EntityGraph(attributePaths = "patient")
     List<Allergy> findByPatientIdAndIsActiveOrderByDiagnosedDateDesc(UUID patientId, Boolean isActive);
 
     // Find allergies by type for a patient
+    @EntityGraph(attributePaths = "patient")
     List<Allergy> findByPatientIdAndAllergyTypeOrderByDiagnosedDateDesc(UUID patientId, Allergy.AllergyType allergyType);
 
     // Find allergies by severity for a patient
+    @EntityGraph(attributePaths = "patient")
     List<Allergy> findByPatientIdAndSeverityOrderByDiagnosedDateDesc(UUID patientId, Allergy.AllergySeverity severity);
 
     // Count allergies for a patient
@@ -31,13 +40,23 @@ public interface AllergyRepository extends JpaRepository<Allergy, UUID> {
     long countByPatientIdAndIsActive(UUID patientId, Boolean isActive);
 
     // Find allergies by allergen name (case-insensitive search)
+    @EntityGraph(attributePaths = "patient")
     @Query("SELECT a FROM Allergy a WHERE a.patient.id = :patientId " +
            "AND LOWER(a.allergen) LIKE LOWER(CONCAT('%', :allergen, '%')) " +
            "ORDER BY a.diagnosedDate DESC")
     List<Allergy> findByPatientIdAndAllergenContaining(@Param("patientId") UUID patientId, 
                                                        @Param("allergen") String allergen);
 
+    // Allergies by id, patient fetched - search results (order is the caller's)
+    @EntityGraph(attributePaths = "patient")
+    List<Allergy> findByIdIn(Collection<UUID> ids);
+
+    // Every allergen with its patient - loads the allergen trigram index, caller must be in a transaction
+    @Query("SELECT a.id AS id, a.patient.id AS scopeId, a.allergen AS name FROM Allergy a")
+    Stream<NameEntry> streamAllergenEntries();
+
     // Find severe allergies for critical alerts
+    @EntityGraph(attributePaths = "patient")
     @Query("SELECT a FROM Allergy a WHERE a.patient.id = :patientId " +
            "AND a.severity IN (com.patient.service.patientservice.model.Allergy.AllergySeverity.SEVERE, " +
            "com.patient.service.patientservice.model.Allergy.AllergySeverity.LIFE_THREATENING) " +
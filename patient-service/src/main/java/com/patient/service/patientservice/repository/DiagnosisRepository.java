@@ -1,9 +1,13 @@
 package com.patient.service.patientservice.repository;
 
 import com.patient.service.patientservice.model.Diagnosis;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,12 +17,18 @@ public interface DiagnosisRepository extends JpaRepository<Diagnosis, UUID> {
     // Find all diagnoses for a specific medical record
     List<Diagnosis> findByMedicalRecordIdOrderByDiagnosedDateDesc(UUID medicalRecordId);
 
+    // Diagnoses of several medical records in one query
+    @Query("SELECT d FROM Diagnosis d WHERE d.medicalRecord.id IN :medicalRecordIds ORDER BY d.diagnosedDate DESC")
+    List<Diagnosis> findByMedicalRecordIds(@Param("medicalRecordIds") Collection<UUID> medicalRecordIds);
+
     // Find active diagnoses for a medical record
     List<Diagnosis> findByMedicalRecordIdAndStatusOrderByDiagnosedDateDesc(UUID medicalRecordId, Diagnosis.DiagnosisStatus status);
 
     // Count diagnoses for a medical record
     long countByMedicalRecordId(UUID medicalRecordId);
 
-    // Find diagnoses by diagnosis code
-    List<Diagnosis> findByDiagnosisCodeContainingIgnoreCase(String diagnosisCode);
+    // Find diagnoses by code prefix - "E11" finds the whole category, using the diagnosis_code index
+    // (rows span many records - fetch them in the same query)
+    @EntityGraph(attributePaths = "medicalRecord")
+    List<Diagnosis> findByDiagnosisCodeStartingWith(String diagnosisCodePrefix);
 }
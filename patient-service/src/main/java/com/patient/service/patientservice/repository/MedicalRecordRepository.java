@@ -1,25 +1,54 @@
 package com.patient.service.patientservice.repository;
 
 import com.patient.service.patientservice.model.MedicalRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, UUID> {
 
+    // Rows fetched per database round trip when streaming the export
+    int EXPORT_FETCH_SIZE = 500;
+
+    // The mapper reads the patient's name - list methods fetch the patient in the same query
+    @Override
+    @EntityGraph(attributePaths = "patient")
+    List<MedicalRecord> findAll();
+
+    // Forward-only cursor over every record with its patient - export only, caller must be in a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT mr FROM MedicalRecord mr JOIN FETCH mr.patient")
+    Stream<MedicalRecord> streamAllForExport();
+
+    // Keyset page of record ids, ordered by id (search index rebuild)
+    @Query("SELECT mr.id FROM MedicalRecord mr WHERE mr.id > :afterId ORDER BY mr.id")
+    List<UUID> findIdsAfter(@Param("afterId") UUID afterId, Limit limit);
+
     // Find all medical records for a specific patient
+    @EntityGraph(attributePaths = "patient")
     List<MedicalRecord> findByPatientIdOrderByRecordDateDesc(UUID patientId);
 
     // Find medical records by attending doctor
+    @EntityGraph(attributePaths = "patient")
     List<MedicalRecord> findByAttendingDoctorOrderByRecordDateDesc(String attendingDoctor);
 
     // Find medical records within a date range for a patient
+    @EntityGraph(attributePaths = "patient")
     @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = :patientId " +
            "AND mr.recordDate BETWEEN :startDate AND :endDate " +
            "ORDER BY mr.recordDate DESC")
@@ -28,6 +57,16 @@ public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, UU
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
+    // Most recent records of a patient in [startDate, endDate) - patient chart (patient is loaded first)
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = :patientId " +
+           "AND mr.recordDate >= :startDate AND mr.recordDate < :endDate " +
+           "ORDER BY mr.recordDate DESC")
+    List<MedicalRecord> findChartRecords(
+            @Param("patientId") UUID patientId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Limit limit);
+
     // Count medical records for a patient
     long countByPatientId(UUID patientId);
 
@@ -0,0 +1,14 @@
+package com.patient.service.patientservice.repository;
+
+import java.util.UUID;
+
+/**
+ * Row of a name index: entity id, owning patient and the searchable name
+ */
+public interface NameEntry {
+    UUID getId();
+
+    UUID getScopeId();
+
+    String getName();
+}
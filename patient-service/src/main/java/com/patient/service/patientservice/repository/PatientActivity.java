@@ -0,0 +1,13 @@
+package com.patient.service.patientservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Patient id with its last activity: latest medical record date or registration day
+ */
+public interface PatientActivity {
+    UUID getId();
+
+    LocalDateTime getLastActivity();
+}
@@ -0,0 +1,69 @@
+package com.patient.service.patientservice.repository;
+
+import com.patient.service.patientservice.model.PatientCounters;
+import com.patient.service.patientservice.model.Prescription;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PatientCountersRepository extends JpaRepository<PatientCounters, UUID> {
+
+    // Atomic in-place increment (negative deltas decrement) - 0 when the patient has no counters row yet
+    @Modifying
+    @Query("UPDATE PatientCounters c SET c.recordCount = c.recordCount + :records, " +
+           "c.allergyCount = c.allergyCount + :allergies, " +
+           "c.activeAllergyCount = c.activeAllergyCount + :activeAllergies, " +
+           "c.activePrescriptionCount = c.activePrescriptionCount + :activePrescriptions, " +
+           "c.updatedAt = :updatedAt WHERE c.patientId = :patientId")
+    int adjust(@Param("patientId") UUID patientId,
+               @Param("records") long records,
+               @Param("allergies") long allergies,
+               @Param("activeAllergies") long activeAllergies,
+               @Param("activePrescriptions") long activePrescriptions,
+               @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Zeroed rows for the patients that have none yet - 0 when every row exists
+    @Modifying
+    @Query("INSERT INTO PatientCounters (patientId, recordCount, allergyCount, activeAllergyCount, " +
+           "activePrescriptionCount, updatedAt) SELECT p.id, 0L, 0L, 0L, 0L, :updatedAt FROM Patient p " +
+           "WHERE p.id IN :patientIds AND NOT EXISTS (SELECT 1 FROM PatientCounters c WHERE c.patientId = p.id)")
+    int insertIfAbsent(@Param("patientIds") Collection<UUID> patientIds, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Patients of a reconciliation page that have no counters row yet
+    @Query("SELECT p.id FROM Patient p WHERE p.id IN :patientIds " +
+           "AND NOT EXISTS (SELECT 1 FROM PatientCounters c WHERE c.patientId = p.id)")
+    List<UUID> findPatientIdsWithoutCounters(@Param("patientIds") Collection<UUID> patientIds);
+
+    // Counter rows of a reconciliation page, locked so concurrent increments wait for the recount
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM PatientCounters c WHERE c.patientId IN :patientIds")
+    List<PatientCounters> findAndLockByPatientIdIn(@Param("patientIds") Collection<UUID> patientIds);
+
+    // Keyset page of patient ids, ordered by id (reconciliation walks every patient)
+    @Query("SELECT p.id FROM Patient p WHERE p.id > :afterId ORDER BY p.id")
+    List<UUID> findPatientIdsAfter(@Param("afterId") UUID afterId, Limit limit);
+
+    // Recounts from the base tables, grouped by patient: [patientId, count(, active count)]
+    @Query("SELECT mr.patient.id, COUNT(mr) FROM MedicalRecord mr WHERE mr.patient.id IN :patientIds GROUP BY mr.patient.id")
+    List<Object[]> countRecords(@Param("patientIds") Collection<UUID> patientIds);
+
+    @Query("SELECT a.patient.id, COUNT(a), SUM(CASE WHEN a.isActive = true THEN 1 ELSE 0 END) FROM Allergy a " +
+           "WHERE a.patient.id IN :patientIds GROUP BY a.patient.id")
+    List<Object[]> countAllergies(@Param("patientIds") Collection<UUID> patientIds);
+
+    @Query("SELECT p.medicalRecord.patient.id, COUNT(p) FROM Prescription p " +
+           "WHERE p.medicalRecord.patient.id IN :patientIds AND p.status = :status GROUP BY p.medicalRecord.patient.id")
+    List<Object[]> countPrescriptions(@Param("patientIds") Collection<UUID> patientIds,
+                                      @Param("status") Prescription.PrescriptionStatus status);
+}
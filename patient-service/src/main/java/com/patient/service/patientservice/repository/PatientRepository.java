@@ -2,9 +2,17 @@ package com.patient.service.patientservice.repository;
 
 
 import com.patient.service.patientservice.model.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -13,4 +21,31 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
     boolean existsByEmail(String email);
     boolean existsByEmailAndIdNot(String email, UUID id);
     java.util.Optional<Patient> findByEmail(String email);
+
+    // Which of the given emails are already taken (one IN query per import chunk)
+    @Query("SELECT p.email FROM Patient p WHERE p.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Last activity of a patient in the grouped query below
+    String LAST_ACTIVITY = "coalesce(max(mr.recordDate), cast(p.registeredDate as LocalDateTime))";
+
+    // Keyset page of recently active patients (registered or seen since the cutoff), most recently active first.
+    // Activity is the latest record date since the cutoff, else the registration day; ties are broken by id.
+    @Query("SELECT p.id AS id, " + LAST_ACTIVITY + " AS lastActivity " +
+           "FROM Patient p LEFT JOIN MedicalRecord mr ON mr.patient = p AND mr.recordDate >= :since " +
+           "GROUP BY p.id, p.registeredDate " +
+           "HAVING " + LAST_ACTIVITY + " >= :since " +
+           "AND (" + LAST_ACTIVITY + " < :beforeActivity " +
+           "OR (" + LAST_ACTIVITY + " = :beforeActivity AND p.id < :beforeId)) " +
+           "ORDER BY lastActivity DESC, p.id DESC")
+    List<PatientActivity> findRecentlyActivePatients(@Param("beforeActivity") LocalDateTime beforeActivity,
+                                                     @Param("beforeId") UUID beforeId,
+                                                     @Param("since") LocalDateTime since,
+                                                     Limit limit);
+
+    // Count recently active patients (used for warm-up progress)
+    @Query("SELECT COUNT(p) FROM Patient p WHERE p.registeredDate >= :sinceDate " +
+           "OR EXISTS (SELECT 1 FROM MedicalRecord mr WHERE mr.patient = p AND mr.recordDate >= :since)")
+    long countRecentlyActivePatients(@Param("since") LocalDateTime since,
+                                     @Param("sinceDate") LocalDate sinceDate);
 }
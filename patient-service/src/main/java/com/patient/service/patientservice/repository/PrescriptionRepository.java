@@ -1,14 +1,20 @@
 package com.patient.service.patientservice.repository;
 
 import com.patient.service.patientservice.model.Prescription;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, UUID> {
@@ -16,23 +22,66 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, UUID
     // Find all prescriptions for a specific medical record
     List<Prescription> findByMedicalRecordIdOrderByPrescribedDateDesc(UUID medicalRecordId);
 
+    // Prescriptions of several medical records in one query
+    @Query("SELECT p FROM Prescription p WHERE p.medicalRecord.id IN :medicalRecordIds ORDER BY p.prescribedDate DESC")
+    List<Prescription> findByMedicalRecordIds(@Param("medicalRecordIds") Collection<UUID> medicalRecordIds);
+
     // Find active prescriptions for a medical record
     List<Prescription> findByMedicalRecordIdAndStatusOrderByPrescribedDateDesc(UUID medicalRecordId, Prescription.PrescriptionStatus status);
 
     // Count prescriptions for a medical record
     long countByMedicalRecordId(UUID medicalRecordId);
 
+    // Queries below span many records - their medical records are fetched in the same query
+
     // Find prescriptions by medication name
+    @EntityGraph(attributePaths = "medicalRecord")
     List<Prescription> findByMedicationNameContainingIgnoreCase(String medicationName);
 
+    // Prescriptions by id - search results (order is the caller's)
+    List<Prescription> findByIdIn(Collection<UUID> ids);
+
+    // Every medication name with its patient - loads the medication trigram index, caller must be in a transaction
+    @Query("SELECT p.id AS id, p.medicalRecord.patient.id AS scopeId, p.medicationName AS name FROM Prescription p")
+    Stream<NameEntry> streamMedicationEntries();
+
     // Find prescriptions by prescribing doctor
+    @EntityGraph(attributePaths = "medicalRecord")
     List<Prescription> findByPrescribingDoctorOrderByPrescribedDateDesc(String prescribingDoctor);
 
     // Find expiring prescriptions (end date within specified days)
+    @EntityGraph(attributePaths = "medicalRecord")
     @Query("SELECT p FROM Prescription p WHERE p.endDate BETWEEN :startDate AND :endDate " +
            "AND p.status = :status ORDER BY p.endDate ASC")
     List<Prescription> findExpiringPrescriptions(
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
             @Param("status") Prescription.PrescriptionStatus status);
+
+    // Prescriptions past their end date that are still in the given status, oldest end date first
+    // (range scan on idx_prescriptions_status_end_date); ids only, for the expiry sweep
+    @Query("SELECT p.id AS id, mr.id AS medicalRecordId, mr.patient.id AS patientId " +
+           "FROM Prescription p JOIN p.medicalRecord mr " +
+           "WHERE p.status = :status AND p.endDate < :today ORDER BY p.endDate ASC")
+    List<EndedPrescription> findEndedPrescriptions(@Param("status") Prescription.PrescriptionStatus status,
+                                                   @Param("today") LocalDate today,
+                                                   Limit limit);
+
+    // Move a batch of prescriptions from one status to another in one statement; rows that left
+    // fromStatus in the meantime are skipped
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Prescription p SET p.status = :toStatus, p.updatedAt = :updatedAt " +
+           "WHERE p.id IN :ids AND p.status = :fromStatus")
+    int transitionStatus(@Param("ids") Collection<UUID> ids,
+                         @Param("fromStatus") Prescription.PrescriptionStatus fromStatus,
+                         @Param("toStatus") Prescription.PrescriptionStatus toStatus,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    interface EndedPrescription {
+        UUID getId();
+
+        UUID getMedicalRecordId();
+
+        UUID getPatientId();
+    }
 }
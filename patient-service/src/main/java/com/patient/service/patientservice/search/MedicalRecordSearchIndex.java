@@ -0,0 +1,242 @@
+package com.patient.service.patientservice.search;
+
+import com.patient.service.patientservice.model.MedicalRecord;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Lucene inverted index over medical record narratives
+ * One document per record, keyed by record id: the five narrative fields are analyzed (English stemming)
+ * and searched with per-field boosts; patient id and attending doctor are exact-match filters.
+ * Writes become searchable on the next refresh and durable on the next commit (scheduled, and on shutdown).
+ * Every document carries the generation of the rebuild that wrote it, so a rebuild can drop records
+ * that no longer exist in the database without ever emptying the index.
+ */
+@Component
+public class MedicalRecordSearchIndex implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicalRecordSearchIndex.class);
+
+    static final String ID = "id";
+    static final String PATIENT_ID = "patientId";
+    static final String ATTENDING_DOCTOR = "attendingDoctor";
+    static final String ATTENDING_DOCTOR_KEY = "attendingDoctorKey";
+    static final String RECORD_DATE = "recordDate";
+    static final String CHIEF_COMPLAINT = "chiefComplaint";
+    static final String SYMPTOMS = "symptoms";
+    static final String EXAMINATION_NOTES = "examinationNotes";
+    static final String TREATMENT_PLAN = "treatmentPlan";
+    static final String DOCTOR_NOTES = "doctorNotes";
+    static final String GENERATION = "generation";
+
+    // A match in the chief complaint says more about the visit than one deep in the notes
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            CHIEF_COMPLAINT, 3.0f,
+            SYMPTOMS, 2.0f,
+            EXAMINATION_NOTES, 1.0f,
+            TREATMENT_PLAN, 1.0f,
+            DOCTOR_NOTES, 1.0f);
+
+    public record Hit(String recordId, String patientId, String attendingDoctor, String recordDate,
+                      String chiefComplaint, float score) {}
+
+    public record Page(long totalHits, List<Hit> hits) {}
+
+    private final Directory directory;
+    private final Analyzer analyzer;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private volatile long generation;
+
+    public MedicalRecordSearchIndex(@Value("${healthflow.search.index-path:}") String indexPath) throws IOException {
+        this.directory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+        this.analyzer = new EnglishAnalyzer();
+        if (DirectoryReader.indexExists(directory)) {
+            String stored = SegmentInfos.readLatestCommit(directory).getUserData().get(GENERATION);
+            this.generation = stored == null ? 0 : Long.parseLong(stored);
+        }
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(64);
+        this.writer = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(writer, null);
+        log.info("Medical record search index opened at {} ({} documents)",
+                indexPath.isBlank() ? "memory" : indexPath, writer.getDocStats().numDocs);
+    }
+
+    /**
+     * Build the index document for a record; call while the record's fields are current
+     */
+    public Document toDocument(MedicalRecord record) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, record.getId().toString(), Field.Store.YES));
+        doc.add(new StringField(PATIENT_ID, record.getPatient().getId().toString(), Field.Store.YES));
+        if (record.getAttendingDoctor() != null) {
+            doc.add(new StoredField(ATTENDING_DOCTOR, record.getAttendingDoctor()));
+            doc.add(new StringField(ATTENDING_DOCTOR_KEY, doctorKey(record.getAttendingDoctor()), Field.Store.NO));
+        }
+        if (record.getRecordDate() != null) {
+            doc.add(new StoredField(RECORD_DATE, record.getRecordDate().toString()));
+        }
+        addText(doc, CHIEF_COMPLAINT, record.getChiefComplaint(), Field.Store.YES);
+        addText(doc, SYMPTOMS, record.getSymptoms(), Field.Store.NO);
+        addText(doc, EXAMINATION_NOTES, record.getExaminationNotes(), Field.Store.NO);
+        addText(doc, TREATMENT_PLAN, record.getTreatmentPlan(), Field.Store.NO);
+        addText(doc, DOCTOR_NOTES, record.getDoctorNotes(), Field.Store.NO);
+        return doc;
+    }
+
+    private static void addText(Document doc, String field, String value, Field.Store store) {
+        if (value != null && !value.isBlank()) {
+            doc.add(new TextField(field, value, store));
+        }
+    }
+
+    private static String doctorKey(String attendingDoctor) {
+        return attendingDoctor.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Add or replace documents (by record id), stamped with the current generation
+     */
+    public void upsert(Collection<Document> documents) throws IOException {
+        long stamp = generation;
+        for (Document doc : documents) {
+            doc.removeFields(GENERATION);
+            doc.add(new LongPoint(GENERATION, stamp));
+            writer.updateDocument(new Term(ID, doc.get(ID)), doc);
+        }
+    }
+
+    public void delete(UUID recordId) throws IOException {
+        writer.deleteDocuments(new Term(ID, recordId.toString()));
+    }
+
+    /**
+     * Make every change so far visible to searches
+     */
+    public void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * Start a rebuild: documents written from now on carry the new generation
+     */
+    public long beginRebuild() {
+        return ++generation;
+    }
+
+    /**
+     * Finish a rebuild, then commit and refresh
+     * @param complete whether the rebuild rewrote every record; only then are the documents it did not
+     *                 rewrite dropped - after a partial rebuild they may be records it failed to reach
+     */
+    public void finishRebuild(long rebuildGeneration, boolean complete) throws IOException {
+        if (complete) {
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+        }
+        commit();
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${healthflow.search.commit-interval:PT30S}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.setLiveCommitData(Map.of(GENERATION, String.valueOf(generation)).entrySet());
+            writer.commit();
+        }
+    }
+
+    public long documentCount() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Ranked search, optionally restricted to one patient and/or one attending doctor (case-insensitive)
+     * Supports the simple query syntax: quoted phrases, +/-, | for OR, trailing * for prefixes; terms are ANDed.
+     */
+    public Page search(String text, UUID patientId, String attendingDoctor, int offset, int limit) throws IOException {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_BOOSTS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(parser.parse(text), BooleanClause.Occur.MUST);
+        if (patientId != null) {
+            query.add(new TermQuery(new Term(PATIENT_ID, patientId.toString())), BooleanClause.Occur.FILTER);
+        }
+        if (attendingDoctor != null && !attendingDoctor.isBlank()) {
+            query.add(new TermQuery(new Term(ATTENDING_DOCTOR_KEY, doctorKey(attendingDoctor))), BooleanClause.Occur.FILTER);
+        }
+        return search(query.build(), offset, limit);
+    }
+
+    private Page search(Query query, int offset, int limit) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs top = searcher.search(query, new TopScoreDocCollectorManager(offset + limit, null, Integer.MAX_VALUE));
+            StoredFields storedFields = searcher.storedFields();
+            List<Hit> hits = new ArrayList<>(Math.max(0, Math.min(limit, top.scoreDocs.length - offset)));
+            for (int i = offset; i < top.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = top.scoreDocs[i];
+                Document doc = storedFields.document(scoreDoc.doc);
+                hits.add(new Hit(doc.get(ID), doc.get(PATIENT_ID), doc.get(ATTENDING_DOCTOR), doc.get(RECORD_DATE),
+                        doc.get(CHIEF_COMPLAINT), scoreDoc.score));
+            }
+            return new Page(top.totalHits.value, hits);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            searcherManager.close();
+            commit();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close medical record search index", e);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.patient.service.patientservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over short names (allergens, medication names)
+ * Names are normalized (lower case, runs of anything but letters and digits become one space) and every
+ * 3-character window maps to a sorted posting list of internal doc numbers. A substring query intersects
+ * the postings of its own trigrams and verifies the survivors; a fuzzy query keeps names sharing at least
+ * FUZZY_THRESHOLD of the query's trigrams, so one or two typos still match. Each entry has an optional
+ * scope (the owning patient): a scoped query walks the scope's few docs when that is cheaper than a posting list.
+ * An update appends a new doc and tombstones the old one; postings are compacted once half of them are dead.
+ * Thread-safe: searches share a read lock, writes take the write lock.
+ */
+public class TrigramIndex {
+
+    // Share of the query's trigrams a name must contain to be a fuzzy match
+    public static final float FUZZY_THRESHOLD = 0.5f;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public record Match(UUID id, float score) {}
+
+    public record Page(int totalHits, List<Match> matches) {}
+
+    private record Candidate(int doc, float score) {}
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc; // docs are numbered in insertion order, so the list stays sorted
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> docOf = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<UUID, Postings> scopeDocs = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private UUID[] ids = new UUID[INITIAL_CAPACITY];
+    private UUID[] scopes = new UUID[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int docCount;
+
+    public static String normalize(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && out.length() > 0) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+                out.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return out.toString();
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    // Distinct trigrams of a normalized string, sorted
+    private static long[] trigrams(String s) {
+        if (s.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[s.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = trigram(s, i);
+        }
+        Arrays.sort(grams);
+        int unique = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    /**
+     * Add or replace the entry; a blank name removes it
+     */
+    public void put(UUID id, UUID scope, String name) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            String normalized = name == null ? "" : normalize(name);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            addLocked(id, scope, normalized);
+            if (docCount >= INITIAL_CAPACITY && docOf.size() * 2 < docCount) {
+                compactLocked();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(UUID id) {
+        Integer doc = docOf.remove(id);
+        if (doc != null) {
+            live.clear(doc);
+            names[doc] = null;
+        }
+    }
+
+    private void addLocked(UUID id, UUID scope, String normalized) {
+        if (docCount == ids.length) {
+            ids = Arrays.copyOf(ids, docCount * 2);
+            scopes = Arrays.copyOf(scopes, docCount * 2);
+            names = Arrays.copyOf(names, docCount * 2);
+        }
+        int doc = docCount++;
+        ids[doc] = id;
+        scopes[doc] = scope;
+        names[doc] = normalized;
+        live.set(doc);
+        docOf.put(id, doc);
+        for (long gram : trigrams(normalized)) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(doc);
+        }
+        if (scope != null) {
+            scopeDocs.computeIfAbsent(scope, s -> new Postings()).add(doc);
+        }
+    }
+
+    // Renumber the live docs from 0 and rebuild every posting list without the tombstones
+    private void compactLocked() {
+        UUID[] oldIds = ids;
+        UUID[] oldScopes = scopes;
+        String[] oldNames = names;
+        int oldCount = docCount;
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(docOf.size(), 1)) * 2);
+        ids = new UUID[capacity];
+        scopes = new UUID[capacity];
+        names = new String[capacity];
+        docCount = 0;
+        docOf.clear();
+        postings.clear();
+        scopeDocs.clear();
+        BitSet wasLive = (BitSet) live.clone();
+        live.clear();
+        for (int doc = wasLive.nextSetBit(0); doc >= 0 && doc < oldCount; doc = wasLive.nextSetBit(doc + 1)) {
+            addLocked(oldIds[doc], oldScopes[doc], oldNames[doc]);
+        }
+    }
+
+    /**
+     * Matching entries, best first: substring matches (shorter names first) rank above fuzzy ones
+     * @param scope only entries with this scope, or null for all
+     * @param fuzzy also return names sharing at least FUZZY_THRESHOLD of the query's trigrams
+     */
+    public Page search(String query, UUID scope, boolean fuzzy, int offset, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return new Page(0, List.of());
+        }
+        long[] grams = trigrams(q);
+        List<Candidate> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Postings scoped = scope == null ? null : scopeDocs.get(scope);
+            if (scope != null && scoped == null) {
+                return new Page(0, List.of());
+            }
+            if (scoped != null && (grams.length == 0 || scoped.size <= shortestPosting(grams))) {
+                for (int i = 0; i < scoped.size; i++) {
+                    score(scoped.docs[i], q, grams, fuzzy, found);
+                }
+            } else if (grams.length == 0) {
+                // Shorter than a trigram and unscoped - nothing to look up, check every name
+                for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+                    score(doc, q, grams, false, found);
+                }
+            } else if (fuzzy) {
+                collectFuzzy(q, grams, scope, found);
+            } else {
+                collectSubstring(q, grams, scope, found);
+            }
+
+            found.sort(Comparator.comparingDouble(Candidate::score).reversed()
+                    .thenComparing(candidate -> names[candidate.doc()]));
+            int end = Math.min(found.size(), offset + limit);
+            List<Match> page = new ArrayList<>(Math.max(0, end - offset));
+            for (int i = offset; i < end; i++) {
+                Candidate candidate = found.get(i);
+                page.add(new Match(ids[candidate.doc()], candidate.score()));
+            }
+            return new Page(found.size(), page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int shortestPosting(long[] grams) {
+        int shortest = Integer.MAX_VALUE;
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            shortest = Math.min(shortest, list == null ? 0 : list.size);
+        }
+        return shortest;
+    }
+
+    // Scope-walk path: score one doc directly
+    private void score(int doc, String q, long[] grams, boolean fuzzy, List<Candidate> found) {
+        if (!live.get(doc)) {
+            return;
+        }
+        String name = names[doc];
+        if (name.contains(q)) {
+            found.add(new Candidate(doc, substringScore(q, name)));
+        } else if (fuzzy && grams.length > 0) {
+            long[] nameGrams = trigrams(name);
+            int shared = 0;
+            for (long gram : grams) {
+                if (Arrays.binarySearch(nameGrams, gram) >= 0) {
+                    shared++;
+                }
+            }
+            float similarity = (float) shared / grams.length;
+            if (similarity >= FUZZY_THRESHOLD) {
+                found.add(new Candidate(doc, similarity));
+            }
+        }
+    }
+
+    // 1..2: every substring match outranks every fuzzy match; an exact name scores 2
+    private static float substringScore(String q, String name) {
+        return 1.0f + (float) q.length() / name.length();
+    }
+
+    private void collectSubstring(String q, long[] grams, UUID scope, List<Candidate> found) {
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+        // Walk the shortest list; binary-search the others (all sorted by doc)
+        Postings shortest = lists[0];
+        outer:
+        for (int i = 0; i < shortest.size; i++) {
+            int doc = shortest.docs[i];
+            for (int l = 1; l < lists.length; l++) {
+                if (Arrays.binarySearch(lists[l].docs, 0, lists[l].size, doc) < 0) {
+                    continue outer;
+                }
+            }
+            if (live.get(doc) && (scope == null || scope.equals(scopes[doc])) && names[doc].contains(q)) {
+                found.add(new Candidate(doc, substringScore(q, names[doc])));
+            }
+        }
+    }
+
+    private void collectFuzzy(String q, long[] grams, UUID scope, List<Candidate> found) {
+        int total = 0;
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            total += list == null ? 0 : list.size;
+        }
+        // All postings of the query's trigrams in one array; after sorting, a doc's run length is its shared count
+        int[] hits = new int[total];
+        int n = 0;
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list != null) {
+                System.arraycopy(list.docs, 0, hits, n, list.size);
+                n += list.size;
+            }
+        }
+        Arrays.sort(hits);
+        int minShared = (int) Math.ceil(grams.length * FUZZY_THRESHOLD);
+        for (int i = 0; i < n; ) {
+            int doc = hits[i];
+            int run = i;
+            while (run < n && hits[run] == doc) {
+                run++;
+            }
+            int shared = run - i;
+            i = run;
+            if (shared < minShared || !live.get(doc) || (scope != null && !scope.equals(scopes[doc]))) {
+                continue;
+            }
+            String name = names[doc];
+            float score = name.contains(q) ? substringScore(q, name) : (float) shared / grams.length;
+            found.add(new Candidate(doc, score));
+        }
+    }
+}
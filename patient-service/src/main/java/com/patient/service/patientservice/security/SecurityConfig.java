@@ -2,6 +2,7 @@ package com.patient.service.patientservice.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -27,10 +28,14 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/patients/health", "/h2-console/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/patients/import").hasRole("ADMIN")
                 .requestMatchers("/patients").hasAnyRole("DOCTOR", "ADMIN", "PATIENT")
                 .requestMatchers("/patients/**").hasAnyRole("DOCTOR", "ADMIN", "PATIENT")
+                .requestMatchers("/medical-records/search/rebuild").hasRole("ADMIN")
                 .requestMatchers("/medical-records/**").hasAnyRole("DOCTOR", "ADMIN", "PATIENT")
+                .requestMatchers("/prescriptions/**").hasAnyRole("DOCTOR", "ADMIN")
                 .requestMatchers("/allergies/**").hasAnyRole("DOCTOR", "ADMIN", "PATIENT")
+                .requestMatchers("/diagnoses/**").hasAnyRole("DOCTOR", "ADMIN", "PATIENT")
                 .anyRequest().authenticated()
             )
             .oauth2ResourceServer(oauth2 -> oauth2
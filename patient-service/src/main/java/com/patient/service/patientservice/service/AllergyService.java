@@ -1,20 +1,23 @@
 package com.patient.service.patientservice.service;
 
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheTags;
 import com.patient.service.patientservice.dto.AllergyRequestDTO;
 import com.patient.service.patientservice.dto.AllergyResponseDTO;
 import com.patient.service.patientservice.exception.PatientNotFoundException;
 import com.patient.service.patientservice.mapper.AllergyMapper;
 import com.patient.service.patientservice.model.Allergy;
 import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.model.PatientCounters;
 import com.patient.service.patientservice.repository.AllergyRepository;
 import com.patient.service.patientservice.repository.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -22,14 +25,23 @@ public class AllergyService {
 
     private final AllergyRepository allergyRepository;
     private final PatientRepository patientRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final NameSearchService nameSearchService;
+    private final PatientCountersService patientCountersService;
 
     @Autowired
-    public AllergyService(AllergyRepository allergyRepository, PatientRepository patientRepository) {
+    public AllergyService(AllergyRepository allergyRepository, PatientRepository patientRepository,
+                          CacheInvalidator cacheInvalidator, NameSearchService nameSearchService,
+                          PatientCountersService patientCountersService) {
         this.allergyRepository = allergyRepository;
         this.patientRepository = patientRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.nameSearchService = nameSearchService;
+        this.patientCountersService = patientCountersService;
     }
 
-    @Cacheable(value = "allergies", key = "#patientId.toString() + '-allergies'")
+    @Cacheable(value = "allergies", key = "#patientId.toString() + '-allergies'", sync = true)
+    @Transactional(readOnly = true)
     public List<AllergyResponseDTO> getAllergiesByPatientId(UUID patientId) {
         // Validate patient exists
         if (!patientRepository.existsById(patientId)) {
@@ -42,7 +54,8 @@ public class AllergyService {
                 .toList();
     }
 
-    @Cacheable(value = "allergies", key = "#patientId.toString() + '-active-allergies'")
+    @Cacheable(value = "allergies", key = "#patientId.toString() + '-active-allergies'", sync = true)
+    @Transactional(readOnly = true)
     public List<AllergyResponseDTO> getActiveAllergiesByPatientId(UUID patientId) {
         // Validate patient exists
         if (!patientRepository.existsById(patientId)) {
@@ -55,7 +68,8 @@ public class AllergyService {
                 .toList();
     }
 
-    @Cacheable(value = "allergies", key = "#patientId.toString() + '-severe-allergies'")
+    @Cacheable(value = "allergies", key = "#patientId.toString() + '-severe-allergies'", sync = true)
+    @Transactional(readOnly = true)
     public List<AllergyResponseDTO> getSevereAllergiesByPatientId(UUID patientId) {
         // Validate patient exists
         if (!patientRepository.existsById(patientId)) {
@@ -85,11 +99,7 @@ public class AllergyService {
         return AllergyMapper.toDTO(allergy);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-allergies'"),
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-active-allergies'"),
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-severe-allergies'")
-    })
+    @Transactional
     public AllergyResponseDTO createAllergy(UUID patientId, AllergyRequestDTO requestDTO) {
         // Validate patient exists
         Patient patient = patientRepository.findById(patientId)
@@ -100,14 +110,13 @@ public class AllergyService {
 
         Allergy allergy = AllergyMapper.toModel(requestDTO, patient);
         Allergy savedAllergy = allergyRepository.save(allergy);
+        patientCountersService.allergyChanged(patientId, 1, false, isActive(savedAllergy));
+        cacheInvalidator.invalidate(CacheTags.patientAllergies(patientId));
+        nameSearchService.indexAllergyAfterCommit(savedAllergy);
         return AllergyMapper.toDTO(savedAllergy);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-allergies'"),
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-active-allergies'"),
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-severe-allergies'")
-    })
+    @Transactional
     public AllergyResponseDTO updateAllergy(UUID patientId, UUID allergyId, AllergyRequestDTO requestDTO) {
         // Validate patient exists
         if (!patientRepository.existsById(patientId)) {
@@ -122,16 +131,16 @@ public class AllergyService {
             throw new RuntimeException("Allergy does not belong to the specified patient");
         }
 
+        boolean wasActive = isActive(existingAllergy);
         AllergyMapper.updateModel(existingAllergy, requestDTO);
         Allergy updatedAllergy = allergyRepository.save(existingAllergy);
+        patientCountersService.allergyChanged(patientId, 0, wasActive, isActive(updatedAllergy));
+        cacheInvalidator.invalidate(CacheTags.patientAllergies(patientId));
+        nameSearchService.indexAllergyAfterCommit(updatedAllergy);
         return AllergyMapper.toDTO(updatedAllergy);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-allergies'"),
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-active-allergies'"),
-        @CacheEvict(value = "allergies", key = "#patientId.toString() + '-severe-allergies'")
-    })
+    @Transactional
     public void deleteAllergy(UUID patientId, UUID allergyId) {
         // Validate patient exists
         if (!patientRepository.existsById(patientId)) {
@@ -147,20 +156,39 @@ public class AllergyService {
         }
 
         allergyRepository.delete(allergy);
+        patientCountersService.allergyChanged(patientId, -1, isActive(allergy), false);
+        cacheInvalidator.invalidate(CacheTags.patientAllergies(patientId));
+        nameSearchService.removeAllergyAfterCommit(allergyId);
         System.out.println("Deleted Allergy with ID: " + allergyId + " for Patient: " + patientId);
     }
 
+    @Transactional(readOnly = true)
     public long getAllergyCountByPatient(UUID patientId) {
+        // Maintained counter (one primary-key read); COUNT only until reconciliation creates the row
+        Optional<PatientCounters> counters = patientCountersService.find(patientId);
+        if (counters.isPresent()) {
+            return counters.get().getAllergyCount();
+        }
         if (!patientRepository.existsById(patientId)) {
             throw new PatientNotFoundException("Patient not found with ID: " + patientId);
         }
         return allergyRepository.countByPatientId(patientId);
     }
 
+    @Transactional(readOnly = true)
     public long getActiveAllergyCountByPatient(UUID patientId) {
+        Optional<PatientCounters> counters = patientCountersService.find(patientId);
+        if (counters.isPresent()) {
+            return counters.get().getActiveAllergyCount();
+        }
         if (!patientRepository.existsById(patientId)) {
             throw new PatientNotFoundException("Patient not found with ID: " + patientId);
         }
         return allergyRepository.countByPatientIdAndIsActive(patientId, true);
     }
+
+    // Same rule as the active-allergy COUNT query: only an explicit true counts
+    private static boolean isActive(Allergy allergy) {
+        return Boolean.TRUE.equals(allergy.getIsActive());
+    }
 }
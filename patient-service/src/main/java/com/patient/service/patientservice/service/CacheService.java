@@ -1,9 +1,19 @@
 package com.patient.service.patientservice.service;
 
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheMetrics;
+import com.patient.service.patientservice.cache.CacheTags;
+import com.patient.service.patientservice.cache.LatencyHistogram;
+import com.patient.service.patientservice.cache.TwoLevelCache;
+import com.patient.service.patientservice.cache.TwoLevelCacheManager;
+import com.patient.service.patientservice.dto.CacheStatisticsDTO;
+import com.patient.service.patientservice.dto.CacheWarmUpStatusDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -15,51 +25,43 @@ import java.util.UUID;
 public class CacheService {
 
     private final CacheManager cacheManager;
+    private final CacheWarmUpService cacheWarmUpService;
+    private final CacheInvalidator cacheInvalidator;
 
     @Autowired
-    public CacheService(CacheManager cacheManager) {
+    public CacheService(CacheManager cacheManager, CacheWarmUpService cacheWarmUpService,
+                        CacheInvalidator cacheInvalidator) {
         this.cacheManager = cacheManager;
+        this.cacheWarmUpService = cacheWarmUpService;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
     /**
      * Clear all patient-related caches
      */
     public void clearPatientCaches(UUID patientId) {
-        String patientIdStr = patientId.toString();
+        // patient:<id> cascades to the patient list, allergies and medical records
+        int removed = cacheInvalidator.invalidate(CacheTags.patient(patientId));
         
-        // Clear patient cache
-        clearCacheKey("patients", patientIdStr);
-        clearCacheKey("patients", "all-patients");
-        
-        // Clear allergy caches
-        clearCacheKey("allergies", patientIdStr + "-allergies");
-        clearCacheKey("allergies", patientIdStr + "-active-allergies");
-        clearCacheKey("allergies", patientIdStr + "-severe-allergies");
-        
-        // Clear medical records cache
-        clearCacheKey("medical-records", patientIdStr + "-records");
-        
-        System.out.println("Cleared all caches for patient: " + patientId);
+        System.out.println("Cleared all caches for patient: " + patientId + " (" + removed + " local entries)");
     }
 
     /**
      * Clear medical record related caches
      */
     public void clearMedicalRecordCaches(UUID medicalRecordId, UUID patientId) {
-        String recordIdStr = medicalRecordId.toString();
-        String patientIdStr = patientId.toString();
-        
-        // Clear medical record cache
-        clearCacheKey("medical-records", recordIdStr);
-        clearCacheKey("medical-records", patientIdStr + "-records");
-        
-        // Clear diagnoses and prescriptions cache
-        clearCacheKey("diagnoses", recordIdStr + "-diagnoses");
-        clearCacheKey("prescriptions", recordIdStr + "-prescriptions");
+        cacheInvalidator.invalidate(CacheTags.record(medicalRecordId), CacheTags.patientRecords(patientId));
         
         System.out.println("Cleared medical record caches for record: " + medicalRecordId);
     }
 
+    /**
+     * Invalidate every entry carrying a tag (e.g. patient:<id>) across all caches
+     */
+    public int invalidateTag(String tag) {
+        return cacheInvalidator.invalidate(tag);
+    }
+
     /**
      * Clear all caches (use with caution)
      */
@@ -90,18 +92,53 @@ public class CacheService {
 
     /**
      * Get cache statistics (for monitoring)
+     * Hit/miss counts, load latency histogram, evictions and L1 footprint per cache
      */
-    public String getCacheStatistics() {
-        StringBuilder stats = new StringBuilder("Cache Statistics:\n");
-        
+    public List<CacheStatisticsDTO> getCacheStatistics() {
+        List<CacheStatisticsDTO> statistics = new ArrayList<>();
+
         cacheManager.getCacheNames().forEach(cacheName -> {
-            var cache = cacheManager.getCache(cacheName);
-            if (cache != null) {
-                stats.append("Cache: ").append(cacheName).append(" - Active\n");
+            if (cacheManager.getCache(cacheName) instanceof TwoLevelCache cache) {
+                statistics.add(toStatistics(cache));
             }
         });
-        
-        return stats.toString();
+
+        return statistics;
+    }
+
+    private CacheStatisticsDTO toStatistics(TwoLevelCache cache) {
+        CacheMetrics metrics = cache.getMetrics();
+        LatencyHistogram loadLatency = metrics.getLoadLatency();
+        long lookups = metrics.getHits() + metrics.getMisses();
+
+        CacheStatisticsDTO dto = new CacheStatisticsDTO();
+        dto.setName(cache.getName());
+        dto.setTtlSeconds(cache.getSpec().getTtl().toSeconds());
+        dto.setRemoteTierEnabled(cacheManager instanceof TwoLevelCacheManager manager && manager.isRemoteTierEnabled());
+        dto.setLocalHits(metrics.getLocalHits());
+        dto.setRemoteHits(metrics.getRemoteHits());
+        dto.setMisses(metrics.getMisses());
+        dto.setHitRatio(lookups == 0 ? 0 : metrics.getHits() / (double) lookups);
+        dto.setPuts(metrics.getPuts());
+        dto.setEvictions(cache.getLocalEvictionCount());
+        dto.setInvalidations(metrics.getInvalidations());
+        dto.setEntries(cache.getLocalEntryCount());
+        dto.setEstimatedBytes(cache.getLocalWeightedBytes());
+        dto.setMaxBytes(cache.getSpec().getLocalMaxBytes());
+        dto.setLoads(loadLatency.getCount());
+        dto.setCoalescedLoads(metrics.getCoalescedLoads());
+        dto.setInFlightLoads(cache.getInFlightLoadCount());
+        dto.setRefreshes(metrics.getRefreshes());
+        dto.setRefreshFailures(metrics.getRefreshFailures());
+        dto.setStaleHits(metrics.getStaleHits());
+        dto.setRejectedPuts(metrics.getRejectedPuts());
+        dto.setLoadMeanMillis(loadLatency.getMeanMillis());
+        dto.setLoadP50Millis(loadLatency.percentileMillis(0.50));
+        dto.setLoadP95Millis(loadLatency.percentileMillis(0.95));
+        dto.setLoadP99Millis(loadLatency.percentileMillis(0.99));
+        dto.setLoadMaxMillis(loadLatency.getMaxMillis());
+        dto.setLoadLatencyHistogram(loadLatency.snapshot());
+        return dto;
     }
 
     /**
@@ -114,13 +151,18 @@ public class CacheService {
 
     /**
      * Warm up critical caches (pre-load frequently accessed data)
+     * Runs in the background over recently active patients: patient DTO,
+     * active and severe allergies and medical records
+     */
+    public CacheWarmUpStatusDTO warmUpCaches() {
+        return cacheWarmUpService.start();
+    }
+
+    /**
+     * Progress of the current or last warm-up run
      */
-    public void warmUpCaches() {
-        System.out.println("Cache warm-up initiated - this would pre-load frequently accessed patient data");
-        // In a real implementation, this would pre-load:
-        // - Most frequently accessed patients
-        // - Active severe allergies
-        // - Recent medical records
+    public CacheWarmUpStatusDTO getWarmUpStatus() {
+        return cacheWarmUpService.getStatus();
     }
 }
 
@@ -0,0 +1,229 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.cache.RateLimiter;
+import com.patient.service.patientservice.dto.CacheWarmUpStatusDTO;
+import com.patient.service.patientservice.repository.PatientActivity;
+import com.patient.service.patientservice.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache warm-up engine
+ * Pages through recently active patients, most recently active first, with keyset queries on
+ * (last activity, id) and preloads their patient DTO,
+ * active and severe allergy lists and medical records through the cached service methods.
+ * Work runs on a bounded worker pool behind a rate cap so the database is not swamped.
+ */
+@Service
+public class CacheWarmUpService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    // Keyset pagination runs backwards in time and starts strictly before this activity
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    private final PatientRepository patientRepository;
+    private final PatientService patientService;
+    private final AllergyService allergyService;
+    private final MedicalRecordService medicalRecordService;
+
+    private final boolean runOnStartup;
+    private final int workerThreads;
+    private final int pageSize;
+    private final int maxPatients;
+    private final int activeWithinDays;
+    private final double patientsPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong entriesLoaded = new AtomicLong();
+    private volatile State state = State.IDLE;
+    private volatile long totalPatients;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String lastError;
+
+    public CacheWarmUpService(PatientRepository patientRepository,
+                              PatientService patientService,
+                              AllergyService allergyService,
+                              MedicalRecordService medicalRecordService,
+                              @Value("${healthflow.cache.warmup.enabled:false}") boolean runOnStartup,
+                              @Value("${healthflow.cache.warmup.threads:4}") int workerThreads,
+                              @Value("${healthflow.cache.warmup.page-size:200}") int pageSize,
+                              @Value("${healthflow.cache.warmup.max-patients:5000}") int maxPatients,
+                              @Value("${healthflow.cache.warmup.active-within-days:30}") int activeWithinDays,
+                              @Value("${healthflow.cache.warmup.patients-per-second:50}") double patientsPerSecond) {
+        this.patientRepository = patientRepository;
+        this.patientService = patientService;
+        this.allergyService = allergyService;
+        this.medicalRecordService = medicalRecordService;
+        this.runOnStartup = runOnStartup;
+        this.workerThreads = workerThreads;
+        this.pageSize = pageSize;
+        this.maxPatients = maxPatients;
+        this.activeWithinDays = activeWithinDays;
+        this.patientsPerSecond = patientsPerSecond;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (runOnStartup) {
+            start();
+        }
+    }
+
+    /**
+     * Start a warm-up run in the background; a run already in progress is left alone
+     */
+    public CacheWarmUpStatusDTO start() {
+        if (!running.compareAndSet(false, true)) {
+            return getStatus();
+        }
+        processed.set(0);
+        failed.set(0);
+        entriesLoaded.set(0);
+        totalPatients = 0;
+        lastError = null;
+        finishedAt = null;
+        startedAt = Instant.now();
+        state = State.RUNNING;
+
+        Thread coordinator = new Thread(this::run, "cache-warmup");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return getStatus();
+    }
+
+    private void run() {
+        // Whole days, so a registration date and a record timestamp compare the same way
+        LocalDateTime since = LocalDate.now().minusDays(activeWithinDays).atStartOfDay();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerThreads * 4), workerThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy()); // full queue -> coordinator slows down
+        RateLimiter rateLimiter = new RateLimiter(patientsPerSecond);
+        try {
+            totalPatients = Math.min(maxPatients,
+                    patientRepository.countRecentlyActivePatients(since, since.toLocalDate()));
+            log.info("Cache warm-up started for up to {} patients", totalPatients);
+
+            LocalDateTime beforeActivity = KEYSET_START;
+            UUID beforeId = null;
+            int submitted = 0;
+            while (submitted < maxPatients) {
+                int limit = Math.min(pageSize, maxPatients - submitted);
+                List<PatientActivity> page = patientRepository.findRecentlyActivePatients(
+                        beforeActivity, beforeId, since, Limit.of(limit));
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (PatientActivity patient : page) {
+                    UUID patientId = patient.getId();
+                    rateLimiter.acquire();
+                    workers.execute(() -> warmPatient(patientId));
+                }
+                submitted += page.size();
+                PatientActivity last = page.get(page.size() - 1);
+                beforeActivity = last.getLastActivity();
+                beforeId = last.getId();
+            }
+
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.HOURS);
+            state = State.COMPLETED;
+            log.info("Cache warm-up completed: {} patients, {} entries, {} failures",
+                    processed.get(), entriesLoaded.get(), failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lastError = "Interrupted";
+            state = State.FAILED;
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed: {}", e.getMessage());
+            lastError = e.getMessage();
+            state = State.FAILED;
+        } finally {
+            workers.shutdownNow();
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+
+    private void warmPatient(UUID patientId) {
+        try {
+            // Calls go through the cache proxies, so each result lands in its cache
+            patientService.getPatientById(patientId);
+            allergyService.getSevereAllergiesByPatientId(patientId);
+            allergyService.getActiveAllergiesByPatientId(patientId);
+            medicalRecordService.getMedicalRecordsByPatientId(patientId);
+            entriesLoaded.addAndGet(4);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            lastError = e.getMessage();
+        } finally {
+            processed.incrementAndGet();
+        }
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Progress snapshot with observed throughput and ETA
+     */
+    public CacheWarmUpStatusDTO getStatus() {
+        CacheWarmUpStatusDTO dto = new CacheWarmUpStatusDTO();
+        long done = processed.get();
+        Instant started = startedAt;
+        Instant finished = finishedAt;
+
+        dto.setState(state.toString());
+        dto.setTotalPatients(totalPatients);
+        dto.setProcessedPatients(done);
+        dto.setFailedPatients(failed.get());
+        dto.setEntriesLoaded(entriesLoaded.get());
+        dto.setLastError(lastError);
+        if (started != null) {
+            dto.setStartedAt(started.toString());
+            Instant end = finished != null ? finished : Instant.now();
+            double elapsedSeconds = Math.max(Duration.between(started, end).toMillis(), 1) / 1000.0;
+            double rate = done / elapsedSeconds;
+            dto.setPatientsPerSecond(rate);
+            if (state == State.RUNNING && rate > 0) {
+                dto.setEtaSeconds((long) Math.ceil(Math.max(totalPatients - done, 0) / rate));
+            }
+        }
+        if (finished != null) {
+            dto.setFinishedAt(finished.toString());
+        }
+        return dto;
+    }
+}
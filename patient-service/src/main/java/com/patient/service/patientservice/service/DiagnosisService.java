@@ -1,5 +1,7 @@
 package com.patient.service.patientservice.service;
 
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheTags;
 import com.patient.service.patientservice.dto.DiagnosisRequestDTO;
 import com.patient.service.patientservice.dto.DiagnosisResponseDTO;
 import com.patient.service.patientservice.exception.MedicalRecordNotFoundException;
@@ -10,6 +12,7 @@ import com.patient.service.patientservice.repository.DiagnosisRepository;
 import com.patient.service.patientservice.repository.MedicalRecordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -19,12 +22,15 @@ public class DiagnosisService {
 
     private final DiagnosisRepository diagnosisRepository;
     private final MedicalRecordRepository medicalRecordRepository;
+    private final CacheInvalidator cacheInvalidator;
 
     @Autowired
     public DiagnosisService(DiagnosisRepository diagnosisRepository, 
-                           MedicalRecordRepository medicalRecordRepository) {
+                           MedicalRecordRepository medicalRecordRepository,
+                           CacheInvalidator cacheInvalidator) {
         this.diagnosisRepository = diagnosisRepository;
         this.medicalRecordRepository = medicalRecordRepository;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
     public List<DiagnosisResponseDTO> getDiagnosesByMedicalRecord(UUID medicalRecordId) {
@@ -39,6 +45,7 @@ public class DiagnosisService {
                 .toList();
     }
 
+    @Transactional
     public DiagnosisResponseDTO createDiagnosis(UUID medicalRecordId, DiagnosisRequestDTO requestDTO) {
         // Validate medical record exists
         MedicalRecord medicalRecord = medicalRecordRepository.findById(medicalRecordId)
@@ -46,9 +53,11 @@ public class DiagnosisService {
 
         Diagnosis diagnosis = DiagnosisMapper.toModel(requestDTO, medicalRecord);
         Diagnosis savedDiagnosis = diagnosisRepository.save(diagnosis);
+        cacheInvalidator.invalidate(CacheTags.patientChart(medicalRecord.getPatient().getId()));
         return DiagnosisMapper.toDTO(savedDiagnosis);
     }
 
+    @Transactional
     public DiagnosisResponseDTO updateDiagnosis(UUID medicalRecordId, UUID diagnosisId, DiagnosisRequestDTO requestDTO) {
         // Validate medical record exists
         if (!medicalRecordRepository.existsById(medicalRecordId)) {
@@ -65,9 +74,11 @@ public class DiagnosisService {
 
         DiagnosisMapper.updateModel(existingDiagnosis, requestDTO);
         Diagnosis updatedDiagnosis = diagnosisRepository.save(existingDiagnosis);
+        cacheInvalidator.invalidate(CacheTags.patientChart(existingDiagnosis.getMedicalRecord().getPatient().getId()));
         return DiagnosisMapper.toDTO(updatedDiagnosis);
     }
 
+    @Transactional
     public void deleteDiagnosis(UUID medicalRecordId, UUID diagnosisId) {
         // Validate medical record exists
         if (!medicalRecordRepository.existsById(medicalRecordId)) {
@@ -83,6 +94,7 @@ public class DiagnosisService {
         }
 
         diagnosisRepository.delete(diagnosis);
+        cacheInvalidator.invalidate(CacheTags.patientChart(diagnosis.getMedicalRecord().getPatient().getId()));
         System.out.println("Deleted Diagnosis with ID: " + diagnosisId);
     }
 }
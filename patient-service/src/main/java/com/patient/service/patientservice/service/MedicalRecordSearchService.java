@@ -0,0 +1,308 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.dto.MedicalRecordSearchHitDTO;
+import com.patient.service.patientservice.dto.MedicalRecordSearchResultDTO;
+import com.patient.service.patientservice.dto.SearchIndexStatusDTO;
+import com.patient.service.patientservice.model.MedicalRecord;
+import com.patient.service.patientservice.repository.MedicalRecordRepository;
+import com.patient.service.patientservice.search.MedicalRecordSearchIndex;
+import org.apache.lucene.document.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full-text search over medical record narratives
+ * MedicalRecordService hands every create, update and delete to this service; the index is changed after
+ * the transaction commits (a rollback leaves it alone). A rebuild re-indexes the whole table: keyset
+ * pages of ids are loaded and indexed by a worker pool, records changed meanwhile are indexed again,
+ * then - only if every chunk succeeded - records that no longer exist are dropped.
+ */
+@Service
+public class MedicalRecordSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicalRecordSearchService.class);
+
+    // Lowest UUID - keyset pagination starts strictly after it
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    // Deepest hit a page may reach - deeper paging means the query needs narrowing
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    private final MedicalRecordSearchIndex index;
+    private final MedicalRecordRepository medicalRecordRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean rebuildOnStartup;
+    private final int rebuildThreads;
+    private final int rebuildChunkSize;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // Changes that a rebuild chunk may have raced with and overwritten; re-applied when the rebuild ends
+    private final Set<UUID> updatedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> deletedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile State state = State.IDLE;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String lastError;
+
+    public MedicalRecordSearchService(MedicalRecordSearchIndex index,
+                                      MedicalRecordRepository medicalRecordRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${healthflow.search.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                                      @Value("${healthflow.search.rebuild.threads:4}") int rebuildThreads,
+                                      @Value("${healthflow.search.rebuild.chunk-size:500}") int rebuildChunkSize) {
+        this.index = index;
+        this.medicalRecordRepository = medicalRecordRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (rebuildOnStartup) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Ranked hits for one page; page * size + size must stay within MAX_RESULT_WINDOW
+     */
+    public MedicalRecordSearchResultDTO search(String query, UUID patientId, String attendingDoctor, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE || (long) page * size + size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Page out of range");
+        }
+        MedicalRecordSearchIndex.Page hits;
+        try {
+            hits = index.search(query, patientId, attendingDoctor, page * size, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Medical record search failed", e);
+        }
+
+        MedicalRecordSearchResultDTO result = new MedicalRecordSearchResultDTO();
+        result.setQuery(query);
+        result.setPage(page);
+        result.setSize(size);
+        result.setTotalHits(hits.totalHits());
+        for (MedicalRecordSearchIndex.Hit hit : hits.hits()) {
+            MedicalRecordSearchHitDTO dto = new MedicalRecordSearchHitDTO();
+            dto.setRecordId(hit.recordId());
+            dto.setPatientId(hit.patientId());
+            dto.setAttendingDoctor(hit.attendingDoctor());
+            dto.setRecordDate(hit.recordDate());
+            dto.setChiefComplaint(hit.chiefComplaint());
+            dto.setScore(hit.score());
+            result.getHits().add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * Index the record's current state once the surrounding transaction commits
+     */
+    public void indexAfterCommit(MedicalRecord record) {
+        UUID recordId = record.getId();
+        Document document = index.toDocument(record);
+        afterCommit(() -> {
+            if (rebuilding.get()) {
+                updatedDuringRebuild.add(recordId);
+            }
+            index.upsert(List.of(document));
+        });
+    }
+
+    /**
+     * Remove the record from the index once the surrounding transaction commits
+     */
+    public void removeAfterCommit(UUID recordId) {
+        afterCommit(() -> {
+            if (rebuilding.get()) {
+                deletedDuringRebuild.add(recordId);
+            }
+            index.delete(recordId);
+        });
+    }
+
+    private interface IndexChange {
+        void apply() throws IOException;
+    }
+
+    private void afterCommit(IndexChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyNow(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyNow(change);
+            }
+        });
+    }
+
+    private void applyNow(IndexChange change) {
+        try {
+            change.apply();
+            index.refresh();
+        } catch (IOException | RuntimeException e) {
+            // The database change stands; the record is picked up again by the next rebuild
+            log.warn("Search index update failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Start a rebuild in the background; a rebuild already in progress is left alone
+     */
+    public SearchIndexStatusDTO startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return getStatus();
+        }
+        indexed.set(0);
+        failed.set(0);
+        updatedDuringRebuild.clear();
+        deletedDuringRebuild.clear();
+        lastError = null;
+        finishedAt = null;
+        startedAt = Instant.now();
+        state = State.RUNNING;
+
+        Thread coordinator = new Thread(this::rebuild, "search-index-rebuild");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return getStatus();
+    }
+
+    private void rebuild() {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(rebuildThreads, rebuildThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(rebuildThreads * 2), workerThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy()); // full queue -> coordinator indexes a chunk itself
+        try {
+            long generation = index.beginRebuild();
+            UUID afterId = KEYSET_START;
+            while (true) {
+                List<UUID> chunk = medicalRecordRepository.findIdsAfter(afterId, Limit.of(rebuildChunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                workers.execute(() -> indexChunk(chunk));
+                afterId = chunk.get(chunk.size() - 1);
+            }
+
+            workers.shutdown();
+            boolean drained = workers.awaitTermination(1, TimeUnit.HOURS);
+            // A chunk read before one of these changes may have been written after it
+            List<UUID> updated = new ArrayList<>(updatedDuringRebuild);
+            for (int from = 0; from < updated.size(); from += rebuildChunkSize) {
+                index.upsert(loadDocuments(updated.subList(from, Math.min(from + rebuildChunkSize, updated.size()))));
+            }
+            for (UUID recordId : deletedDuringRebuild) {
+                index.delete(recordId);
+            }
+
+            boolean complete = drained && failed.get() == 0;
+            index.finishRebuild(generation, complete);
+            if (complete) {
+                state = State.COMPLETED;
+                log.info("Search index rebuilt: {} records indexed", indexed.get());
+            } else {
+                lastError = drained
+                        ? failed.get() + " records failed to index; stale documents kept"
+                        : "Timed out waiting for indexing workers; stale documents kept";
+                state = State.FAILED;
+                log.warn("Search index rebuild incomplete: {} records indexed, {}", indexed.get(), lastError);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lastError = "Interrupted";
+            state = State.FAILED;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index rebuild failed: {}", e.getMessage());
+            lastError = e.getMessage();
+            state = State.FAILED;
+        } finally {
+            workers.shutdownNow();
+            finishedAt = Instant.now();
+            rebuilding.set(false);
+        }
+    }
+
+    private void indexChunk(List<UUID> recordIds) {
+        try {
+            List<Document> documents = loadDocuments(recordIds);
+            index.upsert(documents);
+            indexed.addAndGet(documents.size());
+        } catch (IOException | RuntimeException e) {
+            failed.addAndGet(recordIds.size());
+            lastError = e.getMessage();
+        }
+    }
+
+    // Records that no longer exist are skipped
+    private List<Document> loadDocuments(List<UUID> recordIds) {
+        return readOnlyTransaction.execute(status -> {
+            List<Document> docs = new ArrayList<>(recordIds.size());
+            medicalRecordRepository.findAllById(recordIds).forEach(record -> docs.add(index.toDocument(record)));
+            return docs;
+        });
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "search-index-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public SearchIndexStatusDTO getStatus() {
+        SearchIndexStatusDTO dto = new SearchIndexStatusDTO();
+        dto.setState(state.toString());
+        dto.setIndexedRecords(indexed.get());
+        dto.setFailedRecords(failed.get());
+        dto.setDocumentCount(index.documentCount());
+        dto.setLastError(lastError);
+        Instant started = startedAt;
+        Instant finished = finishedAt;
+        if (started != null) {
+            dto.setStartedAt(started.toString());
+        }
+        if (finished != null) {
+            dto.setFinishedAt(finished.toString());
+        }
+        return dto;
+    }
+}
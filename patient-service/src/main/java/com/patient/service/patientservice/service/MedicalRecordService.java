@@ -1,34 +1,59 @@
 package com.patient.service.patientservice.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheTags;
 import com.patient.service.patientservice.dto.MedicalRecordRequestDTO;
 import com.patient.service.patientservice.dto.MedicalRecordResponseDTO;
+import com.patient.service.patientservice.export.MedicalRecordExportWriter;
 import com.patient.service.patientservice.exception.MedicalRecordNotFoundException;
 import com.patient.service.patientservice.exception.PatientNotFoundException;
 import com.patient.service.patientservice.mapper.MedicalRecordMapper;
 import com.patient.service.patientservice.model.MedicalRecord;
 import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.model.PatientCounters;
 import com.patient.service.patientservice.repository.MedicalRecordRepository;
 import com.patient.service.patientservice.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class MedicalRecordService {
 
     private final MedicalRecordRepository medicalRecordRepository;
     private final PatientRepository patientRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final MedicalRecordSearchService medicalRecordSearchService;
+    private final PatientCountersService patientCountersService;
 
     @Autowired
     public MedicalRecordService(MedicalRecordRepository medicalRecordRepository, 
-                               PatientRepository patientRepository) {
+                               PatientRepository patientRepository,
+                               CacheInvalidator cacheInvalidator,
+                               EntityManager entityManager,
+                               ObjectMapper objectMapper,
+                               MedicalRecordSearchService medicalRecordSearchService,
+                               PatientCountersService patientCountersService) {
         this.medicalRecordRepository = medicalRecordRepository;
         this.patientRepository = patientRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.medicalRecordSearchService = medicalRecordSearchService;
+        this.patientCountersService = patientCountersService;
     }
 
     public List<MedicalRecordResponseDTO> getAllMedicalRecords() {
@@ -38,7 +63,31 @@ public class MedicalRecordService {
                 .toList();
     }
 
-    @Cacheable(value = "medical-records", key = "#patientId.toString() + '-records'")
+    /**
+     * Write every medical record to out as NDJSON or CSV, reading through a database cursor
+     * The persistence context is cleared after each fetch-sized batch, so memory use does not grow with the row count.
+     * @return the number of records written
+     */
+    @Transactional(readOnly = true)
+    public long exportMedicalRecords(MedicalRecordExportWriter.Format format, OutputStream out) throws IOException {
+        MedicalRecordExportWriter writer = MedicalRecordExportWriter.open(format, out, objectMapper);
+        long written = 0;
+        try (Stream<MedicalRecord> records = medicalRecordRepository.streamAllForExport()) {
+            Iterator<MedicalRecord> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                writer.write(MedicalRecordMapper.toDTO(iterator.next()));
+                if (++written % MedicalRecordRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    @Cacheable(value = "medical-records", key = "#patientId.toString() + '-records'", sync = true)
+    @Transactional(readOnly = true)
     public List<MedicalRecordResponseDTO> getMedicalRecordsByPatientId(UUID patientId) {
         // Validate patient exists
         if (!patientRepository.existsById(patientId)) {
@@ -51,14 +100,15 @@ public class MedicalRecordService {
                 .toList();
     }
 
-    @Cacheable(value = "medical-records", key = "#id.toString()")
+    @Cacheable(value = "medical-records", key = "#id.toString()", sync = true)
+    @Transactional(readOnly = true)
     public MedicalRecordResponseDTO getMedicalRecordById(UUID id) {
         MedicalRecord medicalRecord = medicalRecordRepository.findById(id)
                 .orElseThrow(() -> new MedicalRecordNotFoundException("Medical record not found with ID: " + id));
         return MedicalRecordMapper.toDTO(medicalRecord);
     }
 
-    @CacheEvict(value = "medical-records", key = "#requestDTO.getPatientId().toString() + '-records'")
+    @Transactional
     public MedicalRecordResponseDTO createMedicalRecord(MedicalRecordRequestDTO requestDTO) {
         // Validate patient exists
         Patient patient = patientRepository.findById(requestDTO.getPatientId())
@@ -66,33 +116,44 @@ public class MedicalRecordService {
 
         MedicalRecord medicalRecord = MedicalRecordMapper.toModel(requestDTO, patient);
         MedicalRecord savedRecord = medicalRecordRepository.save(medicalRecord);
+        patientCountersService.recordsChanged(patient.getId(), 1);
+        cacheInvalidator.invalidate(CacheTags.patientRecords(patient.getId()));
+        medicalRecordSearchService.indexAfterCommit(savedRecord);
         return MedicalRecordMapper.toDTO(savedRecord);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "medical-records", key = "#id.toString()"),
-        @CacheEvict(value = "medical-records", key = "#requestDTO.getPatientId().toString() + '-records'")
-    })
+    @Transactional
     public MedicalRecordResponseDTO updateMedicalRecord(UUID id, MedicalRecordRequestDTO requestDTO) {
         MedicalRecord existingRecord = medicalRecordRepository.findById(id)
                 .orElseThrow(() -> new MedicalRecordNotFoundException("Medical record not found with ID: " + id));
 
         MedicalRecordMapper.updateModel(existingRecord, requestDTO);
         MedicalRecord updatedRecord = medicalRecordRepository.save(existingRecord);
+        cacheInvalidator.invalidate(CacheTags.record(id), CacheTags.patientRecords(existingRecord.getPatient().getId()));
+        medicalRecordSearchService.indexAfterCommit(updatedRecord);
         return MedicalRecordMapper.toDTO(updatedRecord);
     }
 
-    @CacheEvict(value = "medical-records", key = "#id.toString()")
+    @Transactional
     public void deleteMedicalRecord(UUID id) {
         MedicalRecord medicalRecord = medicalRecordRepository.findById(id)
                 .orElseThrow(() -> new MedicalRecordNotFoundException("Medical record not found with ID: " + id));
         
-        // Clear related caches manually through cache manager if needed
+        UUID patientId = medicalRecord.getPatient().getId();
         medicalRecordRepository.delete(medicalRecord);
+        patientCountersService.recordsChanged(patientId, -1);
+        cacheInvalidator.invalidate(CacheTags.record(id), CacheTags.patientRecords(patientId));
+        medicalRecordSearchService.removeAfterCommit(id);
         System.out.println("Deleted Medical Record with ID: " + id);
     }
 
+    @Transactional(readOnly = true)
     public long getMedicalRecordCountByPatient(UUID patientId) {
+        // Maintained counter (one primary-key read); COUNT only until reconciliation creates the row
+        Optional<PatientCounters> counters = patientCountersService.find(patientId);
+        if (counters.isPresent()) {
+            return counters.get().getRecordCount();
+        }
         if (!patientRepository.existsById(patientId)) {
             throw new PatientNotFoundException("Patient not found with ID: " + patientId);
         }
@@ -0,0 +1,215 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.dto.AllergyResponseDTO;
+import com.patient.service.patientservice.dto.PrescriptionResponseDTO;
+import com.patient.service.patientservice.dto.SearchPageDTO;
+import com.patient.service.patientservice.exception.PatientNotFoundException;
+import com.patient.service.patientservice.mapper.AllergyMapper;
+import com.patient.service.patientservice.mapper.PrescriptionMapper;
+import com.patient.service.patientservice.model.Allergy;
+import com.patient.service.patientservice.model.Prescription;
+import com.patient.service.patientservice.repository.AllergyRepository;
+import com.patient.service.patientservice.repository.NameEntry;
+import com.patient.service.patientservice.repository.PatientRepository;
+import com.patient.service.patientservice.repository.PrescriptionRepository;
+import com.patient.service.patientservice.search.TrigramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Substring and typo-tolerant search over allergen and medication names
+ * Both names live in in-memory trigram indexes, loaded from the database at startup and changed after
+ * each committed write by AllergyService / PrescriptionService. The index returns ranked ids; only the
+ * requested page is loaded from the database. Until the first load finishes, searches fall back to the
+ * LIKE queries (substring only), and committed changes are queued and replayed over the loaded snapshot,
+ * which may predate them.
+ */
+@Service
+public class NameSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(NameSearchService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    // Unscoped (all patients) queries need at least one trigram to look up
+    public static final int MIN_UNSCOPED_QUERY_LENGTH = 3;
+
+    private final AllergyRepository allergyRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final TrigramIndex allergens = new TrigramIndex();
+    private final TrigramIndex medications = new TrigramIndex();
+    private volatile boolean loaded;
+    // Changes committed before the load finished; guarded by itself
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    public NameSearchService(AllergyRepository allergyRepository,
+                             PrescriptionRepository prescriptionRepository,
+                             PatientRepository patientRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.allergyRepository = allergyRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.patientRepository = patientRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<NameEntry> entries = allergyRepository.streamAllergenEntries()) {
+                entries.forEach(entry -> allergens.put(entry.getId(), entry.getScopeId(), entry.getName()));
+            }
+            try (Stream<NameEntry> entries = prescriptionRepository.streamMedicationEntries()) {
+                entries.forEach(entry -> medications.put(entry.getId(), entry.getScopeId(), entry.getName()));
+            }
+        });
+        synchronized (pendingChanges) {
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges.clear();
+            loaded = true;
+        }
+        log.info("Name search indexes loaded: {} allergens, {} medications in {} ms",
+                allergens.size(), medications.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Transactional(readOnly = true)
+    public SearchPageDTO<AllergyResponseDTO> searchAllergies(UUID patientId, String query, boolean fuzzy, int page, int size) {
+        if (!patientRepository.existsById(patientId)) {
+            throw new PatientNotFoundException("Patient not found with ID: " + patientId);
+        }
+        SearchPageDTO<AllergyResponseDTO> result = newPage(query, fuzzy, page, size);
+        List<Allergy> allergies;
+        if (loaded) {
+            TrigramIndex.Page hits = allergens.search(query, patientId, fuzzy, page * size, size);
+            result.setTotalHits(hits.totalHits());
+            allergies = inIndexOrder(hits, allergyRepository.findByIdIn(ids(hits)), Allergy::getId);
+        } else {
+            List<Allergy> all = allergyRepository.findByPatientIdAndAllergenContaining(patientId, query.trim());
+            result.setTotalHits(all.size());
+            allergies = slice(all, page, size);
+        }
+        result.setItems(allergies.stream().map(AllergyMapper::toDTO).toList());
+        return result;
+    }
+
+    /**
+     * Prescriptions of all patients, or of one patient when patientId is given
+     */
+    @Transactional(readOnly = true)
+    public SearchPageDTO<PrescriptionResponseDTO> searchPrescriptions(String query, UUID patientId, boolean fuzzy,
+                                                                      int page, int size) {
+        SearchPageDTO<PrescriptionResponseDTO> result = newPage(query, fuzzy, page, size);
+        List<Prescription> prescriptions;
+        if (loaded) {
+            TrigramIndex.Page hits = medications.search(query, patientId, fuzzy, page * size, size);
+            result.setTotalHits(hits.totalHits());
+            prescriptions = inIndexOrder(hits, prescriptionRepository.findByIdIn(ids(hits)), Prescription::getId);
+        } else {
+            List<Prescription> all = prescriptionRepository.findByMedicationNameContainingIgnoreCase(query.trim()).stream()
+                    .filter(p -> patientId == null || patientId.equals(p.getMedicalRecord().getPatient().getId()))
+                    .toList();
+            result.setTotalHits(all.size());
+            prescriptions = slice(all, page, size);
+        }
+        result.setItems(prescriptions.stream().map(PrescriptionMapper::toDTO).toList());
+        return result;
+    }
+
+    private static <T> SearchPageDTO<T> newPage(String query, boolean fuzzy, int page, int size) {
+        SearchPageDTO<T> result = new SearchPageDTO<>();
+        result.setQuery(query);
+        result.setFuzzy(fuzzy);
+        result.setPage(page);
+        result.setSize(size);
+        return result;
+    }
+
+    private static List<UUID> ids(TrigramIndex.Page hits) {
+        return hits.matches().stream().map(TrigramIndex.Match::id).toList();
+    }
+
+    // Rows deleted since the index answered are skipped
+    private static <T> List<T> inIndexOrder(TrigramIndex.Page hits, List<T> rows, Function<T, UUID> idOf) {
+        Map<UUID, T> byId = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> byId.put(idOf.apply(row), row));
+        List<T> ordered = new ArrayList<>(rows.size());
+        for (TrigramIndex.Match match : hits.matches()) {
+            T row = byId.get(match.id());
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    private static <T> List<T> slice(List<T> all, int page, int size) {
+        int from = Math.min(all.size(), page * size);
+        return all.subList(from, Math.min(all.size(), from + size));
+    }
+
+    public void indexAllergyAfterCommit(Allergy allergy) {
+        UUID id = allergy.getId();
+        UUID patientId = allergy.getPatient().getId();
+        String allergen = allergy.getAllergen();
+        afterCommit(() -> allergens.put(id, patientId, allergen));
+    }
+
+    public void removeAllergyAfterCommit(UUID allergyId) {
+        afterCommit(() -> allergens.remove(allergyId));
+    }
+
+    public void indexPrescriptionAfterCommit(Prescription prescription) {
+        UUID id = prescription.getId();
+        UUID patientId = prescription.getMedicalRecord().getPatient().getId();
+        String medicationName = prescription.getMedicationName();
+        afterCommit(() -> medications.put(id, patientId, medicationName));
+    }
+
+    public void removePrescriptionAfterCommit(UUID prescriptionId) {
+        afterCommit(() -> medications.remove(prescriptionId));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private void apply(Runnable change) {
+        if (!loaded) {
+            synchronized (pendingChanges) {
+                if (!loaded) {
+                    pendingChanges.add(change);
+                    return;
+                }
+            }
+        }
+        change.run();
+    }
+}
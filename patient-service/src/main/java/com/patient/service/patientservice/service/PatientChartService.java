@@ -0,0 +1,129 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.dto.DiagnosisResponseDTO;
+import com.patient.service.patientservice.dto.PatientChartDTO;
+import com.patient.service.patientservice.dto.PatientChartRecordDTO;
+import com.patient.service.patientservice.dto.PrescriptionResponseDTO;
+import com.patient.service.patientservice.exception.PatientNotFoundException;
+import com.patient.service.patientservice.mapper.AllergyMapper;
+import com.patient.service.patientservice.mapper.DiagnosisMapper;
+import com.patient.service.patientservice.mapper.MedicalRecordMapper;
+import com.patient.service.patientservice.mapper.PatientMapper;
+import com.patient.service.patientservice.mapper.PrescriptionMapper;
+import com.patient.service.patientservice.model.MedicalRecord;
+import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.repository.AllergyRepository;
+import com.patient.service.patientservice.repository.DiagnosisRepository;
+import com.patient.service.patientservice.repository.MedicalRecordRepository;
+import com.patient.service.patientservice.repository.PatientRepository;
+import com.patient.service.patientservice.repository.PrescriptionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Patient chart - patient, allergies and records with their diagnoses and prescriptions in one document
+ * Loaded with at most five set-based queries whatever the number of records:
+ * patient, allergies, records in the window, then diagnoses and prescriptions for all those records.
+ */
+@Service
+public class PatientChartService {
+
+    public static final int DEFAULT_RECORD_LIMIT = 50;
+    public static final int MAX_RECORD_LIMIT = 200;
+
+    // Open ends of the date window
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final PatientRepository patientRepository;
+    private final AllergyRepository allergyRepository;
+    private final MedicalRecordRepository medicalRecordRepository;
+    private final DiagnosisRepository diagnosisRepository;
+    private final PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    public PatientChartService(PatientRepository patientRepository,
+                               AllergyRepository allergyRepository,
+                               MedicalRecordRepository medicalRecordRepository,
+                               DiagnosisRepository diagnosisRepository,
+                               PrescriptionRepository prescriptionRepository) {
+        this.patientRepository = patientRepository;
+        this.allergyRepository = allergyRepository;
+        this.medicalRecordRepository = medicalRecordRepository;
+        this.diagnosisRepository = diagnosisRepository;
+        this.prescriptionRepository = prescriptionRepository;
+    }
+
+    /**
+     * @param from  first record day included (null = no lower bound)
+     * @param to    last record day included (null = no upper bound)
+     * @param limit most recent records returned, capped at MAX_RECORD_LIMIT
+     */
+    @Cacheable(value = "patient-charts",
+            key = "#patientId.toString() + '-chart-' + #from + '-' + #to + '-' + "
+                    + "T(com.patient.service.patientservice.service.PatientChartService).recordLimit(#limit)", sync = true)
+    @Transactional(readOnly = true)
+    public PatientChartDTO getPatientChart(UUID patientId, LocalDate from, LocalDate to, int limit) {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new PatientNotFoundException("Patient not found with ID: " + patientId));
+
+        int recordLimit = recordLimit(limit);
+        LocalDateTime start = from != null ? from.atStartOfDay() : EARLIEST;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LATEST;
+        // One extra row tells whether the window holds more records than returned
+        List<MedicalRecord> records = medicalRecordRepository.findChartRecords(
+                patientId, start, end, Limit.of(recordLimit + 1));
+        boolean truncated = records.size() > recordLimit;
+        if (truncated) {
+            records = records.subList(0, recordLimit);
+        }
+
+        List<UUID> recordIds = records.stream().map(MedicalRecord::getId).toList();
+        Map<UUID, List<DiagnosisResponseDTO>> diagnoses = recordIds.isEmpty() ? Map.of()
+                : diagnosisRepository.findByMedicalRecordIds(recordIds).stream()
+                        .collect(Collectors.groupingBy(d -> d.getMedicalRecord().getId(),
+                                Collectors.mapping(DiagnosisMapper::toDTO, Collectors.toList())));
+        Map<UUID, List<PrescriptionResponseDTO>> prescriptions = recordIds.isEmpty() ? Map.of()
+                : prescriptionRepository.findByMedicalRecordIds(recordIds).stream()
+                        .collect(Collectors.groupingBy(p -> p.getMedicalRecord().getId(),
+                                Collectors.mapping(PrescriptionMapper::toDTO, Collectors.toList())));
+
+        PatientChartDTO chart = new PatientChartDTO();
+        chart.setPatient(PatientMapper.toDTO(patient));
+        chart.setAllergies(allergyRepository.findByPatientIdOrderByDiagnosedDateDesc(patientId).stream()
+                .map(AllergyMapper::toDTO)
+                .toList());
+        chart.setRecords(records.stream()
+                .map(record -> new PatientChartRecordDTO(MedicalRecordMapper.toDTO(record),
+                        diagnoses.getOrDefault(record.getId(), List.of()),
+                        prescriptions.getOrDefault(record.getId(), List.of())))
+                .toList());
+        if (from != null) {
+            chart.setFrom(from.toString());
+        }
+        if (to != null) {
+            chart.setTo(to.toString());
+        }
+        chart.setRecordLimit(recordLimit);
+        chart.setTruncated(truncated);
+        chart.setGeneratedAt(LocalDateTime.now().toString());
+        return chart;
+    }
+
+    /**
+     * Number of records a chart for `limit` holds; also in the cache key, so equivalent limits share one entry
+     */
+    public static int recordLimit(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_RECORD_LIMIT);
+    }
+}
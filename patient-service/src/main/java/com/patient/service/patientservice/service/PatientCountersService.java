@@ -0,0 +1,316 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.dto.PatientCountsDTO;
+import com.patient.service.patientservice.exception.PatientNotFoundException;
+import com.patient.service.patientservice.model.PatientCounters;
+import com.patient.service.patientservice.model.Prescription;
+import com.patient.service.patientservice.repository.PatientCountersRepository;
+import com.patient.service.patientservice.repository.PatientRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintained per-patient counts (medical records, allergies, active allergies, active prescriptions)
+ * Writers call the adjust methods inside their own transaction, so a counter moves in the same commit
+ * as the row it counts; the UPDATE takes the counter row lock, which serialises concurrent writers
+ * for one patient without a read-modify-write. Patients without a counter row (seeded or written
+ * before counters existed) are skipped by writers and read through COUNT queries until the
+ * reconciliation job creates their row. Reconciliation walks all patients in keyset pages: it first
+ * inserts the page's missing rows (zeroed, insert-if-absent) and commits them, so later writers find
+ * a row to increment; then it locks the page's counter rows, recounts from the base tables and
+ * corrects any drift. An increment skipped while a row was still missing is caught by the next run.
+ */
+@Service
+public class PatientCountersService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientCountersService.class);
+
+    // Lowest UUID - keyset pagination starts strictly after it
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    private final PatientCountersRepository patientCountersRepository;
+    private final PatientRepository patientRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean reconcileEnabled;
+    private final boolean reconcileOnStartup;
+    private final int pageSize;
+
+    private final Counter driftedPatients;
+    private final Counter createdRows;
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+    public PatientCountersService(PatientCountersRepository patientCountersRepository,
+                                  PatientRepository patientRepository,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${healthflow.patients.counters.reconcile.enabled:true}") boolean reconcileEnabled,
+                                  @Value("${healthflow.patients.counters.reconcile.on-startup:true}") boolean reconcileOnStartup,
+                                  @Value("${healthflow.patients.counters.reconcile.page-size:500}") int pageSize) {
+        this.patientCountersRepository = patientCountersRepository;
+        this.patientRepository = patientRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileEnabled = reconcileEnabled;
+        this.reconcileOnStartup = reconcileOnStartup;
+        this.pageSize = pageSize;
+        this.driftedPatients = Counter.builder("patients.counters.drift")
+                .description("Patients whose maintained counters differed from the base tables at reconciliation")
+                .register(meterRegistry);
+        this.createdRows = Counter.builder("patients.counters.created")
+                .description("Counter rows created by reconciliation for patients that had none")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counter row of the patient, or empty if it has not been created yet
+     */
+    @Transactional(readOnly = true)
+    public Optional<PatientCounters> find(UUID patientId) {
+        return patientCountersRepository.findById(patientId);
+    }
+
+    /**
+     * All counts of a patient - the counter row, or a recount while the patient has none
+     */
+    @Transactional(readOnly = true)
+    public PatientCountsDTO getCounts(UUID patientId) {
+        PatientCounters counters = patientCountersRepository.findById(patientId).orElse(null);
+        if (counters == null) {
+            if (!patientRepository.existsById(patientId)) {
+                throw new PatientNotFoundException("Patient not found with ID: " + patientId);
+            }
+            counters = new PatientCounters(patientId);
+            apply(counters, recount(List.of(patientId)).get(patientId));
+        }
+        PatientCountsDTO dto = new PatientCountsDTO();
+        dto.setPatientId(patientId.toString());
+        dto.setMedicalRecords(counters.getRecordCount());
+        dto.setAllergies(counters.getAllergyCount());
+        dto.setActiveAllergies(counters.getActiveAllergyCount());
+        dto.setActivePrescriptions(counters.getActivePrescriptionCount());
+        return dto;
+    }
+
+    // Writers - must run inside the transaction that writes the counted rows
+    // (new rows are persisted directly: save() would merge and SELECT first since the id is assigned)
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void patientCreated(UUID patientId) {
+        entityManager.persist(new PatientCounters(patientId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void patientsCreated(Collection<UUID> patientIds) {
+        patientIds.forEach(patientId -> entityManager.persist(new PatientCounters(patientId)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void patientDeleted(UUID patientId) {
+        patientCountersRepository.findById(patientId).ifPresent(patientCountersRepository::delete);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordsChanged(UUID patientId, long delta) {
+        adjust(patientId, delta, 0, 0, 0);
+    }
+
+    /**
+     * Allergy added (+1), removed (-1) or edited (0) - wasActive/isActive give the active flag before and after
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void allergyChanged(UUID patientId, long delta, boolean wasActive, boolean isActive) {
+        adjust(patientId, 0, delta, activeDelta(wasActive, isActive), 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void prescriptionChanged(UUID patientId, Prescription.PrescriptionStatus before,
+                                    Prescription.PrescriptionStatus after) {
+        long delta = activeDelta(before == Prescription.PrescriptionStatus.ACTIVE,
+                after == Prescription.PrescriptionStatus.ACTIVE);
+        if (delta != 0) {
+            adjust(patientId, 0, 0, 0, delta);
+        }
+    }
+
+    /**
+     * Active prescriptions left ACTIVE in bulk (expiry sweep) - one entry per prescription
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void prescriptionsDeactivated(Collection<UUID> patientIds) {
+        Map<UUID, Long> perPatient = new HashMap<>();
+        patientIds.forEach(patientId -> perPatient.merge(patientId, 1L, Long::sum));
+        perPatient.forEach((patientId, count) -> adjust(patientId, 0, 0, 0, -count));
+    }
+
+    private static long activeDelta(boolean wasActive, boolean isActive) {
+        return (isActive ? 1 : 0) - (wasActive ? 1 : 0);
+    }
+
+    private void adjust(UUID patientId, long records, long allergies, long activeAllergies, long activePrescriptions) {
+        // No row yet: reads fall back to COUNT queries and reconciliation will create it
+        patientCountersRepository.adjust(patientId, records, allergies, activeAllergies, activePrescriptions,
+                LocalDateTime.now());
+    }
+
+    // Reconciliation
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (reconcileOnStartup) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${healthflow.patients.counters.reconcile.interval:PT6H}",
+               initialDelayString = "${healthflow.patients.counters.reconcile.initial-delay:PT6H}")
+    public void scheduledReconcile() {
+        if (reconcileEnabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Recompute every patient's counters from the base tables, one page per transaction
+     * @return number of patients whose counters were corrected or created (0 if a run is already in progress)
+     */
+    public int reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int corrected = 0;
+            UUID afterId = KEYSET_START;
+            List<UUID> page;
+            do {
+                page = patientCountersRepository.findPatientIdsAfter(afterId, Limit.of(pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                List<UUID> patientIds = page;
+                Set<UUID> created = createMissingRows(patientIds);
+                corrected += transactionTemplate.execute(status -> reconcilePage(patientIds, created));
+                afterId = page.get(page.size() - 1);
+            } while (page.size() == pageSize);
+
+            if (corrected > 0) {
+                log.info("Patient counter reconciliation corrected {} patients", corrected);
+            }
+            return corrected;
+        } catch (RuntimeException e) {
+            log.warn("Patient counter reconciliation failed", e);
+            return 0;
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    // Own transaction: the rows must be committed before the recount, or an increment could miss them
+    private Set<UUID> createMissingRows(List<UUID> patientIds) {
+        try {
+            return transactionTemplate.execute(status -> insertMissingRows(patientIds));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance inserted some of the rows first - they exist now, so the retry skips them
+            return transactionTemplate.execute(status -> insertMissingRows(patientIds));
+        }
+    }
+
+    private Set<UUID> insertMissingRows(List<UUID> patientIds) {
+        List<UUID> missing = patientCountersRepository.findPatientIdsWithoutCounters(patientIds);
+        if (missing.isEmpty()) {
+            return Set.of();
+        }
+        createdRows.increment(patientCountersRepository.insertIfAbsent(missing, LocalDateTime.now()));
+        return new HashSet<>(missing);
+    }
+
+    private int reconcilePage(List<UUID> patientIds, Set<UUID> created) {
+        // Lock first: in-flight writers commit before the recount, later ones wait for this page
+        Map<UUID, PatientCounters> existing = new HashMap<>();
+        patientCountersRepository.findAndLockByPatientIdIn(patientIds)
+                .forEach(counters -> existing.put(counters.getPatientId(), counters));
+
+        Map<UUID, long[]> actual = recount(patientIds);
+
+        int corrected = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (UUID patientId : patientIds) {
+            long[] counts = actual.get(patientId);
+            PatientCounters counters = existing.get(patientId);
+            if (counters == null) {
+                continue; // patient deleted since the page was read
+            }
+            // A row created for this run starts at zero - filling it in is not drift
+            if (!created.contains(patientId)) {
+                if (matches(counters, counts)) {
+                    continue;
+                }
+                driftedPatients.increment();
+                log.warn("Patient counters drifted for {} - corrected", patientId);
+            }
+            apply(counters, counts);
+            counters.setUpdatedAt(now);
+            corrected++;
+        }
+        return corrected;
+    }
+
+    // Counts from the base tables per patient: records, allergies, active allergies, active prescriptions
+    private Map<UUID, long[]> recount(List<UUID> patientIds) {
+        Map<UUID, long[]> actual = new HashMap<>();
+        patientIds.forEach(patientId -> actual.put(patientId, new long[4]));
+        for (Object[] row : patientCountersRepository.countRecords(patientIds)) {
+            actual.get((UUID) row[0])[0] = ((Number) row[1]).longValue();
+        }
+        for (Object[] row : patientCountersRepository.countAllergies(patientIds)) {
+            long[] counts = actual.get((UUID) row[0]);
+            counts[1] = ((Number) row[1]).longValue();
+            counts[2] = ((Number) row[2]).longValue();
+        }
+        for (Object[] row : patientCountersRepository.countPrescriptions(patientIds,
+                Prescription.PrescriptionStatus.ACTIVE)) {
+            actual.get((UUID) row[0])[3] = ((Number) row[1]).longValue();
+        }
+        return actual;
+    }
+
+    private static void apply(PatientCounters counters, long[] counts) {
+        counters.setRecordCount(counts[0]);
+        counters.setAllergyCount(counts[1]);
+        counters.setActiveAllergyCount(counts[2]);
+        counters.setActivePrescriptionCount(counts[3]);
+    }
+
+    private static boolean matches(PatientCounters counters, long[] counts) {
+        return counters.getRecordCount() == counts[0]
+                && counters.getAllergyCount() == counts[1]
+                && counters.getActiveAllergyCount() == counts[2]
+                && counters.getActivePrescriptionCount() == counts[3];
+    }
+}
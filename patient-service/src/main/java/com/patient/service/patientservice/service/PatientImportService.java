@@ -0,0 +1,202 @@
+package com.patient.service.patientservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheTags;
+import com.patient.service.patientservice.dto.PatientImportErrorDTO;
+import com.patient.service.patientservice.dto.PatientImportResultDTO;
+import com.patient.service.patientservice.dto.PatientRequestDTO;
+import com.patient.service.patientservice.importer.PatientImportRow;
+import com.patient.service.patientservice.importer.PatientRowReader;
+import com.patient.service.patientservice.mapper.PatientMapper;
+import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk patient import
+ * Streams rows out of the request body, validates each against the PatientRequestDTO constraints and
+ * writes them in chunks: one IN query finds emails that are already taken, the rest go in with one
+ * batched INSERT per chunk, each chunk in its own transaction. Bad rows are reported and skipped;
+ * they never abort the rest of the file.
+ */
+@Service
+public class PatientImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientImportService.class);
+
+    private final PatientRepository patientRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final PatientCountersService patientCountersService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    private record PendingPatient(int row, Patient patient) {}
+
+    public PatientImportService(PatientRepository patientRepository,
+                                CacheInvalidator cacheInvalidator,
+                                PatientCountersService patientCountersService,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${healthflow.patients.import.chunk-size:1000}") int chunkSize,
+                                @Value("${healthflow.patients.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.patientRepository = patientRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.patientCountersService = patientCountersService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Import every row of an NDJSON or CSV body; chunks committed before a read failure stay committed
+     */
+    public PatientImportResultDTO importPatients(MediaType contentType, InputStream body) {
+        long start = System.nanoTime();
+        PatientImportResultDTO result = new PatientImportResultDTO();
+        List<PendingPatient> chunk = new ArrayList<>(chunkSize);
+        try (PatientRowReader reader = PatientRowReader.open(contentType, body, objectMapper)) {
+            PatientImportRow row;
+            while ((row = reader.next()) != null) {
+                result.setTotalRows(result.getTotalRows() + 1);
+                Patient patient = toPatient(row, result);
+                if (patient != null) {
+                    chunk.add(new PendingPatient(row.row(), patient));
+                    if (chunk.size() == chunkSize) {
+                        writeChunk(chunk, result);
+                    }
+                }
+            }
+            writeChunk(chunk, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import body", e);
+        } finally {
+            if (result.getImportedRows() > 0) {
+                cacheInvalidator.invalidate(CacheTags.patientList());
+            }
+            // Chunk-level rejections are found after the row-level ones
+            result.getErrors().sort(Comparator.comparingInt(PatientImportErrorDTO::getRow));
+            result.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        }
+        log.info("Patient import finished: {} rows, {} imported, {} failed in {} ms", result.getTotalRows(),
+                result.getImportedRows(), result.getFailedRows(), result.getDurationMillis());
+        return result;
+    }
+
+    private Patient toPatient(PatientImportRow row, PatientImportResultDTO result) {
+        if (row.parseError() != null) {
+            reject(result, row.row(), null, List.of(row.parseError()));
+            return null;
+        }
+        PatientRequestDTO dto = row.patient();
+        Set<ConstraintViolation<PatientRequestDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            List<String> messages = new ArrayList<>(violations.size());
+            violations.forEach(violation -> messages.add(violation.getMessage()));
+            reject(result, row.row(), dto.getEmail(), messages);
+            return null;
+        }
+        try {
+            return PatientMapper.toModel(dto);
+        } catch (DateTimeParseException e) {
+            reject(result, row.row(), dto.getEmail(), List.of("Dates must be ISO yyyy-MM-dd: " + e.getParsedString()));
+            return null;
+        }
+    }
+
+    private void writeChunk(List<PendingPatient> chunk, PatientImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // First occurrence of an email in the chunk wins; earlier chunks are already in the database
+        Map<String, PendingPatient> byEmail = new HashMap<>(chunk.size() * 2);
+        List<PendingPatient> unique = new ArrayList<>(chunk.size());
+        for (PendingPatient pending : chunk) {
+            if (byEmail.putIfAbsent(pending.patient().getEmail(), pending) == null) {
+                unique.add(pending);
+            } else {
+                reject(result, pending.row(), pending.patient().getEmail(), List.of("Duplicate email in import file"));
+            }
+        }
+
+        Set<String> taken = patientRepository.findExistingEmails(byEmail.keySet());
+        List<PendingPatient> fresh = new ArrayList<>(unique.size());
+        for (PendingPatient pending : unique) {
+            if (taken.contains(pending.patient().getEmail())) {
+                reject(result, pending.row(), pending.patient().getEmail(), List.of("Patient with this email already exists"));
+            } else {
+                fresh.add(pending);
+            }
+        }
+
+        try {
+            save(fresh.stream().map(PendingPatient::patient).toList());
+            result.setImportedRows(result.getImportedRows() + fresh.size());
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent insert - redo the chunk row by row to isolate the conflict
+            for (PendingPatient pending : fresh) {
+                pending.patient().setId(null);
+                try {
+                    save(List.of(pending.patient()));
+                    result.setImportedRows(result.getImportedRows() + 1);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    reject(result, pending.row(), pending.patient().getEmail(), List.of("Patient with this email already exists"));
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    private void save(List<Patient> patients) {
+        if (patients.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Flushed through the repository so a unique-key conflict surfaces as DataIntegrityViolationException
+            patientRepository.saveAllAndFlush(patients);
+            patientCountersService.patientsCreated(patients.stream().map(Patient::getId).toList());
+            // The request-scoped persistence context would otherwise keep every imported patient
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void reject(PatientImportResultDTO result, int row, String email, List<String> messages) {
+        result.setFailedRows(result.getFailedRows() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new PatientImportErrorDTO(row, email, messages));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.patient.service.patientservice.service;
 
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheTags;
 import com.patient.service.patientservice.dto.PatientRequestDTO;
 import com.patient.service.patientservice.dto.PatientResponseDTO;
 import com.patient.service.patientservice.exception.EmailAlreadyExistsException;
@@ -8,10 +10,9 @@ import com.patient.service.patientservice.mapper.PatientMapper;
 import com.patient.service.patientservice.model.Patient;
 import com.patient.service.patientservice.repository.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,47 +21,54 @@ import java.util.UUID;
 @Service
 public class PatientService {
     private final PatientRepository patientRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final PatientCountersService patientCountersService;
 
     @Autowired
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository, CacheInvalidator cacheInvalidator,
+                          PatientCountersService patientCountersService) {
         this.patientRepository = patientRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.patientCountersService = patientCountersService;
     }
 
-    @Cacheable(value = "patients", key = "'all-patients'")
+    @Cacheable(value = "patients", key = "'all-patients'", sync = true)
+    @Transactional(readOnly = true)
     public List<PatientResponseDTO> getPatients(){
         List<Patient> patients = patientRepository.findAll();
         return patients.stream()
                 .map(PatientMapper::toDTO).toList();
     }
 
-    @Cacheable(value = "patients", key = "#id.toString()")
+    @Cacheable(value = "patients", key = "#id.toString()", sync = true)
+    @Transactional(readOnly = true)
     public PatientResponseDTO getPatientById(UUID id) {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new PatientNotFoundException("Patient not found with ID: " + id));
         return PatientMapper.toDTO(patient);
     }
 
-    @Cacheable(value = "patients", key = "'email-' + #email")
+    @Cacheable(value = "patients", key = "'email-' + #email", sync = true)
+    @Transactional(readOnly = true)
     public PatientResponseDTO getPatientByEmail(String email) {
         Patient patient = patientRepository.findByEmail(email)
                 .orElseThrow(() -> new PatientNotFoundException("Patient not found with email: " + email));
         return PatientMapper.toDTO(patient);
     }
 
-    @CacheEvict(value = "patients", key = "'all-patients'")
+    @Transactional
     public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO){
         if(patientRepository.existsByEmail(patientRequestDTO.getEmail())){
             throw new EmailAlreadyExistsException("Patient with this Email" + "already exists"+ patientRequestDTO.getEmail());
         }
         Patient newPatient = patientRepository.save(
                 PatientMapper.toModel(patientRequestDTO));
+        patientCountersService.patientCreated(newPatient.getId());
+        cacheInvalidator.invalidate(CacheTags.patientList());
         return PatientMapper.toDTO(newPatient);
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "patients", key = "'all-patients'"),
-        @CacheEvict(value = "patients", key = "#id.toString()")
-    })
+    @Transactional
     public PatientResponseDTO updatePatient(UUID id, PatientRequestDTO patientRequestDTO){
         Patient patient = patientRepository.findById(id).orElseThrow(()-> new PatientNotFoundException("Patient not found with ID: "+ id));
 
@@ -72,20 +80,19 @@ public class PatientService {
         patient.setAddress(patientRequestDTO.getAddress());
         patient.setDateOfBirth(LocalDate.parse(patientRequestDTO.getDateOfBirth()));
         Patient updatedPatient = patientRepository.save(patient);
+        // Also drops the old email key, the list and the allergy/record views embedding the name
+        cacheInvalidator.invalidate(CacheTags.patient(id));
         return PatientMapper.toDTO(updatedPatient);
 
     }
 
 
-    @Caching(evict = {
-        @CacheEvict(value = "patients", key = "'all-patients'"),
-        @CacheEvict(value = "patients", key = "#id.toString()"),
-        @CacheEvict(value = "allergies", key = "#id.toString() + '-allergies'"),
-        @CacheEvict(value = "medical-records", key = "#id.toString() + '-records'")
-    })
+    @Transactional
     public void deletePatient(UUID id, PatientRequestDTO patientRequestDTO){
         Patient patient = patientRepository.findById(id).orElseThrow(()-> new PatientNotFoundException("Patient not found with ID: "+id));
         patientRepository.delete(patient);
+        patientCountersService.patientDeleted(id);
+        cacheInvalidator.invalidate(CacheTags.patient(id));
         System.out.println("Deleted Patient with ID: "+id);
     }
 }
@@ -0,0 +1,150 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheTags;
+import com.patient.service.patientservice.model.Prescription;
+import com.patient.service.patientservice.repository.PrescriptionRepository;
+import com.patient.service.patientservice.repository.PrescriptionRepository.EndedPrescription;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prescription expiry sweep
+ * Moves ACTIVE prescriptions whose end date has passed to EXPIRED. Each chunk reads up to chunk-size
+ * ids through the (status, end_date) index, flips them with one UPDATE and commits on its own, so
+ * a backlog never turns into one long transaction. Prescription lists and charts of the touched
+ * records are invalidated after each commit. The UPDATE re-checks the status, so overlapping
+ * sweeps (several instances) and concurrent edits are safe.
+ */
+@Service
+public class PrescriptionExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionExpiryService.class);
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final PatientCountersService patientCountersService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    private final Counter expiredRows;
+    private final Counter chunks;
+    private final Timer sweepTimer;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public PrescriptionExpiryService(PrescriptionRepository prescriptionRepository,
+                                     CacheInvalidator cacheInvalidator,
+                                     PatientCountersService patientCountersService,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${healthflow.prescriptions.expiry.enabled:true}") boolean enabled,
+                                     @Value("${healthflow.prescriptions.expiry.chunk-size:500}") int chunkSize) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.patientCountersService = patientCountersService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.expiredRows = Counter.builder("prescriptions.expiry.rows")
+                .description("Prescriptions moved to EXPIRED by the expiry sweep")
+                .register(meterRegistry);
+        this.chunks = Counter.builder("prescriptions.expiry.chunks")
+                .description("Chunks (one UPDATE + commit each) run by the expiry sweep")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("prescriptions.expiry.sweep")
+                .description("Duration of a complete expiry sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${healthflow.prescriptions.expiry.interval:PT15M}",
+               initialDelayString = "${healthflow.prescriptions.expiry.initial-delay:PT1M}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Expire everything that has ended before today
+     * @return number of prescriptions expired (0 if a sweep is already running)
+     */
+    public int sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            return sweepTimer.record(() -> expireEndedBefore(LocalDate.now()));
+        } catch (RuntimeException e) {
+            log.warn("Prescription expiry sweep failed", e);
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int expireEndedBefore(LocalDate today) {
+        int expired = 0;
+        ChunkResult chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> expireChunk(today));
+            expired += chunk.expired();
+        } while (chunk.selected() == chunkSize);
+
+        if (expired > 0) {
+            log.info("Prescription expiry sweep expired {} prescriptions", expired);
+        }
+        return expired;
+    }
+
+    private ChunkResult expireChunk(LocalDate today) {
+        List<EndedPrescription> ended = prescriptionRepository.findEndedPrescriptions(
+                Prescription.PrescriptionStatus.ACTIVE, today, Limit.of(chunkSize));
+        if (ended.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
+
+        List<UUID> ids = ended.stream().map(EndedPrescription::getId).toList();
+        int expired = prescriptionRepository.transitionStatus(ids, Prescription.PrescriptionStatus.ACTIVE,
+                Prescription.PrescriptionStatus.EXPIRED, LocalDateTime.now());
+        if (expired == ended.size()) {
+            patientCountersService.prescriptionsDeactivated(
+                    ended.stream().map(EndedPrescription::getPatientId).toList());
+        } else {
+            // Some rows left ACTIVE concurrently; which ones is unknown here - reconciliation settles them
+            log.info("Prescription expiry skipped {} concurrently changed prescriptions", ended.size() - expired);
+        }
+
+        // Invalidated once this chunk commits
+        Set<String> tags = new LinkedHashSet<>();
+        for (EndedPrescription prescription : ended) {
+            tags.add(CacheTags.recordPrescriptions(prescription.getMedicalRecordId()));
+            tags.add(CacheTags.patientChart(prescription.getPatientId()));
+        }
+        cacheInvalidator.invalidate(tags);
+
+        chunks.increment();
+        expiredRows.increment(expired);
+        return new ChunkResult(ended.size(), expired);
+    }
+
+    private record ChunkResult(int selected, int expired) {
+    }
+}
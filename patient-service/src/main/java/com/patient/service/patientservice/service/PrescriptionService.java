@@ -1,5 +1,7 @@
 package com.patient.service.patientservice.service;
 
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.cache.CacheTags;
 import com.patient.service.patientservice.dto.PrescriptionRequestDTO;
 import com.patient.service.patientservice.dto.PrescriptionResponseDTO;
 import com.patient.service.patientservice.exception.MedicalRecordNotFoundException;
@@ -9,7 +11,9 @@ import com.patient.service.patientservice.model.Prescription;
 import com.patient.service.patientservice.repository.MedicalRecordRepository;
 import com.patient.service.patientservice.repository.PrescriptionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -19,14 +23,25 @@ public class PrescriptionService {
 
     private final PrescriptionRepository prescriptionRepository;
     private final MedicalRecordRepository medicalRecordRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final NameSearchService nameSearchService;
+    private final PatientCountersService patientCountersService;
 
     @Autowired
     public PrescriptionService(PrescriptionRepository prescriptionRepository, 
-                              MedicalRecordRepository medicalRecordRepository) {
+                              MedicalRecordRepository medicalRecordRepository,
+                              CacheInvalidator cacheInvalidator,
+                              NameSearchService nameSearchService,
+                              PatientCountersService patientCountersService) {
         this.prescriptionRepository = prescriptionRepository;
         this.medicalRecordRepository = medicalRecordRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.nameSearchService = nameSearchService;
+        this.patientCountersService = patientCountersService;
     }
 
+    @Cacheable(value = "prescriptions", key = "#medicalRecordId.toString() + '-prescriptions'", sync = true)
+    @Transactional(readOnly = true)
     public List<PrescriptionResponseDTO> getPrescriptionsByMedicalRecord(UUID medicalRecordId) {
         // Validate medical record exists
         if (!medicalRecordRepository.existsById(medicalRecordId)) {
@@ -39,6 +54,7 @@ public class PrescriptionService {
                 .toList();
     }
 
+    @Transactional
     public PrescriptionResponseDTO createPrescription(UUID medicalRecordId, PrescriptionRequestDTO requestDTO) {
         // Validate medical record exists
         MedicalRecord medicalRecord = medicalRecordRepository.findById(medicalRecordId)
@@ -46,9 +62,14 @@ public class PrescriptionService {
 
         Prescription prescription = PrescriptionMapper.toModel(requestDTO, medicalRecord);
         Prescription savedPrescription = prescriptionRepository.save(prescription);
+        patientCountersService.prescriptionChanged(medicalRecord.getPatient().getId(), null, savedPrescription.getStatus());
+        cacheInvalidator.invalidate(CacheTags.recordPrescriptions(medicalRecordId),
+                CacheTags.patientChart(medicalRecord.getPatient().getId()));
+        nameSearchService.indexPrescriptionAfterCommit(savedPrescription);
         return PrescriptionMapper.toDTO(savedPrescription);
     }
 
+    @Transactional
     public PrescriptionResponseDTO updatePrescription(UUID medicalRecordId, UUID prescriptionId, PrescriptionRequestDTO requestDTO) {
         // Validate medical record exists
         if (!medicalRecordRepository.existsById(medicalRecordId)) {
@@ -63,11 +84,18 @@ public class PrescriptionService {
             throw new RuntimeException("Prescription does not belong to the specified medical record");
         }
 
+        Prescription.PrescriptionStatus previousStatus = existingPrescription.getStatus();
         PrescriptionMapper.updateModel(existingPrescription, requestDTO);
         Prescription updatedPrescription = prescriptionRepository.save(existingPrescription);
+        patientCountersService.prescriptionChanged(existingPrescription.getMedicalRecord().getPatient().getId(),
+                previousStatus, updatedPrescription.getStatus());
+        cacheInvalidator.invalidate(CacheTags.recordPrescriptions(medicalRecordId),
+                CacheTags.patientChart(existingPrescription.getMedicalRecord().getPatient().getId()));
+        nameSearchService.indexPrescriptionAfterCommit(updatedPrescription);
         return PrescriptionMapper.toDTO(updatedPrescription);
     }
 
+    @Transactional
     public void deletePrescription(UUID medicalRecordId, UUID prescriptionId) {
         // Validate medical record exists
         if (!medicalRecordRepository.existsById(medicalRecordId)) {
@@ -83,9 +111,16 @@ public class PrescriptionService {
         }
 
         prescriptionRepository.delete(prescription);
+        patientCountersService.prescriptionChanged(prescription.getMedicalRecord().getPatient().getId(),
+                prescription.getStatus(), null);
+        cacheInvalidator.invalidate(CacheTags.recordPrescriptions(medicalRecordId),
+                CacheTags.patientChart(prescription.getMedicalRecord().getPatient().getId()));
+        nameSearchService.removePrescriptionAfterCommit(prescriptionId);
         System.out.println("Deleted Prescription with ID: " + prescriptionId);
     }
 
+    @Cacheable(value = "prescriptions", key = "#medicalRecordId.toString() + '-active-prescriptions'", sync = true)
+    @Transactional(readOnly = true)
     public List<PrescriptionResponseDTO> getActivePrescriptionsByMedicalRecord(UUID medicalRecordId) {
         // Validate medical record exists
         if (!medicalRecordRepository.existsById(medicalRecordId)) {
@@ -1,14 +1,13 @@
 package com.patient.service.patientservice.validation;
 
+import com.patient.service.patientservice.catalog.DrugCatalog;
+import com.patient.service.patientservice.catalog.DrugCatalogService;
 import com.patient.service.patientservice.dto.PrescriptionRequestDTO;
-import com.patient.service.patientservice.model.Allergy;
 import com.patient.service.patientservice.repository.AllergyRepository;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.util.*;
-
 /**
  * Validator to check for drug-allergy interactions
  * Critical for patient safety - prevents dangerous allergic reactions
@@ -23,30 +22,9 @@ public class AllergyInteractionValidator implements ConstraintValidator<ValidAll
     @SuppressWarnings("unused")
     private boolean strictMode;
 
-    // Drug class mappings for allergy checking
-    private static final Map<String, Set<String>> DRUG_CLASSES = new HashMap<>();
-    
-    static {
-        // Penicillin family
-        DRUG_CLASSES.put("penicillin", Set.of(
-            "amoxicillin", "ampicillin", "penicillin", "amoxicillin/clavulanate", "piperacillin"
-        ));
-        
-        // Sulfa drugs
-        DRUG_CLASSES.put("sulfa", Set.of(
-            "sulfamethoxazole", "trimethoprim/sulfamethoxazole", "sulfadiazine", "sulfasalazine"
-        ));
-        
-        // NSAIDs
-        DRUG_CLASSES.put("nsaid", Set.of(
-            "ibuprofen", "naproxen", "diclofenac", "aspirin", "celecoxib", "meloxicam"
-        ));
-        
-        // Cephalosporins (cross-reactivity with penicillin)
-        DRUG_CLASSES.put("cephalosporin", Set.of(
-            "cephalexin", "cefazolin", "ceftriaxone", "cefuroxime", "cefdinir"
-        ));
-    }
+    // Hot-reloaded drug catalog; the bundled one is used when built outside Spring
+    @Autowired(required = false)
+    private DrugCatalogService drugCatalogService;
 
     @Override
     public void initialize(ValidAllergyInteraction constraintAnnotation) {
@@ -66,7 +44,9 @@ public class AllergyInteractionValidator implements ConstraintValidator<ValidAll
         // This validator would typically be used at the service layer where we have patient context
         // For DTO validation, we'll implement basic drug name checking
         
-        String medicationName = dto.getMedicationName().toLowerCase();
+        // The catalog matches case-insensitively and the format check is hand-written,
+        // so the name is used as is - no lower-cased copy per request
+        String medicationName = dto.getMedicationName();
         
         // Check for obviously dangerous combinations in the medication name itself
         if (containsDangerousCombination(medicationName)) {
@@ -92,24 +72,14 @@ public class AllergyInteractionValidator implements ConstraintValidator<ValidAll
     }
 
     /**
-     * Check for dangerous drug combinations in medication name
+     * Check for dangerous drug combinations in medication name (both ingredients, in any order)
      */
     private boolean containsDangerousCombination(String medicationName) {
-        // Check for multiple active ingredients that shouldn't be combined
-        String[] dangerousCombinations = {
-            "warfarin.*aspirin",
-            "lithium.*ibuprofen", 
-            "metformin.*alcohol",
-            "acetaminophen.*alcohol"
-        };
-        
-        for (String combination : dangerousCombinations) {
-            if (medicationName.matches(".*" + combination + ".*")) {
-                return true;
-            }
-        }
-        
-        return false;
+        return catalog().hasDangerousCombination(medicationName);
+    }
+
+    private DrugCatalog catalog() {
+        return drugCatalogService != null ? drugCatalogService.current() : DrugCatalog.bundled();
     }
 
     /**
@@ -121,74 +91,33 @@ public class AllergyInteractionValidator implements ConstraintValidator<ValidAll
             return false;
         }
         
-        // Should contain only letters, numbers, spaces, hyphens, and forward slashes
-        if (!medicationName.matches("^[a-zA-Z0-9\\s\\-/\\.]+$")) {
-            return false;
+        // Should contain only letters, numbers, spaces, hyphens, forward slashes and dots
+        for (int i = 0; i < medicationName.length(); i++) {
+            if (!isAllowedNameChar(medicationName.charAt(i))) {
+                return false;
+            }
         }
         
-        // Shouldn't contain obvious typos or invalid characters
-        if (medicationName.contains("xxx") || medicationName.contains("???")) {
+        // Shouldn't contain obvious placeholder text ("???" is already rejected above)
+        if (containsIgnoreCase(medicationName, "xxx")) {
             return false;
         }
         
         return true;
     }
 
-    /**
-     * Check if a medication belongs to a specific drug class
-     */
-    public static boolean isMedicationInClass(String medicationName, String drugClass) {
-        if (medicationName == null || drugClass == null) {
-            return false;
-        }
-        
-        Set<String> drugsInClass = DRUG_CLASSES.get(drugClass.toLowerCase());
-        if (drugsInClass == null) {
-            return false;
-        }
-        
-        String medication = medicationName.toLowerCase();
-        return drugsInClass.stream().anyMatch(drug -> medication.contains(drug));
+    private static boolean isAllowedNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r'
+                || c == '-' || c == '/' || c == '.';
     }
 
-    /**
-     * Get potential allergy interactions for a medication
-     * This method can be used by services for comprehensive allergy checking
-     */
-    public static List<String> getPotentialAllergyInteractions(String medicationName, List<Allergy> patientAllergies) {
-        List<String> interactions = new ArrayList<>();
-        
-        if (medicationName == null || patientAllergies == null) {
-            return interactions;
-        }
-        
-        String medication = medicationName.toLowerCase();
-        
-        for (Allergy allergy : patientAllergies) {
-            if (!allergy.getIsActive()) {
-                continue; // Skip inactive allergies
-            }
-            
-            String allergen = allergy.getAllergen().toLowerCase();
-            
-            // Direct match
-            if (medication.contains(allergen)) {
-                interactions.add("Direct match: " + allergy.getAllergen());
-            }
-            
-            // Drug class cross-reactivity
-            for (Map.Entry<String, Set<String>> drugClass : DRUG_CLASSES.entrySet()) {
-                if (allergen.contains(drugClass.getKey()) || 
-                    drugClass.getValue().stream().anyMatch(drug -> allergen.contains(drug))) {
-                    
-                    if (drugClass.getValue().stream().anyMatch(drug -> medication.contains(drug))) {
-                        interactions.add("Drug class interaction: " + allergy.getAllergen() + 
-                                       " (class: " + drugClass.getKey() + ")");
-                    }
-                }
+    private static boolean containsIgnoreCase(String text, String lowerCaseNeedle) {
+        for (int i = 0; i + lowerCaseNeedle.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, lowerCaseNeedle, 0, lowerCaseNeedle.length())) {
+                return true;
             }
         }
-        
-        return interactions;
+        return false;
     }
 }
@@ -1,11 +1,10 @@
 package com.patient.service.patientservice.validation;
 
+import com.patient.service.patientservice.catalog.ICD10Catalog;
+import com.patient.service.patientservice.catalog.ICD10CatalogService;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Validator for ICD-10 diagnosis codes
@@ -14,24 +13,10 @@ import java.util.Set;
 public class ICD10CodeValidator implements ConstraintValidator<ValidICD10Code, String> {
 
     private boolean allowEmpty;
-    
-    // Common ICD-10 code prefixes for validation
-    private static final Set<String> VALID_ICD10_PREFIXES = new HashSet<>(Arrays.asList(
-        "A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M", 
-        "N", "O", "P", "Q", "R", "S", "T", "U", "V", "W", "X", "Y", "Z"
-    ));
-    
-    // Common medical ICD-10 codes for future reference
-    // Can be used for enhanced validation or suggestions
-    @SuppressWarnings("unused")
-    private static final Set<String> COMMON_MEDICAL_CODES = new HashSet<>(Arrays.asList(
-        "T78.02", "T78.02XA", "T78.40", "T78.40XA", // Anaphylactic reactions
-        "M79.3", "M79.30", "M79.31",                 // Muscle pain
-        "R50.9", "R50.90",                           // Fever
-        "Z51.89", "Z51.11",                          // Encounter for other care
-        "I10", "I10.9",                              // Hypertension
-        "E11.9", "E11.90"                            // Type 2 diabetes
-    ));
+
+    // Code catalog; without it (outside Spring) only format and chapter are checked
+    @Autowired(required = false)
+    private ICD10CatalogService icd10CatalogService;
 
     @Override
     public void initialize(ValidICD10Code constraintAnnotation) {
@@ -40,90 +25,96 @@ public class ICD10CodeValidator implements ConstraintValidator<ValidICD10Code, S
 
     @Override
     public boolean isValid(String code, ConstraintValidatorContext context) {
+        // Bounds of the trimmed code - no trimmed or upper-cased copy on the success path
+        int start = 0;
+        int end = code == null ? 0 : code.length();
+        while (start < end && code.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && code.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
         // Handle null/empty cases
-        if (code == null || code.trim().isEmpty()) {
+        if (start == end) {
             return allowEmpty;
         }
 
-        code = code.trim().toUpperCase();
-
         // Basic ICD-10 format validation
-        if (!isValidICD10Format(code)) {
+        if (!isValidICD10Format(code, start, end)) {
             context.disableDefaultConstraintViolation();
             context.buildConstraintViolationWithTemplate(
-                "ICD-10 code must start with a letter followed by 2 digits (e.g., M79, T78.02XA). Found: " + code)
+                "ICD-10 code must be a letter, a digit and a digit or letter, optionally followed by a dot and up to 4 characters (e.g., M79, T78.02XA). Found: " + code.trim().toUpperCase())
                 .addConstraintViolation();
             return false;
         }
 
-        // Check if it's a known valid prefix
-        String prefix = code.substring(0, 1);
-        if (!VALID_ICD10_PREFIXES.contains(prefix)) {
+        // Category must fall inside one of the ICD-10-CM chapters
+        char letter = Character.toUpperCase(code.charAt(start));
+        char third = Character.toUpperCase(code.charAt(start + 2));
+        if (ICD10Catalog.chapterIndex(letter, code.charAt(start + 1), third) < 0) {
             context.disableDefaultConstraintViolation();
             context.buildConstraintViolationWithTemplate(
-                "ICD-10 code starts with invalid letter: " + prefix + ". Must be A-Z.")
+                "ICD-10 code category " + code.substring(start, start + 3).toUpperCase() + " is outside every ICD-10-CM chapter")
                 .addConstraintViolation();
             return false;
         }
 
-        // Additional medical validation
-        if (!isValidMedicalCode(code)) {
-            context.disableDefaultConstraintViolation();
-            context.buildConstraintViolationWithTemplate(
-                "ICD-10 code format is invalid for medical use: " + code)
-                .addConstraintViolation();
-            return false;
+        // Exact check against the real code set
+        if (icd10CatalogService != null && icd10CatalogService.isValidateAgainstCatalog()) {
+            if (!icd10CatalogService.isKnownCode(code)) {
+                context.disableDefaultConstraintViolation();
+                context.buildConstraintViolationWithTemplate(
+                    "Unknown ICD-10-CM code: " + code.trim().toUpperCase())
+                    .addConstraintViolation();
+                return false;
+            }
+            if (!icd10CatalogService.isBillableCode(code)) {
+                context.disableDefaultConstraintViolation();
+                context.buildConstraintViolationWithTemplate(
+                    "ICD-10-CM code " + code.trim().toUpperCase() + " is a category header - use a more specific code")
+                    .addConstraintViolation();
+                return false;
+            }
         }
 
         return true;
     }
 
     /**
-     * Validates basic ICD-10 format: Letter + 2 digits + optional extensions
+     * Validates basic ICD-10-CM format: letter + digit + digit or letter, optional dot + up to 4 characters
+     * e.g. I10, O9A.1, C4A.0, T36.0X1A (either case)
      */
-    private boolean isValidICD10Format(String code) {
-        // ICD-10 pattern: Letter + 2 digits + optional decimal + 1-4 more characters
-        return code.matches("^[A-Z]\\d{2}(\\.\\d{1,2}[A-Z]*)?$");
-    }
-
-    /**
-     * Additional medical validation for common healthcare scenarios
-     */
-    private boolean isValidMedicalCode(String code) {
-        // Check for common invalid patterns
-        if (code.startsWith("U")) {
-            // U codes are special purpose codes, less common in general practice
-            return code.matches("^U\\d{2}(\\.\\d{1,2})?$");
+    private boolean isValidICD10Format(String code, int start, int end) {
+        int length = end - start;
+        if (length < 3 || !isLetter(code.charAt(start)) || !isDigit(code.charAt(start + 1))
+                || !isLetterOrDigit(code.charAt(start + 2))) {
+            return false;
         }
-
-        // Validate specific medical code ranges
-        char firstLetter = code.charAt(0);
-        String numberPart = code.substring(1, 3);
-        int codeNumber;
-        
-        try {
-            codeNumber = Integer.parseInt(numberPart);
-        } catch (NumberFormatException e) {
+        if (length == 3) {
+            return true;
+        }
+        // Dot plus 1-4 more characters
+        if (code.charAt(start + 3) != '.' || length < 5 || length > 8) {
             return false;
         }
-
-        // Validate code ranges for specific categories
-        switch (firstLetter) {
-            case 'A':
-            case 'B':
-                // Infectious diseases: A00-B99
-                return codeNumber >= 0 && codeNumber <= 99;
-            case 'C':
-            case 'D':
-                // Neoplasms: C00-D49
-                return (firstLetter == 'C' && codeNumber >= 0 && codeNumber <= 99) ||
-                       (firstLetter == 'D' && codeNumber >= 0 && codeNumber <= 49);
-            case 'T':
-                // Injuries and poisoning: T07-T88
-                return codeNumber >= 7 && codeNumber <= 88;
-            default:
-                // For other categories, basic format validation is sufficient
-                return true;
+        for (int i = start + 4; i < end; i++) {
+            if (!isLetterOrDigit(code.charAt(i))) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || isDigit(c);
     }
 }
@@ -1,11 +1,14 @@
 package com.patient.service.patientservice.validation;
 
+import com.patient.service.patientservice.catalog.DrugCatalog;
+import com.patient.service.patientservice.catalog.DrugCatalogService;
 import com.patient.service.patientservice.dto.PrescriptionRequestDTO;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.ZoneId;
 
 /**
  * Validator for prescription date ranges and duration limits
@@ -13,8 +16,17 @@ import java.time.temporal.ChronoUnit;
  */
 public class PrescriptionDatesValidator implements ConstraintValidator<ValidPrescriptionDates, PrescriptionRequestDTO> {
 
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    // Today, shared by all instances (replaced as a whole so readers never see a torn value)
+    private static volatile CachedDay cachedDay = new CachedDay(0, 0, 0);
+
     private int maxDurationDays;
 
+    // Hot-reloaded drug catalog; the bundled one is used when built outside Spring
+    @Autowired(required = false)
+    private DrugCatalogService drugCatalogService;
+
     @Override
     public void initialize(ValidPrescriptionDates constraintAnnotation) {
         this.maxDurationDays = constraintAnnotation.maxDurationDays();
@@ -46,13 +58,13 @@ public class PrescriptionDatesValidator implements ConstraintValidator<ValidPres
             }
         }
 
-        // Validate start and end dates if provided
-        LocalDate startDate = parseDate(dto);  // Will be set to today if not provided
-        LocalDate endDate = calculateEndDate(dto, startDate);
+        // Validate start and end dates if provided - dates are epoch days, so no LocalDate per request
+        long startDay = parseStartDay(dto);  // Will be today if not provided
+        long endDay = calculateEndDay(dto, startDay);
 
-        if (startDate != null && endDate != null) {
+        if (endDay != NO_DATE) {
             // End date must be after start date
-            if (!endDate.isAfter(startDate)) {
+            if (endDay <= startDay) {
                 context.buildConstraintViolationWithTemplate(
                     "Prescription end date must be after start date")
                     .addPropertyNode("durationDays")
@@ -61,20 +73,18 @@ public class PrescriptionDatesValidator implements ConstraintValidator<ValidPres
             }
 
             // Check if calculated duration matches provided duration
-            if (dto.getDurationDays() != null) {
-                long calculatedDays = ChronoUnit.DAYS.between(startDate, endDate);
-                if (Math.abs(calculatedDays - dto.getDurationDays()) > 1) { // Allow 1 day tolerance
-                    context.buildConstraintViolationWithTemplate(
-                        "Duration days (" + dto.getDurationDays() + ") doesn't match calculated days between dates (" + calculatedDays + ")")
-                        .addPropertyNode("durationDays")
-                        .addConstraintViolation();
-                    isValid = false;
-                }
+            long calculatedDays = endDay - startDay;
+            if (Math.abs(calculatedDays - dto.getDurationDays()) > 1) { // Allow 1 day tolerance
+                context.buildConstraintViolationWithTemplate(
+                    "Duration days (" + dto.getDurationDays() + ") doesn't match calculated days between dates (" + calculatedDays + ")")
+                    .addPropertyNode("durationDays")
+                    .addConstraintViolation();
+                isValid = false;
             }
 
             // Validate prescription isn't too far in the future
-            LocalDate maxFutureDate = LocalDate.now().plusDays(30); // Max 30 days in future
-            if (startDate.isAfter(maxFutureDate)) {
+            long maxFutureDay = today() + 30; // Max 30 days in future
+            if (startDay > maxFutureDay) {
                 context.buildConstraintViolationWithTemplate(
                     "Prescription start date cannot be more than 30 days in the future")
                     .addPropertyNode("durationDays")
@@ -84,40 +94,60 @@ public class PrescriptionDatesValidator implements ConstraintValidator<ValidPres
         }
 
         // Validate medication-specific duration limits
-        if (!isValid && dto.getMedicationName() != null) {
-            isValid = validateMedicationSpecificRules(dto, context);
+        if (dto.getMedicationName() != null && !validateMedicationSpecificRules(dto, context)) {
+            isValid = false;
         }
 
         return isValid;
     }
 
     /**
-     * Parse start date from DTO or default to today
+     * Parse start date (epoch day) from DTO or default to today
      */
-    private LocalDate parseDate(PrescriptionRequestDTO dto) {
+    private long parseStartDay(PrescriptionRequestDTO dto) {
         // In our current implementation, start date is set automatically to today
         // This method provides flexibility for future enhancements
-        return LocalDate.now();
+        return today();
+    }
+
+    /**
+     * Calculate end date (epoch day) based on start date and duration
+     */
+    private long calculateEndDay(PrescriptionRequestDTO dto, long startDay) {
+        if (dto.getDurationDays() != null) {
+            return startDay + dto.getDurationDays();
+        }
+        return NO_DATE;
     }
 
     /**
-     * Calculate end date based on start date and duration
+     * Today's epoch day in the system zone; recomputed only when the cached day is over
      */
-    private LocalDate calculateEndDate(PrescriptionRequestDTO dto, LocalDate startDate) {
-        if (dto.getDurationDays() != null && startDate != null) {
-            return startDate.plusDays(dto.getDurationDays());
+    private static long today() {
+        CachedDay day = cachedDay;
+        long now = System.currentTimeMillis();
+        if (now < day.startMillis() || now >= day.endMillis()) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate date = LocalDate.now(zone);
+            day = new CachedDay(date.toEpochDay(), date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+            cachedDay = day;
         }
-        return null;
+        return day.epochDay();
+    }
+
+    private record CachedDay(long epochDay, long startMillis, long endMillis) {
     }
 
     /**
      * Apply medication-specific validation rules
      */
     private boolean validateMedicationSpecificRules(PrescriptionRequestDTO dto, ConstraintValidatorContext context) {
-        String medication = dto.getMedicationName().toLowerCase();
-        
+        // One allocation-free pass over the name yields both the controlled and the antibiotic flag
+        int flags = catalog().flagsOf(dto.getMedicationName());
+
         // Controlled substances have stricter limits
-        if (isControlledSubstance(medication)) {
+        if ((flags & DrugCatalog.CONTROLLED_SUBSTANCE) != 0) {
             if (dto.getDurationDays() != null && dto.getDurationDays() > 30) {
                 context.buildConstraintViolationWithTemplate(
                     "Controlled substances cannot be prescribed for more than 30 days")
@@ -128,7 +158,7 @@ public class PrescriptionDatesValidator implements ConstraintValidator<ValidPres
         }
 
         // Antibiotics typically have shorter durations
-        if (isAntibiotic(medication)) {
+        if ((flags & DrugCatalog.ANTIBIOTIC) != 0) {
             if (dto.getDurationDays() != null && dto.getDurationDays() > 14) {
                 context.buildConstraintViolationWithTemplate(
                     "Antibiotic prescriptions typically should not exceed 14 days without special justification")
@@ -141,39 +171,7 @@ public class PrescriptionDatesValidator implements ConstraintValidator<ValidPres
         return true;
     }
 
-    /**
-     * Check if medication is a controlled substance
-     */
-    private boolean isControlledSubstance(String medication) {
-        // Common controlled substances (simplified list)
-        String[] controlledSubstances = {
-            "oxycodone", "morphine", "fentanyl", "codeine", "tramadol", 
-            "lorazepam", "alprazolam", "diazepam", "adderall", "ritalin"
-        };
-        
-        for (String controlled : controlledSubstances) {
-            if (medication.contains(controlled)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Check if medication is an antibiotic
-     */
-    private boolean isAntibiotic(String medication) {
-        // Common antibiotics (simplified list)
-        String[] antibiotics = {
-            "amoxicillin", "penicillin", "azithromycin", "ciprofloxacin", 
-            "doxycycline", "cephalexin", "clindamycin", "metronidazole"
-        };
-        
-        for (String antibiotic : antibiotics) {
-            if (medication.contains(antibiotic)) {
-                return true;
-            }
-        }
-        return false;
+    private DrugCatalog catalog() {
+        return drugCatalogService != null ? drugCatalogService.current() : DrugCatalog.bundled();
     }
 }
@@ -7,8 +7,9 @@ import java.lang.annotation.*;
 
 /**
  * Validates ICD-10 diagnosis codes for medical accuracy
- * ICD-10 format: Letter + 2 digits + optional decimal + 1-2 more characters
- * Examples: "M79.3", "T78.02XA", "Z51.89"
+ * ICD-10-CM format: Letter + digit + digit or letter + optional decimal + up to 4 more characters
+ * Examples: "M79.3", "T78.02XA", "Z51.89", "O9A.1"
+ * Checked against the ICD-10-CM catalog when healthflow.icd10.validate-against-catalog is on
  */
 @Target({ElementType.FIELD, ElementType.PARAMETER})
 @Retention(RetentionPolicy.RUNTIME)
@@ -16,7 +17,7 @@ import java.lang.annotation.*;
 @Documented
 public @interface ValidICD10Code {
     
-    String message() default "Invalid ICD-10 diagnosis code format. Expected format: Letter + 2 digits + optional decimal + additional characters (e.g., M79.3, T78.02XA)";
+    String message() default "Invalid ICD-10 diagnosis code format. Expected format: Letter + digit + digit or letter + optional decimal + additional characters (e.g., M79.3, T78.02XA)";
     
     Class<?>[] groups() default {};
     
@@ -0,0 +1,154 @@
+package com.patient.service.patientservice.benchmark;
+
+import com.patient.service.patientservice.catalog.DrugCatalog;
+import com.patient.service.patientservice.model.Allergy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allergy interaction checks: the compiled matcher against the previous contains/regex loops
+ * (kept here verbatim as the baseline), over a rotating set of medications per allergy list size.
+ * Run with: mvn -Pbenchmark test -Dbenchmark.include=AllergyInteractionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllergyInteractionBenchmark {
+
+    private static final String[] MEDICATIONS = {
+        "Amoxicillin/Clavulanate 875mg", "Ibuprofen 400mg", "Cephalexin 500mg", "Lisinopril 10mg",
+        "Trimethoprim/Sulfamethoxazole DS", "Warfarin 5mg with Aspirin 81mg", "Metformin ER 500mg",
+        "Atorvastatin 20mg", "Naproxen sodium 220mg", "Ceftriaxone 1g IV", "Salbutamol inhaler",
+        "Lithium carbonate 300mg + Ibuprofen"
+    };
+
+    private static final String[] ALLERGENS = {
+        "Penicillin", "Peanuts", "Sulfa drugs", "Latex", "Aspirin", "Shellfish", "Cephalosporin",
+        "Ibuprofen", "Bee stings", "Codeine", "Eggs", "Pollen", "Amoxicillin", "Dust mites", "Naproxen"
+    };
+
+    @Param({"2", "8", "25"})
+    private int allergyCount;
+
+    private DrugCatalog matcher;
+    private List<Allergy> allergies;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        matcher = DrugCatalog.bundled();
+        Random random = new Random(42);
+        allergies = new ArrayList<>();
+        for (int i = 0; i < allergyCount; i++) {
+            Allergy allergy = new Allergy(null, ALLERGENS[(i + random.nextInt(3)) % ALLERGENS.length],
+                    Allergy.AllergyType.MEDICATION);
+            allergy.setIsActive(random.nextInt(10) > 0);
+            allergies.add(allergy);
+        }
+    }
+
+    private String nextMedication() {
+        next = (next + 1) % MEDICATIONS.length;
+        return MEDICATIONS[next];
+    }
+
+    @Benchmark
+    public List<String> interactionsLegacy() {
+        return LegacyInteractions.getPotentialAllergyInteractions(nextMedication(), allergies);
+    }
+
+    @Benchmark
+    public List<String> interactionsMatcher() {
+        return matcher.getPotentialAllergyInteractions(nextMedication(), allergies);
+    }
+
+    @Benchmark
+    public void combinationLegacy(Blackhole blackhole) {
+        blackhole.consume(LegacyInteractions.containsDangerousCombination(nextMedication().toLowerCase()));
+    }
+
+    @Benchmark
+    public void combinationMatcher(Blackhole blackhole) {
+        blackhole.consume(matcher.scan(nextMedication()).hasDangerousCombination());
+    }
+
+    /**
+     * The checks as AllergyInteractionValidator implemented them before the compiled matcher
+     */
+    static final class LegacyInteractions {
+
+        private static final Map<String, Set<String>> DRUG_CLASSES = new HashMap<>();
+
+        static {
+            DRUG_CLASSES.put("penicillin", Set.of(
+                "amoxicillin", "ampicillin", "penicillin", "amoxicillin/clavulanate", "piperacillin"));
+            DRUG_CLASSES.put("sulfa", Set.of(
+                "sulfamethoxazole", "trimethoprim/sulfamethoxazole", "sulfadiazine", "sulfasalazine"));
+            DRUG_CLASSES.put("nsaid", Set.of(
+                "ibuprofen", "naproxen", "diclofenac", "aspirin", "celecoxib", "meloxicam"));
+            DRUG_CLASSES.put("cephalosporin", Set.of(
+                "cephalexin", "cefazolin", "ceftriaxone", "cefuroxime", "cefdinir"));
+        }
+
+        static boolean containsDangerousCombination(String medicationName) {
+            String[] dangerousCombinations = {
+                "warfarin.*aspirin",
+                "lithium.*ibuprofen",
+                "metformin.*alcohol",
+                "acetaminophen.*alcohol"
+            };
+            for (String combination : dangerousCombinations) {
+                if (medicationName.matches(".*" + combination + ".*")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        static List<String> getPotentialAllergyInteractions(String medicationName, List<Allergy> patientAllergies) {
+            List<String> interactions = new ArrayList<>();
+            String medication = medicationName.toLowerCase();
+            for (Allergy allergy : patientAllergies) {
+                if (!allergy.getIsActive()) {
+                    continue;
+                }
+                String allergen = allergy.getAllergen().toLowerCase();
+                if (medication.contains(allergen)) {
+                    interactions.add("Direct match: " + allergy.getAllergen());
+                }
+                for (Map.Entry<String, Set<String>> drugClass : DRUG_CLASSES.entrySet()) {
+                    if (allergen.contains(drugClass.getKey()) ||
+                        drugClass.getValue().stream().anyMatch(drug -> allergen.contains(drug))) {
+                        if (drugClass.getValue().stream().anyMatch(drug -> medication.contains(drug))) {
+                            interactions.add("Drug class interaction: " + allergy.getAllergen() +
+                                           " (class: " + drugClass.getKey() + ")");
+                        }
+                    }
+                }
+            }
+            return interactions;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.patient.service.patientservice.benchmark;
+
+import com.patient.service.patientservice.cache.CacheEntry;
+import com.patient.service.patientservice.cache.CacheValueSerializer;
+import com.patient.service.patientservice.cache.JacksonCacheValueCodec;
+import com.patient.service.patientservice.dto.MedicalRecordResponseDTO;
+import com.patient.service.patientservice.dto.PatientResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value encodings compared per cached DTO shape: ns/op to encode and decode,
+ * and encoded size (printed once per trial as "bytes: ...").
+ * Run with: mvn -Pbenchmark test -Dbenchmark.include=CacheSerializerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"legacy-json", "json", "smile", "cbor", "smile+lz4", "cbor+lz4"})
+    private String format;
+
+    @Param({"patient", "medical-record", "patient-list", "medical-record-list"})
+    private String payload;
+
+    private CacheValueSerializer serializer;
+    private CacheEntry entry;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = switch (format) {
+            case "legacy-json" -> CacheValueSerializer.legacyJson();
+            case "json" -> CacheValueSerializer.of(JacksonCacheValueCodec.json());
+            case "smile" -> CacheValueSerializer.of(JacksonCacheValueCodec.smile());
+            case "cbor" -> CacheValueSerializer.of(JacksonCacheValueCodec.cbor());
+            case "smile+lz4" -> CacheValueSerializer.of(JacksonCacheValueCodec.smile()).lz4Above(2 * 1024);
+            case "cbor+lz4" -> CacheValueSerializer.of(JacksonCacheValueCodec.cbor()).lz4Above(2 * 1024);
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        Object value = switch (payload) {
+            case "patient" -> patient(0);
+            case "medical-record" -> medicalRecord(0);
+            case "patient-list" -> patients(100);
+            case "medical-record-list" -> medicalRecords(25);
+            default -> throw new IllegalArgumentException("Unknown payload " + payload);
+        };
+        entry = new CacheEntry(value, System.currentTimeMillis());
+        encoded = serializer.serialize(entry);
+        System.out.printf("%nbytes: %s / %s = %d%n", format, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(entry);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+
+    private static PatientResponseDTO patient(int i) {
+        PatientResponseDTO dto = new PatientResponseDTO();
+        dto.setId(UUID.nameUUIDFromBytes(("patient-" + i).getBytes()).toString());
+        dto.setName("Patient Number " + i);
+        dto.setAddress(i + " Harbour Street, Springfield");
+        dto.setEmail("patient" + i + "@example.com");
+        dto.setDateOfBirth("1985-06-" + String.format("%02d", i % 28 + 1));
+        return dto;
+    }
+
+    private static List<PatientResponseDTO> patients(int count) {
+        List<PatientResponseDTO> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(patient(i));
+        }
+        return list;
+    }
+
+    private static MedicalRecordResponseDTO medicalRecord(int i) {
+        MedicalRecordResponseDTO dto = new MedicalRecordResponseDTO();
+        dto.setId(UUID.nameUUIDFromBytes(("record-" + i).getBytes()).toString());
+        dto.setPatientId(UUID.nameUUIDFromBytes("patient-0".getBytes()).toString());
+        dto.setPatientName("Patient Number 0");
+        dto.setRecordDate("2024-03-14T09:30:00");
+        dto.setChiefComplaint("Persistent headache and mild fever for three days");
+        dto.setSymptoms("Headache, fever (38.2C), fatigue, mild neck stiffness, photophobia");
+        dto.setExaminationNotes("Alert and oriented. No focal neurological deficits. Kernig and Brudzinski negative. "
+                + "Throat mildly erythematous, no exudate. Lungs clear on auscultation.");
+        dto.setTreatmentPlan("Paracetamol 1g every 6 hours as needed, fluids, rest. Return if symptoms worsen.");
+        dto.setDoctorNotes("Likely viral syndrome. Follow-up in one week if not improved.");
+        dto.setAttendingDoctor("Dr. Sarah Johnson");
+        dto.setCreatedAt("2024-03-14T09:45:12");
+        dto.setUpdatedAt("2024-03-14T09:45:12");
+        return dto;
+    }
+
+    private static List<MedicalRecordResponseDTO> medicalRecords(int count) {
+        List<MedicalRecordResponseDTO> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(medicalRecord(i));
+        }
+        return list;
+    }
+}
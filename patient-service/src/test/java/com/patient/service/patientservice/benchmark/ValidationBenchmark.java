@@ -0,0 +1,137 @@
+package com.patient.service.patientservice.benchmark;
+
+import com.patient.service.patientservice.catalog.ICD10CatalogService;
+import com.patient.service.patientservice.dto.DiagnosisRequestDTO;
+import com.patient.service.patientservice.dto.PrescriptionRequestDTO;
+import com.patient.service.patientservice.validation.AllergyInteractionValidator;
+import com.patient.service.patientservice.validation.ICD10CodeValidator;
+import com.patient.service.patientservice.validation.PrescriptionDatesValidator;
+import com.patient.service.patientservice.validation.ValidAllergyInteraction;
+import com.patient.service.patientservice.validation.ValidICD10Code;
+import com.patient.service.patientservice.validation.ValidPrescriptionDates;
+import jakarta.validation.ClockProvider;
+import jakarta.validation.ConstraintValidatorContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Success path of every validator in the validation package, on the inputs a charting workload sends
+ * Run with the GC profiler to see allocation per call (gc.alloc.rate.norm, B/op):
+ * mvn -Pbenchmark test -Dbenchmark.include="ValidationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final String[] CODES = {"E11.9", "I10", "T78.02XA", " m79.3 ", "Z51.89", "J45.909"};
+
+    private static final String[][] PRESCRIPTIONS = {
+        {"Amoxicillin 500mg", "10"}, {"Oxycodone 5mg", "20"}, {"Lisinopril 10mg", "60"},
+        {"Amoxicillin/Clavulanate 875mg", "7"}, {"Metformin ER 500mg", "90"}, {"Atorvastatin 20mg", "30"}
+    };
+
+    private final ConstraintValidatorContext context = new NoOpContext();
+
+    private ICD10CodeValidator icd10Validator;
+    private ICD10CodeValidator icd10CatalogValidator;
+    private PrescriptionDatesValidator datesValidator;
+    private AllergyInteractionValidator allergyValidator;
+    private PrescriptionRequestDTO[] prescriptions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ValidICD10Code icd10 = DiagnosisRequestDTO.class.getDeclaredField("diagnosisCode")
+                .getAnnotation(ValidICD10Code.class);
+        icd10Validator = new ICD10CodeValidator();
+        icd10Validator.initialize(icd10);
+        icd10CatalogValidator = new ICD10CodeValidator();
+        icd10CatalogValidator.initialize(icd10);
+        ReflectionTestUtils.setField(icd10CatalogValidator, "icd10CatalogService",
+                new ICD10CatalogService(new ClassPathResource("icd10/icd10cm-order-sample.txt"), true));
+
+        datesValidator = new PrescriptionDatesValidator();
+        datesValidator.initialize(PrescriptionRequestDTO.class.getAnnotation(ValidPrescriptionDates.class));
+        allergyValidator = new AllergyInteractionValidator();
+        allergyValidator.initialize(PrescriptionRequestDTO.class.getAnnotation(ValidAllergyInteraction.class));
+
+        prescriptions = new PrescriptionRequestDTO[PRESCRIPTIONS.length];
+        for (int i = 0; i < PRESCRIPTIONS.length; i++) {
+            prescriptions[i] = new PrescriptionRequestDTO();
+            prescriptions[i].setMedicationName(PRESCRIPTIONS[i][0]);
+            prescriptions[i].setDurationDays(Integer.parseInt(PRESCRIPTIONS[i][1]));
+        }
+    }
+
+    private int nextIndex() {
+        next = next + 1 == CODES.length ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public boolean icd10Format() {
+        return icd10Validator.isValid(CODES[nextIndex()], context);
+    }
+
+    @Benchmark
+    public boolean icd10Catalog() {
+        return icd10CatalogValidator.isValid(CODES[nextIndex()], context);
+    }
+
+    @Benchmark
+    public boolean prescriptionDates() {
+        return datesValidator.isValid(prescriptions[nextIndex()], context);
+    }
+
+    @Benchmark
+    public boolean allergyInteraction() {
+        return allergyValidator.isValid(prescriptions[nextIndex()], context);
+    }
+
+    /**
+     * Context for the success path - nothing is reported, so no violation builder is needed
+     */
+    private static final class NoOpContext implements ConstraintValidatorContext {
+
+        @Override
+        public void disableDefaultConstraintViolation() {
+        }
+
+        @Override
+        public String getDefaultConstraintMessageTemplate() {
+            return null;
+        }
+
+        @Override
+        public ClockProvider getClockProvider() {
+            return null;
+        }
+
+        @Override
+        public ConstraintViolationBuilder buildConstraintViolationWithTemplate(String messageTemplate) {
+            throw new IllegalStateException("Unexpected violation: " + messageTemplate);
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
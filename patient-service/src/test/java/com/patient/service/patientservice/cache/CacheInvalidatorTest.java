@@ -0,0 +1,137 @@
+package com.patient.service.patientservice.cache;
+
+import com.patient.service.patientservice.config.CacheConfig;
+import com.patient.service.patientservice.dto.PatientResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Invalidation against racing loads (version stamps) and transactions (after-commit deferral)
+ */
+class CacheInvalidatorTest {
+
+    private static final String PATIENT_ID = "11111111-1111-1111-1111-111111111111";
+
+    private final TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(CacheConfig.cacheSpecs(), null, null);
+    private final CacheInvalidator invalidator = new CacheInvalidator(cacheManager, CacheConfig.cacheTagGraph(), null, null);
+    private TwoLevelCache patients;
+
+    @BeforeEach
+    void initializeCaches() {
+        cacheManager.afterPropertiesSet();
+        patients = (TwoLevelCache) cacheManager.getCache("patients");
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cacheManager.destroy();
+    }
+
+    @Test
+    void loadStartedBeforeAnInvalidationIsNotStored() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        // Reads the row, then the writer commits and invalidates before the put
+        CompletableFuture<PatientResponseDTO> reader = CompletableFuture.supplyAsync(() -> patients.get(PATIENT_ID, () -> {
+            PatientResponseDTO beforeCommit = patient("Old Name");
+            loading.countDown();
+            assertTrue(committed.await(5, TimeUnit.SECONDS));
+            return beforeCommit;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        invalidator.invalidate(CacheTags.patient(PATIENT_ID));
+        committed.countDown();
+
+        assertEquals("Old Name", reader.get(5, TimeUnit.SECONDS).getName()); // the reader itself still gets it
+        assertNull(patients.get(PATIENT_ID));
+        assertEquals(1, patients.getMetrics().getRejectedPuts());
+
+        // A load starting after the invalidation is stored again
+        patients.get(PATIENT_ID, () -> patient("New Name"));
+        assertEquals("New Name", ((PatientResponseDTO) patients.get(PATIENT_ID).get()).getName());
+    }
+
+    @Test
+    void unrelatedInvalidationDoesNotRejectAPut() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        CompletableFuture<PatientResponseDTO> reader = CompletableFuture.supplyAsync(() -> patients.get(PATIENT_ID, () -> {
+            loading.countDown();
+            assertTrue(invalidated.await(5, TimeUnit.SECONDS));
+            return patient("Name");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        invalidator.invalidate(CacheTags.patient("22222222-2222-2222-2222-222222222222"));
+        invalidated.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+
+        assertNotNull(patients.get(PATIENT_ID));
+        assertEquals(0, patients.getMetrics().getRejectedPuts());
+    }
+
+    @Test
+    void invalidationInsideATransactionWaitsForCommit() {
+        patients.put(PATIENT_ID, patient("Old Name"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(0, invalidator.invalidate(CacheTags.patient(PATIENT_ID)));
+        invalidator.invalidate(CacheTags.patient(PATIENT_ID)); // collected once
+        assertNotNull(patients.get(PATIENT_ID)); // other readers still see the committed value
+
+        List<TransactionSynchronization> synchronizations = complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(1, synchronizations.size());
+        assertNull(patients.get(PATIENT_ID));
+        assertNull(TransactionSynchronizationManager.getResource(invalidator));
+    }
+
+    @Test
+    void rolledBackTransactionInvalidatesNothing() {
+        patients.put(PATIENT_ID, patient("Old Name"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        invalidator.invalidate(CacheTags.patient(PATIENT_ID));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertNotNull(patients.get(PATIENT_ID));
+        assertNull(TransactionSynchronizationManager.getResource(invalidator));
+        // Outside a transaction it applies at once
+        assertEquals(1, invalidator.invalidate(CacheTags.patient(PATIENT_ID)));
+        assertNull(patients.get(PATIENT_ID));
+    }
+
+    /**
+     * Runs the registered callbacks the way the transaction manager does at the end of a transaction
+     */
+    private static List<TransactionSynchronization> complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(status));
+        return synchronizations;
+    }
+
+    private static PatientResponseDTO patient(String name) {
+        PatientResponseDTO dto = new PatientResponseDTO();
+        dto.setId(PATIENT_ID);
+        dto.setName(name);
+        return dto;
+    }
+}
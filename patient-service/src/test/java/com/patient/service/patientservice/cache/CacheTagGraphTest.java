@@ -0,0 +1,98 @@
+package com.patient.service.patientservice.cache;
+
+import com.patient.service.patientservice.config.CacheConfig;
+import com.patient.service.patientservice.dto.PatientResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tag fan-out: the dependency graph declared in CacheConfig and its effect on the caches
+ */
+class CacheTagGraphTest {
+
+    private static final String PATIENT_ID = "11111111-1111-1111-1111-111111111111";
+    private static final String OTHER_PATIENT_ID = "22222222-2222-2222-2222-222222222222";
+    private static final String RECORD_ID = "33333333-3333-3333-3333-333333333333";
+
+    private final CacheTagGraph graph = CacheConfig.cacheTagGraph();
+    private final TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(CacheConfig.cacheSpecs(), null, null);
+
+    @BeforeEach
+    void initializeCaches() {
+        cacheManager.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void shutdown() {
+        cacheManager.destroy();
+    }
+
+    @Test
+    void patientTagReachesEverythingBuiltFromThePatient() {
+        assertEquals(Set.of(
+                        CacheTags.patient(PATIENT_ID),
+                        CacheTags.patientAllergies(PATIENT_ID),
+                        CacheTags.patientRecords(PATIENT_ID),
+                        CacheTags.patientList(),
+                        CacheTags.patientChart(PATIENT_ID)),
+                graph.expand(List.of(CacheTags.patient(PATIENT_ID))));
+    }
+
+    @Test
+    void childTagsDoNotReachTheirParents() {
+        assertEquals(Set.of(CacheTags.patientAllergies(PATIENT_ID), CacheTags.patientChart(PATIENT_ID)),
+                graph.expand(List.of(CacheTags.patientAllergies(PATIENT_ID))));
+        assertEquals(Set.of(CacheTags.record(RECORD_ID), CacheTags.recordPrescriptions(RECORD_ID)),
+                graph.expand(List.of(CacheTags.record(RECORD_ID))));
+        assertEquals(Set.of(CacheTags.patientList()), graph.expand(List.of(CacheTags.patientList())));
+    }
+
+    @Test
+    void cyclesAndSharedChildrenAreExpandedOnce() {
+        CacheTagGraph cyclic = new CacheTagGraph()
+                .cascade("a", "b")
+                .cascade("b", "a")
+                .cascade("a", "c")
+                .cascade("b", "c")
+                .cascadeTo("c", "all-c");
+
+        assertEquals(List.of("a:1", "b:1", "c:1", "all-c"), List.copyOf(cyclic.expand(List.of("a:1"))));
+    }
+
+    @Test
+    void invalidatingAPatientDropsDependentEntriesInEveryCache() {
+        CacheInvalidator invalidator = new CacheInvalidator(cacheManager, graph, null, null);
+        cache("patients").put(PATIENT_ID, patient(PATIENT_ID));
+        cache("patients").put("all", List.of(patient(PATIENT_ID), patient(OTHER_PATIENT_ID)));
+        cache("allergies").put(PATIENT_ID + "-active-allergies", List.of());
+        cache("patient-charts").put(PATIENT_ID + "-chart-2024-01-01-2024-12-31-50", "chart");
+        cache("allergies").put(OTHER_PATIENT_ID + "-active-allergies", List.of());
+
+        assertEquals(4, invalidator.invalidate(CacheTags.patient(PATIENT_ID)));
+
+        assertNull(cache("patients").get(PATIENT_ID));
+        assertNull(cache("patients").get("all"));
+        assertNull(cache("allergies").get(PATIENT_ID + "-active-allergies"));
+        assertNull(cache("patient-charts").get(PATIENT_ID + "-chart-2024-01-01-2024-12-31-50"));
+        assertNotNull(cache("allergies").get(OTHER_PATIENT_ID + "-active-allergies"));
+    }
+
+    private TwoLevelCache cache(String name) {
+        return (TwoLevelCache) cacheManager.getCache(name);
+    }
+
+    private static PatientResponseDTO patient(String id) {
+        PatientResponseDTO dto = new PatientResponseDTO();
+        dto.setId(id);
+        dto.setName("Patient " + id.charAt(0));
+        return dto;
+    }
+}
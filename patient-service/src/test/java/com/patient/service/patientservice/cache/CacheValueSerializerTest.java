@@ -0,0 +1,165 @@
+package com.patient.service.patientservice.cache;
+
+import com.patient.service.patientservice.dto.PatientResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redis value framing: round trips per codec, the LZ4 threshold and entries written before framing
+ */
+class CacheValueSerializerTest {
+
+    private static final long WRITTEN_AT = 1_700_000_000_000L;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"json", "smile", "cbor"})
+    void smallEntryRoundTripsUncompressed(String format) {
+        CacheValueSerializer serializer = CacheValueSerializer.of(codec(format)).lz4Above(2 * 1024);
+        CacheEntry entry = new CacheEntry(patient(1), WRITTEN_AT, Set.of("patient:1"));
+
+        byte[] bytes = serializer.serialize(entry);
+
+        assertEquals(CacheValueSerializer.MAGIC, bytes[0]);
+        assertEquals(codec(format).getId(), bytes[1]);
+        assertEquals(0, bytes[2]); // below the threshold: no LZ4 flag
+        CacheEntry decoded = (CacheEntry) serializer.deserialize(bytes);
+        assertEquals(WRITTEN_AT, decoded.getWrittenAt());
+        assertEquals(Set.of("patient:1"), decoded.getTags());
+        assertPatient(1, decoded.getValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"json", "smile", "cbor"})
+    void largeEntryIsCompressedAndRoundTrips(String format) {
+        CacheValueSerializer plain = CacheValueSerializer.of(codec(format));
+        CacheValueSerializer compressing = CacheValueSerializer.of(codec(format)).lz4Above(2 * 1024);
+        CacheEntry entry = new CacheEntry(patients(100), WRITTEN_AT);
+
+        byte[] bytes = compressing.serialize(entry);
+
+        assertEquals(1, bytes[2]); // LZ4 flag
+        assertTrue(bytes.length < plain.serialize(entry).length);
+        List<?> decoded = (List<?>) ((CacheEntry) compressing.deserialize(bytes)).getValue();
+        assertEquals(100, decoded.size());
+        for (int i = 0; i < 100; i++) {
+            assertPatient(i, decoded.get(i));
+        }
+    }
+
+    @Test
+    void incompressiblePayloadAboveTheThresholdIsStoredAsIs() {
+        CacheValueSerializer serializer = CacheValueSerializer.of(JacksonCacheValueCodec.smile()).lz4Above(1024);
+        String noise = randomText(4 * 1024);
+
+        byte[] bytes = serializer.serialize(new CacheEntry(noise, WRITTEN_AT));
+
+        assertEquals(0, bytes[2]); // LZ4 would not make it smaller
+        assertEquals(noise, ((CacheEntry) serializer.deserialize(bytes)).getValue());
+    }
+
+    @Test
+    void entriesAreReadWhateverTheReadersOwnFormat() {
+        CacheValueSerializer smile = CacheValueSerializer.of(JacksonCacheValueCodec.smile()).lz4Above(2 * 1024);
+        CacheValueSerializer cbor = CacheValueSerializer.of(JacksonCacheValueCodec.cbor()).lz4Above(2 * 1024);
+
+        assertPatient(3, ((CacheEntry) smile.deserialize(cbor.serialize(new CacheEntry(patient(3), WRITTEN_AT)))).getValue());
+        List<?> list = (List<?>) ((CacheEntry) cbor.deserialize(smile.serialize(new CacheEntry(patients(50), WRITTEN_AT)))).getValue();
+        assertEquals(50, list.size());
+    }
+
+    @Test
+    void legacyUnframedEntriesStayReadable() {
+        CacheEntry entry = new CacheEntry(patient(7), WRITTEN_AT);
+        // Written by an instance from before framing
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(entry);
+
+        CacheValueSerializer serializer = CacheValueSerializer.of(JacksonCacheValueCodec.smile()).lz4Above(2 * 1024);
+        CacheEntry decoded = (CacheEntry) serializer.deserialize(legacy);
+
+        assertEquals(WRITTEN_AT, decoded.getWrittenAt());
+        assertPatient(7, decoded.getValue());
+        // and legacyJson() still writes that format
+        assertEquals('{', CacheValueSerializer.legacyJson().serialize(entry)[0]);
+        assertPatient(7, ((CacheEntry) CacheValueSerializer.legacyJson().deserialize(legacy)).getValue());
+    }
+
+    @Test
+    void damagedFramesAreRejected() {
+        CacheValueSerializer serializer = CacheValueSerializer.of(JacksonCacheValueCodec.smile()).lz4Above(2 * 1024);
+        byte[] compressed = serializer.serialize(new CacheEntry(patients(100), WRITTEN_AT));
+
+        byte[] unknownCodec = compressed.clone();
+        unknownCodec[1] = 42;
+        assertThrows(SerializationException.class, () -> serializer.deserialize(unknownCodec));
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize(new byte[]{CacheValueSerializer.MAGIC, JacksonCacheValueCodec.SMILE_ID, 1, 0}));
+        byte[] hugeLength = compressed.clone();
+        hugeLength[3] = 0x7F;
+        assertThrows(SerializationException.class, () -> serializer.deserialize(hugeLength));
+    }
+
+    @Test
+    void legacyJsonCannotBeCompressed() {
+        assertThrows(IllegalStateException.class, () -> CacheValueSerializer.legacyJson().lz4Above(1024));
+    }
+
+    private static CacheValueCodec codec(String format) {
+        return switch (format) {
+            case "json" -> JacksonCacheValueCodec.json();
+            case "smile" -> JacksonCacheValueCodec.smile();
+            case "cbor" -> JacksonCacheValueCodec.cbor();
+            default -> throw new IllegalArgumentException(format);
+        };
+    }
+
+    private static PatientResponseDTO patient(int i) {
+        PatientResponseDTO dto = new PatientResponseDTO();
+        dto.setId("00000000-0000-0000-0000-" + String.format("%012d", i));
+        dto.setName("Patient Number " + i);
+        dto.setAddress(i + " Harbour Street, Springfield");
+        dto.setEmail("patient" + i + "@example.com");
+        dto.setDateOfBirth("1985-06-01");
+        return dto;
+    }
+
+    private static List<PatientResponseDTO> patients(int count) {
+        List<PatientResponseDTO> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(patient(i));
+        }
+        return list;
+    }
+
+    private static String randomText(int length) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    private static void assertPatient(int i, Object value) {
+        PatientResponseDTO patient = assertInstanceOf(PatientResponseDTO.class, value);
+        PatientResponseDTO expected = patient(i);
+        assertEquals(expected.getId(), patient.getId());
+        assertEquals(expected.getName(), patient.getName());
+        assertEquals(expected.getAddress(), patient.getAddress());
+        assertEquals(expected.getEmail(), patient.getEmail());
+        assertEquals(expected.getDateOfBirth(), patient.getDateOfBirth());
+    }
+}
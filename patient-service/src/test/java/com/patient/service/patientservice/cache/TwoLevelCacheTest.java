@@ -0,0 +1,254 @@
+package com.patient.service.patientservice.cache;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * L1-only TwoLevelCache: single-flight loads per key, refresh-ahead and stale grace on a manual clock
+ */
+class TwoLevelCacheTest {
+
+    private static final String KEY = "key";
+    private static final int CALLERS = 8;
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesInvokeTheLoaderOnce() throws Exception {
+        TwoLevelCache cache = cache(CacheSpec.of("test", Duration.ofMinutes(10)));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> cache.get(KEY, () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "loaded";
+            })));
+        }
+        awaitUntil(() -> cache.getMetrics().getCoalescedLoads() == CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, cache.getInFlightLoadCount());
+        assertEquals("loaded", cache.get(KEY, () -> fail("cached value expected")));
+    }
+
+    @Test
+    void failedLeaderPropagatesToWaiters() throws Exception {
+        TwoLevelCache cache = cache(CacheSpec.of("test", Duration.ofMinutes(10)));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> cache.get(KEY, () -> {
+                loads.incrementAndGet();
+                release.await();
+                throw failure;
+            })));
+        }
+        awaitUntil(() -> cache.getMetrics().getCoalescedLoads() == CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(Cache.ValueRetrievalException.class, e.getCause());
+            assertSame(failure, e.getCause().getCause());
+        }
+        assertEquals(1, loads.get());
+        // Nothing cached and no flight left behind - the next caller loads again
+        assertEquals("retried", cache.get(KEY, () -> "retried"));
+    }
+
+    @Test
+    void evictDuringLoadMakesLaterCallersReload() throws Exception {
+        TwoLevelCache cache = cache(CacheSpec.of("test", Duration.ofMinutes(10)));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = callers.submit(() -> cache.get(KEY, () -> {
+            loading.countDown();
+            release.await();
+            return "before-evict";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.evict(KEY);
+
+        // Does not join the old flight: loads on its own while the first load is still running
+        assertEquals("after-evict", cache.get(KEY, () -> "after-evict"));
+        release.countDown();
+
+        assertEquals("before-evict", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(0, cache.getMetrics().getCoalescedLoads());
+        // The old load's result was rejected, the reload's result stays
+        assertEquals("after-evict", cache.get(KEY, () -> fail("cached value expected")));
+        assertEquals(1, cache.getMetrics().getRejectedPuts());
+    }
+
+    @Test
+    void refreshAheadServesTheCachedValueAndReloadsOnceInTheBackground() {
+        ManualTime time = new ManualTime();
+        List<Runnable> refreshes = new ArrayList<>();
+        TwoLevelCache cache = new TwoLevelCache(CacheSpec.of("test", Duration.ofSeconds(100)).refreshAhead(0.5),
+                null, null, refreshes::add, new InvalidationSequence(), time, time);
+        assertEquals("v1", cache.get(KEY, () -> "v1"));
+
+        time.advance(Duration.ofSeconds(40));
+        assertEquals("v1", cache.get(KEY, () -> "v2"));
+        assertTrue(refreshes.isEmpty());
+
+        time.advance(Duration.ofSeconds(20)); // past refreshAfter, inside the TTL
+        assertEquals("v1", cache.get(KEY, () -> "v2"));
+        assertEquals("v1", cache.get(KEY, () -> "v3"));
+        assertEquals(1, refreshes.size());
+        assertEquals(1, cache.getMetrics().getRefreshes());
+
+        refreshes.remove(0).run();
+        assertEquals("v2", cache.get(KEY, () -> fail("cached value expected")));
+        assertEquals(0, cache.getInFlightLoadCount());
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    void failedRefreshKeepsTheValueAndIsRetriedOnALaterRead() {
+        ManualTime time = new ManualTime();
+        List<Runnable> refreshes = new ArrayList<>();
+        TwoLevelCache cache = new TwoLevelCache(CacheSpec.of("test", Duration.ofSeconds(100)).refreshAhead(0.5),
+                null, null, refreshes::add, new InvalidationSequence(), time, time);
+        cache.get(KEY, () -> "v1");
+        time.advance(Duration.ofSeconds(60));
+
+        assertEquals("v1", cache.get(KEY, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        refreshes.remove(0).run();
+        assertEquals(1, cache.getMetrics().getRefreshFailures());
+
+        assertEquals("v1", cache.get(KEY, () -> "v2"));
+        refreshes.remove(0).run();
+        assertEquals("v2", cache.get(KEY, () -> fail("cached value expected")));
+    }
+
+    @Test
+    void staleValueIsServedWhenTheReloadFailsInsideTheGrace() {
+        ManualTime time = new ManualTime();
+        TwoLevelCache cache = new TwoLevelCache(
+                CacheSpec.of("test", Duration.ofSeconds(10)).staleGrace(Duration.ofSeconds(60)),
+                null, null, null, new InvalidationSequence(), time, time);
+        cache.get(KEY, () -> "v1");
+
+        time.advance(Duration.ofSeconds(20));
+        assertEquals("v1", cache.get(KEY, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals(1, cache.getMetrics().getStaleHits());
+
+        // A reload that works replaces the stale value
+        assertEquals("v2", cache.get(KEY, () -> "v2"));
+        assertEquals("v2", cache.get(KEY, () -> fail("cached value expected")));
+    }
+
+    @Test
+    void pastTheGraceTheValueIsReloadedNotServedStale() {
+        ManualTime time = new ManualTime();
+        TwoLevelCache cache = new TwoLevelCache(
+                CacheSpec.of("test", Duration.ofSeconds(10)).staleGrace(Duration.ofSeconds(60)),
+                null, null, null, new InvalidationSequence(), time, time);
+        cache.get(KEY, () -> "v1");
+
+        time.advance(Duration.ofSeconds(71));
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get(KEY, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals(0, cache.getMetrics().getStaleHits());
+        assertEquals("v2", cache.get(KEY, () -> "v2"));
+    }
+
+    private static TwoLevelCache cache(CacheSpec spec) {
+        return new TwoLevelCache(spec, null, null, null, new InvalidationSequence());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("condition not reached in time");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Wall clock for entry timestamps and ticker for L1 retention, moved only by the test
+     */
+    static class ManualTime extends Clock implements Ticker {
+
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2030-01-01T00:00:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+        @Override
+        public long read() {
+            return TimeUnit.MILLISECONDS.toNanos(millis.get());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
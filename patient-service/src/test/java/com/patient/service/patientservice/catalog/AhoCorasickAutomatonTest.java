@@ -0,0 +1,106 @@
+package com.patient.service.patientservice.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aho-Corasick matches against the case-insensitive substring loop it replaced
+ */
+class AhoCorasickAutomatonTest {
+
+    @Test
+    void reportsOverlappingOccurrences() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("he", "she", "his", "hers"));
+
+        assertEquals(Set.of("1@4", "0@4", "3@6"), matches(automaton, "ushers"));
+        assertEquals(Set.of("0@2", "0@4"), matches(automaton, "hehe"));
+    }
+
+    @Test
+    void patternThatIsASuffixOfAnotherMatchesThroughFailureLinks() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("penicillin", "cillin", "in"));
+
+        assertEquals(Set.of("0@10", "1@10", "2@10"), matches(automaton, "penicillin"));
+        assertEquals(Set.of("1@10", "2@10"), matches(automaton, "ampicillin"));
+
+        // "bc" is only reachable through the failure link of the "abc" state, mid-way through "abcd"
+        AhoCorasickAutomaton nested = AhoCorasickAutomaton.compile(List.of("abcd", "bc"));
+        assertEquals(Set.of("1@4", "0@5"), matches(nested, "xabcd"));
+        assertEquals(Set.of("1@3"), matches(nested, "abce"));
+    }
+
+    @Test
+    void foldsCaseOfPatternsAndText() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of("Amoxicillin", "NSAID"));
+
+        assertEquals(Set.of("0@11"), matches(automaton, "AMOXICILLIN"));
+        assertEquals(Set.of("0@17", "1@27"), matches(automaton, "500mg amoxIcillin, no nsaid"));
+    }
+
+    @Test
+    void emptyPatternSetMatchesNothing() {
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of());
+
+        assertEquals(Set.of(), matches(automaton, "amoxicillin"));
+        assertEquals(0, automaton.getPatternCount());
+    }
+
+    @Test
+    void rejectsEmptyPattern() {
+        assertThrows(IllegalArgumentException.class, () -> AhoCorasickAutomaton.compile(List.of("ab", "")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 42, 2025})
+    void agreesWithSubstringLoopOnRandomText(long seed) {
+        Random random = new Random(seed);
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            patterns.add(randomWord(random, 1 + random.nextInt(5)));
+        }
+        AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(patterns);
+        for (int i = 0; i < 200; i++) {
+            String text = randomWord(random, random.nextInt(40));
+            assertEquals(substringLoop(patterns, text), matches(automaton, text), text);
+        }
+    }
+
+    // Over a small alphabet so patterns overlap and nest often; mixed case on purpose
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append("abcAB-".charAt(random.nextInt(6)));
+        }
+        return word.toString();
+    }
+
+    private static Set<String> substringLoop(List<String> patterns, String text) {
+        String lowered = text.toLowerCase(Locale.ROOT);
+        Set<String> found = new TreeSet<>();
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id).toLowerCase(Locale.ROOT);
+            for (int at = lowered.indexOf(pattern); at >= 0; at = lowered.indexOf(pattern, at + 1)) {
+                found.add(id + "@" + (at + pattern.length()));
+            }
+        }
+        return found;
+    }
+
+    private static Set<String> matches(AhoCorasickAutomaton automaton, String text) {
+        Set<String> found = new TreeSet<>();
+        automaton.scan(text, (patternId, end) -> assertTrue(found.add(patternId + "@" + end)));
+        return found;
+    }
+}
@@ -0,0 +1,96 @@
+package com.patient.service.patientservice.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compiled catalog lookups against the per-drug contains() loops they replaced
+ */
+class DrugCatalogTest {
+
+    private static final DrugCatalogFile FILE = catalogFile();
+    private static final DrugCatalog CATALOG = DrugCatalog.compile(FILE);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Amoxicillin 500mg", "AMOXICILLIN/CLAVULANATE", "trimethoprim/sulfamethoxazole",
+            "ibuprofen + aspirin", "Cefazolin IV", "amoxicillin and ibuprofen", "saline", "", "Penicillin V"})
+    void drugClassesMatchSubstringLoop(String medication) {
+        assertEquals(classesByLoop(medication), CATALOG.scan(medication).getDrugClasses());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Oxycodone 5mg", "amoxicillin", "MORPHINE + amoxicillin", "ibuprofen", ""})
+    void flagsMatchSubstringLoop(String medication) {
+        String lowered = medication.toLowerCase(Locale.ROOT);
+        boolean controlled = FILE.getControlledSubstances().stream().anyMatch(lowered::contains);
+        boolean antibiotic = FILE.getAntibiotics().stream().anyMatch(lowered::contains);
+
+        int flags = CATALOG.flagsOf(medication);
+        assertEquals(controlled, (flags & DrugCatalog.CONTROLLED_SUBSTANCE) != 0);
+        assertEquals(antibiotic, (flags & DrugCatalog.ANTIBIOTIC) != 0);
+    }
+
+    @Test
+    void drugNamedInsideALongerDrugNameCountsForBoth() {
+        // "penicillin" is also a class key; "amoxicillin/clavulanate" contains "amoxicillin"
+        DrugCatalog.Scan scan = CATALOG.scan("Amoxicillin/Clavulanate");
+        assertEquals(Set.of("penicillin"), scan.getDrugClasses());
+        assertTrue(CATALOG.isMedicationInClass("AMOXICILLIN", "Penicillin"));
+        assertEquals(Set.of("penicillin"), CATALOG.scan("penicillin allergy").getNamedClasses());
+    }
+
+    @Test
+    void dangerousCombinationNeedsBothIngredients() {
+        List<String> combination = FILE.getDangerousCombinations().get(0);
+        String both = combination.get(0).toUpperCase(Locale.ROOT) + " with " + combination.get(1);
+
+        assertTrue(CATALOG.hasDangerousCombination(both));
+        assertTrue(CATALOG.scan(both).hasDangerousCombination());
+        assertFalse(CATALOG.hasDangerousCombination(combination.get(0)));
+    }
+
+    @Test
+    void emptyCatalogMatchesNothing() {
+        DrugCatalogFile file = new DrugCatalogFile();
+        file.setVersion("empty");
+        DrugCatalog empty = DrugCatalog.compile(file);
+
+        assertEquals(0, empty.getPatternCount());
+        assertEquals(Set.of(), empty.scan("amoxicillin").getDrugClasses());
+        assertEquals(0, empty.flagsOf("oxycodone"));
+        assertFalse(empty.hasDangerousCombination("warfarin aspirin"));
+        assertFalse(empty.isMedicationInClass("amoxicillin", "penicillin"));
+    }
+
+    private static Set<String> classesByLoop(String medication) {
+        String lowered = medication.toLowerCase(Locale.ROOT);
+        Set<String> classes = new LinkedHashSet<>();
+        FILE.getDrugClasses().forEach((className, drugs) -> {
+            if (drugs.stream().anyMatch(drug -> lowered.contains(drug.toLowerCase(Locale.ROOT)))) {
+                classes.add(className);
+            }
+        });
+        return classes;
+    }
+
+    private static DrugCatalogFile catalogFile() {
+        try (InputStream in = DrugCatalog.class.getClassLoader().getResourceAsStream(DrugCatalog.BUNDLED)) {
+            return DrugCatalogFile.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
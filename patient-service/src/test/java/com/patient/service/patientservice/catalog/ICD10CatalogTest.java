@@ -0,0 +1,37 @@
+package com.patient.service.patientservice.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Chapter table lookups at and just outside every chapter boundary
+ */
+class ICD10CatalogTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "A00, 1", "B99, 1", "C00, 2", "C4A, 2", "D49, 2", "D50, 3", "D89, 3", "D90, -1",
+        "E00, 4", "E89, 4", "E90, -1", "F00, -1", "F01, 5", "F99, 5", "G00, 6", "G99, 6",
+        "H00, 7", "H59, 7", "H60, 8", "H95, 8", "H96, -1", "I00, 9", "I99, 9", "J00, 10", "J99, 10",
+        "K00, 11", "K95, 11", "K96, -1", "L00, 12", "L99, 12", "M00, 13", "M99, 13", "N00, 14", "N99, 14",
+        "O00, 15", "O99, 15", "O9A, 15", "O9B, -1", "P00, 16", "P96, 16", "P97, -1", "Q00, 17", "Q99, 17",
+        "R00, 18", "R99, 18", "S00, 19", "T88, 19", "T89, -1", "U00, 22", "U85, 22", "U86, -1",
+        "V00, 20", "Y99, 20", "Z00, 21", "Z99, 21"
+    })
+    void chapterOfCategory(String category, int chapter) {
+        int index = ICD10Catalog.chapterIndex(category);
+        assertEquals(chapter, index < 0 ? -1 : ICD10Catalog.chapterNumber(index));
+        assertEquals(index, ICD10Catalog.chapterIndex(category.charAt(0), category.charAt(1), category.charAt(2)));
+    }
+
+    @Test
+    void chapterOfFullCodeUsesItsCategory() {
+        assertEquals(19, ICD10Catalog.chapterNumber(ICD10Catalog.chapterIndex(ICD10Catalog.normalize("s72.001a"))));
+        assertEquals(-1, ICD10Catalog.chapterIndex((String) null));
+        assertEquals(-1, ICD10Catalog.chapterIndex("A0"));
+        assertEquals("S00-T88", ICD10Catalog.chapterRange(ICD10Catalog.chapterIndex("T00")));
+    }
+}
@@ -0,0 +1,130 @@
+package com.patient.service.patientservice.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patient.service.patientservice.dto.MedicalRecordResponseDTO;
+import com.patient.service.patientservice.export.MedicalRecordExportWriter.Format;
+import com.patient.service.patientservice.importer.CsvRecordReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Export line formats: RFC 4180 quoting, formula neutralization and one NDJSON object per line
+ */
+class MedicalRecordExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csvQuotesOnlyFieldsThatNeedIt() throws IOException {
+        MedicalRecordResponseDTO record = record("r1");
+        record.setChiefComplaint("Cough, fever");
+        record.setSymptoms("Said \"it hurts\"");
+        record.setExaminationNotes("Line one\nLine two");
+        record.setDoctorNotes(null);
+
+        String csv = export(Format.CSV, record);
+
+        String[] lines = csv.split("\r\n", -1);
+        assertTrue(lines[0].startsWith("id,patientId,patientName,recordDate,chiefComplaint,"));
+        assertTrue(csv.contains("r1,p1,Jane Doe,2024-05-01T10:00,\"Cough, fever\",\"Said \"\"it hurts\"\"\","
+                + "\"Line one\nLine two\",Rest,,Dr. Who,"), csv);
+        assertTrue(csv.endsWith("\r\n"));
+    }
+
+    @Test
+    void csvRoundTripsThroughTheImportParser() throws IOException {
+        MedicalRecordResponseDTO record = record("r1");
+        record.setChiefComplaint("a,\"b\"\r\nc");
+
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(export(Format.CSV, record)));
+
+        assertEquals(12, reader.next().size());
+        List<String> fields = reader.next();
+        assertEquals("r1", fields.get(0));
+        assertEquals("a,\"b\"\r\nc", fields.get(4));
+        assertNull(reader.next());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"=HYPERLINK(\"http://x\")", "+1+1", "-2+3", "@SUM(A1)", "\tcmd", "\r=1"})
+    void csvPrefixesValuesASpreadsheetWouldEvaluate(String value) throws IOException {
+        MedicalRecordResponseDTO record = record("r1");
+        record.setTreatmentPlan(value);
+
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(export(Format.CSV, record)));
+        reader.next();
+
+        assertEquals("'" + value, reader.next().get(7));
+    }
+
+    @Test
+    void csvLeavesOrdinaryValuesAlone() throws IOException {
+        MedicalRecordResponseDTO record = record("r1");
+        record.setTreatmentPlan("Rest - 2 days = better");
+
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(export(Format.CSV, record)));
+        reader.next();
+
+        assertEquals("Rest - 2 days = better", reader.next().get(7));
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        MedicalRecordResponseDTO first = record("r1");
+        first.setExaminationNotes("Line one\nLine two");
+        MedicalRecordResponseDTO second = record("r2");
+
+        String ndjson = export(Format.NDJSON, first, second);
+
+        assertTrue(ndjson.endsWith("}\n"));
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        JsonNode parsed = objectMapper.readTree(lines[0]);
+        assertEquals("r1", parsed.get("id").asText());
+        assertEquals("Line one\nLine two", parsed.get("examinationNotes").asText());
+        assertEquals("r2", objectMapper.readTree(lines[1]).get("id").asText());
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertEquals(Format.CSV, Format.fromParameter(" csv "));
+        assertThrows(IllegalArgumentException.class, () -> Format.fromParameter("xlsx"));
+    }
+
+    private String export(Format format, MedicalRecordResponseDTO... records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MedicalRecordExportWriter writer = MedicalRecordExportWriter.open(format, out, objectMapper);
+        for (MedicalRecordResponseDTO record : records) {
+            writer.write(record);
+        }
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static MedicalRecordResponseDTO record(String id) {
+        MedicalRecordResponseDTO record = new MedicalRecordResponseDTO();
+        record.setId(id);
+        record.setPatientId("p1");
+        record.setPatientName("Jane Doe");
+        record.setRecordDate("2024-05-01T10:00");
+        record.setChiefComplaint("Cough");
+        record.setTreatmentPlan("Rest");
+        record.setAttendingDoctor("Dr. Who");
+        record.setCreatedAt("2024-05-01T10:00");
+        record.setUpdatedAt("2024-05-01T10:00");
+        return record;
+    }
+}
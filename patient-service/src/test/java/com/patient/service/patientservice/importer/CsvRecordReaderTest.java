@@ -0,0 +1,91 @@
+package com.patient.service.patientservice.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * RFC 4180 records: quoting, escaped quotes, embedded line breaks and malformed input
+ */
+class CsvRecordReaderTest {
+
+    @Test
+    void plainAndQuotedFields() throws IOException {
+        assertEquals(List.of(
+                List.of("a", "b", "c"),
+                List.of("x, y", "say \"hi\"", ""),
+                List.of("", "", "last")
+        ), readAll("a,b,c\n\"x, y\",\"say \"\"hi\"\"\",\n,,last"));
+    }
+
+    @Test
+    void quotedFieldMayContainLineBreaks() throws IOException {
+        assertEquals(List.of(
+                List.of("1 Main St\nFlat 2", "end"),
+                List.of("next")
+        ), readAll("\"1 Main St\nFlat 2\",end\nnext\n"));
+    }
+
+    @Test
+    void crlfLineEndingsAndBlankLines() throws IOException {
+        assertEquals(List.of(
+                List.of("a", "b"),
+                List.of(""),
+                List.of("c", "d")
+        ), readAll("a,b\r\n\r\nc,d\r\n"));
+    }
+
+    @Test
+    void quoteInsideAnUnquotedFieldIsKept() throws IOException {
+        assertEquals(List.of(List.of("5'10\"", "x")), readAll("5'10\",x"));
+    }
+
+    @Test
+    void unterminatedQuoteAtEndOfInputIsMalformed() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\n\"open,c\nd,e\n"));
+
+        assertEquals(List.of("a", "b"), reader.next());
+        CsvRecordReader.MalformedRecordException e =
+                assertThrows(CsvRecordReader.MalformedRecordException.class, reader::next);
+        assertEquals("Unterminated quoted field", e.getMessage());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void overlongQuotedFieldFailsItsRecordAndReadingResumesOnTheNextLine() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\"0123456789,a\nb,c\n"), 8);
+
+        CsvRecordReader.MalformedRecordException e =
+                assertThrows(CsvRecordReader.MalformedRecordException.class, reader::next);
+        assertEquals("Quoted field longer than 8 characters (unterminated quote?)", e.getMessage());
+        assertEquals(List.of("b", "c"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void fieldAtTheCapIsAccepted() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("12345678,\"abcdefgh\"\n123456789\nok"), 8);
+
+        assertEquals(List.of("12345678", "abcdefgh"), reader.next());
+        assertThrows(CsvRecordReader.MalformedRecordException.class, reader::next);
+        assertEquals(List.of("ok"), reader.next());
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv))) {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
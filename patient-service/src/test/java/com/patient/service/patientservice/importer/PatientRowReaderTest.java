@@ -0,0 +1,117 @@
+package com.patient.service.patientservice.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NDJSON and CSV rows: column mapping, row numbering and malformed rows that must not stop the import
+ */
+class PatientRowReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void ndjsonRowsAndInvalidLines() throws IOException {
+        List<PatientImportRow> rows = readAll(MediaType.APPLICATION_NDJSON, """
+                {"name":"Ann","email":"ann@example.com"}
+
+                {"name":
+                {"name":"Bob","email":"bob@example.com","dateOfBirth":"1990-01-01"}
+                """);
+
+        assertEquals(3, rows.size());
+        assertEquals("ann@example.com", rows.get(0).patient().getEmail());
+        assertEquals(2, rows.get(1).row());
+        assertNull(rows.get(1).patient());
+        assertTrue(rows.get(1).parseError().startsWith("Invalid JSON"), rows.get(1).parseError());
+        assertEquals(3, rows.get(2).row());
+        assertEquals("1990-01-01", rows.get(2).patient().getDateOfBirth());
+    }
+
+    @Test
+    void csvHeaderNamesMapToFieldsInAnyCase() throws IOException {
+        List<PatientImportRow> rows = readAll(PatientRowReader.TEXT_CSV, """
+                Name,EMAIL,date_of_birth,registered-date,notes,address
+                Ann,ann@example.com,1990-01-01,2024-05-01,ignored,"1 Main St, Flat 2"
+
+                Bob,bob@example.com
+                """);
+
+        assertEquals(2, rows.size());
+        PatientImportRow ann = rows.get(0);
+        assertEquals(1, ann.row());
+        assertEquals("Ann", ann.patient().getName());
+        assertEquals("ann@example.com", ann.patient().getEmail());
+        assertEquals("1990-01-01", ann.patient().getDateOfBirth());
+        assertEquals("2024-05-01", ann.patient().getRegisteredDate());
+        assertEquals("1 Main St, Flat 2", ann.patient().getAddress());
+        PatientImportRow bob = rows.get(1);
+        assertEquals(2, bob.row());
+        assertNull(bob.patient().getAddress()); // short row - missing fields stay unset
+    }
+
+    @Test
+    void csvRowWithTooManyFieldsIsUnparseable() throws IOException {
+        List<PatientImportRow> rows = readAll(PatientRowReader.TEXT_CSV, "name,email\nAnn,ann@example.com,extra\nBob,b@x.com\n");
+
+        assertEquals("Expected at most 2 fields, found 3", rows.get(0).parseError());
+        assertEquals("Bob", rows.get(1).patient().getName());
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedAsAnUnparseableRow() throws IOException {
+        List<PatientImportRow> rows = readAll(PatientRowReader.TEXT_CSV,
+                "name,email\nAnn,ann@example.com\n\"Bob,bob@example.com\nCid,cid@example.com\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("Ann", rows.get(0).patient().getName());
+        assertEquals(2, rows.get(1).row());
+        assertEquals("Unterminated quoted field", rows.get(1).parseError());
+    }
+
+    @Test
+    void unterminatedQuoteInALargeFileOnlyCostsTheCappedField() throws IOException {
+        StringBuilder csv = new StringBuilder("name,email\n\"Bob,bob@example.com\n");
+        int following = PatientRowReader.MAX_FIELD_LENGTH / 10;
+        for (int i = 0; i < following; i++) {
+            csv.append("Cid,c").append(i).append("@x.com\n");
+        }
+
+        List<PatientImportRow> rows = readAll(PatientRowReader.TEXT_CSV, csv.toString());
+
+        assertTrue(rows.get(0).parseError().startsWith("Quoted field longer than"), rows.get(0).parseError());
+        // Rows after the one the cap was hit on are read normally
+        assertTrue(rows.size() > 1 && rows.size() < following);
+        assertTrue(rows.subList(1, rows.size()).stream().allMatch(row -> row.patient() != null));
+    }
+
+    @Test
+    void unsupportedFormatIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PatientRowReader.open(MediaType.APPLICATION_XML,
+                new ByteArrayInputStream(new byte[0]), objectMapper));
+    }
+
+    private List<PatientImportRow> readAll(MediaType contentType, String body) throws IOException {
+        List<PatientImportRow> rows = new ArrayList<>();
+        try (PatientRowReader reader = PatientRowReader.open(contentType,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), objectMapper)) {
+            PatientImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,146 @@
+package com.patient.service.patientservice.search;
+
+import com.patient.service.patientservice.model.MedicalRecord;
+import com.patient.service.patientservice.model.Patient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * In-memory Lucene index: replace and delete by record id, patient and doctor scoping, paging
+ * and the generation purge at the end of a rebuild
+ */
+class MedicalRecordSearchIndexTest {
+
+    private static final Patient ALICE = patient();
+    private static final Patient BOB = patient();
+
+    private MedicalRecordSearchIndex index;
+
+    @BeforeEach
+    void openIndex() throws IOException {
+        index = new MedicalRecordSearchIndex("");
+    }
+
+    @AfterEach
+    void closeIndex() {
+        index.destroy();
+    }
+
+    @Test
+    void upsertReplacesTheRecordsDocument() throws IOException {
+        MedicalRecord record = record(ALICE, "Persistent cough", "Dr. House");
+        index.upsert(List.of(index.toDocument(record)));
+        record.setChiefComplaint("Sprained ankle");
+        index.upsert(List.of(index.toDocument(record)));
+        index.refresh();
+
+        assertEquals(1, index.documentCount());
+        assertEquals(0, index.search("cough", null, null, 0, 10).totalHits());
+        MedicalRecordSearchIndex.Hit hit = index.search("ankles", null, null, 0, 10).hits().get(0); // stemmed
+        assertEquals(record.getId().toString(), hit.recordId());
+        assertEquals("Sprained ankle", hit.chiefComplaint());
+    }
+
+    @Test
+    void deleteRemovesTheRecord() throws IOException {
+        MedicalRecord kept = record(ALICE, "Migraine", "Dr. House");
+        MedicalRecord deleted = record(ALICE, "Migraine with aura", "Dr. House");
+        index.upsert(List.of(index.toDocument(kept), index.toDocument(deleted)));
+        index.delete(deleted.getId());
+        index.refresh();
+
+        assertEquals(List.of(kept.getId().toString()), ids(index.search("migraine", null, null, 0, 10)));
+    }
+
+    @Test
+    void searchIsScopedByPatientAndDoctor() throws IOException {
+        MedicalRecord aliceHouse = record(ALICE, "Rash", "Dr. House");
+        MedicalRecord aliceWilson = record(ALICE, "Rash", "Dr. Wilson");
+        MedicalRecord bobHouse = record(BOB, "Rash", "Dr. House");
+        index.upsert(List.of(index.toDocument(aliceHouse), index.toDocument(aliceWilson), index.toDocument(bobHouse)));
+        index.refresh();
+
+        assertEquals(3, index.search("rash", null, null, 0, 10).totalHits());
+        assertEquals(2, index.search("rash", ALICE.getId(), null, 0, 10).totalHits());
+        assertEquals(List.of(aliceHouse.getId().toString()),
+                ids(index.search("rash", ALICE.getId(), "  dr. HOUSE ", 0, 10)));
+        assertEquals(List.of(bobHouse.getId().toString()), ids(index.search("rash", BOB.getId(), null, 0, 10)));
+    }
+
+    @Test
+    void chiefComplaintOutranksNotesAndPagesDoNotOverlap() throws IOException {
+        MedicalRecord inComplaint = record(ALICE, "Chest pain", "Dr. House");
+        MedicalRecord inNotes = record(ALICE, "Follow-up", "Dr. House");
+        inNotes.setDoctorNotes("Patient mentioned chest pain last week");
+        index.upsert(List.of(index.toDocument(inNotes), index.toDocument(inComplaint)));
+        for (int i = 0; i < 5; i++) {
+            index.upsert(List.of(index.toDocument(record(BOB, "Chest pain " + i, "Dr. Wilson"))));
+        }
+        index.refresh();
+
+        MedicalRecordSearchIndex.Page first = index.search("\"chest pain\"", ALICE.getId(), null, 0, 1);
+        MedicalRecordSearchIndex.Page second = index.search("\"chest pain\"", ALICE.getId(), null, 1, 1);
+        assertEquals(2, first.totalHits());
+        assertEquals(List.of(inComplaint.getId().toString()), ids(first));
+        assertEquals(List.of(inNotes.getId().toString()), ids(second));
+        assertEquals(1, index.search("\"chest pain\"", null, null, 6, 10).hits().size());
+        assertTrue(index.search("\"chest pain\"", null, null, 10, 10).hits().isEmpty());
+    }
+
+    @Test
+    void completeRebuildDropsDocumentsItDidNotRewrite() throws IOException {
+        MedicalRecord rewritten = record(ALICE, "Fever", "Dr. House");
+        MedicalRecord gone = record(ALICE, "Fever", "Dr. House");
+        index.upsert(List.of(index.toDocument(rewritten), index.toDocument(gone)));
+
+        long generation = index.beginRebuild();
+        index.upsert(List.of(index.toDocument(rewritten)));
+        index.finishRebuild(generation, true);
+
+        assertEquals(List.of(rewritten.getId().toString()), ids(index.search("fever", null, null, 0, 10)));
+    }
+
+    @Test
+    void incompleteRebuildKeepsDocumentsItDidNotRewrite() throws IOException {
+        MedicalRecord rewritten = record(ALICE, "Fever", "Dr. House");
+        MedicalRecord missed = record(ALICE, "Fever", "Dr. House");
+        index.upsert(List.of(index.toDocument(rewritten), index.toDocument(missed)));
+
+        long generation = index.beginRebuild();
+        index.upsert(List.of(index.toDocument(rewritten)));
+        index.finishRebuild(generation, false);
+
+        assertEquals(2, index.search("fever", null, null, 0, 10).totalHits());
+        // The next complete rebuild still drops what it does not rewrite
+        generation = index.beginRebuild();
+        index.upsert(List.of(index.toDocument(rewritten)));
+        index.finishRebuild(generation, true);
+        assertEquals(1, index.search("fever", null, null, 0, 10).totalHits());
+    }
+
+    private static List<String> ids(MedicalRecordSearchIndex.Page page) {
+        return page.hits().stream().map(MedicalRecordSearchIndex.Hit::recordId).toList();
+    }
+
+    static MedicalRecord record(Patient patient, String chiefComplaint, String attendingDoctor) {
+        MedicalRecord record = new MedicalRecord(patient, chiefComplaint, attendingDoctor);
+        record.setId(UUID.randomUUID());
+        record.setRecordDate(LocalDateTime.of(2024, 5, 1, 10, 0));
+        return record;
+    }
+
+    static Patient patient() {
+        Patient patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        return patient;
+    }
+}
@@ -0,0 +1,221 @@
+package com.patient.service.patientservice.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ranking, typo tolerance, scoping, paging and removal of the trigram name index
+ */
+class TrigramIndexTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+
+    private final UUID amoxicillin = UUID.randomUUID();
+    private final UUID amoxicillinClavulanate = UUID.randomUUID();
+    private final UUID penicillin = UUID.randomUUID();
+    private final UUID peanuts = UUID.randomUUID();
+    private final UUID bobAmoxicillin = UUID.randomUUID();
+    private final UUID bobLatex = UUID.randomUUID();
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void fillIndex() {
+        index = new TrigramIndex();
+        index.put(amoxicillin, ALICE, "Amoxicillin");
+        index.put(amoxicillinClavulanate, ALICE, "Amoxicillin/Clavulanate");
+        index.put(penicillin, ALICE, "Penicillin");
+        index.put(peanuts, ALICE, "Peanuts");
+        index.put(bobAmoxicillin, BOB, "AMOXICILLIN");
+        index.put(bobLatex, BOB, "Latex");
+    }
+
+    @Test
+    void normalizeFoldsCaseAndPunctuation() {
+        assertEquals("amoxicillin clavulanate", TrigramIndex.normalize("  Amoxicillin/--Clavulanate! "));
+        assertEquals("", TrigramIndex.normalize(" -/ "));
+    }
+
+    @Test
+    void substringHitsRankShorterNamesFirst() {
+        TrigramIndex.Page page = index.search("moxi", ALICE, false, 0, 10);
+
+        assertEquals(List.of(amoxicillin, amoxicillinClavulanate), ids(page));
+        assertEquals(1.0f + 4f / 11, page.matches().get(0).score(), 1e-6);
+        assertTrue(page.matches().get(0).score() > page.matches().get(1).score());
+    }
+
+    @Test
+    void exactNameScoresTwo() {
+        TrigramIndex.Page page = index.search("PENICILLIN", ALICE, false, 0, 10);
+
+        assertEquals(List.of(penicillin), ids(page));
+        assertEquals(2.0f, page.matches().get(0).score());
+    }
+
+    @Test
+    void substringQueryMatchesAcrossWordsAfterNormalizing() {
+        assertEquals(List.of(amoxicillinClavulanate), ids(index.search("cillin-clav", null, false, 0, 10)));
+    }
+
+    @Test
+    void typoMatchesOnlyWhenFuzzy() {
+        assertEquals(0, index.search("amoxicilin", ALICE, false, 0, 10).totalHits());
+
+        TrigramIndex.Page fuzzy = index.search("amoxicilin", ALICE, true, 0, 10);
+        assertEquals(List.of(amoxicillin, amoxicillinClavulanate), ids(fuzzy));
+        fuzzy.matches().forEach(match -> assertTrue(match.score() >= TrigramIndex.FUZZY_THRESHOLD
+                && match.score() < 1.0f, "fuzzy score " + match.score()));
+    }
+
+    @Test
+    void substringMatchesOutrankFuzzyMatches() {
+        UUID typo = UUID.randomUUID();
+        index.put(typo, ALICE, "Amoxicilin");
+
+        TrigramIndex.Page page = index.search("amoxicilin", ALICE, true, 0, 10);
+
+        assertEquals(typo, page.matches().get(0).id());
+        assertEquals(2.0f, page.matches().get(0).score());
+        assertEquals(3, page.totalHits());
+    }
+
+    @Test
+    void unscopedFuzzySearchUsesPostings() {
+        assertEquals(List.of(amoxicillin, bobAmoxicillin, amoxicillinClavulanate),
+                ids(index.search("amoxycillin", null, true, 0, 10)));
+    }
+
+    @Test
+    void unrelatedTypoDoesNotMatch() {
+        assertEquals(0, index.search("ibuprofen", null, true, 0, 10).totalHits());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"pe", "PE", " Pe "})
+    void queriesShorterThanATrigramScanEveryName(String query) {
+        assertEquals(List.of(peanuts, penicillin), ids(index.search(query, ALICE, false, 0, 10)));
+        assertEquals(List.of(peanuts, penicillin), ids(index.search(query, null, true, 0, 10)));
+    }
+
+    @Test
+    void shortQueryIsSubstringOnlyEvenWhenFuzzy() {
+        assertEquals(List.of(bobLatex), ids(index.search("te", BOB, true, 0, 10)));
+        assertEquals(0, index.search("tx", BOB, true, 0, 10).totalHits());
+    }
+
+    @Test
+    void blankQueryFindsNothing() {
+        assertEquals(new TrigramIndex.Page(0, List.of()), index.search("  ", null, false, 0, 10));
+    }
+
+    @Test
+    void scopedSearchOnlyReturnsThatPatientsEntries() {
+        assertEquals(List.of(bobAmoxicillin), ids(index.search("amox", BOB, false, 0, 10)));
+        assertEquals(List.of(amoxicillin, amoxicillinClavulanate), ids(index.search("amox", ALICE, false, 0, 10)));
+        assertEquals(3, index.search("amox", null, false, 0, 10).totalHits());
+    }
+
+    @Test
+    void unknownScopeFindsNothing() {
+        assertEquals(0, index.search("amox", UUID.randomUUID(), true, 0, 10).totalHits());
+    }
+
+    @Test
+    void scopedSearchUsesPostingsWhenScopeIsLarger() {
+        UUID carol = UUID.randomUUID();
+        for (int i = 0; i < 50; i++) {
+            index.put(UUID.randomUUID(), carol, "Pollen " + i);
+        }
+        UUID carolLatex = UUID.randomUUID();
+        index.put(carolLatex, carol, "Latex gloves");
+
+        assertEquals(List.of(carolLatex), ids(index.search("latex", carol, false, 0, 10)));
+        assertEquals(List.of(carolLatex), ids(index.search("latx gloves", carol, true, 0, 10)));
+    }
+
+    @Test
+    void pagesAreStableSlicesOfTheRanking() {
+        UUID carol = UUID.randomUUID();
+        for (int i = 0; i < 25; i++) {
+            index.put(UUID.randomUUID(), carol, String.format("Tree pollen %02d", i));
+        }
+        List<UUID> all = ids(index.search("pollen", carol, false, 0, 100));
+        assertEquals(25, all.size());
+
+        List<UUID> paged = new ArrayList<>();
+        for (int offset = 0; offset < 30; offset += 10) {
+            TrigramIndex.Page page = index.search("pollen", carol, false, offset, 10);
+            assertEquals(25, page.totalHits());
+            paged.addAll(ids(page));
+        }
+        assertEquals(all, paged);
+        assertTrue(index.search("pollen", carol, false, 40, 10).matches().isEmpty());
+    }
+
+    @Test
+    void removedEntriesAreNotFound() {
+        index.remove(amoxicillin);
+        index.remove(UUID.randomUUID()); // unknown id is ignored
+
+        assertEquals(5, index.size());
+        assertEquals(List.of(amoxicillinClavulanate), ids(index.search("amox", ALICE, true, 0, 10)));
+        assertEquals(List.of(bobAmoxicillin, amoxicillinClavulanate), ids(index.search("am", null, false, 0, 10)));
+    }
+
+    @Test
+    void blankNameRemovesTheEntry() {
+        index.put(penicillin, ALICE, " ");
+        index.put(peanuts, ALICE, null);
+
+        assertEquals(4, index.size());
+        assertEquals(0, index.search("pe", ALICE, false, 0, 10).totalHits());
+    }
+
+    @Test
+    void putReplacesNameAndScope() {
+        index.put(bobLatex, ALICE, "Latex gloves");
+
+        assertEquals(6, index.size());
+        assertEquals(0, index.search("latex", BOB, false, 0, 10).totalHits());
+        TrigramIndex.Page page = index.search("latex", ALICE, false, 0, 10);
+        assertEquals(List.of(bobLatex), ids(page));
+        assertEquals(1.0f + 5f / 12, page.matches().get(0).score(), 1e-6);
+    }
+
+    @Test
+    void compactionKeepsLiveEntriesSearchable() {
+        UUID carol = UUID.randomUUID();
+        List<UUID> churn = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            UUID id = UUID.randomUUID();
+            index.put(id, carol, "Dust mite " + i);
+            churn.add(id);
+        }
+        churn.forEach(index::remove);
+        // Updates tombstone the old doc each time; this crosses the compaction threshold
+        for (int i = 0; i < 200; i++) {
+            index.put(peanuts, ALICE, "Peanuts " + i);
+        }
+
+        assertEquals(6, index.size());
+        assertEquals(0, index.search("dust mite", null, true, 0, 10).totalHits());
+        assertEquals(List.of(peanuts), ids(index.search("peanuts 199", ALICE, false, 0, 10)));
+        assertEquals(List.of(amoxicillin, amoxicillinClavulanate), ids(index.search("amoxicilin", ALICE, true, 0, 10)));
+        assertEquals(List.of(bobLatex), ids(index.search("latex", null, false, 0, 10)));
+    }
+
+    private static List<UUID> ids(TrigramIndex.Page page) {
+        return page.matches().stream().map(TrigramIndex.Match::id).toList();
+    }
+}
@@ -0,0 +1,179 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.dto.MedicalRecordSearchHitDTO;
+import com.patient.service.patientservice.dto.SearchIndexStatusDTO;
+import com.patient.service.patientservice.model.MedicalRecord;
+import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.repository.MedicalRecordRepository;
+import com.patient.service.patientservice.search.MedicalRecordSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rebuilds against an in-memory index: stale documents are only purged by a complete rebuild,
+ * and changes committed while a chunk is in flight survive it
+ */
+class MedicalRecordSearchServiceTest {
+
+    private final MedicalRecordRepository medicalRecordRepository = mock(MedicalRecordRepository.class);
+    private final Patient patient = new Patient();
+    private MedicalRecordSearchIndex index;
+    private MedicalRecordSearchService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        patient.setId(UUID.randomUUID());
+        index = new MedicalRecordSearchIndex("");
+        service = new MedicalRecordSearchService(index, medicalRecordRepository, mock(PlatformTransactionManager.class),
+                false, 2, 10);
+    }
+
+    @AfterEach
+    void closeIndex() {
+        index.destroy();
+    }
+
+    @Test
+    void completeRebuildDropsRecordsThatNoLongerExist() throws Exception {
+        MedicalRecord kept = record("Fever");
+        MedicalRecord deleted = record("Fever");
+        service.indexAfterCommit(kept);
+        service.indexAfterCommit(deleted);
+        onlyInDatabase(kept);
+
+        SearchIndexStatusDTO status = rebuild();
+
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(1, status.getIndexedRecords());
+        assertEquals(List.of(kept.getId().toString()), hitIds("fever"));
+    }
+
+    @Test
+    void failedChunkKeepsStaleDocuments() throws Exception {
+        MedicalRecord existing = record("Fever");
+        MedicalRecord unreachable = record("Fever");
+        service.indexAfterCommit(existing);
+        service.indexAfterCommit(unreachable);
+        when(medicalRecordRepository.findIdsAfter(any(), any()))
+                .thenReturn(List.of(existing.getId(), unreachable.getId()))
+                .thenReturn(List.of());
+        when(medicalRecordRepository.findAllById(anyIterable())).thenThrow(new IllegalStateException("connection reset"));
+
+        SearchIndexStatusDTO status = rebuild();
+
+        assertEquals("FAILED", status.getState());
+        assertEquals(2, status.getFailedRecords());
+        assertEquals("2 records failed to index; stale documents kept", status.getLastError());
+        assertEquals(2, service.search("fever", null, null, 0, 10).getTotalHits());
+    }
+
+    @Test
+    void updateCommittedDuringAChunkIsNotOverwritten() throws Exception {
+        MedicalRecord before = record("Headache");
+        MedicalRecord after = copy(before, "Broken wrist");
+        CountDownLatch chunkLoaded = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        when(medicalRecordRepository.findIdsAfter(any(), any()))
+                .thenReturn(List.of(before.getId()))
+                .thenReturn(List.of());
+        // The chunk reads the record before the update commits and writes it after
+        when(medicalRecordRepository.findAllById(eq(List.of(before.getId()))))
+                .thenAnswer(invocation -> {
+                    chunkLoaded.countDown();
+                    assertTrue(updated.await(5, TimeUnit.SECONDS));
+                    return List.of(before);
+                })
+                .thenReturn(List.of(after));
+
+        service.startRebuild();
+        assertTrue(chunkLoaded.await(5, TimeUnit.SECONDS));
+        service.indexAfterCommit(after);
+        updated.countDown();
+        SearchIndexStatusDTO status = awaitRebuild();
+
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(0, service.search("headache", null, null, 0, 10).getTotalHits());
+        assertEquals(1, service.search("wrist", null, null, 0, 10).getTotalHits());
+    }
+
+    @Test
+    void deleteCommittedDuringAChunkIsNotUndone() throws Exception {
+        MedicalRecord record = record("Headache");
+        CountDownLatch chunkLoaded = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        when(medicalRecordRepository.findIdsAfter(any(), any()))
+                .thenReturn(List.of(record.getId()))
+                .thenReturn(List.of());
+        when(medicalRecordRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            chunkLoaded.countDown();
+            assertTrue(deleted.await(5, TimeUnit.SECONDS));
+            return List.of(record);
+        });
+
+        service.startRebuild();
+        assertTrue(chunkLoaded.await(5, TimeUnit.SECONDS));
+        service.removeAfterCommit(record.getId());
+        deleted.countDown();
+
+        assertEquals("COMPLETED", awaitRebuild().getState());
+        assertEquals(0, service.search("headache", null, null, 0, 10).getTotalHits());
+    }
+
+    private void onlyInDatabase(MedicalRecord... records) {
+        when(medicalRecordRepository.findIdsAfter(any(), any()))
+                .thenReturn(Arrays.stream(records).map(MedicalRecord::getId).toList())
+                .thenReturn(List.of());
+        when(medicalRecordRepository.findAllById(anyIterable())).thenReturn(List.of(records));
+    }
+
+    private SearchIndexStatusDTO rebuild() throws InterruptedException {
+        service.startRebuild();
+        return awaitRebuild();
+    }
+
+    private SearchIndexStatusDTO awaitRebuild() throws InterruptedException {
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        SearchIndexStatusDTO status = service.getStatus();
+        while (status.getState().equals("RUNNING") && System.nanoTime() < waitUntil) {
+            Thread.sleep(10);
+            status = service.getStatus();
+        }
+        return status;
+    }
+
+    private List<String> hitIds(String query) {
+        return service.search(query, null, null, 0, 10).getHits().stream()
+                .map(MedicalRecordSearchHitDTO::getRecordId).toList();
+    }
+
+    private MedicalRecord record(String chiefComplaint) {
+        MedicalRecord record = new MedicalRecord(patient, chiefComplaint, "Dr. House");
+        record.setId(UUID.randomUUID());
+        record.setRecordDate(LocalDateTime.of(2024, 5, 1, 10, 0));
+        return record;
+    }
+
+    private MedicalRecord copy(MedicalRecord record, String chiefComplaint) {
+        MedicalRecord copy = record(chiefComplaint);
+        copy.setId(record.getId());
+        return copy;
+    }
+}
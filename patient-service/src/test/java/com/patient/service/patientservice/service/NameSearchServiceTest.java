@@ -0,0 +1,193 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.dto.AllergyResponseDTO;
+import com.patient.service.patientservice.model.Allergy;
+import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.repository.AllergyRepository;
+import com.patient.service.patientservice.repository.NameEntry;
+import com.patient.service.patientservice.repository.PatientRepository;
+import com.patient.service.patientservice.repository.PrescriptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Index changes from AllergyService writes become searchable only once the transaction commits,
+ * and are not lost to a startup load that read the table before they committed
+ */
+class NameSearchServiceTest {
+
+    private final Map<UUID, Allergy> rows = new HashMap<>();
+    private final Patient patient = new Patient();
+    private final AllergyRepository allergyRepository = mock(AllergyRepository.class);
+    private final PrescriptionRepository prescriptionRepository = mock(PrescriptionRepository.class);
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private NameSearchService nameSearchService;
+
+    @BeforeEach
+    void loadEmptyIndex() {
+        when(allergyRepository.streamAllergenEntries()).thenAnswer(invocation -> Stream.empty());
+        when(prescriptionRepository.streamMedicationEntries()).thenAnswer(invocation -> Stream.empty());
+        when(allergyRepository.findByIdIn(any())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0))
+                .stream().map(rows::get).filter(Objects::nonNull).toList());
+        patient.setId(UUID.randomUUID());
+        when(patientRepository.existsById(patient.getId())).thenReturn(true);
+
+        nameSearchService = newService();
+        nameSearchService.load();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void putIsVisibleOnlyAfterCommit() {
+        Allergy allergy = allergy("Penicillin");
+
+        beginTransaction();
+        nameSearchService.indexAllergyAfterCommit(allergy);
+        assertEquals(List.of(), allergens("penic"));
+
+        commit();
+        assertEquals(List.of("Penicillin"), allergens("penic"));
+        assertEquals(List.of("Penicillin"), allergens("penicilin"));
+    }
+
+    @Test
+    void rolledBackPutIsNeverIndexed() {
+        Allergy allergy = allergy("Latex");
+
+        beginTransaction();
+        nameSearchService.indexAllergyAfterCommit(allergy);
+        rollback();
+
+        assertEquals(List.of(), allergens("latex"));
+    }
+
+    @Test
+    void removeIsAppliedOnlyAfterCommit() {
+        Allergy allergy = allergy("Peanuts");
+        nameSearchService.indexAllergyAfterCommit(allergy); // no transaction: applied at once
+
+        beginTransaction();
+        nameSearchService.removeAllergyAfterCommit(allergy.getId());
+        assertEquals(List.of("Peanuts"), allergens("peanut"));
+
+        commit();
+        assertEquals(List.of(), allergens("peanut"));
+    }
+
+    @Test
+    void renameReplacesTheIndexedName() {
+        Allergy allergy = allergy("Amoxicillin");
+        nameSearchService.indexAllergyAfterCommit(allergy);
+
+        allergy.setAllergen("Aspirin");
+        beginTransaction();
+        nameSearchService.indexAllergyAfterCommit(allergy);
+        commit();
+
+        assertEquals(List.of(), allergens("amox"));
+        assertEquals(List.of("Aspirin"), allergens("aspi"));
+    }
+
+    @Test
+    void changesCommittedDuringTheLoadWinOverTheSnapshot() {
+        Allergy renamed = allergy("Amoxicillin");
+        Allergy deleted = allergy("Latex");
+        Allergy created = allergy("Peanuts");
+        NameSearchService starting = newService();
+        when(allergyRepository.streamAllergenEntries()).thenAnswer(invocation -> {
+            // The snapshot is read first; these writes commit while it is being indexed
+            Stream<NameEntry> snapshot = Stream.of(entry(renamed), entry(deleted));
+            renamed.setAllergen("Aspirin");
+            starting.indexAllergyAfterCommit(renamed);
+            starting.removeAllergyAfterCommit(deleted.getId());
+            rows.remove(deleted.getId());
+            starting.indexAllergyAfterCommit(created);
+            return snapshot;
+        });
+
+        starting.load();
+        nameSearchService = starting;
+
+        assertEquals(List.of(), allergens("amox"));
+        assertEquals(List.of("Aspirin"), allergens("aspi"));
+        assertEquals(List.of(), allergens("latex"));
+        assertEquals(List.of("Peanuts"), allergens("peanut"));
+    }
+
+    private NameSearchService newService() {
+        return new NameSearchService(allergyRepository, prescriptionRepository, patientRepository,
+                mock(PlatformTransactionManager.class));
+    }
+
+    private NameEntry entry(Allergy allergy) {
+        String name = allergy.getAllergen();
+        return new NameEntry() {
+            @Override
+            public UUID getId() {
+                return allergy.getId();
+            }
+
+            @Override
+            public UUID getScopeId() {
+                return patient.getId();
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private Allergy allergy(String allergen) {
+        Allergy allergy = new Allergy(patient, allergen, Allergy.AllergyType.MEDICATION);
+        allergy.setId(UUID.randomUUID());
+        rows.put(allergy.getId(), allergy);
+        return allergy;
+    }
+
+    private List<String> allergens(String query) {
+        return nameSearchService.searchAllergies(patient.getId(), query, true, 0, 10).getItems().stream()
+                .map(AllergyResponseDTO::getAllergen)
+                .toList();
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static void rollback() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+}
@@ -0,0 +1,202 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.dto.AllergyRequestDTO;
+import com.patient.service.patientservice.dto.MedicalRecordRequestDTO;
+import com.patient.service.patientservice.dto.PatientCountsDTO;
+import com.patient.service.patientservice.dto.PatientRequestDTO;
+import com.patient.service.patientservice.dto.PrescriptionRequestDTO;
+import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.repository.PatientRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Maintained counters against H2: every writer moves them in its own transaction, a patient without
+ * a counter row is recounted, and reconciliation creates missing rows and corrects drift
+ */
+@SpringBootTest
+class PatientCountersServiceTest {
+
+    @Autowired
+    private PatientCountersService patientCountersService;
+    @Autowired
+    private PatientService patientService;
+    @Autowired
+    private MedicalRecordService medicalRecordService;
+    @Autowired
+    private AllergyService allergyService;
+    @Autowired
+    private PrescriptionService prescriptionService;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writersMoveTheCounters() {
+        UUID patientId = createPatient();
+        assertCounts(patientId, 0, 0, 0, 0);
+        assertTrue(patientCountersService.find(patientId).isPresent());
+
+        UUID recordId = createRecord(patientId);
+        UUID allergyId = UUID.fromString(allergyService.createAllergy(patientId, allergy("Penicillin", true)).getId());
+        allergyService.createAllergy(patientId, allergy("Latex", true));
+        assertCounts(patientId, 1, 2, 2, 0);
+
+        allergyService.updateAllergy(patientId, allergyId, allergy("Penicillin", false));
+        assertCounts(patientId, 1, 2, 1, 0);
+        allergyService.updateAllergy(patientId, allergyId, allergy("Penicillin", true));
+        assertCounts(patientId, 1, 2, 2, 0);
+        allergyService.deleteAllergy(patientId, allergyId);
+        assertCounts(patientId, 1, 1, 1, 0);
+
+        UUID prescriptionId = UUID.fromString(prescriptionService.createPrescription(recordId, prescription("ACTIVE")).getId());
+        prescriptionService.createPrescription(recordId, prescription("ACTIVE"));
+        assertCounts(patientId, 1, 1, 1, 2);
+        prescriptionService.updatePrescription(recordId, prescriptionId, prescription("COMPLETED"));
+        assertCounts(patientId, 1, 1, 1, 1);
+        prescriptionService.updatePrescription(recordId, prescriptionId, prescription("DISCONTINUED"));
+        assertCounts(patientId, 1, 1, 1, 1); // not active either side
+        prescriptionService.updatePrescription(recordId, prescriptionId, prescription("ACTIVE"));
+        assertCounts(patientId, 1, 1, 1, 2);
+        prescriptionService.deletePrescription(recordId, prescriptionId);
+        assertCounts(patientId, 1, 1, 1, 1);
+
+        UUID emptyRecordId = createRecord(patientId);
+        assertEquals(2, patientCountersService.getCounts(patientId).getMedicalRecords());
+        medicalRecordService.deleteMedicalRecord(emptyRecordId);
+        assertEquals(1, patientCountersService.getCounts(patientId).getMedicalRecords());
+    }
+
+    @Test
+    void deletingThePatientDeletesItsCounterRow() {
+        UUID patientId = createPatient();
+
+        patientService.deletePatient(patientId, null);
+
+        assertTrue(patientCountersService.find(patientId).isEmpty());
+    }
+
+    @Test
+    void patientWithoutACounterRowIsRecounted() {
+        UUID patientId = createPatientWithoutCounters();
+        UUID recordId = createRecord(patientId);
+        allergyService.createAllergy(patientId, allergy("Peanuts", true));
+        allergyService.createAllergy(patientId, allergy("Dust", false));
+        prescriptionService.createPrescription(recordId, prescription("ACTIVE"));
+
+        assertTrue(patientCountersService.find(patientId).isEmpty()); // writers skipped the missing row
+        assertCounts(patientId, 1, 2, 1, 1);
+    }
+
+    @Test
+    void bulkDeactivationCountsEveryPrescription() {
+        UUID patientId = createPatient();
+        UUID other = createPatient();
+        UUID recordId = createRecord(patientId);
+        UUID otherRecordId = createRecord(other);
+        for (int i = 0; i < 3; i++) {
+            prescriptionService.createPrescription(recordId, prescription("ACTIVE"));
+        }
+        prescriptionService.createPrescription(otherRecordId, prescription("ACTIVE"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                patientCountersService.prescriptionsDeactivated(List.of(patientId, other, patientId)));
+
+        assertEquals(1, patientCountersService.getCounts(patientId).getActivePrescriptions());
+        assertEquals(0, patientCountersService.getCounts(other).getActivePrescriptions());
+    }
+
+    @Test
+    void reconcileCreatesMissingRowsAndCorrectsDrift() {
+        UUID drifted = createPatient();
+        createRecord(drifted);
+        allergyService.createAllergy(drifted, allergy("Pollen", true));
+        UUID missing = createPatientWithoutCounters();
+        createRecord(missing);
+        jdbcTemplate.update("UPDATE patient_counters SET record_count = 42, active_allergy_count = 0 WHERE patient_id = ?",
+                drifted);
+        double driftBefore = meterRegistry.counter("patients.counters.drift").count();
+        double createdBefore = meterRegistry.counter("patients.counters.created").count();
+
+        assertTrue(patientCountersService.reconcile() >= 2);
+
+        assertCounts(drifted, 1, 1, 1, 0);
+        assertTrue(patientCountersService.find(missing).isPresent());
+        assertEquals(1, patientCountersService.find(missing).get().getRecordCount());
+        // Other tests sharing the database may leave drifted or uncounted patients of their own
+        assertTrue(meterRegistry.counter("patients.counters.drift").count() >= driftBefore + 1);
+        assertTrue(meterRegistry.counter("patients.counters.created").count() >= createdBefore + 1);
+    }
+
+    private void assertCounts(UUID patientId, long records, long allergies, long activeAllergies,
+                              long activePrescriptions) {
+        PatientCountsDTO counts = patientCountersService.getCounts(patientId);
+        assertEquals(List.of(records, allergies, activeAllergies, activePrescriptions),
+                List.of(counts.getMedicalRecords(), counts.getAllergies(), counts.getActiveAllergies(),
+                        counts.getActivePrescriptions()));
+    }
+
+    private UUID createPatient() {
+        PatientRequestDTO request = new PatientRequestDTO();
+        request.setName("Counted Patient");
+        request.setEmail("counters." + UUID.randomUUID() + "@example.com");
+        request.setAddress("1 Test Street");
+        request.setDateOfBirth("1980-01-01");
+        request.setRegisteredDate("2024-01-01");
+        return UUID.fromString(patientService.createPatient(request).getId());
+    }
+
+    // Like a patient seeded before counters existed
+    private UUID createPatientWithoutCounters() {
+        Patient patient = new Patient();
+        patient.setName("Uncounted Patient");
+        patient.setEmail("counters." + UUID.randomUUID() + "@example.com");
+        patient.setAddress("1 Test Street");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        patient.setRegisteredDate(LocalDate.now());
+        return patientRepository.save(patient).getId();
+    }
+
+    private UUID createRecord(UUID patientId) {
+        MedicalRecordRequestDTO request = new MedicalRecordRequestDTO();
+        request.setPatientId(patientId);
+        request.setChiefComplaint("Checkup");
+        request.setAttendingDoctor("Dr. Test");
+        return UUID.fromString(medicalRecordService.createMedicalRecord(request).getId());
+    }
+
+    private static AllergyRequestDTO allergy(String allergen, boolean active) {
+        AllergyRequestDTO request = new AllergyRequestDTO();
+        request.setAllergen(allergen);
+        request.setAllergyType("ENVIRONMENTAL");
+        request.setIsActive(active);
+        return request;
+    }
+
+    private static PrescriptionRequestDTO prescription(String status) {
+        PrescriptionRequestDTO request = new PrescriptionRequestDTO();
+        request.setMedicationName("Ibuprofen");
+        request.setDosage("200 mg");
+        request.setFrequency("Twice daily");
+        request.setPrescribingDoctor("Dr. Test");
+        request.setStatus(status);
+        return request;
+    }
+}
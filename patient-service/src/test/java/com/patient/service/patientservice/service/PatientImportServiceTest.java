@@ -0,0 +1,166 @@
+package com.patient.service.patientservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.dto.PatientImportErrorDTO;
+import com.patient.service.patientservice.dto.PatientImportResultDTO;
+import com.patient.service.patientservice.importer.PatientRowReader;
+import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Chunked import against H2: duplicate and taken emails, bad rows and the row-by-row retry
+ * after a chunk hits the unique constraint
+ */
+@SpringBootTest
+class PatientImportServiceTest {
+
+    private static final int CHUNK_SIZE = 3;
+
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private CacheInvalidator cacheInvalidator;
+    @Autowired
+    private PatientCountersService patientCountersService;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String prefix;
+
+    @BeforeEach
+    void uniqueEmails() {
+        prefix = "import." + UUID.randomUUID() + ".";
+    }
+
+    @Test
+    void duplicateAndExistingEmailsAreRejectedPerRow() {
+        String taken = existingPatient();
+        String csv = "name,email,address,date_of_birth,registered_date\n"
+                + row("Ann", email("ann"))
+                + row("Ann Again", email("ann"))   // same chunk
+                + row("Tom", taken)
+                + row("Bob", email("bob"))
+                + "Cid,not-an-email,1 Street,1990-01-01,2024-01-01\n"
+                + row("Dee", email("dee"))
+                + row("Ann Third", email("ann"));  // next chunk - Ann is in the database by then
+
+        PatientImportResultDTO result = service(patientRepository).importPatients(PatientRowReader.TEXT_CSV, body(csv));
+
+        assertEquals(7, result.getTotalRows());
+        assertEquals(3, result.getImportedRows());
+        assertEquals(4, result.getFailedRows());
+        assertEquals(List.of(2, 3, 5, 7), result.getErrors().stream().map(PatientImportErrorDTO::getRow).toList());
+        assertEquals(List.of("Duplicate email in import file"), result.getErrors().get(0).getMessages());
+        assertEquals(List.of("Patient with this email already exists"), result.getErrors().get(1).getMessages());
+        assertEquals(taken, result.getErrors().get(1).getEmail());
+        assertEquals(List.of("Email should be valid"), result.getErrors().get(2).getMessages());
+        assertEquals(List.of("Patient with this email already exists"), result.getErrors().get(3).getMessages());
+        assertEquals("Ann", patientRepository.findByEmail(email("ann")).orElseThrow().getName());
+        assertEquals("Bob", patientRepository.findByEmail(email("bob")).orElseThrow().getName());
+        assertTrue(patientRepository.existsByEmail(email("dee")));
+    }
+
+    @Test
+    void chunkHittingTheUniqueConstraintIsRetriedRowByRow() {
+        String taken = existingPatient();
+        // The pre-check misses the taken email, as if it was inserted concurrently after the lookup
+        PatientRepository racing = mock(PatientRepository.class, delegatesTo(patientRepository));
+        doAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            Set<String> existing = new HashSet<>(patientRepository.findExistingEmails(emails));
+            existing.remove(taken);
+            return existing;
+        }).when(racing).findExistingEmails(any());
+        String csv = "name,email,address,date_of_birth,registered_date\n"
+                + row("Ann", email("ann"))
+                + row("Tom", taken)
+                + row("Bob", email("bob"));
+
+        PatientImportResultDTO result = service(racing).importPatients(PatientRowReader.TEXT_CSV, body(csv));
+
+        assertEquals(2, result.getImportedRows());
+        assertEquals(1, result.getFailedRows());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals(List.of("Patient with this email already exists"), result.getErrors().get(0).getMessages());
+        assertTrue(patientRepository.existsByEmail(email("ann")));
+        assertTrue(patientRepository.existsByEmail(email("bob")));
+        assertEquals(1, patientRepository.findAll().stream().filter(p -> p.getEmail().equals(taken)).count());
+        verify(racing, atLeast(4)).saveAllAndFlush(any()); // the whole chunk, then one save per row
+    }
+
+    @Test
+    void malformedRowsDoNotStopTheImport() {
+        String ndjson = "{\"name\":\"Ann\",\"email\":\"" + email("ann") + "\",\"address\":\"1 Street\","
+                + "\"dateOfBirth\":\"1990-01-01\",\"registeredDate\":\"2024-01-01\"}\n"
+                + "{broken\n"
+                + "{\"name\":\"Bob\",\"email\":\"" + email("bob") + "\",\"address\":\"1 Street\","
+                + "\"dateOfBirth\":\"01/02/1990\",\"registeredDate\":\"2024-01-01\"}\n";
+
+        PatientImportResultDTO result = service(patientRepository).importPatients(MediaType.APPLICATION_NDJSON, body(ndjson));
+
+        assertEquals(3, result.getTotalRows());
+        assertEquals(1, result.getImportedRows());
+        assertTrue(result.getErrors().get(0).getMessages().get(0).startsWith("Invalid JSON"));
+        assertEquals(List.of("Dates must be ISO yyyy-MM-dd: 01/02/1990"), result.getErrors().get(1).getMessages());
+    }
+
+    private PatientImportService service(PatientRepository repository) {
+        return new PatientImportService(repository, cacheInvalidator, patientCountersService, validator,
+                objectMapper, entityManager, transactionManager, CHUNK_SIZE, 100);
+    }
+
+    private String existingPatient() {
+        Patient patient = new Patient();
+        patient.setName("Tom");
+        patient.setEmail(email("tom"));
+        patient.setAddress("1 Test Street");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        patient.setRegisteredDate(LocalDate.now());
+        return patientRepository.save(patient).getEmail();
+    }
+
+    private String email(String name) {
+        return prefix + name + "@example.com";
+    }
+
+    private static String row(String name, String email) {
+        return name + "," + email + ",1 Street,1990-01-01,2024-01-01\n";
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
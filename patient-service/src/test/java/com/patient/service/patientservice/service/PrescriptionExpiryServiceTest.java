@@ -0,0 +1,174 @@
+package com.patient.service.patientservice.service;
+
+import com.patient.service.patientservice.cache.CacheInvalidator;
+import com.patient.service.patientservice.model.MedicalRecord;
+import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.model.Prescription;
+import com.patient.service.patientservice.repository.MedicalRecordRepository;
+import com.patient.service.patientservice.repository.PatientRepository;
+import com.patient.service.patientservice.repository.PrescriptionRepository;
+import com.patient.service.patientservice.repository.PrescriptionRepository.EndedPrescription;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Expiry sweep against H2: more ended prescriptions than one chunk, concurrent status changes
+ * and cache invalidation once each chunk commits
+ */
+@SpringBootTest
+class PrescriptionExpiryServiceTest {
+
+    private static final int CHUNK_SIZE = 3;
+    private static final int ENDED = 7;
+
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+    @Autowired
+    private PatientCountersService patientCountersService;
+    @Autowired
+    private CacheInvalidator cacheInvalidator;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<UUID> ended = new ArrayList<>();
+    private UUID patientId;
+    private UUID recordId;
+    private UUID ongoingId;
+    private UUID completedId;
+
+    @BeforeEach
+    void seed() {
+        Patient patient = new Patient();
+        patient.setName("Expiry Sweep");
+        patient.setEmail("expiry.sweep." + UUID.randomUUID() + "@example.com");
+        patient.setAddress("1 Test Street");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        patient.setRegisteredDate(LocalDate.now());
+        patientId = patientRepository.save(patient).getId();
+        MedicalRecord record = new MedicalRecord(patient, "Complaint", "Dr. Test");
+        record.setRecordDate(LocalDateTime.now());
+        recordId = medicalRecordRepository.save(record).getId();
+
+        for (int i = 0; i < ENDED; i++) {
+            ended.add(save(record, LocalDate.now().minusDays(1 + i), Prescription.PrescriptionStatus.ACTIVE));
+        }
+        ongoingId = save(record, LocalDate.now(), Prescription.PrescriptionStatus.ACTIVE);
+        completedId = save(record, LocalDate.now().minusDays(3), Prescription.PrescriptionStatus.COMPLETED);
+        patientCountersService.reconcile(); // counter row for the seeded patient
+        assertEquals(ENDED + 1, patientCountersService.getCounts(patientId).getActivePrescriptions());
+    }
+
+    @Test
+    void sweepExpiresEndedPrescriptionsChunkByChunk() {
+        Cache prescriptions = cacheManager.getCache("prescriptions");
+        Cache charts = cacheManager.getCache("patient-charts");
+        String listKey = recordId + "-active-prescriptions";
+        String chartKey = patientId + "-chart-2024-01-01-2024-12-31-50";
+        prescriptions.put(listKey, List.of());
+        charts.put(chartKey, "chart");
+        AtomicReference<Boolean> cachedUntilFirstCommit = new AtomicReference<>();
+        PrescriptionRepository repository = mock(PrescriptionRepository.class, delegatesTo(prescriptionRepository));
+        doAnswer(invocation -> {
+            int updated = prescriptionRepository.transitionStatus(invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(2), invocation.getArgument(3));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    cachedUntilFirstCommit.compareAndSet(null, prescriptions.get(listKey) != null);
+                }
+            });
+            return updated;
+        }).when(repository).transitionStatus(any(), any(), any(), any());
+
+        assertEquals(ENDED, sweeper(repository).sweep());
+
+        ended.forEach(id -> assertEquals(Prescription.PrescriptionStatus.EXPIRED, status(id)));
+        assertEquals(Prescription.PrescriptionStatus.ACTIVE, status(ongoingId)); // ends today
+        assertEquals(Prescription.PrescriptionStatus.COMPLETED, status(completedId));
+        assertEquals(1, patientCountersService.getCounts(patientId).getActivePrescriptions());
+        assertEquals(3.0, meterRegistry.counter("prescriptions.expiry.chunks").count()); // 3 + 3 + 1
+        assertEquals(ENDED, meterRegistry.counter("prescriptions.expiry.rows").count());
+        assertTrue(cachedUntilFirstCommit.get(), "invalidated before the chunk committed");
+        assertNull(prescriptions.get(listKey));
+        assertNull(charts.get(chartKey));
+        assertEquals(0, sweeper(prescriptionRepository).sweep());
+    }
+
+    @Test
+    void prescriptionChangedConcurrentlyIsSkipped() {
+        UUID discontinued = ended.get(ended.size() - 1); // oldest end date - in the first chunk
+        PrescriptionRepository repository = mock(PrescriptionRepository.class, delegatesTo(prescriptionRepository));
+        AtomicBoolean changed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            List<EndedPrescription> selected = prescriptionRepository.findEndedPrescriptions(
+                    invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            // An edit commits between the chunk's SELECT and its UPDATE
+            if (changed.compareAndSet(false, true)) {
+                jdbcTemplate.update("UPDATE prescriptions SET status = 'DISCONTINUED' WHERE id = ?", discontinued);
+            }
+            return selected;
+        }).when(repository).findEndedPrescriptions(any(), any(), any());
+
+        assertEquals(ENDED - 1, sweeper(repository).sweep());
+
+        assertEquals(Prescription.PrescriptionStatus.DISCONTINUED, status(discontinued));
+        ended.stream().filter(id -> !id.equals(discontinued))
+                .forEach(id -> assertEquals(Prescription.PrescriptionStatus.EXPIRED, status(id)));
+        // The first chunk left the counter alone; reconciliation settles it
+        patientCountersService.reconcile();
+        assertEquals(1, patientCountersService.getCounts(patientId).getActivePrescriptions());
+    }
+
+    private PrescriptionExpiryService sweeper(PrescriptionRepository repository) {
+        return new PrescriptionExpiryService(repository, cacheInvalidator, patientCountersService,
+                transactionManager, meterRegistry, true, CHUNK_SIZE);
+    }
+
+    private UUID save(MedicalRecord record, LocalDate endDate, Prescription.PrescriptionStatus status) {
+        Prescription prescription = new Prescription(record, "Amoxicillin", "500mg", "3 times daily", "Dr. Test");
+        prescription.setEndDate(endDate);
+        prescription.setStatus(status);
+        return prescriptionRepository.save(prescription).getId();
+    }
+
+    private Prescription.PrescriptionStatus status(UUID prescriptionId) {
+        Prescription prescription = prescriptionRepository.findById(prescriptionId).orElse(null);
+        assertNotNull(prescription);
+        return prescription.getStatus();
+    }
+}
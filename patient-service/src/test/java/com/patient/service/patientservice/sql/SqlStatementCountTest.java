@@ -0,0 +1,138 @@
+package com.patient.service.patientservice.sql;
+
+import com.patient.service.patientservice.model.Allergy;
+import com.patient.service.patientservice.model.Diagnosis;
+import com.patient.service.patientservice.model.MedicalRecord;
+import com.patient.service.patientservice.model.Patient;
+import com.patient.service.patientservice.model.Prescription;
+import com.patient.service.patientservice.repository.AllergyRepository;
+import com.patient.service.patientservice.repository.DiagnosisRepository;
+import com.patient.service.patientservice.repository.MedicalRecordRepository;
+import com.patient.service.patientservice.repository.PatientRepository;
+import com.patient.service.patientservice.repository.PrescriptionRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budget per read endpoint
+ * Several patients, each with allergies and records carrying diagnoses and prescriptions, so a lazy
+ * load per row shows up as extra statements. Caches are cleared before every request.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.patient.service.patientservice.sql.SqlStatementCounter")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "DOCTOR")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlStatementCountTest {
+
+    private static final int PATIENTS = 3;
+    private static final int RECORDS_PER_PATIENT = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private AllergyRepository allergyRepository;
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+    @Autowired
+    private DiagnosisRepository diagnosisRepository;
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private final List<UUID> patientIds = new ArrayList<>();
+    private UUID recordId;
+
+    @BeforeAll
+    void seed() {
+        for (int p = 0; p < PATIENTS; p++) {
+            Patient patient = new Patient();
+            patient.setName("Statement Count " + p);
+            patient.setEmail("statement.count." + p + "@example.com");
+            patient.setAddress("1 Test Street");
+            patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+            patient.setRegisteredDate(LocalDate.now());
+            patient = patientRepository.save(patient);
+            patientIds.add(patient.getId());
+
+            Allergy allergy = new Allergy(patient, "Penicillin", Allergy.AllergyType.MEDICATION);
+            allergy.setSeverity(Allergy.AllergySeverity.SEVERE);
+            allergyRepository.save(allergy);
+            allergyRepository.save(new Allergy(patient, "Peanuts", Allergy.AllergyType.FOOD));
+
+            for (int r = 0; r < RECORDS_PER_PATIENT; r++) {
+                MedicalRecord record = new MedicalRecord(patient, "Complaint " + r, "Dr. Test");
+                record.setRecordDate(LocalDateTime.now().minusDays(r));
+                record = medicalRecordRepository.save(record);
+                recordId = record.getId();
+                diagnosisRepository.save(new Diagnosis(record, "J45.0", "Asthma"));
+                diagnosisRepository.save(new Diagnosis(record, "I10", "Hypertension"));
+                prescriptionRepository.save(new Prescription(record, "Salbutamol", "100mcg", "As needed", "Dr. Test"));
+                prescriptionRepository.save(new Prescription(record, "Amlodipine", "5mg", "Once daily", "Dr. Test"));
+            }
+        }
+    }
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void allMedicalRecords() throws Exception {
+        assertStatements(1, "/medical-records");
+    }
+
+    @Test
+    void medicalRecordsByPatient() throws Exception {
+        assertStatements(2, "/medical-records/patient/" + patientIds.get(0));
+    }
+
+    @Test
+    void allergiesByPatient() throws Exception {
+        assertStatements(2, "/patients/" + patientIds.get(0) + "/allergies");
+        assertStatements(2, "/patients/" + patientIds.get(0) + "/allergies/active");
+        assertStatements(2, "/patients/" + patientIds.get(0) + "/allergies/severe");
+    }
+
+    @Test
+    void diagnosesAndPrescriptionsByRecord() throws Exception {
+        assertStatements(2, "/medical-records/" + recordId + "/diagnoses");
+        assertStatements(2, "/medical-records/" + recordId + "/prescriptions");
+        assertStatements(2, "/medical-records/" + recordId + "/prescriptions/active");
+    }
+
+    @Test
+    void patientChart() throws Exception {
+        assertStatements(5, "/patients/" + patientIds.get(0) + "/chart");
+    }
+
+    private void assertStatements(int budget, String url) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        int statements = SqlStatementCounter.count();
+        assertTrue(statements <= budget,
+                "GET " + url + " ran " + statements + " SQL statements, budget is " + budget);
+    }
+}
@@ -0,0 +1,29 @@
+package com.patient.service.patientservice.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts every SQL statement Hibernate prepares
+ * Registered through hibernate.session_factory.statement_inspector; Hibernate creates the
+ * instance itself, so the count is static.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public String inspect(String sql) {
+        count.incrementAndGet();
+        return sql;
+    }
+
+    public static void reset() {
+        count.set(0);
+    }
+
+    public static int count() {
+        return count.get();
+    }
+}
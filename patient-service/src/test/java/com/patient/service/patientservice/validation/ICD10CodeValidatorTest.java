@@ -0,0 +1,97 @@
+package com.patient.service.patientservice.validation;
+
+import com.patient.service.patientservice.catalog.ICD10Catalog;
+import jakarta.validation.ConstraintValidatorContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hand-written ICD-10 parser against the regex check it replaced (catalog check off)
+ */
+class ICD10CodeValidatorTest {
+
+    // The previous implementation: trim, upper-case, regex, then chapter lookup
+    private static final Pattern LEGACY_FORMAT = Pattern.compile("^[A-Z]\\d[0-9A-Z](\\.[0-9A-Z]{1,4})?$");
+
+    private final ICD10CodeValidator validator = validator(false);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"A00", "S72.001A", "s72.001a", "t78.02Xa", " I10 ", "O9A.1", "C4A.0",
+            "T36.0X1A", "U07.1", "Z99.89", "M79.3"})
+    void acceptsValidCodes(String code) {
+        assertTrue(legacyValid(code));
+        assertTrue(isValid(validator, code));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"   ", "A00.", "A00.12345", "S72.001AB", "1A0", ".A00", "A0", "AA0", "A001",
+            "A00-1", "A00..1", "A0 0", "A00. 1", "É00", "D4A", "U86", "D90"})
+    void rejectsInvalidCodes(String code) {
+        assertFalse(legacyValid(code));
+        assertFalse(isValid(validator, code));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "\t"})
+    void emptyIsAcceptedOnlyWhenAllowed(String code) {
+        assertTrue(isValid(validator(true), code));
+        assertFalse(isValid(validator(false), code));
+    }
+
+    @Test
+    void agreesWithLegacyRegexOnRandomAsciiInput() {
+        Random random = new Random(14);
+        String alphabet = "AaOoTtZzUu0123789.X -";
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder code = new StringBuilder();
+            int length = random.nextInt(11);
+            for (int j = 0; j < length; j++) {
+                code.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = code.toString();
+            assertEquals(legacyValid(input), isValid(validator, input), "'" + input + "'");
+        }
+    }
+
+    @Test
+    void onlyAsciiLettersStartACode() {
+        // The old toUpperCase() turned a dotless i into 'I' and so accepted it; the parser is ASCII-only
+        assertFalse(isValid(validator, "ı10"));
+    }
+
+    private static boolean legacyValid(String code) {
+        if (code == null || code.trim().isEmpty()) {
+            return false;
+        }
+        String upper = code.trim().toUpperCase(Locale.ROOT);
+        return LEGACY_FORMAT.matcher(upper).matches()
+                && ICD10Catalog.chapterIndex(ICD10Catalog.normalize(upper)) >= 0;
+    }
+
+    private static boolean isValid(ICD10CodeValidator validator, String code) {
+        return validator.isValid(code, mock(ConstraintValidatorContext.class, RETURNS_DEEP_STUBS));
+    }
+
+    private static ICD10CodeValidator validator(boolean allowEmpty) {
+        ValidICD10Code annotation = mock(ValidICD10Code.class);
+        when(annotation.allowEmpty()).thenReturn(allowEmpty);
+        ICD10CodeValidator validator = new ICD10CodeValidator();
+        validator.initialize(annotation);
+        return validator;
+    }
+}